@@ -14,12 +14,15 @@ package ai.djl;
 
 import ai.djl.engine.Engine;
 import ai.djl.inference.Predictor;
+import ai.djl.metric.Metrics;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Block;
+import ai.djl.training.CheckpointWriter;
 import ai.djl.training.Trainer;
 import ai.djl.training.TrainingConfig;
+import ai.djl.training.dataset.Dataset;
 import ai.djl.translate.Translator;
 import ai.djl.util.PairList;
 import java.io.IOException;
@@ -27,6 +30,8 @@ import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 /**
@@ -114,6 +119,29 @@ public interface Model extends AutoCloseable {
      */
     void save(Path modelPath, String modelName) throws IOException;
 
+    /**
+     * Saves the model to the specified {@code modelPath} with the name provided, without waiting
+     * for the file to be written.
+     *
+     * <p>The parameters of the model are copied on their device before this method returns, so
+     * they can keep being updated while the checkpoint is written by the {@link CheckpointWriter}.
+     * The file is the same as the one written by {@link #save(Path, String)}.
+     *
+     * <p>By default, the model is saved with {@link #save(Path, String)} before this method
+     * returns, and the {@link Future} holds the {@code modelPath}.
+     *
+     * @param modelPath the directory of the model location
+     * @param modelName the model file name
+     * @param writer the {@link CheckpointWriter} that writes the file
+     * @return a {@link Future} of the path of the saved file
+     * @throws IOException when IO operation fails in preparing the model location
+     */
+    default Future<Path> save(Path modelPath, String modelName, CheckpointWriter writer)
+            throws IOException {
+        save(modelPath, modelName);
+        return CompletableFuture.completedFuture(modelPath);
+    }
+
     /**
      * Gets the block from the Model.
      *
@@ -261,7 +289,9 @@ public interface Model extends AutoCloseable {
     /**
      * Casts the model to support a different precision level.
      *
-     * <p>For example, you can cast the precision from Float to Int
+     * <p>For example, you can cast the precision from {@link DataType#FLOAT32} to {@link
+     * DataType#FLOAT16} to halve the memory used by the parameters. The parameters are saved with
+     * their new data type.
      *
      * @param dataType the target dataType you would like to cast to
      */
@@ -278,6 +308,37 @@ public interface Model extends AutoCloseable {
         throw new UnsupportedOperationException("Not implemented yet");
     }
 
+    /**
+     * Converts the model to use a lower precision quantized network, calibrated with a dataset.
+     *
+     * <p>The weights are quantized to int8, and the range of the intermediate outputs of the
+     * network is measured by running it on the calibration dataset, which should be a small
+     * representative sample of the inference data. The quantized model is saved and loaded like
+     * any other model.
+     *
+     * @param calibrationDataset the dataset used to calibrate the quantized network
+     */
+    default void quantize(Dataset calibrationDataset) {
+        throw new UnsupportedOperationException("Not implemented yet");
+    }
+
+    /**
+     * Prepares the model for inference by running its block on inputs filled with zeros.
+     *
+     * <p>The first forward pass of a block is much slower than the next ones, because the engine
+     * creates the graph and plans its memory. Warming up the model after it is loaded keeps this
+     * cost out of the first predictions. When the block pads its inputs to shape buckets, a
+     * forward pass is run for each bucket.
+     *
+     * @param inputShapes the shapes of the inputs, or none to use the shapes of {@link
+     *     #describeInput()}
+     * @return the {@link Metrics} with the time of each forward pass, named "WarmUp"
+     * @throws IllegalArgumentException if the shapes of the inputs are unknown
+     */
+    default Metrics warmUp(Shape... inputShapes) {
+        throw new UnsupportedOperationException("Not implemented yet");
+    }
+
     /** {@inheritDoc} */
     @Override
     void close();
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.engine;
+
+/**
+ * A {@code CpuExecutionPolicy} partitions the CPU cores among concurrent inference workers.
+ *
+ * <p>Each of the workers, usually a thread running its own {@link ai.djl.inference.Predictor},
+ * gets its own set of cores, and runs its operators with as many threads as it has cores. This
+ * avoids starting a full team of threads for each worker, which oversubscribes the cores when the
+ * workers run at the same time. Fewer workers with more threads each favor latency, while more
+ * workers with fewer threads each favor throughput.
+ *
+ * <p>The policy is set with {@link Engine#setCpuExecutionPolicy(CpuExecutionPolicy)}, and applied
+ * by each worker thread with {@link Engine#bindWorkerThread(int)}.
+ */
+public class CpuExecutionPolicy {
+
+    private int workers;
+    private int intraOpThreads;
+    private int firstCore;
+    private int cores;
+    private boolean pinThreads;
+    private int bulkSize;
+
+    /**
+     * Creates a new instance of {@code CpuExecutionPolicy}.
+     *
+     * @param builder the builder to create a new instance of {@code CpuExecutionPolicy}
+     */
+    public CpuExecutionPolicy(Builder builder) {
+        workers = builder.workers;
+        firstCore = builder.firstCore;
+        cores = builder.cores;
+        pinThreads = builder.pinThreads;
+        bulkSize = builder.bulkSize;
+        intraOpThreads = builder.intraOpThreads;
+        if (intraOpThreads == 0) {
+            intraOpThreads = Math.max(1, cores / workers);
+        }
+    }
+
+    /**
+     * Returns the number of concurrent workers.
+     *
+     * @return the number of concurrent workers
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Returns the number of threads used by the operators of each worker.
+     *
+     * @return the number of threads used by the operators of each worker
+     */
+    public int getIntraOpThreads() {
+        return intraOpThreads;
+    }
+
+    /**
+     * Returns whether the threads of the workers are pinned to their cores.
+     *
+     * @return {@code true} if the threads of the workers are pinned to their cores
+     */
+    public boolean isPinThreads() {
+        return pinThreads;
+    }
+
+    /**
+     * Returns the number of operators that the engine may bulk together, or 0 to keep the default
+     * of the engine.
+     *
+     * @return the number of operators that the engine may bulk together
+     */
+    public int getBulkSize() {
+        return bulkSize;
+    }
+
+    /**
+     * Returns the cores assigned to a worker.
+     *
+     * <p>When there are more workers than cores, the workers share the cores in turn.
+     *
+     * @param worker the index of the worker
+     * @return the indices of the cores assigned to the worker
+     * @throws IllegalArgumentException if the worker index is out of range
+     */
+    public int[] getCores(int worker) {
+        if (worker < 0 || worker >= workers) {
+            throw new IllegalArgumentException(
+                    "Worker "
+                            + worker
+                            + " is out of range, the policy has "
+                            + workers
+                            + " workers");
+        }
+        int[] assigned = new int[intraOpThreads];
+        for (int i = 0; i < intraOpThreads; ++i) {
+            assigned[i] = firstCore + (worker * intraOpThreads + i) % cores;
+        }
+        return assigned;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "CpuExecutionPolicy(workers: "
+                + workers
+                + ", intraOpThreads: "
+                + intraOpThreads
+                + ", pinThreads: "
+                + pinThreads
+                + ')';
+    }
+
+    /** The Builder to construct a {@link CpuExecutionPolicy} object. */
+    public static final class Builder {
+
+        private int workers = 1;
+        private int intraOpThreads;
+        private int cores = Runtime.getRuntime().availableProcessors();
+        private int firstCore;
+        private boolean pinThreads;
+        private int bulkSize;
+
+        /**
+         * Sets the number of concurrent workers.
+         *
+         * @param workers the number of concurrent workers
+         * @return this {@code Builder}
+         */
+        public Builder setWorkers(int workers) {
+            if (workers < 1) {
+                throw new IllegalArgumentException("workers should be larger or equal to 1");
+            }
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads used by the operators of each worker.
+         *
+         * <p>By default, the available cores are divided evenly among the workers.
+         *
+         * @param intraOpThreads the number of threads used by the operators of each worker
+         * @return this {@code Builder}
+         */
+        public Builder optIntraOpThreads(int intraOpThreads) {
+            if (intraOpThreads < 1) {
+                throw new IllegalArgumentException("intraOpThreads should be larger or equal to 1");
+            }
+            this.intraOpThreads = intraOpThreads;
+            return this;
+        }
+
+        /**
+         * Sets the range of cores to partition, for example to leave the first cores to other
+         * processes.
+         *
+         * @param firstCore the index of the first core to use
+         * @param cores the number of cores to use
+         * @return this {@code Builder}
+         */
+        public Builder optCores(int firstCore, int cores) {
+            if (firstCore < 0 || cores < 1) {
+                throw new IllegalArgumentException("Invalid range of cores");
+            }
+            this.firstCore = firstCore;
+            this.cores = cores;
+            return this;
+        }
+
+        /**
+         * Sets whether the threads of each worker are pinned to the cores of the worker.
+         *
+         * <p>Pinning keeps the caches of the cores warm, but should only be used when the process
+         * owns the cores.
+         *
+         * @param pinThreads whether to pin the threads of the workers to their cores
+         * @return this {@code Builder}
+         */
+        public Builder optPinThreads(boolean pinThreads) {
+            this.pinThreads = pinThreads;
+            return this;
+        }
+
+        /**
+         * Sets the number of operators that the engine may bulk together and run without
+         * synchronization between them.
+         *
+         * @param bulkSize the number of operators to bulk, or 0 to keep the engine default
+         * @return this {@code Builder}
+         */
+        public Builder optBulkSize(int bulkSize) {
+            if (bulkSize < 0) {
+                throw new IllegalArgumentException("bulkSize should not be negative");
+            }
+            this.bulkSize = bulkSize;
+            return this;
+        }
+
+        /**
+         * Builds a {@link CpuExecutionPolicy} with the specified values.
+         *
+         * @return a new instance of {@link CpuExecutionPolicy}
+         * @throws IllegalArgumentException if the workers need more cores than the available ones
+         */
+        public CpuExecutionPolicy build() {
+            if (intraOpThreads > 0 && workers * intraOpThreads > cores) {
+                throw new IllegalArgumentException(
+                        workers
+                                + " workers with "
+                                + intraOpThreads
+                                + " threads need more than the "
+                                + cores
+                                + " available cores");
+            }
+            return new CpuExecutionPolicy(this);
+        }
+    }
+}
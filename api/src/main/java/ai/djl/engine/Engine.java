@@ -14,13 +14,16 @@ package ai.djl.engine;
 
 import ai.djl.Device;
 import ai.djl.Model;
+import ai.djl.metric.Metrics;
 import ai.djl.ndarray.NDManager;
 import java.lang.management.MemoryUsage;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +44,8 @@ public abstract class Engine {
 
     private static final Engine ENGINE = initEngine();
 
+    private AtomicReference<CpuExecutionPolicy> cpuExecutionPolicy = new AtomicReference<>();
+
     private static synchronized Engine initEngine() {
         ServiceLoader<EngineProvider> loaders = ServiceLoader.load(EngineProvider.class);
         List<EngineProvider> list = new ArrayList<>();
@@ -54,6 +59,16 @@ public abstract class Engine {
             return null;
         }
 
+        String defaultEngine = System.getProperty("ai.djl.default_engine");
+        if (defaultEngine != null) {
+            Engine engine = ALL_ENGINES.get(defaultEngine);
+            if (engine != null) {
+                logger.debug("Loading ML engine from: {}", engine.getClass());
+                return engine;
+            }
+            logger.warn("Default engine {} not found in class path.", defaultEngine);
+        }
+
         if (list.size() > 1) {
             logger.warn("More than one deep learning engines found.");
         }
@@ -73,6 +88,9 @@ public abstract class Engine {
     /**
      * Returns the default Engine.
      *
+     * <p>The default engine is the one named by the {@code ai.djl.default_engine} system property,
+     * or the first engine found in the class path.
+     *
      * @return the instance of {@code Engine}
      * @see EngineProvider
      */
@@ -152,4 +170,99 @@ public abstract class Engine {
      * @return a new top-level {@code NDManager}
      */
     public abstract NDManager newBaseManager(Device device);
+
+    /**
+     * Returns whether the operations of the current thread are recorded to compute gradients.
+     *
+     * @return {@code true} if the operations are recorded to compute gradients
+     */
+    public boolean isGradientRecording() {
+        return false;
+    }
+
+    /**
+     * Sets whether the operations of the current thread are recorded to compute gradients.
+     *
+     * <p>This is normally managed by a {@link ai.djl.training.GradientCollector}. It lets a block
+     * run part of a training forward pass without keeping what the backward pass would need.
+     *
+     * @param recording whether to record the operations
+     * @return the previous recording state
+     * @throws UnsupportedOperationException if the recording is enabled and the engine does not
+     *     support training
+     */
+    public boolean setGradientRecording(boolean recording) {
+        if (recording) {
+            throw new UnsupportedOperationException(
+                    "Training is not supported by " + getEngineName());
+        }
+        return false;
+    }
+
+    /**
+     * Returns the policy that partitions the CPU cores among concurrent workers.
+     *
+     * @return the {@link CpuExecutionPolicy}, or {@code null} if none is set
+     */
+    public CpuExecutionPolicy getCpuExecutionPolicy() {
+        return cpuExecutionPolicy.get();
+    }
+
+    /**
+     * Sets the policy that partitions the CPU cores among concurrent workers.
+     *
+     * <p>The settings of the policy that are global to the engine are applied immediately. Each
+     * worker thread then applies its own settings by calling {@link #bindWorkerThread(int)}.
+     *
+     * @param policy the {@link CpuExecutionPolicy}
+     */
+    public void setCpuExecutionPolicy(CpuExecutionPolicy policy) {
+        cpuExecutionPolicy.set(policy);
+    }
+
+    /**
+     * Applies the {@link CpuExecutionPolicy} of a worker to the current thread.
+     *
+     * <p>This is usually called once by each worker thread, before it creates its {@link
+     * ai.djl.inference.Predictor}.
+     *
+     * @param worker the index of the worker
+     * @throws IllegalStateException if no {@link CpuExecutionPolicy} is set
+     * @throws IllegalArgumentException if the worker index is out of range
+     * @throws UnsupportedOperationException if the engine does not support CPU execution policies
+     */
+    public void bindWorkerThread(int worker) {
+        throw new UnsupportedOperationException(
+                "CPU execution policies are not supported by " + getEngineName());
+    }
+
+    /**
+     * Starts profiling the operators run by the engine.
+     *
+     * <p>While the profiler is running, the engine records the time and memory used by each
+     * operator, in every thread. The statistics are collected by {@link #stopProfiling(Metrics)}.
+     *
+     * @param traceFile the file where the trace of the operators is written, in the Chrome tracing
+     *     format, or {@code null} to only collect the statistics
+     * @throws IllegalStateException if the profiler is already running
+     * @throws UnsupportedOperationException if the engine does not support profiling
+     */
+    public void startProfiling(Path traceFile) {
+        throw new UnsupportedOperationException("Profiling is not supported by " + getEngineName());
+    }
+
+    /**
+     * Stops profiling the operators, and adds the statistics of each operator to the metrics.
+     *
+     * <p>For each operator, the metrics named {@code <operator>.Count}, {@code <operator>.Total},
+     * {@code <operator>.Avg}, {@code <operator>.Min} and {@code <operator>.Max} are added. The
+     * memory used on each device is reported in the same way.
+     *
+     * @param metrics the {@link Metrics} to add the statistics to
+     * @throws IllegalStateException if the profiler is not running
+     * @throws UnsupportedOperationException if the engine does not support profiling
+     */
+    public void stopProfiling(Metrics metrics) {
+        throw new UnsupportedOperationException("Profiling is not supported by " + getEngineName());
+    }
 }
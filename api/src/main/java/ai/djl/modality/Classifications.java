@@ -13,13 +13,15 @@
 package ai.djl.modality;
 
 import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.types.DataType;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
 
 /**
  * {@code Classifications} is the container that stores the classification results for
@@ -45,15 +47,43 @@ public class Classifications {
      * Constructs a {@code Classifications} using list of classNames parallel to an NDArray of
      * probabilities.
      *
+     * <p>The probabilities are copied at once, and the classification items are only created when
+     * they are requested.
+     *
      * @param classNames the names of the classes
      * @param probabilities the probabilities for each class for the input
      */
     public Classifications(List<String> classNames, NDArray probabilities) {
         this.classNames = classNames;
-        NDArray array = probabilities.asType(DataType.FLOAT64, false);
-        this.probabilities =
-                Arrays.stream(array.toDoubleArray()).boxed().collect(Collectors.toList());
-        array.close();
+        try (NDArray array = probabilities.asType(DataType.FLOAT64, false)) {
+            this.probabilities = new DoubleList(array.toDoubleArray());
+        }
+    }
+
+    /**
+     * Constructs a {@code Classifications} with the {@code k} most likely classes of an NDArray of
+     * probabilities.
+     *
+     * <p>The most likely classes are selected by the engine, so only {@code k} probabilities and
+     * indices are copied from the {@code NDArray}. This is much cheaper than copying all the
+     * probabilities when there are many classes. The {@code Classifications} only contains the
+     * selected classes, from the most likely to the least likely.
+     *
+     * @param classNames the names of the classes
+     * @param probabilities the probabilities for each class for the input
+     * @param k the number of the most likely classes to keep
+     * @see NDArray#topK(int, int)
+     */
+    public Classifications(List<String> classNames, NDArray probabilities, int k) {
+        try (NDList top = probabilities.topK(k, -1);
+                NDArray values = top.get(0).asType(DataType.FLOAT64, false)) {
+            int[] indices = top.get(1).toIntArray();
+            this.classNames = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                this.classNames.add(classNames.get(index));
+            }
+            this.probabilities = new DoubleList(values.toDoubleArray());
+        }
     }
 
     /**
@@ -91,10 +121,31 @@ public class Classifications {
      * @return the list of classification items for the best classes in order of best to worst
      */
     public <T extends Classification> List<T> topK(int k) {
-        List<T> items = items();
-        items.sort(Comparator.comparingDouble(Classification::getProbability).reversed());
-        int count = Math.min(items.size(), k);
-        return items.subList(0, count);
+        int count = Math.min(classNames.size(), k);
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+        // keeps the best classes in a min-heap, the first one wins between equal probabilities
+        Comparator<Integer> comparator =
+                (a, b) -> {
+                    int result = Double.compare(probabilities.get(a), probabilities.get(b));
+                    return result != 0 ? result : Integer.compare(b, a);
+                };
+        PriorityQueue<Integer> heap = new PriorityQueue<>(count, comparator);
+        for (int i = 0; i < classNames.size(); ++i) {
+            if (heap.size() < count) {
+                heap.add(i);
+            } else if (comparator.compare(i, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        List<T> list = new ArrayList<>(count);
+        while (!heap.isEmpty()) {
+            list.add(item(heap.poll()));
+        }
+        Collections.reverse(list);
+        return list;
     }
 
     /**
@@ -104,7 +155,13 @@ public class Classifications {
      * @return the classification item
      */
     public <T extends Classification> T best() {
-        return item(probabilities.indexOf(Collections.max(probabilities)));
+        int best = 0;
+        for (int i = 1; i < probabilities.size(); ++i) {
+            if (probabilities.get(i) > probabilities.get(best)) {
+                best = i;
+            }
+        }
+        return item(best);
     }
 
     /**
@@ -136,6 +193,28 @@ public class Classifications {
         return sb.toString();
     }
 
+    /** A read-only list view of the probabilities, which only boxes the requested ones. */
+    private static final class DoubleList extends AbstractList<Double> implements RandomAccess {
+
+        private double[] values;
+
+        DoubleList(double[] values) {
+            this.values = values;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Double get(int index) {
+            return values[index];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
     /**
      * A {@code Classification} stores the classification result for a single class on a single
      * input.
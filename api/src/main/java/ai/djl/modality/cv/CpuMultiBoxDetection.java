@@ -0,0 +1,237 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.cv;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.types.Shape;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The Java implementation of {@link MultiBoxDetection}, which runs on the CPU.
+ *
+ * <p>The boxes of each image are decoded in parallel, and the non-maximum suppression runs in
+ * parallel for each class of each image. The detections are computed with primitive arrays, and
+ * copied back to the engine at once.
+ */
+final class CpuMultiBoxDetection {
+
+    // the default variances of the box offsets of MXNet
+    private static final float[] VARIANCES = {0.1f, 0.1f, 0.2f, 0.2f};
+
+    private boolean clip;
+    private float threshold;
+    private int backgroundId;
+    private float nmsThreshold;
+    private boolean forceSuppress;
+    private int nmsTopK;
+
+    private int numClasses;
+    private int numAnchors;
+    private float[] classProbs;
+    private float[] offsetPreds;
+    private float[] anchors;
+    private float[] detections;
+    private int[] classIds;
+    private int[] counts;
+    private boolean[] suppressed;
+
+    CpuMultiBoxDetection(
+            boolean clip,
+            float threshold,
+            int backgroundId,
+            float nmsThreshold,
+            boolean forceSuppress,
+            int nmsTopK) {
+        this.clip = clip;
+        this.threshold = threshold;
+        this.backgroundId = backgroundId;
+        this.nmsThreshold = nmsThreshold;
+        this.forceSuppress = forceSuppress;
+        this.nmsTopK = nmsTopK;
+    }
+
+    /**
+     * Converts multi-box detection predictions.
+     *
+     * @param inputs a NDList of (class probabilities, box predictions, and anchors) in that order
+     * @return an {@link NDList} with the detections in the same format as {@link
+     *     MultiBoxDetection#detection(NDList)}
+     */
+    NDList detection(NDList inputs) {
+        NDArray classProbArray = inputs.get(0);
+        Shape shape = classProbArray.getShape();
+        int batchSize = (int) shape.get(0);
+        numClasses = (int) shape.get(1);
+        numAnchors = (int) shape.get(2);
+        classProbs = classProbArray.toFloatArray();
+        offsetPreds = inputs.get(1).toFloatArray();
+        anchors = inputs.get(2).toFloatArray();
+
+        detections = new float[batchSize * numAnchors * 6];
+        Arrays.fill(detections, -1);
+        classIds = new int[batchSize * numAnchors];
+        counts = new int[batchSize];
+        suppressed = new boolean[batchSize * numAnchors];
+
+        IntStream.range(0, batchSize).parallel().forEach(this::decode);
+        if (nmsThreshold > 0 && nmsThreshold <= 1) {
+            // the detections of different classes do not suppress each other
+            int groups = forceSuppress ? 1 : numClasses;
+            IntStream.range(0, batchSize * groups)
+                    .parallel()
+                    .forEach(i -> suppress(i / groups, forceSuppress ? -1 : i % groups));
+        }
+        for (int i = 0; i < suppressed.length; ++i) {
+            if (suppressed[i]) {
+                detections[i * 6] = -1;
+            }
+        }
+
+        NDArray result =
+                classProbArray
+                        .getManager()
+                        .create(detections, new Shape(batchSize, numAnchors, 6));
+        return new NDList(result);
+    }
+
+    /**
+     * Selects the class of each anchor of an image, and decodes the boxes above the threshold
+     * from the most to the least likely.
+     *
+     * @param image the index of the image in the batch
+     */
+    private void decode(int image) {
+        int probOffset = image * numClasses * numAnchors;
+        long[] keys = new long[numAnchors];
+        float[] scores = new float[numAnchors];
+        int[] ids = new int[numAnchors];
+        int valid = 0;
+        for (int i = 0; i < numAnchors; ++i) {
+            float score = -1;
+            int id = -1;
+            for (int j = 0; j < numClasses; ++j) {
+                float prob = classProbs[probOffset + j * numAnchors + i];
+                if (j != backgroundId && prob > score) {
+                    score = prob;
+                    id = j;
+                }
+            }
+            if (id >= 0 && score >= threshold) {
+                scores[i] = score;
+                // the class ids exclude the background
+                ids[i] = backgroundId >= 0 && id > backgroundId ? id - 1 : id;
+                keys[valid++] = sortKey(score, i);
+            }
+        }
+        Arrays.sort(keys, 0, valid);
+
+        int keep = nmsTopK > 0 ? Math.min(nmsTopK, valid) : valid;
+        int base = image * numAnchors;
+        for (int j = 0; j < valid; ++j) {
+            int i = (int) keys[j];
+            int row = (base + j) * 6;
+            // the detections after the top k are suppressed
+            classIds[base + j] = j < keep ? ids[i] : -1;
+            detections[row] = classIds[base + j];
+            detections[row + 1] = scores[i];
+            decodeBox(i, image * numAnchors * 4 + i * 4, row + 2);
+        }
+        counts[image] = keep;
+    }
+
+    /**
+     * Suppresses the detections of an image that overlap a more likely detection of the same
+     * class.
+     *
+     * @param image the index of the image in the batch
+     * @param classId the class to suppress, or -1 for all the classes
+     */
+    private void suppress(int image, int classId) {
+        int base = image * numAnchors;
+        int count = counts[image];
+        int[] kept = new int[count];
+        int numKept = 0;
+        for (int j = 0; j < count; ++j) {
+            int id = classIds[base + j];
+            if (id < 0 || (classId >= 0 && id != classId)) {
+                continue;
+            }
+            int box = (base + j) * 6 + 2;
+            boolean keep = true;
+            for (int k = 0; k < numKept; ++k) {
+                if (iou(kept[k], box) >= nmsThreshold) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                kept[numKept++] = box;
+            } else {
+                suppressed[base + j] = true;
+            }
+        }
+    }
+
+    private void decodeBox(int anchor, int offset, int dest) {
+        float left = anchors[anchor * 4];
+        float top = anchors[anchor * 4 + 1];
+        float right = anchors[anchor * 4 + 2];
+        float bottom = anchors[anchor * 4 + 3];
+        float width = right - left;
+        float height = bottom - top;
+        float x = offsetPreds[offset] * VARIANCES[0] * width + (left + right) / 2;
+        float y = offsetPreds[offset + 1] * VARIANCES[1] * height + (top + bottom) / 2;
+        float halfWidth = (float) Math.exp(offsetPreds[offset + 2] * VARIANCES[2]) * width / 2;
+        float halfHeight = (float) Math.exp(offsetPreds[offset + 3] * VARIANCES[3]) * height / 2;
+        detections[dest] = clip(x - halfWidth);
+        detections[dest + 1] = clip(y - halfHeight);
+        detections[dest + 2] = clip(x + halfWidth);
+        detections[dest + 3] = clip(y + halfHeight);
+    }
+
+    private float clip(float value) {
+        return clip ? Math.max(0, Math.min(1, value)) : value;
+    }
+
+    private float iou(int a, int b) {
+        float[] boxes = detections;
+        float left = Math.max(boxes[a], boxes[b]);
+        float top = Math.max(boxes[a + 1], boxes[b + 1]);
+        float right = Math.min(boxes[a + 2], boxes[b + 2]);
+        float bottom = Math.min(boxes[a + 3], boxes[b + 3]);
+        float intersection = Math.max(0, right - left) * Math.max(0, bottom - top);
+        float union =
+                (boxes[a + 2] - boxes[a]) * (boxes[a + 3] - boxes[a + 1])
+                        + (boxes[b + 2] - boxes[b]) * (boxes[b + 3] - boxes[b + 1])
+                        - intersection;
+        return union <= 0 ? 0 : intersection / union;
+    }
+
+    /**
+     * Returns a key that sorts the anchors by descending score, then by ascending index.
+     *
+     * @param score the score of the anchor
+     * @param index the index of the anchor
+     * @return the sort key, with the index in the lower 32 bits
+     */
+    private static long sortKey(float score, int index) {
+        int bits = Float.floatToIntBits(score);
+        // orders the floats as signed integers
+        int sortable = bits >= 0 ? bits : bits ^ Integer.MAX_VALUE;
+        long descending = (long) Integer.MAX_VALUE - sortable;
+        // flips the sign bit to sort the unsigned keys as signed ones
+        return ((descending << 32) | index) ^ Long.MIN_VALUE;
+    }
+}
@@ -26,6 +26,7 @@ import java.util.List;
 public class ImageClassificationTranslator extends ImageTranslator<Classifications> {
 
     private String synsetArtifactName;
+    private int topK;
 
     /**
      * Constructs an Image Classification using {@link Builder}.
@@ -35,6 +36,7 @@ public class ImageClassificationTranslator extends ImageTranslator<Classificatio
     public ImageClassificationTranslator(Builder builder) {
         super(builder);
         this.synsetArtifactName = builder.synsetArtifactName;
+        this.topK = builder.topK;
     }
 
     /** {@inheritDoc} */
@@ -44,6 +46,9 @@ public class ImageClassificationTranslator extends ImageTranslator<Classificatio
 
         NDArray probabilitiesNd = list.singletonOrThrow().softmax(0);
         List<String> synset = model.getArtifact(synsetArtifactName, Utils::readLines);
+        if (topK > 0) {
+            return new Classifications(synset, probabilitiesNd, topK);
+        }
         return new Classifications(synset, probabilitiesNd);
     }
 
@@ -51,6 +56,7 @@ public class ImageClassificationTranslator extends ImageTranslator<Classificatio
     public static class Builder extends BaseBuilder<Builder> {
 
         private String synsetArtifactName;
+        private int topK;
 
         /**
          * Sets the name of the synset file listing the potential classes for an image.
@@ -63,6 +69,24 @@ public class ImageClassificationTranslator extends ImageTranslator<Classificatio
             return this;
         }
 
+        /**
+         * Sets the number of the most likely classes to keep in the {@link Classifications}.
+         *
+         * <p>Only these classes are copied from the engine, which saves copying and sorting all
+         * the probabilities for models with many classes. By default, all the classes are kept.
+         *
+         * @param topK the number of the most likely classes to keep
+         * @return the builder
+         * @see Classifications#Classifications(List, NDArray, int)
+         */
+        public Builder optTopK(int topK) {
+            if (topK < 1) {
+                throw new IllegalArgumentException("topK should be larger or equal to 1");
+            }
+            this.topK = topK;
+            return this;
+        }
+
         /** {@inheritDoc} */
         @Override
         protected Builder self() {
@@ -17,7 +17,6 @@ import ai.djl.modality.cv.util.NDImageUtils;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.types.Shape;
-import ai.djl.translate.Pipeline;
 import ai.djl.translate.Transform;
 import ai.djl.translate.TranslatorContext;
 import ai.djl.util.Utils;
@@ -38,9 +37,6 @@ public class InstanceSegmentationTranslator extends ImageTranslator<DetectedObje
     private int shortEdge;
     private int maxEdge;
 
-    private int rescaledWidth;
-    private int rescaledHeight;
-
     /**
      * Creates the Instance Segmentation translator from the given builder.
      *
@@ -52,6 +48,7 @@ public class InstanceSegmentationTranslator extends ImageTranslator<DetectedObje
         this.threshold = builder.threshold;
         this.shortEdge = builder.shortEdge;
         this.maxEdge = builder.maxEdge;
+        getPipeline().insert(0, null, this);
     }
 
     /** {@inheritDoc} */
@@ -63,10 +60,11 @@ public class InstanceSegmentationTranslator extends ImageTranslator<DetectedObje
     /** {@inheritDoc} */
     @Override
     public NDList processInput(TranslatorContext ctx, BufferedImage image) {
-        Pipeline pipeline = getPipeline();
-        pipeline.insert(0, null, this);
+        int[] rescaled = getRescaledSize(image.getWidth(), image.getHeight());
         ctx.setAttachment("originalHeight", image.getHeight());
         ctx.setAttachment("originalWidth", image.getWidth());
+        ctx.setAttachment("rescaledWidth", rescaled[0]);
+        ctx.setAttachment("rescaledHeight", rescaled[1]);
         return super.processInput(ctx, image);
     }
 
@@ -76,10 +74,20 @@ public class InstanceSegmentationTranslator extends ImageTranslator<DetectedObje
         Model model = ctx.getModel();
         List<String> classes = model.getArtifact(synsetArtifactName, Utils::readLines);
 
+        int originalWidth = (int) ctx.getAttachment("originalWidth");
+        int originalHeight = (int) ctx.getAttachment("originalHeight");
+        int rescaledWidth = (int) ctx.getAttachment("rescaledWidth");
+        int rescaledHeight = (int) ctx.getAttachment("rescaledHeight");
+
+        // copy the whole outputs once, then filter and resize the masks on the host
         float[] ids = list.get(0).toFloatArray();
         float[] scores = list.get(1).toFloatArray();
-        NDArray boundingBoxes = list.get(2);
+        float[] boundingBoxes = list.get(2).toFloatArray();
         NDArray masks = list.get(3);
+        Shape maskShape = masks.getShape();
+        int maskHeight = (int) maskShape.get(1);
+        int maskWidth = (int) maskShape.get(2);
+        float[] maskData = null;
 
         List<String> retNames = new ArrayList<>();
         List<Double> retProbs = new ArrayList<>();
@@ -93,25 +101,22 @@ public class InstanceSegmentationTranslator extends ImageTranslator<DetectedObje
                     throw new AssertionError("Unexpected index: " + classId);
                 }
                 String className = classes.get(classId);
-                float[] box = boundingBoxes.get(i).toFloatArray();
-                double x = box[0] / rescaledWidth;
-                double y = box[1] / rescaledHeight;
-                double w = box[2] / rescaledWidth - x;
-                double h = box[3] / rescaledHeight - y;
-
-                int maskW = (int) (w * (int) ctx.getAttachment("originalWidth"));
-                int maskH = (int) (h * (int) ctx.getAttachment("originalHeight"));
-
-                // Reshape mask to actual image bounding box shape.
-                NDArray array = masks.get(i);
-                Shape maskShape = array.getShape();
-                array = array.reshape(maskShape.addAll(new Shape(1)));
-                NDArray maskArray = NDImageUtils.resize(array, maskW, maskH).transpose();
-                float[] flattened = maskArray.toFloatArray();
-                float[][] maskFloat = new float[maskW][maskH];
-                for (int j = 0; j < maskW; j++) {
-                    System.arraycopy(flattened, j * maskH, maskFloat[j], 0, maskH);
+                int box = i * 4;
+                double x = boundingBoxes[box] / rescaledWidth;
+                double y = boundingBoxes[box + 1] / rescaledHeight;
+                double w = boundingBoxes[box + 2] / rescaledWidth - x;
+                double h = boundingBoxes[box + 3] / rescaledHeight - y;
+
+                int maskW = (int) (w * originalWidth);
+                int maskH = (int) (h * originalHeight);
+
+                if (maskData == null) {
+                    maskData = masks.toFloatArray();
                 }
+                // Resize mask to actual image bounding box shape.
+                int offset = i * maskHeight * maskWidth;
+                float[][] maskFloat =
+                        resizeMask(maskData, offset, maskWidth, maskHeight, maskW, maskH);
                 Mask mask = new Mask(x, y, w, h, maskFloat);
 
                 retNames.add(className);
@@ -130,18 +135,76 @@ public class InstanceSegmentationTranslator extends ImageTranslator<DetectedObje
      */
     private NDArray resizeShort(NDArray image) {
         Shape shape = image.getShape();
-        int width = (int) shape.get(1);
-        int height = (int) shape.get(0);
+        int[] rescaled = getRescaledSize((int) shape.get(1), (int) shape.get(0));
+        return NDImageUtils.resize(image, rescaled[0], rescaled[1]);
+    }
+
+    private int[] getRescaledSize(int width, int height) {
         int min = Math.min(width, height);
         int max = Math.max(width, height);
         float scale = shortEdge / (float) min;
         if (Math.round(scale * max) > maxEdge) {
             scale = maxEdge / (float) max;
         }
-        rescaledHeight = Math.round(height * scale);
-        rescaledWidth = Math.round(width * scale);
+        return new int[] {Math.round(width * scale), Math.round(height * scale)};
+    }
 
-        return NDImageUtils.resize(image, rescaledWidth, rescaledHeight);
+    /**
+     * Resizes a mask with bilinear interpolation, the same way as {@link NDImageUtils#resize}.
+     *
+     * @param data the masks
+     * @param offset the offset of the mask in the data
+     * @param srcWidth the width of the mask
+     * @param srcHeight the height of the mask
+     * @param width the width to resize to
+     * @param height the height to resize to
+     * @return the resized mask, indexed by column and row
+     */
+    private static float[][] resizeMask(
+            float[] data, int offset, int srcWidth, int srcHeight, int width, int height) {
+        int[] x0 = new int[width];
+        int[] x1 = new int[width];
+        float[] dx = new float[width];
+        interpolate(srcWidth, width, x0, x1, dx);
+        int[] y0 = new int[height];
+        int[] y1 = new int[height];
+        float[] dy = new float[height];
+        interpolate(srcHeight, height, y0, y1, dy);
+
+        float[][] mask = new float[width][height];
+        for (int k = 0; k < height; ++k) {
+            int top = offset + y0[k] * srcWidth;
+            int bottom = offset + y1[k] * srcWidth;
+            for (int j = 0; j < width; ++j) {
+                float upper = data[top + x0[j]] + (data[top + x1[j]] - data[top + x0[j]]) * dx[j];
+                float lower =
+                        data[bottom + x0[j]]
+                                + (data[bottom + x1[j]] - data[bottom + x0[j]]) * dx[j];
+                mask[j][k] = upper + (lower - upper) * dy[k];
+            }
+        }
+        return mask;
+    }
+
+    private static void interpolate(
+            int srcSize, int size, int[] low, int[] high, float[] weights) {
+        // maps the pixel centers, and replicates the border pixels
+        float scale = (float) srcSize / size;
+        for (int i = 0; i < size; ++i) {
+            float src = (i + 0.5f) * scale - 0.5f;
+            int floor = (int) Math.floor(src);
+            float weight = src - floor;
+            if (floor < 0) {
+                floor = 0;
+                weight = 0;
+            } else if (floor >= srcSize - 1) {
+                floor = srcSize - 1;
+                weight = 0;
+            }
+            low[i] = floor;
+            high[i] = Math.min(floor + 1, srcSize - 1);
+            weights[i] = weight;
+        }
     }
 
     /** The builder for Instance Segmentation translator. */
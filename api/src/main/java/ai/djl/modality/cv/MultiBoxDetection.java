@@ -42,6 +42,7 @@ public class MultiBoxDetection {
     private float nmsThreashold;
     private boolean forceSuppress;
     private int nmsTopK;
+    private boolean cpuDetection;
 
     /**
      * Creates a new instance of {@code MultiBoxDetection} with the arguments from the given {@link
@@ -56,6 +57,7 @@ public class MultiBoxDetection {
         this.nmsThreashold = builder.nmsThreashold;
         this.forceSuppress = builder.forceSuppress;
         this.nmsTopK = builder.nmsTopK;
+        this.cpuDetection = builder.cpuDetection;
     }
 
     /**
@@ -73,6 +75,11 @@ public class MultiBoxDetection {
             throw new IllegalArgumentException(
                     "NDList must contain class probabilities, box predictions, and anchors");
         }
+        if (cpuDetection) {
+            return new CpuMultiBoxDetection(
+                            clip, threshold, backgroundId, nmsThreashold, forceSuppress, nmsTopK)
+                    .detection(inputs);
+        }
         return inputs.head()
                 .getNDArrayInternal()
                 .multiBoxDetection(
@@ -92,6 +99,7 @@ public class MultiBoxDetection {
         private float nmsThreashold = 0.5f;
         boolean forceSuppress;
         private int nmsTopK = -1;
+        private boolean cpuDetection;
 
         /**
          * Sets the boolean parameter that indicates whether to clip out-of-boundary boxes. It is
@@ -162,6 +170,22 @@ public class MultiBoxDetection {
             return this;
         }
 
+        /**
+         * Sets the boolean parameter that indicates whether to run the detection in Java on the CPU
+         * instead of with the operator of the engine. It is set to {@code false} by default.
+         *
+         * <p>The Java implementation decodes the boxes of the images, and suppresses the boxes of
+         * each class, in parallel. It can be faster than the operator of the engine on the CPU,
+         * since the non-maximum suppression of the engine runs the classes one after the other.
+         *
+         * @param cpuDetection whether to run the detection in Java on the CPU
+         * @return this {@code Builder}
+         */
+        public Builder optCpuDetection(boolean cpuDetection) {
+            this.cpuDetection = cpuDetection;
+            return this;
+        }
+
         /**
          * Builds a {@link MultiBoxDetection} block.
          *
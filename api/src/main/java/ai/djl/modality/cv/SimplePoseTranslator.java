@@ -25,6 +25,9 @@ import java.util.List;
 /** A {@link ImageTranslator} that post-process the {@link NDArray} into human {@link Joints}. */
 public class SimplePoseTranslator extends ImageTranslator<Joints> {
 
+    private static final NDIndex X_INDEX = NDIndex.compile(":, :, 0");
+    private static final NDIndex Y_INDEX = NDIndex.compile(":, :, 1");
+
     private float threshold;
 
     /**
@@ -50,8 +53,8 @@ public class SimplePoseTranslator extends ImageTranslator<Joints> {
 
         NDArray result = maxIndices.tile(2, 2);
 
-        result.set(new NDIndex(":, :, 0"), result.get(":, :, 0").mod(width));
-        result.set(new NDIndex(":, :, 1"), result.get(":, :, 1").div(width).floor());
+        result.set(X_INDEX, result.get(X_INDEX).mod(width));
+        result.set(Y_INDEX, result.get(Y_INDEX).div(width).floor());
         // TODO remove asType
         NDArray predMask =
                 maxValues
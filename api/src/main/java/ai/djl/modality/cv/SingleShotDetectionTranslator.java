@@ -55,9 +55,10 @@ public class SingleShotDetectionTranslator extends ImageTranslator<DetectedObjec
             classes = model.getArtifact(synsetArtifactName, Utils::readLines);
         }
 
+        // copy the whole outputs once and filter the detections on the host
         float[] classIds = list.get(0).toFloatArray();
         float[] probabilities = list.get(1).toFloatArray();
-        NDArray boundingBoxes = list.get(2);
+        float[] boundingBoxes = list.get(2).toFloatArray();
 
         List<String> retNames = new ArrayList<>();
         List<Double> retProbs = new ArrayList<>();
@@ -72,12 +73,12 @@ public class SingleShotDetectionTranslator extends ImageTranslator<DetectedObjec
                     throw new AssertionError("Unexpected index: " + classId);
                 }
                 String className = classes.get(classId);
-                float[] box = boundingBoxes.get(i).toFloatArray();
+                int box = i * 4;
                 // rescale box coordinates by imageWidth and imageHeight
-                double x = imageWidth > 0 ? box[0] / imageWidth : box[0];
-                double y = imageHeight > 0 ? box[1] / imageHeight : box[1];
-                double w = imageWidth > 0 ? box[2] / imageWidth - x : box[2] - x;
-                double h = imageHeight > 0 ? box[3] / imageHeight - y : box[3] - y;
+                double x = rescale(boundingBoxes[box], imageWidth);
+                double y = rescale(boundingBoxes[box + 1], imageHeight);
+                double w = rescale(boundingBoxes[box + 2], imageWidth) - x;
+                double h = rescale(boundingBoxes[box + 3], imageHeight) - y;
 
                 Rectangle rect = new Rectangle(x, y, w, h);
                 retNames.add(className);
@@ -89,6 +90,10 @@ public class SingleShotDetectionTranslator extends ImageTranslator<DetectedObjec
         return new DetectedObjects(retNames, retProbs, retBB);
     }
 
+    private static double rescale(float coordinate, double size) {
+        return size > 0 ? coordinate / size : coordinate;
+    }
+
     /** The builder for SSD translator. */
     public static class Builder extends BaseBuilder<Builder> {
 
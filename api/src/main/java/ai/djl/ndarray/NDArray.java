@@ -16,6 +16,7 @@ import ai.djl.Device;
 import ai.djl.ndarray.index.NDIndex;
 import ai.djl.ndarray.internal.NDArrayEx;
 import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.GradReq;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.ndarray.types.SparseFormat;
 import java.nio.Buffer;
@@ -180,6 +181,31 @@ public interface NDArray extends AutoCloseable {
      */
     void attachGradient();
 
+    /**
+     * Attaches a gradient {@code NDArray} of the given {@link SparseFormat} to this {@code NDArray}
+     * and marks it so {@link ai.djl.training.GradientCollector#backward(NDArray)} can compute the
+     * gradient with respect to it.
+     *
+     * <p>A {@link SparseFormat#ROW_SPARSE} gradient only holds the rows touched by the backward
+     * pass, which is much smaller than this {@code NDArray} for operators like embedding lookups.
+     *
+     * @param sparseFormat the {@link SparseFormat} of the gradient
+     */
+    void attachGradient(SparseFormat sparseFormat);
+
+    /**
+     * Attaches a gradient {@code NDArray} of the given {@link SparseFormat} to this {@code NDArray}
+     * and marks it so {@link ai.djl.training.GradientCollector#backward(NDArray)} can compute the
+     * gradient with respect to it, using the given {@link GradReq}.
+     *
+     * <p>With {@link GradReq#ADD}, each backward pass adds to the gradient instead of overwriting
+     * it. Attaching the gradient again resets it to zeros.
+     *
+     * @param gradReq how the backward pass stores the gradient
+     * @param sparseFormat the {@link SparseFormat} of the gradient
+     */
+    void attachGradient(GradReq gradReq, SparseFormat sparseFormat);
+
     /**
      * Returns the gradient {@code NDArray} attached to this {@code NDArray}.
      *
@@ -457,9 +483,10 @@ public interface NDArray extends AutoCloseable {
      * @param indices the indices used to indicate what to get
      * @return the partial {@code NDArray}
      * @see NDIndex#NDIndex(String)
+     * @see NDIndex#compile(String)
      */
     default NDArray get(String indices) {
-        return get(new NDIndex(indices));
+        return get(NDIndex.compile(indices));
     }
 
     /**
@@ -3376,6 +3403,61 @@ public interface NDArray extends AutoCloseable {
      */
     NDArray sort(int axis);
 
+    /**
+     * Returns the {@code k} largest elements of this {@code NDArray} along the given axis, and
+     * their indices.
+     *
+     * <p>Only the largest elements are returned, which makes it cheaper to copy them than the whole
+     * {@code NDArray}.
+     *
+     * <p>Examples
+     *
+     * <pre>
+     * jshell&gt; NDArray array = manager.create(new float[] {0.1f, 0.6f, 0.05f, 0.25f});
+     * jshell&gt; array.topK(2, 0);
+     * [
+     * ND: (2) cpu(0) float32
+     * [0.6 , 0.25],
+     * ND: (2) cpu(0) int32
+     * [ 1,  3],
+     * ]
+     * </pre>
+     *
+     * @param k the number of elements to return
+     * @param axis the axis to select the elements along
+     * @return an {@link NDList} of the largest elements in descending order, and their indices,
+     *     the DataType of the indices is always {@link DataType#INT32}
+     * @throws IllegalArgumentException if {@code k} is not positive
+     */
+    default NDList topK(int k, int axis) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k should be larger or equal to 1");
+        }
+        int dim = getShape().dimension();
+        axis = Math.floorMod(axis, dim);
+        NDIndex index = new NDIndex();
+        for (int i = 0; i < axis; ++i) {
+            index.addSliceDim(0, size(i));
+        }
+        index.addSliceDim(0, Math.min(k, size(axis)));
+        NDArray indices;
+        try (NDArray sorted = argSort(axis, false)) {
+            indices = sorted.get(index);
+        }
+        if (indices.getDataType() != DataType.INT32) {
+            try (NDArray top = indices) {
+                indices = top.asType(DataType.INT32, false);
+            }
+        }
+        NDArray values;
+        try (NDArray negated = neg();
+                NDArray ascending = negated.sort(axis);
+                NDArray top = ascending.get(index)) {
+            values = top.neg();
+        }
+        return new NDList(values, indices);
+    }
+
     /**
      * Applies the softmax function along the given axis.
      *
@@ -3401,6 +3483,20 @@ public interface NDArray extends AutoCloseable {
         return softmax(new int[] {axis}, temperature);
     }
 
+    /**
+     * Applies the log of the softmax function along the given axis.
+     *
+     * <p>Engines that support it compute the result in a single operator, which is faster and
+     * numerically more stable than {@code softmax(axis).log()}.
+     *
+     * @param axis the axis along which to apply
+     * @return the result {@code NDArray}
+     * @see NDArray#softmax(int)
+     */
+    default NDArray logSoftmax(int axis) {
+        return softmax(axis).log();
+    }
+
     /**
      * Applies the softmax function along the given axes.
      *
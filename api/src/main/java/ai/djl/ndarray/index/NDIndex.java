@@ -15,8 +15,12 @@ package ai.djl.ndarray.index;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.types.Shape;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -35,7 +39,8 @@ import java.util.stream.Stream;
  *   <li>A range of values - Use addSliceDim
  * </ul>
  *
- * <p>We recommend creating the NDIndex using {@link #NDIndex(String)}.
+ * <p>We recommend creating the NDIndex using {@link #NDIndex(String)}, or {@link #compile(String)}
+ * for the indices that are used repeatedly.
  *
  * @see #NDIndex(String)
  */
@@ -44,8 +49,13 @@ public class NDIndex {
     private static final Pattern ITEM_PATTERN =
             Pattern.compile("(\\*)|((-?\\d+)?:(-?\\d+)?(:(-?\\d+))?)|(-?\\d+)");
 
+    private static final int MAX_COMPILED = 256;
+    private static final Map<String, NDIndex> COMPILED = new ConcurrentHashMap<>();
+
     private int rank;
     private List<NDIndexElement> indices;
+    private boolean compiled;
+    private AtomicReference<CachedSlice> cachedSlice = new AtomicReference<>();
 
     /** Creates an empty {@link NDIndex} to append values to. */
     public NDIndex() {
@@ -107,6 +117,53 @@ public class NDIndex {
         addIndices(indices);
     }
 
+    /**
+     * Returns a compiled {@link NDIndex} given the index values.
+     *
+     * <p>The compiled indices are immutable and interned, up to 256 distinct indices, so the
+     * indices are only parsed the first time they are used. The compiled index also keeps its last
+     * {@link NDIndexFullSlice}, which makes it cheap to slice arrays of the same shape repeatedly:
+     *
+     * <pre>
+     *     private static final NDIndex X = NDIndex.compile(":, :, 0");
+     *
+     *     NDArray x = array.get(X);
+     * </pre>
+     *
+     * @param indices a comma separated list of indices in the format of {@link #NDIndex(String)}
+     * @return the compiled {@link NDIndex}
+     * @see #NDIndex(String)
+     */
+    public static NDIndex compile(String indices) {
+        NDIndex index = COMPILED.get(indices);
+        if (index == null) {
+            index = new NDIndex();
+            for (String indexItem : indices.split(",")) {
+                index.addIndexItem(indexItem);
+            }
+            index.rank = index.indices.size();
+            index.indices = Collections.unmodifiableList(index.indices);
+            index.compiled = true;
+            if (COMPILED.size() < MAX_COMPILED) {
+                NDIndex previous = COMPILED.putIfAbsent(indices, index);
+                if (previous != null) {
+                    return previous;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns whether this index is compiled and can not be updated.
+     *
+     * @return {@code true} if this index is compiled
+     * @see #compile(String)
+     */
+    public boolean isCompiled() {
+        return compiled;
+    }
+
     /**
      * Returns the number of dimensions specified in the Index.
      *
@@ -143,11 +200,10 @@ public class NDIndex {
      * @see #NDIndex(String)
      */
     public final NDIndex addIndices(String indices) {
-        String[] indexItems = indices.split(",");
-        rank += indexItems.length;
-        for (String indexItem : indexItems) {
-            addIndexItem(indexItem);
-        }
+        beforeUpdate();
+        NDIndex parsed = compile(indices);
+        rank += parsed.rank;
+        this.indices.addAll(parsed.indices);
         return this;
     }
 
@@ -159,6 +215,7 @@ public class NDIndex {
      * @return the updated {@link NDIndex}
      */
     public final NDIndex addIndices(long... indices) {
+        beforeUpdate();
         rank += indices.length;
         for (long i : indices) {
             this.indices.add(new NDIndexFixed(i));
@@ -176,6 +233,7 @@ public class NDIndex {
      * @return the updated {@link NDIndex}
      */
     public NDIndex addBooleanIndex(NDArray index) {
+        beforeUpdate();
         rank += index.getShape().dimension();
         indices.add(new NDIndexBooleans(index));
         return this;
@@ -189,6 +247,7 @@ public class NDIndex {
      * @return the updated {@link NDIndex}
      */
     public NDIndex addSliceDim(long min, long max) {
+        beforeUpdate();
         rank++;
         indices.add(new NDIndexSlice(min, max, null));
         return this;
@@ -203,6 +262,7 @@ public class NDIndex {
      * @return the updated {@link NDIndex}
      */
     public NDIndex addSliceDim(long min, long max, long step) {
+        beforeUpdate();
         rank++;
         indices.add(new NDIndexSlice(min, max, step));
         return this;
@@ -217,43 +277,27 @@ public class NDIndex {
         return indices.stream();
     }
 
-    private void addIndexItem(String indexItem) {
-        indexItem = indexItem.trim();
-        Matcher m = ITEM_PATTERN.matcher(indexItem);
-        if (!m.matches()) {
-            throw new IllegalArgumentException("Invalid argument index: " + indexItem);
-        }
-
-        String star = m.group(1);
-        if (star != null) {
-            indices.add(new NDIndexAll());
-            return;
-        }
-
-        String digit = m.group(7);
-        if (digit != null) {
-            indices.add(new NDIndexFixed(Long.parseLong(digit)));
-            return;
-        }
-
-        // Slice
-        Long min = m.group(3) != null ? Long.parseLong(m.group(3)) : null;
-        Long max = m.group(4) != null ? Long.parseLong(m.group(4)) : null;
-        Long step = m.group(6) != null ? Long.parseLong(m.group(6)) : null;
-        if (min == null && max == null && step == null) {
-            indices.add(new NDIndexAll());
-        } else {
-            indices.add(new NDIndexSlice(min, max, step));
-        }
-    }
-
     /**
      * Returns this index as a full slice if it can be represented as one.
      *
+     * <p>The negative fixed indices and slice bounds are resolved against the target shape. The
+     * last full slice is kept by the index, and returned again for the same target shape.
+     *
      * @param target the shape to index
      * @return the full slice if it can be represented as one
+     * @throws IllegalArgumentException if the index does not fit the target shape
      */
     public Optional<NDIndexFullSlice> getAsFullSlice(Shape target) {
+        CachedSlice cached = cachedSlice.get();
+        if (cached != null && cached.target.equals(target)) {
+            return cached.fullSlice;
+        }
+        Optional<NDIndexFullSlice> fullSlice = toFullSlice(target);
+        cachedSlice.set(new CachedSlice(target, fullSlice));
+        return fullSlice;
+    }
+
+    private Optional<NDIndexFullSlice> toFullSlice(Shape target) {
         if (!stream().allMatch(
                         ie ->
                                 ie instanceof NDIndexAll
@@ -280,20 +324,30 @@ public class NDIndex {
         for (int i = 0; i < indDimensions; i++) {
             NDIndexElement ie = get(i);
             if (ie instanceof NDIndexFixed) {
-                min[i] = ((NDIndexFixed) ie).getIndex();
-                max[i] = ((NDIndexFixed) ie).getIndex() + 1;
+                long index = ((NDIndexFixed) ie).getIndex();
+                min[i] = index < 0 ? index + target.size(i) : index;
+                if (min[i] < 0 || min[i] >= target.size(i)) {
+                    throw new IllegalArgumentException(
+                            "Index " + index + " is out of bounds for axis " + i);
+                }
+                max[i] = min[i] + 1;
                 step[i] = 1;
                 toSqueeze.add(i);
                 shape[i] = 1;
             } else if (ie instanceof NDIndexSlice) {
                 NDIndexSlice slice = (NDIndexSlice) ie;
-                min[i] = Optional.ofNullable(slice.getMin()).orElse(0L);
-                max[i] = Optional.ofNullable(slice.getMax()).orElse(target.size(i));
+                long size = target.size(i);
                 step[i] = Optional.ofNullable(slice.getStep()).orElse(1L);
                 if (step[i] > 0) {
-                    shape[i] = (max[i] - min[i] - 1) / (step[i] + 1);
+                    min[i] = clamp(Optional.ofNullable(slice.getMin()).orElse(0L), size);
+                    max[i] = clamp(Optional.ofNullable(slice.getMax()).orElse(size), size);
+                    shape[i] = Math.max(0, (max[i] - min[i] + step[i] - 1) / step[i]);
                 } else {
-                    shape[i] = (min[i] - max[i]) / (-step[i] + 1);
+                    min[i] = Optional.ofNullable(slice.getMin()).orElse(0L);
+                    max[i] = Optional.ofNullable(slice.getMax()).orElse(size);
+                    long begin = min[i] < 0 ? min[i] + size : min[i];
+                    long end = max[i] < 0 ? max[i] + size : max[i];
+                    shape[i] = Math.max(0, (begin - end - step[i] - 1) / -step[i]);
                 }
                 squeezedShape.add(shape[i]);
             } else if (ie instanceof NDIndexAll) {
@@ -316,4 +370,60 @@ public class NDIndex {
                         min, max, step, toSqueeze, new Shape(shape), new Shape(squeezedShape));
         return Optional.of(fullSlice);
     }
+
+    private void addIndexItem(String indexItem) {
+        indexItem = indexItem.trim();
+        Matcher m = ITEM_PATTERN.matcher(indexItem);
+        if (!m.matches()) {
+            throw new IllegalArgumentException("Invalid argument index: " + indexItem);
+        }
+
+        String star = m.group(1);
+        if (star != null) {
+            indices.add(new NDIndexAll());
+            return;
+        }
+
+        String digit = m.group(7);
+        if (digit != null) {
+            indices.add(new NDIndexFixed(Long.parseLong(digit)));
+            return;
+        }
+
+        // Slice
+        Long min = m.group(3) != null ? Long.parseLong(m.group(3)) : null;
+        Long max = m.group(4) != null ? Long.parseLong(m.group(4)) : null;
+        Long step = m.group(6) != null ? Long.parseLong(m.group(6)) : null;
+        if (min == null && max == null && step == null) {
+            indices.add(new NDIndexAll());
+        } else {
+            indices.add(new NDIndexSlice(min, max, step));
+        }
+    }
+
+    private void beforeUpdate() {
+        if (compiled) {
+            throw new UnsupportedOperationException("A compiled NDIndex can not be updated");
+        }
+        cachedSlice.set(null);
+    }
+
+    private static long clamp(long index, long size) {
+        if (index < 0) {
+            index += size;
+        }
+        return Math.max(0, Math.min(index, size));
+    }
+
+    /** The last full slice of the index, with the shape it was computed for. */
+    private static final class CachedSlice {
+
+        Shape target;
+        Optional<NDIndexFullSlice> fullSlice;
+
+        CachedSlice(Shape target, Optional<NDIndexFullSlice> fullSlice) {
+            this.target = target;
+            this.fullSlice = fullSlice;
+        }
+    }
 }
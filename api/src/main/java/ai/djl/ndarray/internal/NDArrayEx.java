@@ -279,6 +279,7 @@ public interface NDArrayEx {
             NDList inputs,
             int numItems,
             int embeddingSize,
+            boolean sparseGrad,
             DataType dataType,
             PairList<String, Object> additional);
 
@@ -10,7 +10,7 @@
  * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
  * and limitations under the License.
  */
-package ai.djl.training;
+package ai.djl.ndarray.types;
 
 /** An enum that indicates whether gradient is required. */
 public enum GradReq {
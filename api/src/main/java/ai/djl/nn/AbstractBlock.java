@@ -105,7 +105,12 @@ public abstract class AbstractBlock implements Block {
     /** {@inheritDoc} */
     @Override
     public void cast(DataType dataType) {
-        throw new UnsupportedOperationException("Not implemented yet.");
+        for (Parameter parameter : getDirectParameters()) {
+            parameter.cast(dataType);
+        }
+        for (Block child : getChildren().values()) {
+            child.cast(dataType);
+        }
     }
 
     private ParameterList getChildrenParameters() {
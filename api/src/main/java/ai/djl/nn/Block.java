@@ -156,10 +156,13 @@ public interface Block {
     boolean isInitialized();
 
     /**
-     * Guaranteed to throw an exception. Not yet implemented
+     * Casts the parameters of the block and its children to the given {@link DataType}.
+     *
+     * <p>Some blocks keep a higher precision for some of their parameters, for example {@link
+     * ai.djl.nn.norm.BatchNorm} keeps its parameters in {@link DataType#FLOAT32} when cast to
+     * {@link DataType#FLOAT16}. The inputs of the block must be cast to the same data type.
      *
      * @param dataType the data type to cast to
-     * @throws UnsupportedOperationException always
      */
     void cast(DataType dataType);
 
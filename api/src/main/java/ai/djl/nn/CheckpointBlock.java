@@ -0,0 +1,341 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.nn;
+
+import ai.djl.MalformedModelException;
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.GradReq;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.ndarray.types.SparseFormat;
+import ai.djl.training.GradientCollector;
+import ai.djl.training.ParameterStore;
+import ai.djl.training.initializer.Initializer;
+import ai.djl.util.PairList;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * {@code CheckpointBlock} is a {@link Block} that trades computation for memory by recomputing the
+ * activations of the wrapped block during the backward pass instead of keeping them.
+ *
+ * <p>During training, the forward pass of the wrapped block runs without recording gradients, and
+ * its intermediate activations are freed as soon as its outputs are computed. When {@link
+ * GradientCollector#backward(NDArray)} is called, the backward pass first stops at the outputs of
+ * the {@code CheckpointBlock}. The wrapped block is then run again with recording enabled, and the
+ * gradients of its outputs are propagated through the recomputed activations to its parameters
+ * and inputs. Checkpoints are recomputed in the reverse order of their forward pass.
+ *
+ * <p>For example, the memory used by the activations of a deep {@link SequentialBlock} can be
+ * reduced by wrapping each of its stages:
+ *
+ * <pre>
+ * SequentialBlock net = new SequentialBlock();
+ * for (int i = 0; i &lt; stages; ++i) {
+ *     net.add(new CheckpointBlock(stage(i)));
+ * }
+ * </pre>
+ *
+ * <p>The wrapped block is transparent otherwise: it has the same parameters, with the same names,
+ * and saves the same parameter file. Since the forward pass runs twice, the wrapped block should be
+ * deterministic. Blocks such as {@link ai.djl.nn.norm.Dropout} draw a different mask when they are
+ * recomputed, and {@link ai.djl.nn.norm.BatchNorm} updates its running statistics twice.
+ *
+ * <p>When gradients are not recorded, for example during inference, the {@code CheckpointBlock}
+ * simply runs the wrapped block.
+ */
+public class CheckpointBlock implements Block {
+
+    private static final ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+
+    private Block block;
+
+    /**
+     * Creates a {@code CheckpointBlock} that recomputes the activations of the given block.
+     *
+     * @param block the block to wrap
+     */
+    public CheckpointBlock(Block block) {
+        this.block = block;
+    }
+
+    /**
+     * Returns the wrapped block.
+     *
+     * @return the wrapped block
+     */
+    public Block getBlock() {
+        return block;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList forward(
+            ParameterStore parameterStore, NDList inputs, PairList<String, Object> params) {
+        Engine engine = Engine.getInstance();
+        if (!engine.isGradientRecording()) {
+            return block.forward(parameterStore, inputs, params);
+        }
+
+        NDList outputs;
+        engine.setGradientRecording(false);
+        try {
+            outputs = run(parameterStore, inputs, params);
+        } finally {
+            engine.setGradientRecording(true);
+        }
+        for (NDArray output : outputs) {
+            output.attachGradient(GradReq.ADD, SparseFormat.DENSE);
+        }
+        CONTEXT.get()
+                .checkpoints
+                .addLast(new Checkpoint(block, parameterStore, inputs, outputs, params));
+        return outputs;
+    }
+
+    /**
+     * Propagates the gradients of the outputs of the pending checkpoints of the current thread to
+     * the wrapped blocks, by recomputing their forward pass.
+     *
+     * <p>This is called by the {@link GradientCollector} after the backward pass.
+     *
+     * @param collector the {@link GradientCollector} running the backward pass
+     */
+    public static void backwardCheckpoints(GradientCollector collector) {
+        Context context = CONTEXT.get();
+        if (context.inBackward) {
+            // the backward pass of a recomputed block, the pending checkpoints are handled below
+            return;
+        }
+        context.inBackward = true;
+        Engine engine = Engine.getInstance();
+        boolean recording = engine.setGradientRecording(true);
+        try {
+            Checkpoint checkpoint;
+            while ((checkpoint = context.checkpoints.pollLast()) != null) {
+                checkpoint.backward(collector);
+            }
+        } finally {
+            engine.setGradientRecording(recording);
+            context.checkpoints.clear();
+            context.inBackward = false;
+        }
+    }
+
+    /**
+     * Discards the pending checkpoints of the current thread.
+     *
+     * <p>This is called when the {@link GradientCollector} is closed.
+     */
+    public static void clearCheckpoints() {
+        CONTEXT.get().checkpoints.clear();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setInitializer(Initializer initializer) {
+        block.setInitializer(initializer);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setInitializer(Initializer initializer, String paramName) {
+        block.setInitializer(initializer, paramName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Shape[] initialize(NDManager manager, DataType dataType, Shape... inputShapes) {
+        return block.initialize(manager, dataType, inputShapes);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isInitialized() {
+        return block.isInitialized();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void cast(DataType dataType) {
+        block.cast(dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+        block.clear();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public PairList<String, Shape> describeInput() {
+        return block.describeInput();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BlockList getChildren() {
+        return block.getChildren();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<Parameter> getDirectParameters() {
+        return block.getDirectParameters();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ParameterList getParameters() {
+        return block.getParameters();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Shape getParameterShape(String name, Shape[] inputShapes) {
+        return block.getParameterShape(name, inputShapes);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Shape[] getOutputShapes(NDManager manager, Shape[] inputShapes) {
+        return block.getOutputShapes(manager, inputShapes);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void saveParameters(DataOutputStream os) throws IOException {
+        block.saveParameters(os);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void loadParameters(NDManager manager, DataInputStream is)
+            throws IOException, MalformedModelException {
+        block.loadParameters(manager, is);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "Checkpoint(" + block + ')';
+    }
+
+    /**
+     * Runs the forward pass of the wrapped block, freeing its intermediate activations.
+     *
+     * @param parameterStore the parameter store
+     * @param inputs the inputs of the block
+     * @param params optional parameters
+     * @return the outputs of the block, attached to the manager of the first input
+     */
+    private NDList run(
+            ParameterStore parameterStore, NDList inputs, PairList<String, Object> params) {
+        NDManager manager = inputs.head().getManager();
+        try (NDManager scope = manager.newSubManager()) {
+            NDList outputs = forwardInScope(block, parameterStore, inputs, params, scope);
+            outputs.attach(manager);
+            return outputs;
+        }
+    }
+
+    /**
+     * Runs the forward pass of a block with its inputs temporarily attached to a scope, so the
+     * intermediate activations are closed with the scope.
+     *
+     * @param block the block to run
+     * @param parameterStore the parameter store
+     * @param inputs the inputs of the block
+     * @param params optional parameters
+     * @param scope the manager of the intermediate activations and outputs
+     * @return the outputs of the block, attached to the scope
+     */
+    private static NDList forwardInScope(
+            Block block,
+            ParameterStore parameterStore,
+            NDList inputs,
+            PairList<String, Object> params,
+            NDManager scope) {
+        List<NDManager> managers = new ArrayList<>(inputs.size());
+        for (NDArray input : inputs) {
+            managers.add(input.getManager());
+        }
+        inputs.attach(scope);
+        try {
+            return block.forward(parameterStore, inputs, params);
+        } finally {
+            for (int i = 0; i < inputs.size(); ++i) {
+                inputs.get(i).attach(managers.get(i));
+            }
+        }
+    }
+
+    /** The pending checkpoints of a thread. */
+    private static final class Context {
+
+        Deque<Checkpoint> checkpoints = new ArrayDeque<>();
+        boolean inBackward;
+    }
+
+    /** A forward pass of a {@code CheckpointBlock} waiting for the gradients of its outputs. */
+    private static final class Checkpoint {
+
+        private Block block;
+        private ParameterStore parameterStore;
+        private NDList inputs;
+        private NDList outputs;
+        private PairList<String, Object> params;
+
+        Checkpoint(
+                Block block,
+                ParameterStore parameterStore,
+                NDList inputs,
+                NDList outputs,
+                PairList<String, Object> params) {
+            this.block = block;
+            this.parameterStore = parameterStore;
+            this.inputs = inputs;
+            this.outputs = outputs;
+            this.params = params;
+        }
+
+        /**
+         * Recomputes the forward pass, and propagates the gradients of the outputs through it.
+         *
+         * @param collector the {@link GradientCollector} running the backward pass
+         */
+        void backward(GradientCollector collector) {
+            try (NDManager scope = inputs.head().getManager().newSubManager()) {
+                NDList recomputed = forwardInScope(block, parameterStore, inputs, params, scope);
+                // the gradient of sum(y * dy) with respect to y is dy
+                NDArray objective = null;
+                for (int i = 0; i < outputs.size(); ++i) {
+                    NDArray term = recomputed.get(i).mul(outputs.get(i).getGradient()).sum();
+                    objective = objective == null ? term : objective.add(term);
+                }
+                if (objective != null) {
+                    collector.backward(objective);
+                }
+            }
+        }
+    }
+}
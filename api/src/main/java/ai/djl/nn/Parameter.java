@@ -17,6 +17,8 @@ import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
+import ai.djl.ndarray.types.SparseFormat;
+import ai.djl.training.SnapshotOutputStream;
 import ai.djl.training.initializer.Initializer;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -47,6 +49,7 @@ public class Parameter implements AutoCloseable {
     private Initializer initializer;
     private NDArray array;
     private boolean requireGrad;
+    private SparseFormat gradientFormat;
 
     /**
      * Creates a {@code Parameter} with the given name, and parameter type, and associated with the
@@ -76,6 +79,7 @@ public class Parameter implements AutoCloseable {
         this.type = type;
         this.requireGrad = requireGrad;
         this.initializer = type.getInitializer();
+        this.gradientFormat = SparseFormat.DENSE;
     }
 
     /**
@@ -136,6 +140,27 @@ public class Parameter implements AutoCloseable {
         return requireGrad;
     }
 
+    /**
+     * Returns the {@link SparseFormat} of the gradient of this {@code Parameter}.
+     *
+     * @return the {@link SparseFormat} of the gradient of this {@code Parameter}
+     */
+    public SparseFormat getGradientFormat() {
+        return gradientFormat;
+    }
+
+    /**
+     * Sets the {@link SparseFormat} of the gradient of this {@code Parameter}.
+     *
+     * <p>A {@link SparseFormat#ROW_SPARSE} gradient lets the optimizer only update the rows used by
+     * the last batch.
+     *
+     * @param gradientFormat the {@link SparseFormat} of the gradient
+     */
+    public void setGradientFormat(SparseFormat gradientFormat) {
+        this.gradientFormat = gradientFormat;
+    }
+
     /**
      * Sets the mandatory data type for this {@code Parameter}.
      *
@@ -188,7 +213,28 @@ public class Parameter implements AutoCloseable {
         }
 
         if (requireGradient()) {
-            array.attachGradient();
+            array.attachGradient(gradientFormat);
+        }
+    }
+
+    /**
+     * Casts the values of this {@code Parameter} to the given {@link DataType}.
+     *
+     * <p>Nothing is done if the {@code Parameter} is not initialized, or if it has a mandatory data
+     * type. The gradient is attached again to the new values if the {@code Parameter} requires
+     * gradients.
+     *
+     * @param dataType the data type to cast to
+     */
+    public void cast(DataType dataType) {
+        if (!isInitialized() || mandatoryDataType != null || array.getDataType() == dataType) {
+            return;
+        }
+        NDArray casted = array.asType(dataType, true);
+        array.close();
+        setArray(casted);
+        if (requireGradient()) {
+            array.attachGradient(gradientFormat);
         }
     }
 
@@ -215,6 +261,13 @@ public class Parameter implements AutoCloseable {
         Shape shape = array.getShape();
         dos.write(shape.getEncoded());
 
+        if (dos instanceof SnapshotOutputStream && array.getSparseFormat() == SparseFormat.DENSE) {
+            // copies the array on its device, the content is written later
+            dos.writeInt(Math.toIntExact(shape.size() * array.getDataType().getNumOfBytes()));
+            ((SnapshotOutputStream) dos).writeArray(array);
+            return;
+        }
+
         ByteBuffer bb = array.toByteBuffer();
         int length = bb.remaining();
         dos.writeInt(length);
@@ -20,12 +20,14 @@ import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.internal.NDArrayEx;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
+import ai.djl.ndarray.types.SparseFormat;
 import ai.djl.nn.Block;
 import ai.djl.nn.Parameter;
 import ai.djl.nn.ParameterBlock;
 import ai.djl.nn.ParameterType;
 import ai.djl.training.ParameterStore;
 import ai.djl.util.PairList;
+import ai.djl.util.Vocabulary;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -33,8 +35,6 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * An Embedding block map a collection of items to 1-Dimensional representative {@link NDArray}s.
@@ -47,8 +47,9 @@ public class Embedding<T> extends ParameterBlock {
 
     private int embeddingSize;
     private boolean useDefault;
+    private boolean sparseGrad;
     private DataType dataType;
-    private Map<T, Integer> embedder;
+    private Vocabulary<T> embedder;
     private int numItems;
 
     private Parameter embedding;
@@ -56,16 +57,14 @@ public class Embedding<T> extends ParameterBlock {
     Embedding(Builder<T> builder) {
         embeddingSize = builder.embeddingSize;
         useDefault = builder.useDefault;
+        sparseGrad = builder.sparseGrad;
         dataType = builder.dataType;
         embedding = new Parameter("embedding", this, ParameterType.WEIGHT);
-        embedder = new ConcurrentHashMap<>(builder.items.size());
-        numItems = 0;
-        if (useDefault) {
-            numItems++;
-        }
-        for (T item : builder.items) {
-            embedder.put(item, numItems++);
+        if (sparseGrad) {
+            embedding.setGradientFormat(SparseFormat.ROW_SPARSE);
         }
+        embedder = new Vocabulary<>(builder.items);
+        numItems = useDefault ? embedder.size() + 1 : embedder.size();
     }
 
     /** {@inheritDoc} */
@@ -134,7 +133,8 @@ public class Embedding<T> extends ParameterBlock {
         NDList opInputs = opInputs(parameterStore, inputs);
 
         NDArrayEx ex = opInputs.head().getNDArrayInternal();
-        NDList result = ex.embedding(opInputs, numItems, embeddingSize, dataType, params);
+        NDList result =
+                ex.embedding(opInputs, numItems, embeddingSize, sparseGrad, dataType, params);
         if (inputs.singletonOrThrow().getShape().dimension() == 0) {
             result = new NDList(result.singletonOrThrow().reshape(embeddingSize));
         }
@@ -178,18 +178,25 @@ public class Embedding<T> extends ParameterBlock {
     }
 
     private int[] embed(T[] items) {
-        return Arrays.stream(items).mapToInt(this::embed).toArray();
+        int[] indices = embedder.lookup(items, -1);
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = toEmbeddingIndex(indices[i]);
+        }
+        return indices;
     }
 
     private int embed(T value) {
-        if (embedder.containsKey(value)) {
-            return embedder.get(value);
+        return toEmbeddingIndex(embedder.indexOf(value));
+    }
+
+    private int toEmbeddingIndex(int index) {
+        if (index >= 0) {
+            // index 0 is reserved for the default embedding
+            return useDefault ? index + 1 : index;
+        } else if (useDefault) {
+            return 0;
         } else {
-            if (useDefault) {
-                return 0;
-            } else {
-                throw new IllegalArgumentException("The provided item was not found");
-            }
+            throw new IllegalArgumentException("The provided item was not found");
         }
     }
 
@@ -203,6 +210,7 @@ public class Embedding<T> extends ParameterBlock {
         private Collection<T> items;
         private int embeddingSize;
         private boolean useDefault = true;
+        private boolean sparseGrad;
         private DataType dataType = DataType.FLOAT32;
 
         /**
@@ -239,6 +247,21 @@ public class Embedding<T> extends ParameterBlock {
             return this;
         }
 
+        /**
+         * Sets whether to compute a row sparse gradient for the embedding (default false).
+         *
+         * <p>A row sparse gradient only contains the rows of the items in the batch, so the
+         * optimizer only updates those rows instead of the whole embedding table. This is much
+         * faster when there are many items.
+         *
+         * @param sparseGrad true to compute a row sparse gradient
+         * @return this Builder
+         */
+        public Builder<T> optSparseGrad(boolean sparseGrad) {
+            this.sparseGrad = sparseGrad;
+            return this;
+        }
+
         /**
          * Sets the data type of the embedding arrays (default is Float32).
          *
@@ -255,7 +278,7 @@ public class Embedding<T> extends ParameterBlock {
          *
          * @return the constructed {@code Embedding}
          * @throws IllegalArgumentException if all required parameters (items, embeddingSize) have
-         *     not been set
+         *     not been set, or if the items contain duplicates
          */
         public Embedding<T> build() {
             if (items == null) {
@@ -18,6 +18,7 @@ import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.internal.NDArrayEx;
+import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Parameter;
 import ai.djl.nn.ParameterBlock;
@@ -121,6 +122,20 @@ public class BatchNorm extends ParameterBlock {
         return new NDList(data, gammaValue, betaValue, runningMeanValue, runningVarValue);
     }
 
+    /**
+     * Casts the parameters of the block to the given {@link DataType}.
+     *
+     * <p>The parameters and running statistics are kept in {@link DataType#FLOAT32} when casting
+     * to {@link DataType#FLOAT16}, since batch normalization of {@link DataType#FLOAT16} inputs
+     * is computed with {@link DataType#FLOAT32} parameters.
+     *
+     * @param dataType the data type to cast to
+     */
+    @Override
+    public void cast(DataType dataType) {
+        super.cast(dataType == DataType.FLOAT16 ? DataType.FLOAT32 : dataType);
+    }
+
     /** {@inheritDoc} */
     @Override
     public void saveParameters(DataOutputStream os) throws IOException {
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@code CheckpointWriter} writes model checkpoints to files on a background thread.
+ *
+ * <p>The checkpoints are {@link SnapshotOutputStream}s, usually created by {@link
+ * ai.djl.Model#save(Path, String, CheckpointWriter)}. They are written one at a time, in the order
+ * they are submitted. Each file is first written to a temporary file, which is synced to the
+ * storage and then atomically renamed, so a checkpoint file is either missing or complete.
+ *
+ * <p>A {@code CheckpointWriter} can keep only the most recent checkpoints it has written, and
+ * delete the older ones. Closing the {@code CheckpointWriter} waits for the pending checkpoints.
+ */
+public class CheckpointWriter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointWriter.class);
+
+    private int maxCheckpoints;
+    private ExecutorService executor;
+    private Deque<Path> checkpoints;
+
+    /** Creates a {@code CheckpointWriter} that keeps all the checkpoints. */
+    public CheckpointWriter() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a {@code CheckpointWriter} that keeps the given number of most recent checkpoints.
+     *
+     * @param maxCheckpoints the number of checkpoints to keep
+     * @throws IllegalArgumentException if {@code maxCheckpoints} is less than 1
+     */
+    public CheckpointWriter(int maxCheckpoints) {
+        if (maxCheckpoints < 1) {
+            throw new IllegalArgumentException("At least one checkpoint must be kept");
+        }
+        this.maxCheckpoints = maxCheckpoints;
+        checkpoints = new ArrayDeque<>();
+        executor =
+                Executors.newSingleThreadExecutor(
+                        r -> {
+                            Thread thread = new Thread(r, "checkpoint-writer"); // NOPMD
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+    }
+
+    /**
+     * Schedules a checkpoint to be written to a file.
+     *
+     * <p>The {@code CheckpointWriter} takes ownership of the snapshot, and closes it once it is
+     * written.
+     *
+     * @param file the path of the checkpoint file
+     * @param snapshot the content of the checkpoint
+     * @return a {@link Future} of the path of the written file
+     * @throws IllegalStateException if the {@code CheckpointWriter} is closed
+     */
+    public Future<Path> write(Path file, SnapshotOutputStream snapshot) {
+        try {
+            return executor.submit(
+                    () -> {
+                        try (SnapshotOutputStream os = snapshot) {
+                            writeFile(file, os);
+                        }
+                        return file;
+                    });
+        } catch (RejectedExecutionException e) {
+            closeQuietly(snapshot);
+            throw new IllegalStateException("CheckpointWriter is closed", e);
+        }
+    }
+
+    /** Waits for the pending checkpoints to be written, and stops the background thread. */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.info("Waiting for checkpoints to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeFile(Path file, SnapshotOutputStream snapshot) throws IOException {
+        Path tmp = file.resolveSibling(file.toFile().getName() + ".tmp");
+        try {
+            try (FileChannel channel =
+                    FileChannel.open(
+                            tmp,
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING)) {
+                snapshot.writeTo(channel);
+                channel.force(true);
+            }
+            try {
+                Files.move(
+                        tmp,
+                        file,
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        // only accessed by the writer thread
+        checkpoints.remove(file);
+        checkpoints.addLast(file);
+        while (checkpoints.size() > maxCheckpoints) {
+            Path old = checkpoints.pollFirst();
+            try {
+                Files.deleteIfExists(old);
+            } catch (IOException e) {
+                logger.warn("Failed to delete checkpoint: " + old, e);
+            }
+        }
+    }
+
+    private static void closeQuietly(SnapshotOutputStream snapshot) {
+        try {
+            snapshot.close();
+        } catch (IOException ignore) {
+            // ignore
+        }
+    }
+}
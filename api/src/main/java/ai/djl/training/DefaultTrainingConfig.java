@@ -30,6 +30,7 @@ public class DefaultTrainingConfig implements TrainingConfig {
     private Loss loss;
     private List<TrainingMetric> trainingMetrics;
     private int batchSize;
+    private int gradientAccumulation;
 
     /**
      * Creates an instance of {@code DefaultTrainingConfig} with the given {@link Initializer}.
@@ -41,6 +42,7 @@ public class DefaultTrainingConfig implements TrainingConfig {
         this.initializer = initializer;
         trainingMetrics = new ArrayList<>();
         this.loss = loss;
+        gradientAccumulation = 1;
     }
 
     /**
@@ -87,6 +89,23 @@ public class DefaultTrainingConfig implements TrainingConfig {
         return this;
     }
 
+    /**
+     * Sets the number of batches whose gradients are accumulated before the parameters are
+     * updated (default 1).
+     *
+     * @param gradientAccumulation the number of gradient accumulation steps
+     * @return this {@code DefaultTrainingConfig}
+     * @throws IllegalArgumentException if the number of steps is less than 1
+     */
+    public DefaultTrainingConfig setGradientAccumulation(int gradientAccumulation) {
+        if (gradientAccumulation < 1) {
+            throw new IllegalArgumentException(
+                    "Gradient accumulation steps must be at least 1: " + gradientAccumulation);
+        }
+        this.gradientAccumulation = gradientAccumulation;
+        return this;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Device[] getDevices() {
@@ -135,4 +154,10 @@ public class DefaultTrainingConfig implements TrainingConfig {
     public int getBatchSize() {
         return batchSize;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getGradientAccumulation() {
+        return gradientAccumulation;
+    }
 }
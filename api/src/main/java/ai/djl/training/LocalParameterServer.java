@@ -19,7 +19,12 @@ import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-/** {@code LocalParameterServer} is an implementation of the {@code ParameterServer} interface. */
+/**
+ * {@code LocalParameterServer} is an implementation of the {@code ParameterServer} interface.
+ *
+ * <p>Row sparse gradients stay row sparse while they are reduced and copied between devices, so
+ * the {@link Optimizer} can lazily update only the rows present in the gradient.
+ */
 public class LocalParameterServer implements ParameterServer {
 
     private Optimizer optimizer;
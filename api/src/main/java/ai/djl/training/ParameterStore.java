@@ -121,7 +121,7 @@ public class ParameterStore {
                     } else {
                         arrays[i] = array.asInDevice(dev, true);
                         arrays[i].attach(manager);
-                        arrays[i].attachGradient();
+                        arrays[i].attachGradient(parameter.getGradientFormat());
                     }
                     data.add(arrays[i]);
                 }
@@ -129,7 +129,7 @@ public class ParameterStore {
                 if (copy || !array.getDevice().equals(device)) {
                     array = array.asInDevice(device, true);
                     array.attach(manager);
-                    array.attachGradient();
+                    array.attachGradient(parameter.getGradientFormat());
                 }
                 data.add(array);
             }
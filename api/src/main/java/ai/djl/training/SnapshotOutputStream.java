@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training;
+
+import ai.djl.ndarray.NDArray;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@code SnapshotOutputStream} is a {@link DataOutputStream} that defers writing the content of
+ * {@link NDArray}s.
+ *
+ * <p>Instead of copying an {@link NDArray} to the host when it is written, {@link
+ * #writeArray(NDArray)} takes a copy of it on its device, which does not wait for the pending
+ * operations on the array. The snapshot can then be written to a file by a {@link
+ * CheckpointWriter} while the original arrays keep being updated. The content of the file is the
+ * same as if the arrays had been written to a regular {@link DataOutputStream}.
+ */
+public class SnapshotOutputStream extends DataOutputStream {
+
+    private List<Segment> segments = new ArrayList<>();
+
+    /** Creates an empty {@code SnapshotOutputStream}. */
+    public SnapshotOutputStream() {
+        super(new ByteArrayOutputStream());
+    }
+
+    /**
+     * Writes the content of an {@link NDArray}, in the format of {@link NDArray#toByteBuffer()}.
+     *
+     * <p>The array is copied on its device. The copy is not attached to any {@link
+     * ai.djl.ndarray.NDManager}, and is closed with the stream.
+     *
+     * @param array the array to write
+     * @throws IOException if the pending bytes cannot be flushed
+     */
+    public void writeArray(NDArray array) throws IOException {
+        NDArray copy = array.duplicate();
+        copy.detach();
+        segments.add(new Segment(takeBytes(), copy));
+    }
+
+    /**
+     * Writes the content of the stream to a file channel with gather writes, one {@link NDArray}
+     * at a time.
+     *
+     * @param channel the channel to write to
+     * @throws IOException if the channel cannot be written
+     */
+    void writeTo(FileChannel channel) throws IOException {
+        for (Segment segment : segments) {
+            ByteBuffer[] buffers = {ByteBuffer.wrap(segment.bytes), segment.array.toByteBuffer()};
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+        }
+        ByteBuffer tail = ByteBuffer.wrap(takeBytes());
+        while (tail.hasRemaining()) {
+            channel.write(tail);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.array.close();
+        }
+        segments.clear();
+        super.close();
+    }
+
+    private byte[] takeBytes() throws IOException {
+        flush();
+        ByteArrayOutputStream bos = (ByteArrayOutputStream) out;
+        byte[] bytes = bos.toByteArray();
+        bos.reset();
+        return bytes;
+    }
+
+    /** The bytes written before an {@link NDArray}, followed by the copy of the array. */
+    private static final class Segment {
+
+        byte[] bytes;
+        NDArray array;
+
+        Segment(byte[] bytes, NDArray array) {
+            this.bytes = bytes;
+            this.array = array;
+        }
+    }
+}
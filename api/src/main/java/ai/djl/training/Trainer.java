@@ -93,7 +93,13 @@ public interface Trainer extends AutoCloseable {
      */
     void validateBatch(Batch batch);
 
-    /** Updates all of the parameters of the model once. */
+    /**
+     * Updates all of the parameters of the model once.
+     *
+     * <p>If the {@link TrainingConfig} accumulates gradients over several batches, the parameters
+     * are only updated by one call out of {@link TrainingConfig#getGradientAccumulation()}, and the
+     * other calls only count the batch.
+     */
     void step();
 
     /**
@@ -74,4 +74,19 @@ public interface TrainingConfig {
      * @return the batch size
      */
     int getBatchSize();
+
+    /**
+     * Gets the number of batches whose gradients are accumulated before the parameters are
+     * updated.
+     *
+     * <p>With more than one accumulation step, {@link Trainer#step()} only updates the parameters
+     * once every that many batches, using the mean of their gradients. This trains with the
+     * effective batch size of all the accumulated batches, while only one batch is in memory at a
+     * time.
+     *
+     * @return the number of gradient accumulation steps, 1 to update after every batch
+     */
+    default int getGradientAccumulation() {
+        return 1;
+    }
 }
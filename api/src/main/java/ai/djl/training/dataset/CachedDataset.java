@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.dataset;
+
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.translate.Pipeline;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * {@code CachedDataset} is a {@link RandomAccessDataset} that caches the {@link Record}s of another
+ * {@link RandomAccessDataset} across epochs.
+ *
+ * <p>Records are stored off-heap after being read and optionally transformed by a cache {@link
+ * Pipeline}. The cache pipeline should only contain deterministic transforms, like decoding or
+ * resizing, while random augmentations belong in the regular pipeline which is applied on every
+ * access. The cache is bounded by a number of bytes, a quarter of the maximum heap size by default,
+ * and, if a spill directory is set, evicted records are kept on disk.
+ *
+ * <p>The following is an example of how to use CachedDataset:
+ *
+ * <pre>
+ *     CachedDataset dataset = new CachedDataset.Builder()
+ *                              .setDataset(imageFolder)
+ *                              .optCachePipeline(new Pipeline(new Resize(224, 224)))
+ *                              .optPipeline(new Pipeline(new ToTensor()))
+ *                              .optMaxCacheSize(4L * 1024 * 1024 * 1024)
+ *                              .setSampling(32, true)
+ *                              .build();
+ * </pre>
+ */
+public class CachedDataset extends RandomAccessDataset {
+
+    private RandomAccessDataset dataset;
+    private Pipeline cachePipeline;
+    private RecordCache cache;
+
+    /**
+     * Creates a new instance of {@code CachedDataset} with the arguments in {@link Builder}.
+     *
+     * @param builder a builder with the required arguments
+     */
+    public CachedDataset(Builder builder) {
+        super(builder);
+        dataset = builder.dataset;
+        cachePipeline = builder.cachePipeline;
+        cache = new RecordCache(builder.maxCacheSize, builder.spillDir);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Record get(NDManager manager, long index) throws IOException {
+        Record record = cache.get(manager, index);
+        if (record != null) {
+            return record;
+        }
+
+        record = dataset.get(manager, index);
+        if (cachePipeline != null) {
+            NDList data = cachePipeline.transform(record.getData());
+            record = new Record(data, record.getLabels());
+        }
+        cache.put(index, record);
+        return record;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long size() {
+        return dataset.size();
+    }
+
+    /**
+     * Returns the number of bytes currently held by the in-memory cache.
+     *
+     * @return the number of bytes currently held by the in-memory cache
+     */
+    public long getCacheSize() {
+        return cache.getCurrentSize();
+    }
+
+    /** Removes all the cached records, including the ones spilled to disk. */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /** The Builder to construct a {@link CachedDataset}. */
+    public static final class Builder extends BaseBuilder<Builder> {
+
+        RandomAccessDataset dataset;
+        Pipeline cachePipeline;
+        long maxCacheSize = Runtime.getRuntime().maxMemory() / 4;
+        Path spillDir;
+
+        /** {@inheritDoc} */
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        /**
+         * Sets the {@link RandomAccessDataset} to cache.
+         *
+         * @param dataset the {@link RandomAccessDataset} to cache
+         * @return this Builder
+         */
+        public Builder setDataset(RandomAccessDataset dataset) {
+            this.dataset = dataset;
+            return self();
+        }
+
+        /**
+         * Sets the {@link Pipeline} applied on the data before it is cached.
+         *
+         * @param cachePipeline the {@link Pipeline} of deterministic transforms applied before
+         *     caching
+         * @return this Builder
+         */
+        public Builder optCachePipeline(Pipeline cachePipeline) {
+            this.cachePipeline = cachePipeline;
+            return self();
+        }
+
+        /**
+         * Sets the maximum number of bytes of records held in memory.
+         *
+         * <p>The records are stored off-heap, and the direct memory of the JVM is limited to the
+         * maximum heap size by default. The default is a quarter of the maximum heap size.
+         *
+         * @param maxCacheSize the maximum number of bytes of records held in memory
+         * @return this Builder
+         */
+        public Builder optMaxCacheSize(long maxCacheSize) {
+            this.maxCacheSize = maxCacheSize;
+            return self();
+        }
+
+        /**
+         * Sets the directory where records evicted from memory are written.
+         *
+         * @param spillDir the directory where records evicted from memory are written
+         * @return this Builder
+         */
+        public Builder optSpillDirectory(Path spillDir) {
+            this.spillDir = spillDir;
+            return self();
+        }
+
+        /**
+         * Builds a new instance of {@code CachedDataset}.
+         *
+         * @return a new instance of {@code CachedDataset}
+         */
+        public CachedDataset build() {
+            if (dataset == null) {
+                throw new IllegalArgumentException("The dataset to cache must be set");
+            }
+            if (maxCacheSize <= 0) {
+                throw new IllegalArgumentException("The cache size must be positive");
+            }
+            return new CachedDataset(this);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.dataset;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code RecordCache} keeps encoded {@link Record}s in off-heap memory, bounded by a total number
+ * of bytes.
+ *
+ * <p>Entries are evicted with the CLOCK algorithm: every hit marks the entry as referenced, and the
+ * clock hand clears the mark of referenced entries and evicts the first unreferenced one. If a
+ * spill directory is configured, evicted entries are written to disk and read back on the next
+ * miss instead of being recomputed.
+ */
+class RecordCache {
+
+    private static final int HEADER_SIZE = 8;
+
+    private long maxSize;
+    private Path spillDir;
+
+    private long currentSize;
+    private Map<Long, Entry> entries;
+    private List<Entry> clock;
+    private int hand;
+    private Set<Long> spilled;
+
+    /**
+     * Creates a new instance of {@code RecordCache}.
+     *
+     * @param maxSize the maximum number of bytes held in memory
+     * @param spillDir the directory to write evicted entries to, or {@code null} to drop them
+     */
+    RecordCache(long maxSize, Path spillDir) {
+        this.maxSize = maxSize;
+        this.spillDir = spillDir;
+        entries = new HashMap<>();
+        clock = new ArrayList<>();
+        spilled = new HashSet<>();
+    }
+
+    /**
+     * Returns the cached {@link Record} for the given index, creating its arrays with the given
+     * manager.
+     *
+     * @param manager the manager used to create the arrays
+     * @param index the index of the record
+     * @return the cached {@link Record}, or {@code null} if the index is not cached
+     * @throws IOException if the record cannot be read back from the spill directory
+     */
+    synchronized Record get(NDManager manager, long index) throws IOException {
+        Entry entry = entries.get(index);
+        if (entry != null) {
+            entry.referenced = true;
+            return decode(manager, entry.buffer.duplicate());
+        }
+        if (!spilled.contains(index)) {
+            return null;
+        }
+        ByteBuffer buffer = readSpill(index);
+        insert(index, buffer);
+        return decode(manager, buffer.duplicate());
+    }
+
+    /**
+     * Adds a {@link Record} to the cache.
+     *
+     * @param index the index of the record
+     * @param record the {@link Record} to cache
+     * @throws IOException if an evicted entry cannot be written to the spill directory
+     */
+    synchronized void put(long index, Record record) throws IOException {
+        if (entries.containsKey(index)) {
+            return;
+        }
+        insert(index, encode(record));
+    }
+
+    /**
+     * Returns the number of bytes currently held in memory.
+     *
+     * @return the number of bytes currently held in memory
+     */
+    synchronized long getCurrentSize() {
+        return currentSize;
+    }
+
+    /** Releases all the cached entries and removes the spilled files. */
+    synchronized void clear() {
+        entries.clear();
+        clock.clear();
+        hand = 0;
+        currentSize = 0;
+        if (spillDir != null) {
+            for (Long index : spilled) {
+                try {
+                    Files.deleteIfExists(getSpillFile(index));
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+        }
+        spilled.clear();
+    }
+
+    private void insert(long index, ByteBuffer buffer) throws IOException {
+        int size = buffer.capacity();
+        if (size > maxSize) {
+            // never fits in memory, keep it on disk only
+            spill(index, buffer);
+            return;
+        }
+        while (currentSize + size > maxSize) {
+            evict();
+        }
+        Entry entry = new Entry(index, buffer);
+        entries.put(index, entry);
+        clock.add(entry);
+        currentSize += size;
+    }
+
+    private void evict() throws IOException {
+        while (true) {
+            if (hand >= clock.size()) {
+                hand = 0;
+            }
+            Entry entry = clock.get(hand);
+            if (entry.referenced) {
+                entry.referenced = false;
+                ++hand;
+                continue;
+            }
+            // move the last entry into the free slot to keep removal O(1)
+            Entry last = clock.remove(clock.size() - 1);
+            if (last != entry) {
+                clock.set(hand, last);
+            }
+            entries.remove(entry.index);
+            currentSize -= entry.buffer.capacity();
+            spill(entry.index, entry.buffer);
+            return;
+        }
+    }
+
+    private void spill(long index, ByteBuffer buffer) throws IOException {
+        if (spillDir == null || spilled.contains(index)) {
+            return;
+        }
+        Files.createDirectories(spillDir);
+        Path file = getSpillFile(index);
+        Path tmp = spillDir.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel =
+                FileChannel.open(
+                        tmp,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bb = buffer.duplicate();
+            bb.rewind();
+            while (bb.hasRemaining()) {
+                channel.write(bb);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        spilled.add(index);
+    }
+
+    private ByteBuffer readSpill(long index) throws IOException {
+        try (FileChannel channel = FileChannel.open(getSpillFile(index), StandardOpenOption.READ)) {
+            ByteBuffer bb =
+                    ByteBuffer.allocateDirect(Math.toIntExact(channel.size()))
+                            .order(ByteOrder.nativeOrder());
+            while (bb.hasRemaining()) {
+                if (channel.read(bb) < 0) {
+                    throw new IOException("Unexpected end of cache file for record: " + index);
+                }
+            }
+            bb.rewind();
+            return bb;
+        }
+    }
+
+    private Path getSpillFile(long index) {
+        return spillDir.resolve(index + ".rec");
+    }
+
+    private static ByteBuffer encode(Record record) {
+        NDList data = record.getData();
+        NDList labels = record.getLabels();
+        List<ByteBuffer> contents = new ArrayList<>(data.size() + labels.size());
+        int size = HEADER_SIZE;
+        for (NDArray array : data) {
+            ByteBuffer bb = array.toByteBuffer();
+            contents.add(bb);
+            size += getArraySize(array, bb);
+        }
+        for (NDArray array : labels) {
+            ByteBuffer bb = array.toByteBuffer();
+            contents.add(bb);
+            size += getArraySize(array, bb);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+        buffer.putInt(data.size());
+        buffer.putInt(labels.size());
+        int i = 0;
+        for (NDArray array : data) {
+            putArray(buffer, array, contents.get(i++));
+        }
+        for (NDArray array : labels) {
+            putArray(buffer, array, contents.get(i++));
+        }
+        buffer.rewind();
+        return buffer;
+    }
+
+    private static int getArraySize(NDArray array, ByteBuffer content) {
+        // data type, number of dimensions, dimensions, content length, content
+        return 12 + 8 * array.getShape().dimension() + content.remaining();
+    }
+
+    private static void putArray(ByteBuffer buffer, NDArray array, ByteBuffer content) {
+        long[] shape = array.getShape().getShape();
+        buffer.putInt(array.getDataType().ordinal());
+        buffer.putInt(shape.length);
+        for (long dim : shape) {
+            buffer.putLong(dim);
+        }
+        buffer.putInt(content.remaining());
+        buffer.put(content);
+    }
+
+    private static Record decode(NDManager manager, ByteBuffer buffer) {
+        buffer.order(ByteOrder.nativeOrder());
+        int dataSize = buffer.getInt();
+        int labelSize = buffer.getInt();
+        NDList data = new NDList(dataSize);
+        for (int i = 0; i < dataSize; ++i) {
+            data.add(getArray(manager, buffer));
+        }
+        NDList labels = new NDList(labelSize);
+        for (int i = 0; i < labelSize; ++i) {
+            labels.add(getArray(manager, buffer));
+        }
+        return new Record(data, labels);
+    }
+
+    private static NDArray getArray(NDManager manager, ByteBuffer buffer) {
+        DataType dataType = DataType.values()[buffer.getInt()];
+        long[] shape = new long[buffer.getInt()];
+        for (int i = 0; i < shape.length; ++i) {
+            shape[i] = buffer.getLong();
+        }
+        int length = buffer.getInt();
+        ByteBuffer content = buffer.slice().order(ByteOrder.nativeOrder());
+        content.limit(length);
+        buffer.position(buffer.position() + length);
+        return manager.create(dataType.asDataType(content), new Shape(shape), dataType);
+    }
+
+    private static final class Entry {
+
+        long index;
+        ByteBuffer buffer;
+        boolean referenced;
+
+        Entry(long index, ByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.dataset;
+
+import ai.djl.ndarray.NDManager;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * {@code RecordReader} reads the {@link Record}s of one partition of a {@link StreamingDataset}
+ * sequentially.
+ *
+ * <p>A {@code RecordReader} is used by a single thread at a time and should only hold the data of
+ * the record it is currently reading.
+ */
+public interface RecordReader extends Closeable {
+
+    /**
+     * Reads the next {@link Record}.
+     *
+     * @param manager the manager used to create the arrays
+     * @return the next {@link Record}, or {@code null} if the end of the partition is reached
+     * @throws IOException if an I/O error occurs
+     */
+    Record next(NDManager manager) throws IOException;
+
+    /**
+     * Skips the next {@link Record} without creating its arrays.
+     *
+     * @return {@code false} if the end of the partition is reached
+     * @throws IOException if an I/O error occurs
+     */
+    boolean skip() throws IOException;
+}
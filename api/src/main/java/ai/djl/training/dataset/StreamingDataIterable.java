@@ -0,0 +1,480 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.dataset;
+
+import ai.djl.Device;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.Pipeline;
+import ai.djl.util.RandomUtils;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@code StreamingDataIterable} is a data loader that reads the partitions of a {@link
+ * StreamingDataset} sequentially and combines the records into {@link Batch}es.
+ *
+ * <p>We don't recommended using StreamingDataIterable directly. Instead use {@link
+ * StreamingDataset} combined with {@link ai.djl.training.Trainer} to iterate over the {@link
+ * StreamingDataset}.
+ *
+ * <p>The background workers and the partitions are released once all the batches are read. When
+ * the iteration stops early, they are released by {@link #close()}, or once the {@code
+ * StreamingDataIterable} is garbage collected. The batches that were returned are not affected and
+ * must still be closed by the caller.
+ */
+public class StreamingDataIterable implements Iterable<Batch>, Iterator<Batch>, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingDataIterable.class);
+
+    private static final Object END = new Object();
+
+    private NDManager batchManager;
+    private NDManager manager;
+    private Batchifier batchifier;
+    private Pipeline pipeline;
+    private Pipeline targetPipeline;
+    private int batchSize;
+    private boolean dropLast;
+    private int shuffleBufferSize;
+    private long maxIteration;
+    private Device device;
+
+    // for single thread
+    private PartitionCursor cursor;
+    // for multithreading
+    private BlockingQueue<Object> queue;
+    private List<Future<?>> workers;
+    private int activeWorkers;
+    private AtomicBoolean closed = new AtomicBoolean();
+
+    private List<Record> shuffleBuffer;
+    private boolean exhausted;
+    private Batch nextBatch;
+    private long count;
+
+    /**
+     * Creates a new instance of {@code StreamingDataIterable} with the given parameters.
+     *
+     * @param dataset the dataset to iterate on
+     * @param manager the manager to create the arrays
+     * @param batchifier a batchifier
+     * @param pipeline the pipeline of transforms to apply on the data
+     * @param targetPipeline the pipeline of transforms to apply on the labels
+     * @param batchSize the number of records in a batch
+     * @param dropLast whether to drop the last incomplete batch
+     * @param shuffleBufferSize the number of records in the shuffle buffer
+     * @param shardIndex the index of the shard to read
+     * @param numShards the total number of shards
+     * @param executor an {@link ExecutorService} to read the partitions, or {@code null}
+     * @param numWorkers the number of workers reading partitions concurrently
+     * @param maxIteration the maximum number of iterations
+     * @param device the {@link Device}
+     */
+    public StreamingDataIterable(
+            StreamingDataset dataset,
+            NDManager manager,
+            Batchifier batchifier,
+            Pipeline pipeline,
+            Pipeline targetPipeline,
+            int batchSize,
+            boolean dropLast,
+            int shuffleBufferSize,
+            int shardIndex,
+            int numShards,
+            ExecutorService executor,
+            int numWorkers,
+            long maxIteration,
+            Device device) {
+        // the batches are not created in the manager of the records, so that they stay valid
+        // after the iterable is closed
+        this.batchManager = manager;
+        this.manager = manager.newSubManager();
+        this.batchifier = batchifier;
+        this.pipeline = pipeline;
+        this.targetPipeline = targetPipeline;
+        this.batchSize = batchSize;
+        this.dropLast = dropLast;
+        this.shuffleBufferSize = shuffleBufferSize;
+        this.maxIteration = maxIteration;
+        this.device = device;
+        shuffleBuffer = new ArrayList<>();
+
+        int partitionCount = dataset.getPartitionCount();
+        List<Integer> partitions = new ArrayList<>();
+        int recordShard = 0;
+        int recordShards = 1;
+        if (partitionCount >= numShards) {
+            for (int i = shardIndex; i < partitionCount; i += numShards) {
+                partitions.add(i);
+            }
+        } else {
+            // not enough partitions, each shard reads every partition and keeps its records
+            recordShard = shardIndex;
+            recordShards = numShards;
+            for (int i = 0; i < partitionCount; ++i) {
+                partitions.add(i);
+            }
+        }
+
+        int numThreads = Math.min(numWorkers, partitions.size());
+        if (executor == null || numThreads <= 1) {
+            cursor =
+                    new PartitionCursor(
+                            dataset, this.manager, partitions, recordShard, recordShards);
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(Math.max(batchSize, shuffleBufferSize) + numThreads);
+        workers = new ArrayList<>(numThreads);
+        activeWorkers = numThreads;
+        WeakReference<StreamingDataIterable> owner = new WeakReference<>(this);
+        for (int i = 0; i < numThreads; ++i) {
+            List<Integer> assigned = new ArrayList<>();
+            for (int j = i; j < partitions.size(); j += numThreads) {
+                assigned.add(partitions.get(j));
+            }
+            PartitionCursor workerCursor =
+                    new PartitionCursor(
+                            dataset, this.manager, assigned, recordShard, recordShards);
+            workers.add(executor.submit(new Worker(workerCursor, queue, closed, owner)));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterator<Batch> iterator() {
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+        if (nextBatch != null) {
+            return true;
+        }
+        if (closed.get()) {
+            return false;
+        }
+        if (++count > maxIteration) {
+            close();
+            return false;
+        }
+        try {
+            nextBatch = readBatch();
+        } catch (IOException e) {
+            logger.error(e.getMessage());
+            close();
+            throw new IllegalStateException("Data loading failed", e);
+        }
+        if (nextBatch == null) {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Batch next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Batch batch = nextBatch;
+        nextBatch = null;
+        return batch;
+    }
+
+    /**
+     * Stops reading the dataset, and releases the records that were read but not returned yet.
+     *
+     * <p>The batches that were already returned are not closed.
+     */
+    @Override
+    public void close() {
+        if (closed.getAndSet(true)) {
+            return;
+        }
+        if (cursor != null) {
+            cursor.close();
+        }
+        if (workers != null) {
+            // interrupts the workers blocked on I/O or on the queue
+            workers.forEach(worker -> worker.cancel(true));
+            Object item;
+            while ((item = queue.poll()) != null) {
+                if (item instanceof Record) {
+                    closeRecord((Record) item);
+                }
+            }
+        }
+        if (nextBatch != null) {
+            nextBatch.close();
+            nextBatch = null;
+        }
+        shuffleBuffer.forEach(StreamingDataIterable::closeRecord);
+        shuffleBuffer.clear();
+        manager.close();
+    }
+
+    private Batch readBatch() throws IOException {
+        List<Record> records = new ArrayList<>(batchSize);
+        while (records.size() < batchSize) {
+            Record record = nextRecord();
+            if (record == null) {
+                break;
+            }
+            records.add(record);
+        }
+        if (records.isEmpty() || (dropLast && records.size() < batchSize)) {
+            records.forEach(StreamingDataIterable::closeRecord);
+            return null;
+        }
+
+        NDManager subManager = batchManager.newSubManager();
+        NDList[] data = new NDList[records.size()];
+        NDList[] labels = new NDList[records.size()];
+        for (int i = 0; i < records.size(); i++) {
+            Record record = records.get(i);
+            record.getData().attach(subManager);
+            record.getLabels().attach(subManager);
+            data[i] = record.getData();
+            // apply transform
+            if (pipeline != null) {
+                data[i] = pipeline.transform(data[i]);
+            }
+
+            labels[i] = record.getLabels();
+        }
+        NDList batchData = batchifier.batchify(data);
+        NDList batchLabels = batchifier.batchify(labels);
+
+        for (NDList list : data) {
+            list.close();
+        }
+        for (NDList list : labels) {
+            list.close();
+        }
+
+        // apply label transform
+        if (targetPipeline != null) {
+            batchLabels = targetPipeline.transform(batchLabels);
+        }
+        // pin to a specific device
+        if (device != null) {
+            batchData = batchData.asInDevice(device, false);
+            batchLabels = batchLabels.asInDevice(device, false);
+        }
+        return new Batch(subManager, batchData, batchLabels, batchifier);
+    }
+
+    private Record nextRecord() throws IOException {
+        if (shuffleBufferSize <= 1) {
+            return readRecord();
+        }
+        while (!exhausted && shuffleBuffer.size() < shuffleBufferSize) {
+            Record record = readRecord();
+            if (record == null) {
+                exhausted = true;
+                break;
+            }
+            shuffleBuffer.add(record);
+        }
+        if (shuffleBuffer.isEmpty()) {
+            return null;
+        }
+        int index = RandomUtils.nextInt(shuffleBuffer.size());
+        Record record = shuffleBuffer.get(index);
+        Record last = shuffleBuffer.remove(shuffleBuffer.size() - 1);
+        if (index < shuffleBuffer.size()) {
+            shuffleBuffer.set(index, last);
+        }
+        return record;
+    }
+
+    private Record readRecord() throws IOException {
+        if (cursor != null) {
+            return cursor.read();
+        }
+        while (activeWorkers > 0) {
+            Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading the dataset", e);
+            }
+            if (item == END) {
+                --activeWorkers;
+            } else if (item instanceof IOException) {
+                throw (IOException) item;
+            } else if (item instanceof RuntimeException) {
+                throw (RuntimeException) item;
+            } else {
+                return (Record) item;
+            }
+        }
+        return null;
+    }
+
+    private static void closeRecord(Record record) {
+        record.getData().close();
+        record.getLabels().close();
+    }
+
+    /** Reads the records of a list of partitions, one partition after the other. */
+    private static final class PartitionCursor {
+
+        private StreamingDataset dataset;
+        private NDManager manager;
+        private List<Integer> partitions;
+        private int shardIndex;
+        private int numShards;
+        private int next;
+        private RecordReader reader;
+        private long position;
+
+        PartitionCursor(
+                StreamingDataset dataset,
+                NDManager manager,
+                List<Integer> partitions,
+                int shardIndex,
+                int numShards) {
+            this.dataset = dataset;
+            this.manager = manager;
+            this.partitions = partitions;
+            this.shardIndex = shardIndex;
+            this.numShards = numShards;
+        }
+
+        Record read() throws IOException {
+            while (true) {
+                if (reader == null) {
+                    if (next >= partitions.size()) {
+                        return null;
+                    }
+                    reader = dataset.openPartition(partitions.get(next++));
+                    position = 0;
+                }
+                if (!skipToShard()) {
+                    close();
+                    continue;
+                }
+                Record record = reader.next(manager);
+                if (record == null) {
+                    close();
+                    continue;
+                }
+                ++position;
+                return record;
+            }
+        }
+
+        private boolean skipToShard() throws IOException {
+            while (position % numShards != shardIndex) {
+                if (!reader.skip()) {
+                    return false;
+                }
+                ++position;
+            }
+            return true;
+        }
+
+        void close() {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close the dataset partition", e);
+                }
+                reader = null;
+            }
+        }
+    }
+
+    /**
+     * Reads a list of partitions in the background and hands the records to the iterator.
+     *
+     * <p>The worker does not reference the iterator, so that it stops when the iterator is garbage
+     * collected without being closed.
+     */
+    private static final class Worker implements Callable<Void> {
+
+        private PartitionCursor workerCursor;
+        private BlockingQueue<Object> queue;
+        private AtomicBoolean closed;
+        private WeakReference<StreamingDataIterable> owner;
+
+        Worker(
+                PartitionCursor workerCursor,
+                BlockingQueue<Object> queue,
+                AtomicBoolean closed,
+                WeakReference<StreamingDataIterable> owner) {
+            this.workerCursor = workerCursor;
+            this.queue = queue;
+            this.closed = closed;
+            this.owner = owner;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Void call() {
+            try {
+                Record record;
+                while (isActive() && (record = workerCursor.read()) != null) {
+                    if (!offer(record)) {
+                        closeRecord(record);
+                        return null;
+                    }
+                }
+                offer(END);
+            } catch (IOException | RuntimeException e) {
+                offer(e);
+            } finally {
+                workerCursor.close();
+            }
+            return null;
+        }
+
+        private boolean isActive() {
+            return !closed.get() && owner.get() != null;
+        }
+
+        private boolean offer(Object item) {
+            try {
+                while (isActive()) {
+                    if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.dataset;
+
+import ai.djl.Device;
+import ai.djl.ndarray.NDManager;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.Pipeline;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@code StreamingDataset} represents a dataset that is read sequentially, without loading it
+ * entirely in memory.
+ *
+ * <p>The dataset is split into one or more partitions, typically one per file or stream, each read
+ * with a {@link RecordReader}. Only the records in the shuffle buffer and the batches being built
+ * are held in memory, so a {@code StreamingDataset} can be larger than the available memory.
+ *
+ * <p>For distributed training, each host reads its own shard of the dataset. Partitions are
+ * distributed across the shards when there are enough of them, otherwise the records of every
+ * partition are distributed across the shards. Within a host, the partitions of the shard can be
+ * read in parallel by several workers.
+ */
+public abstract class StreamingDataset implements Dataset {
+
+    protected Batchifier batchifier;
+    protected Pipeline pipeline;
+    protected Pipeline targetPipeline;
+    protected int batchSize;
+    protected boolean dropLast;
+    protected int shuffleBufferSize;
+    protected int shardIndex;
+    protected int numShards;
+    protected ExecutorService executor;
+    protected int numWorkers;
+    protected long maxIteration;
+    protected Device device;
+
+    /**
+     * Creates a new instance of {@link StreamingDataset} with the given necessary configurations.
+     *
+     * @param builder a builder with the necessary configurations
+     */
+    public StreamingDataset(BaseBuilder<?> builder) {
+        this.batchifier = builder.batchifier;
+        this.pipeline = builder.pipeline;
+        this.targetPipeline = builder.targetPipeline;
+        this.batchSize = builder.getBatchSize();
+        this.dropLast = builder.dropLast;
+        this.shuffleBufferSize = builder.shuffleBufferSize;
+        this.shardIndex = builder.shardIndex;
+        this.numShards = builder.numShards;
+        this.executor = builder.executor;
+        this.numWorkers = builder.numWorkers;
+        this.maxIteration = builder.maxIteration;
+        this.device = builder.device;
+    }
+
+    /**
+     * Returns the number of partitions of the dataset.
+     *
+     * @return the number of partitions of the dataset
+     */
+    public abstract int getPartitionCount();
+
+    /**
+     * Opens a {@link RecordReader} on the given partition.
+     *
+     * @param partition the index of the partition
+     * @return a {@link RecordReader} on the given partition
+     * @throws IOException if the partition cannot be opened
+     */
+    public abstract RecordReader openPartition(int partition) throws IOException;
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterable<Batch> getData(NDManager manager) {
+        return new StreamingDataIterable(
+                this,
+                manager,
+                batchifier,
+                pipeline,
+                targetPipeline,
+                batchSize,
+                dropLast,
+                shuffleBufferSize,
+                shardIndex,
+                numShards,
+                executor,
+                numWorkers,
+                maxIteration,
+                device);
+    }
+
+    /** The Builder to construct a {@link StreamingDataset}. */
+    @SuppressWarnings("rawtypes")
+    public abstract static class BaseBuilder<T extends BaseBuilder> {
+
+        protected Batchifier batchifier = Batchifier.STACK;
+        protected Pipeline pipeline;
+        protected Pipeline targetPipeline;
+        protected int batchSize;
+        protected boolean dropLast;
+        protected int shuffleBufferSize;
+        protected int shardIndex;
+        protected int numShards = 1;
+        protected ExecutorService executor;
+        protected int numWorkers;
+        protected long maxIteration = Long.MAX_VALUE;
+        protected Device device;
+
+        /**
+         * Gets the batch size for the dataset.
+         *
+         * @return the batch size
+         */
+        public int getBatchSize() {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("The batch size must be set");
+            }
+            return batchSize;
+        }
+
+        /**
+         * Sets the batch size.
+         *
+         * @param batchSize the batch size
+         * @param dropLast whether to drop the last incomplete batch
+         * @return this {@code BaseBuilder}
+         */
+        public T setSampling(int batchSize, boolean dropLast) {
+            this.batchSize = batchSize;
+            this.dropLast = dropLast;
+            return self();
+        }
+
+        /**
+         * Sets the size of the buffer used to shuffle the records.
+         *
+         * <p>Records are drawn randomly from a buffer of the given size, which is refilled from
+         * the stream. A size of 0 or 1 keeps the order of the stream.
+         *
+         * @param shuffleBufferSize the number of records in the shuffle buffer
+         * @return this {@code BaseBuilder}
+         */
+        public T optShuffleBuffer(int shuffleBufferSize) {
+            this.shuffleBufferSize = shuffleBufferSize;
+            return self();
+        }
+
+        /**
+         * Sets the shard of the dataset read by this instance.
+         *
+         * @param shardIndex the index of the shard, from 0 to {@code numShards - 1}
+         * @param numShards the total number of shards
+         * @return this {@code BaseBuilder}
+         */
+        public T optShard(int shardIndex, int numShards) {
+            if (numShards <= 0 || shardIndex < 0 || shardIndex >= numShards) {
+                throw new IllegalArgumentException(
+                        "Invalid shard " + shardIndex + " of " + numShards);
+            }
+            this.shardIndex = shardIndex;
+            this.numShards = numShards;
+            return self();
+        }
+
+        /**
+         * Sets the {@link Batchifier} for the dataset.
+         *
+         * @param batchier the {@link Batchifier} to be set
+         * @return this {@code BaseBuilder}
+         */
+        public T optBatchier(Batchifier batchier) {
+            this.batchifier = batchier;
+            return self();
+        }
+
+        /**
+         * Sets the {@link Pipeline} of {@link ai.djl.translate.Transform} to be applied on the
+         * data.
+         *
+         * @param pipeline the {@link Pipeline} of {@link ai.djl.translate.Transform} to be applied
+         *     on the data
+         * @return this {@code BaseBuilder}
+         */
+        public T optPipeline(Pipeline pipeline) {
+            this.pipeline = pipeline;
+            return self();
+        }
+
+        /**
+         * Sets the {@link Pipeline} of {@link ai.djl.translate.Transform} to be applied on the
+         * labels.
+         *
+         * @param targetPipeline the {@link Pipeline} of {@link ai.djl.translate.Transform} to be
+         *     applied on the labels
+         * @return this {@code BaseBuilder}
+         */
+        public T optTargetPipeline(Pipeline targetPipeline) {
+            this.targetPipeline = targetPipeline;
+            return self();
+        }
+
+        /**
+         * Sets the {@link ExecutorService} used to read the partitions in parallel.
+         *
+         * @param executor the {@link ExecutorService} to run the workers
+         * @param numWorkers the number of workers reading partitions concurrently
+         * @return this {@code BaseBuilder}
+         */
+        public T optExcutor(ExecutorService executor, int numWorkers) {
+            this.executor = executor;
+            this.numWorkers = numWorkers;
+            return self();
+        }
+
+        /**
+         * Sets the {@link Device}.
+         *
+         * @param device the device
+         * @return this {@code BaseBuilder}
+         */
+        public T optDevice(Device device) {
+            this.device = device;
+            return self();
+        }
+
+        /**
+         * Sets the maximum number of iterations.
+         *
+         * @param maxIteration the maximum number of iterations
+         * @return this {@code BaseBuilder}
+         */
+        public T optMaxIteration(long maxIteration) {
+            this.maxIteration = maxIteration;
+            return self();
+        }
+
+        /**
+         * Returns this {code Builder} object.
+         *
+         * @return this {@code BaseBuilder}
+         */
+        protected abstract T self();
+    }
+}
@@ -61,8 +61,7 @@ public class SoftmaxCrossEntropyLoss extends Loss {
     public NDArray getLoss(NDList label, NDList prediction) {
         NDArray pred = prediction.singletonOrThrow();
         if (!fromLogit) {
-            // TODO: use numpy log softmax
-            pred = pred.softmax(classAxis).log();
+            pred = pred.logSoftmax(classAxis);
         }
         NDArray loss;
         NDArray lab = label.singletonOrThrow();
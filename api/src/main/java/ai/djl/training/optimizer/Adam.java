@@ -31,6 +31,9 @@ import java.util.concurrent.ConcurrentHashMap;
  * <br>
  * where g represents the gradient, and m/v are 1st and 2nd order moment estimates (mean and
  * variance).
+ *
+ * <p>If the gradient is {@link ai.djl.ndarray.types.SparseFormat#ROW_SPARSE} and lazy update is
+ * enabled, only the rows present in the gradient, and their moment estimates, are updated.
  */
 public class Adam extends Optimizer {
 
@@ -38,6 +41,7 @@ public class Adam extends Optimizer {
     private float beta1;
     private float beta2;
     private float epsilon;
+    private boolean lazyUpdate;
 
     private Map<String, Map<Device, NDArray>> means;
     private Map<String, Map<Device, NDArray>> variances;
@@ -53,6 +57,7 @@ public class Adam extends Optimizer {
         beta1 = builder.beta1;
         beta2 = builder.beta2;
         epsilon = builder.epsilon;
+        lazyUpdate = builder.lazyUpdate;
         means = new ConcurrentHashMap<>();
         variances = new ConcurrentHashMap<>();
     }
@@ -94,7 +99,7 @@ public class Adam extends Optimizer {
                 beta1,
                 beta2,
                 epsilon,
-                true);
+                lazyUpdate);
     }
     /** The Builder to construct an {@link Adam} object. */
     public static final class Builder extends OptimizerBuilder<Builder> {
@@ -104,6 +109,7 @@ public class Adam extends Optimizer {
         private float beta1 = 0.9f;
         private float beta2 = 0.999f;
         private float epsilon = 1e-8f;
+        private boolean lazyUpdate = true;
 
         /** {@inheritDoc} */
         @Override
@@ -155,6 +161,18 @@ public class Adam extends Optimizer {
             return this;
         }
 
+        /**
+         * Sets whether to only update the rows present in a row sparse gradient (default true).
+         *
+         * @param lazyUpdate true to only update the rows present in a row sparse gradient, false
+         *     to apply weight decay and update the moment estimates of all the rows
+         * @return this {@code Builder}
+         */
+        public Builder optLazyUpdate(boolean lazyUpdate) {
+            this.lazyUpdate = lazyUpdate;
+            return this;
+        }
+
         /**
          * Builds a {@link Adam} block.
          *
@@ -30,11 +30,15 @@ import java.util.concurrent.ConcurrentHashMap;
  * \( v = momentum * v - learning_rate * gradient \)<br>
  * \( weight += v \)<br>
  * Momentum update has better convergence rates on neural networks.
+ *
+ * <p>If the gradient is {@link ai.djl.ndarray.types.SparseFormat#ROW_SPARSE} and lazy update is
+ * enabled, only the rows present in the gradient, and their momentum, are updated.
  */
 public class Sgd extends Optimizer {
 
     private LearningRateTracker learningRateTracker;
     private float momentum;
+    private boolean lazyUpdate;
     private Map<String, Map<Device, NDArray>> momentumStates;
 
     /**
@@ -46,13 +50,13 @@ public class Sgd extends Optimizer {
         super(builder);
         learningRateTracker = builder.learningRateTracker;
         momentum = builder.momentum;
+        lazyUpdate = builder.lazyUpdate;
         momentumStates = new ConcurrentHashMap<>();
     }
 
     /** {@inheritDoc} */
     @Override
     public void update(String parameterId, NDArray weight, NDArray grad) {
-        // TODO: Support Mixed precision Sparse
         float weightDecay = getWeightDecay();
         float learningRate = learningRateTracker.getNewLearningRate(updateCount(parameterId));
         NDList inputs;
@@ -71,7 +75,14 @@ public class Sgd extends Optimizer {
 
         NDArrayEx ex = weight.getNDArrayInternal();
         ex.sgdUpdate(
-                inputs, weights, learningRate, weightDecay, rescaleGrad, clipGrad, momentum, true);
+                inputs,
+                weights,
+                learningRate,
+                weightDecay,
+                rescaleGrad,
+                clipGrad,
+                momentum,
+                lazyUpdate);
     }
 
     /** The Builder to construct an {@link Sgd} object. */
@@ -79,6 +90,7 @@ public class Sgd extends Optimizer {
 
         private LearningRateTracker learningRateTracker;
         private float momentum;
+        private boolean lazyUpdate = true;
 
         /** {@inheritDoc} */
         @Override
@@ -108,6 +120,18 @@ public class Sgd extends Optimizer {
             return this;
         }
 
+        /**
+         * Sets whether to only update the rows present in a row sparse gradient (default true).
+         *
+         * @param lazyUpdate true to only update the rows present in a row sparse gradient, false
+         *     to apply weight decay and momentum to all the rows
+         * @return this {@code Builder}
+         */
+        public Builder optLazyUpdate(boolean lazyUpdate) {
+            this.lazyUpdate = lazyUpdate;
+            return this;
+        }
+
         /**
          * Builds a {@link Sgd} block.
          *
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.util;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable {@code Vocabulary} assigns a contiguous index, starting from 0, to each item of a
+ * collection.
+ *
+ * <p>The items are kept in an open addressing hash table with primitive {@code int} indices, so
+ * looking up an item neither boxes its index nor allocates an entry. The bulk {@code lookup}
+ * methods convert a whole sequence of items, for example the tokens of a sentence, into a single
+ * {@code int[]}.
+ *
+ * @param <T> the type of the items
+ */
+public final class Vocabulary<T> {
+
+    private Object[] items;
+    private Object[] keys;
+    private int[] indices;
+    private int mask;
+
+    /**
+     * Creates a {@code Vocabulary} of the given items, in iteration order.
+     *
+     * @param items the items of the vocabulary
+     * @throws IllegalArgumentException if an item is {@code null} or is duplicated
+     */
+    public Vocabulary(Collection<? extends T> items) {
+        this.items = items.toArray();
+        int capacity = Integer.highestOneBit(Math.max(this.items.length, 1) * 2 - 1) << 1;
+        keys = new Object[capacity];
+        indices = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < this.items.length; ++i) {
+            Object item = this.items[i];
+            if (item == null) {
+                throw new IllegalArgumentException("Vocabulary items cannot be null");
+            }
+            int slot = hash(item) & mask;
+            while (keys[slot] != null) {
+                if (keys[slot].equals(item)) {
+                    throw new IllegalArgumentException("Duplicated vocabulary item: " + item);
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = item;
+            indices[slot] = i;
+        }
+    }
+
+    /**
+     * Returns the number of items in this {@code Vocabulary}.
+     *
+     * @return the number of items in this {@code Vocabulary}
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Returns the item at the given index.
+     *
+     * @param index the index of the item
+     * @return the item at the given index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) items[index];
+    }
+
+    /**
+     * Returns whether the item is in this {@code Vocabulary}.
+     *
+     * @param item the item to check
+     * @return {@code true} if the item is in this {@code Vocabulary}
+     */
+    public boolean contains(Object item) {
+        return indexOf(item) >= 0;
+    }
+
+    /**
+     * Returns the index of an item.
+     *
+     * @param item the item to look up
+     * @return the index of the item, or -1 if the item is not in this {@code Vocabulary}
+     */
+    public int indexOf(Object item) {
+        return indexOf(item, -1);
+    }
+
+    /**
+     * Returns the index of an item, or a default index if the item is unknown.
+     *
+     * @param item the item to look up
+     * @param unknownIndex the index to return if the item is not in this {@code Vocabulary}
+     * @return the index of the item, or {@code unknownIndex} if the item is unknown
+     */
+    public int indexOf(Object item, int unknownIndex) {
+        if (item == null) {
+            return unknownIndex;
+        }
+        int slot = hash(item) & mask;
+        Object key;
+        while ((key = keys[slot]) != null) {
+            if (key.equals(item)) {
+                return indices[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return unknownIndex;
+    }
+
+    /**
+     * Returns the indices of a sequence of items.
+     *
+     * @param items the items to look up
+     * @param unknownIndex the index to use for the items that are not in this {@code Vocabulary}
+     * @return the indices of the items
+     */
+    public int[] lookup(T[] items, int unknownIndex) {
+        int[] ret = new int[items.length];
+        lookup(items, unknownIndex, ret, 0);
+        return ret;
+    }
+
+    /**
+     * Returns the indices of a sequence of items.
+     *
+     * @param items the items to look up
+     * @param unknownIndex the index to use for the items that are not in this {@code Vocabulary}
+     * @return the indices of the items
+     */
+    public int[] lookup(List<? extends T> items, int unknownIndex) {
+        int[] ret = new int[items.size()];
+        int i = 0;
+        for (T item : items) {
+            ret[i++] = indexOf(item, unknownIndex);
+        }
+        return ret;
+    }
+
+    /**
+     * Writes the indices of a sequence of items into an existing array.
+     *
+     * @param items the items to look up
+     * @param unknownIndex the index to use for the items that are not in this {@code Vocabulary}
+     * @param dest the array to write the indices to
+     * @param offset the position in {@code dest} of the index of the first item
+     * @throws IndexOutOfBoundsException if {@code dest} is too small
+     */
+    public void lookup(T[] items, int unknownIndex, int[] dest, int offset) {
+        if (offset < 0 || offset + items.length > dest.length) {
+            throw new IndexOutOfBoundsException(
+                    "Cannot write " + items.length + " indices at " + offset);
+        }
+        for (int i = 0; i < items.length; ++i) {
+            dest[offset + i] = indexOf(items[i], unknownIndex);
+        }
+    }
+
+    private static int hash(Object item) {
+        int h = item.hashCode();
+        // spreads the high bits, since the table index only uses the low bits
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality;
+
+import java.util.Arrays;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ClassificationsTest {
+
+    @Test
+    public void testTopK() {
+        List<String> classNames = Arrays.asList("a", "b", "c", "d");
+        List<Double> probabilities = Arrays.asList(0.25, 0.4, 0.1, 0.25);
+        Classifications classifications = new Classifications(classNames, probabilities);
+
+        List<Classifications.Classification> top = classifications.topK(3);
+        Assert.assertEquals(top.size(), 3);
+        Assert.assertEquals(top.get(0).getClassName(), "b");
+        // the first class wins between equal probabilities
+        Assert.assertEquals(top.get(1).getClassName(), "a");
+        Assert.assertEquals(top.get(2).getClassName(), "d");
+        Assert.assertEquals(classifications.topK(10).size(), 4);
+        Assert.assertTrue(classifications.topK(0).isEmpty());
+        Assert.assertEquals(classifications.best().getClassName(), "b");
+    }
+}
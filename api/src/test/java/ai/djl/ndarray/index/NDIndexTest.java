@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray.index;
+
+import ai.djl.ndarray.types.Shape;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class NDIndexTest {
+
+    @Test
+    public void testCompile() {
+        NDIndex index = NDIndex.compile(":, 1:3, -1");
+        Assert.assertSame(NDIndex.compile(":, 1:3, -1"), index);
+        Assert.assertTrue(index.isCompiled());
+        Assert.assertEquals(index.getRank(), 3);
+        Assert.assertThrows(UnsupportedOperationException.class, () -> index.addIndices(0));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> index.addSliceDim(0, 1));
+
+        NDIndex copy = new NDIndex(":, 1:3, -1");
+        Assert.assertFalse(copy.isCompiled());
+        Assert.assertEquals(copy.getIndices(), index.getIndices());
+        copy.addIndices(0);
+        Assert.assertEquals(copy.getRank(), 4);
+        Assert.assertEquals(index.getRank(), 3);
+    }
+
+    @Test
+    public void testFullSlice() {
+        Shape target = new Shape(5, 4, 3);
+        NDIndexFullSlice fullSlice = new NDIndex(":, 1::2").getAsFullSlice(target).get();
+        Assert.assertEquals(fullSlice.getShape(), new Shape(5, 2, 3));
+        Assert.assertEquals(fullSlice.getSqueezedShape(), new Shape(5, 2, 3));
+
+        fullSlice = new NDIndex("-1, -3:").getAsFullSlice(target).get();
+        Assert.assertEquals(fullSlice.getMin(), new long[] {4, 1, 0});
+        Assert.assertEquals(fullSlice.getMax(), new long[] {5, 4, 3});
+        Assert.assertEquals(fullSlice.getShape(), new Shape(1, 3, 3));
+        Assert.assertEquals(fullSlice.getSqueezedShape(), new Shape(3, 3));
+
+        fullSlice = new NDIndex(":, 3:1:-1").getAsFullSlice(target).get();
+        Assert.assertEquals(fullSlice.getShape(), new Shape(5, 2, 3));
+
+        NDIndex outOfBounds = new NDIndex("5");
+        Assert.assertThrows(
+                IllegalArgumentException.class, () -> outOfBounds.getAsFullSlice(target));
+    }
+
+    @Test
+    public void testFullSliceCache() {
+        NDIndex index = NDIndex.compile(":, :, 0");
+        Shape target = new Shape(2, 3, 4);
+        NDIndexFullSlice fullSlice = index.getAsFullSlice(target).get();
+        Assert.assertSame(index.getAsFullSlice(new Shape(2, 3, 4)).get(), fullSlice);
+        NDIndexFullSlice other = index.getAsFullSlice(new Shape(2, 3, 5)).get();
+        Assert.assertNotSame(other, fullSlice);
+        Assert.assertEquals(other.getSqueezedShape(), new Shape(2, 3));
+        Assert.assertSame(index.getAsFullSlice(new Shape(2, 3, 5)).get(), other);
+
+        NDIndex mutable = new NDIndex(":");
+        Assert.assertEquals(
+                mutable.getAsFullSlice(target).get().getSqueezedShape(), new Shape(2, 3, 4));
+        mutable.addIndices(1);
+        Assert.assertEquals(
+                mutable.getAsFullSlice(target).get().getSqueezedShape(), new Shape(2, 4));
+    }
+}
@@ -24,6 +24,7 @@ public class MockEngine extends Engine {
     private MemoryUsage gpuMemory;
     private Device device = Device.cpu();
     private String version;
+    private boolean gradientRecording;
 
     /** {@inheritDoc} */
     @Override
@@ -73,6 +74,20 @@ public class MockEngine extends Engine {
         return new MockNDManager();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean isGradientRecording() {
+        return gradientRecording;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean setGradientRecording(boolean recording) {
+        boolean previous = gradientRecording;
+        gradientRecording = recording;
+        return previous;
+    }
+
     public void setGpuCount(int gpuCount) {
         this.gpuCount = gpuCount;
     }
@@ -21,6 +21,7 @@ import ai.djl.ndarray.index.NDIndex;
 import ai.djl.ndarray.index.NDIndexFixed;
 import ai.djl.ndarray.internal.NDArrayEx;
 import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.GradReq;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.ndarray.types.SparseFormat;
 import java.nio.Buffer;
@@ -135,6 +136,14 @@ public class MockNDArray implements NDArray {
     @Override
     public void attachGradient() {}
 
+    /** {@inheritDoc} */
+    @Override
+    public void attachGradient(SparseFormat sparseFormat) {}
+
+    /** {@inheritDoc} */
+    @Override
+    public void attachGradient(GradReq gradReq, SparseFormat sparseFormat) {}
+
     /** {@inheritDoc} */
     @Override
     public NDArray getGradient() {
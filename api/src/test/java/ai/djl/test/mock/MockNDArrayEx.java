@@ -294,6 +294,7 @@ public class MockNDArrayEx implements NDArrayEx {
             NDList inputs,
             int numItems,
             int embeddingSize,
+            boolean sparseGrad,
             DataType dataType,
             PairList<String, Object> additional) {
         return null;
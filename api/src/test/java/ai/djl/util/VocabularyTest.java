@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class VocabularyTest {
+
+    @Test
+    public void testLookup() {
+        List<String> tokens =
+                IntStream.range(0, 1000).mapToObj(i -> "token" + i).collect(Collectors.toList());
+        Vocabulary<String> vocabulary = new Vocabulary<>(tokens);
+        Assert.assertEquals(vocabulary.size(), 1000);
+        for (int i = 0; i < 1000; ++i) {
+            Assert.assertEquals(vocabulary.indexOf("token" + i), i);
+            Assert.assertEquals(vocabulary.get(i), "token" + i);
+        }
+        Assert.assertEquals(vocabulary.indexOf("unknown"), -1);
+        Assert.assertFalse(vocabulary.contains(null));
+
+        String[] sentence = {"token3", "unknown", "token999", "token0"};
+        Assert.assertEquals(vocabulary.lookup(sentence, 7), new int[] {3, 7, 999, 0});
+        Assert.assertEquals(
+                vocabulary.lookup(Arrays.asList(sentence), -1), new int[] {3, -1, 999, 0});
+
+        int[] dest = new int[6];
+        vocabulary.lookup(sentence, 7, dest, 1);
+        Assert.assertEquals(dest, new int[] {0, 3, 7, 999, 0, 0});
+        Assert.assertEquals(new Vocabulary<>(Arrays.<String>asList()).indexOf("a"), -1);
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void testLookupOutOfBounds() {
+        Vocabulary<String> vocabulary = new Vocabulary<>(Arrays.asList("a", "b"));
+        vocabulary.lookup(new String[] {"a", "b"}, -1, new int[3], 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDuplicatedItems() {
+        new Vocabulary<>(Arrays.asList("a", "b", "a"));
+    }
+}
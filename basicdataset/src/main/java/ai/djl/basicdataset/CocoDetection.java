@@ -12,7 +12,6 @@
  */
 package ai.djl.basicdataset;
 
-import ai.djl.modality.cv.Rectangle;
 import ai.djl.modality.cv.transform.ToTensor;
 import ai.djl.modality.cv.util.BufferedImageUtils;
 import ai.djl.modality.cv.util.NDImageUtils;
@@ -29,9 +28,7 @@ import ai.djl.translate.Pipeline;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * Coco image detection dataset from http://cocodataset.org/#home.
@@ -48,9 +45,9 @@ public class CocoDetection extends RandomAccessDataset implements ZooDataset {
     private boolean prepared;
     private Flag flag;
 
-    private CocoUtils coco;
-    private List<Path> imagePaths;
-    private List<double[][]> labels;
+    private CocoIndex coco;
+    private Path root;
+    private int[] images;
 
     CocoDetection(Builder builder) {
         super(builder);
@@ -58,8 +55,7 @@ public class CocoDetection extends RandomAccessDataset implements ZooDataset {
         artifact = builder.artifact;
         usage = builder.usage;
         flag = builder.flag;
-        imagePaths = new ArrayList<>();
-        labels = new ArrayList<>();
+        images = new int[0];
     }
 
     /**
@@ -116,10 +112,10 @@ public class CocoDetection extends RandomAccessDataset implements ZooDataset {
     /** {@inheritDoc} */
     @Override
     public Record get(NDManager manager, long index) throws IOException {
-        int idx = Math.toIntExact(index);
-        NDList d =
-                new NDList(BufferedImageUtils.readFileToArray(manager, imagePaths.get(idx), flag));
-        NDList l = new NDList(manager.create(labels.get(idx)));
+        int image = images[Math.toIntExact(index)];
+        Path imagePath = root.resolve(coco.getRelativeImagePath(image));
+        NDList d = new NDList(BufferedImageUtils.readFileToArray(manager, imagePath, flag));
+        NDList l = new NDList(manager.create(getLabels(image)));
         return new Record(d, l);
     }
 
@@ -128,7 +124,7 @@ public class CocoDetection extends RandomAccessDataset implements ZooDataset {
     public void prepareData(Usage usage) throws IOException {
         Path cacheDir = repository.getCacheDirectory();
         URI resourceUri = artifact.getResourceUri();
-        Path root = cacheDir.resolve(resourceUri.getPath());
+        root = cacheDir.resolve(resourceUri.getPath());
 
         Path jsonFile;
         switch (usage) {
@@ -142,50 +138,46 @@ public class CocoDetection extends RandomAccessDataset implements ZooDataset {
             default:
                 throw new UnsupportedOperationException("Validation data not available.");
         }
-        coco = new CocoUtils(jsonFile);
-        coco.prepare();
-        List<Long> imageIds = coco.getImageIds();
-        for (long id : imageIds) {
-            Path imagePath = root.resolve(coco.getRelativeImagePath(id));
-            List<double[]> labelOfImageId = getLabels(id);
-            if (!labelOfImageId.isEmpty()) {
-                imagePaths.add(imagePath);
-                labels.add(labelOfImageId.toArray(new double[0][]));
+        coco = CocoIndex.load(jsonFile);
+
+        // only keep the images with at least one valid annotation
+        int[] valid = new int[coco.getImageCount()];
+        int count = 0;
+        for (int i = 0; i < coco.getImageCount(); ++i) {
+            if (countLabels(i) > 0) {
+                valid[count++] = i;
             }
         }
+        images = Arrays.copyOf(valid, count);
     }
 
     /** {@inheritDoc} */
     @Override
     public long size() {
-        return imagePaths.size();
-    }
-
-    private double[] convertRecToList(Rectangle rect) {
-        double[] list = new double[5];
-        list[0] = rect.getX();
-        list[1] = rect.getY();
-        list[2] = rect.getWidth();
-        list[3] = rect.getHeight();
-        return list;
+        return images.length;
     }
 
-    private List<double[]> getLabels(long imageId) {
-        List<Long> annotationIds = coco.getAnnotationIdByImageId(imageId);
-        if (annotationIds == null) {
-            return Collections.emptyList();
+    private int countLabels(int image) {
+        int count = 0;
+        for (int i = coco.getAnnotationStart(image); i < coco.getAnnotationEnd(image); ++i) {
+            if (coco.getArea(i) > 0) {
+                ++count;
+            }
         }
+        return count;
+    }
 
-        List<double[]> label = new ArrayList<>();
-        for (long annotationId : annotationIds) {
-            CocoMetadata.Annotation annotation = coco.getAnnotationById(annotationId);
-            Rectangle bBox = annotation.getBoundingBox();
-            if (annotation.getArea() > 0) {
-                double[] list = convertRecToList(bBox);
+    private double[][] getLabels(int image) {
+        double[][] label = new double[countLabels(image)][];
+        int index = 0;
+        for (int i = coco.getAnnotationStart(image); i < coco.getAnnotationEnd(image); ++i) {
+            if (coco.getArea(i) > 0) {
+                double[] list = new double[5];
+                coco.getBoundingBox(i, list, 0);
                 // add the category label
                 // map the original one to incremental index
-                list[4] = coco.mapCategoryId(annotation.getCategoryId());
-                label.add(list);
+                list[4] = coco.getCategory(i);
+                label[index++] = list;
             }
         }
         return label;
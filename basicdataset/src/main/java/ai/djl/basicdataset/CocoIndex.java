@@ -0,0 +1,488 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset;
+
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A compact, read-only index of a Coco annotation file.
+ *
+ * <p>The annotation file is parsed once with a streaming parser into primitive arrays: the sorted
+ * image ids, the range of annotations of each image, the bounding boxes, areas and continuous
+ * category ids of the annotations, and the relative image paths. The index is saved next to the
+ * annotation file and memory-mapped the next time it is loaded, as long as the annotation file has
+ * not changed.
+ */
+public final class CocoIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CocoIndex.class);
+
+    private static final int MAGIC = 0x434F4349; // COCI
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+
+    private int numImages;
+    private int numAnnotations;
+    private LongBuffer imageIds;
+    private IntBuffer annotationOffsets;
+    private IntBuffer pathOffsets;
+    private ByteBuffer paths;
+    private FloatBuffer boxes;
+    private FloatBuffer areas;
+    private IntBuffer categories;
+
+    private CocoIndex(ByteBuffer buffer) {
+        numImages = buffer.getInt(24);
+        numAnnotations = buffer.getInt(28);
+        int numCategories = buffer.getInt(32);
+        int pathBytes = buffer.getInt(36);
+
+        int position = HEADER_SIZE;
+        imageIds = view(buffer, position, numImages * 8).asLongBuffer();
+        position += numImages * 8;
+        annotationOffsets = view(buffer, position, (numImages + 1) * 4).asIntBuffer();
+        position += (numImages + 1) * 4;
+        pathOffsets = view(buffer, position, (numImages + 1) * 4).asIntBuffer();
+        position += (numImages + 1) * 4;
+        paths = view(buffer, position, pathBytes);
+        position += pathBytes;
+        boxes = view(buffer, position, numAnnotations * 16).asFloatBuffer();
+        position += numAnnotations * 16;
+        areas = view(buffer, position, numAnnotations * 4).asFloatBuffer();
+        position += numAnnotations * 4;
+        categories = view(buffer, position, numAnnotations * 4).asIntBuffer();
+        position += numAnnotations * 4;
+        if (buffer.limit() != position + numCategories * 8) {
+            throw new IllegalArgumentException("Corrupted Coco index.");
+        }
+    }
+
+    /**
+     * Loads the index of an annotation file, building and saving it if needed.
+     *
+     * @param annotationPath the path to the Coco annotation file
+     * @return the {@code CocoIndex} of the annotation file
+     * @throws IOException if reading the annotation file fails
+     */
+    public static CocoIndex load(Path annotationPath) throws IOException {
+        Path indexPath = getIndexPath(annotationPath);
+        long size = Files.size(annotationPath);
+        long lastModified = Files.getLastModifiedTime(annotationPath).toMillis();
+        if (Files.isRegularFile(indexPath)) {
+            ByteBuffer buffer = map(indexPath);
+            if (buffer.limit() >= HEADER_SIZE
+                    && buffer.getInt(0) == MAGIC
+                    && buffer.getInt(4) == VERSION
+                    && buffer.getLong(8) == size
+                    && buffer.getLong(16) == lastModified) {
+                return new CocoIndex(buffer);
+            }
+        }
+
+        ByteBuffer buffer;
+        try (Reader reader = Files.newBufferedReader(annotationPath)) {
+            buffer = new Builder().parse(new JsonReader(reader)).build(size, lastModified);
+        }
+        try {
+            Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+            try (FileChannel channel =
+                    FileChannel.open(
+                            tmp,
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer bb = buffer.duplicate();
+                while (bb.hasRemaining()) {
+                    channel.write(bb);
+                }
+            }
+            Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // the index is still usable from memory
+            logger.warn("Failed to save Coco index: " + indexPath, e);
+        }
+        return new CocoIndex(buffer);
+    }
+
+    /**
+     * Returns the path of the index file of an annotation file.
+     *
+     * @param annotationPath the path to the Coco annotation file
+     * @return the path of the index file
+     */
+    public static Path getIndexPath(Path annotationPath) {
+        return annotationPath.resolveSibling(annotationPath.getFileName() + ".idx");
+    }
+
+    /**
+     * Returns the number of images in the annotation file.
+     *
+     * @return the number of images in the annotation file
+     */
+    public int getImageCount() {
+        return numImages;
+    }
+
+    /**
+     * Returns the id of the image at the given index, images are sorted by id.
+     *
+     * @param image the index of the image
+     * @return the id of the image
+     */
+    public long getImageId(int image) {
+        return imageIds.get(image);
+    }
+
+    /**
+     * Returns the relative path of the image at the given index.
+     *
+     * @param image the index of the image
+     * @return the relative path of the image
+     */
+    public Path getRelativeImagePath(int image) {
+        int start = pathOffsets.get(image);
+        int end = pathOffsets.get(image + 1);
+        byte[] buf = new byte[end - start];
+        ByteBuffer bb = paths.duplicate();
+        bb.position(start);
+        bb.get(buf);
+        return Paths.get(new String(buf, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the index of the first annotation of the image at the given index.
+     *
+     * @param image the index of the image
+     * @return the index of the first annotation of the image
+     */
+    public int getAnnotationStart(int image) {
+        return annotationOffsets.get(image);
+    }
+
+    /**
+     * Returns the index after the last annotation of the image at the given index.
+     *
+     * @param image the index of the image
+     * @return the index after the last annotation of the image
+     */
+    public int getAnnotationEnd(int image) {
+        return annotationOffsets.get(image + 1);
+    }
+
+    /**
+     * Returns the total number of annotations.
+     *
+     * @return the total number of annotations
+     */
+    public int getAnnotationCount() {
+        return numAnnotations;
+    }
+
+    /**
+     * Copies the bounding box (x, y, width, height) of an annotation.
+     *
+     * @param annotation the index of the annotation
+     * @param dest the array to copy the bounding box to
+     * @param offset the offset in the destination array
+     */
+    public void getBoundingBox(int annotation, double[] dest, int offset) {
+        int base = annotation * 4;
+        for (int i = 0; i < 4; ++i) {
+            dest[offset + i] = boxes.get(base + i);
+        }
+    }
+
+    /**
+     * Returns the area of an annotation.
+     *
+     * @param annotation the index of the annotation
+     * @return the area of the annotation
+     */
+    public float getArea(int annotation) {
+        return areas.get(annotation);
+    }
+
+    /**
+     * Returns the continuous category id of an annotation.
+     *
+     * @param annotation the index of the annotation
+     * @return the continuous category id of the annotation
+     */
+    public int getCategory(int annotation) {
+        return categories.get(annotation);
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static ByteBuffer view(ByteBuffer buffer, int position, int length) {
+        ByteBuffer bb = buffer.duplicate();
+        bb.position(position);
+        bb.limit(position + length);
+        return bb.slice();
+    }
+
+    /** Collects the annotation file content into growable primitive arrays. */
+    private static final class Builder {
+
+        private long[] imageIds = new long[1024];
+        private String[] imagePaths = new String[1024];
+        private int numImages;
+
+        private long[] annotationImageIds = new long[1024];
+        private float[] annotationData = new float[1024 * 5];
+        private long[] annotationCategoryIds = new long[1024];
+        private int numAnnotations;
+
+        private long[] categoryIds = new long[128];
+        private int numCategories;
+
+        Builder parse(JsonReader reader) throws IOException {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "images":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            readImage(reader);
+                        }
+                        reader.endArray();
+                        break;
+                    case "annotations":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            readAnnotation(reader);
+                        }
+                        reader.endArray();
+                        break;
+                    case "categories":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            readCategory(reader);
+                        }
+                        reader.endArray();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            return this;
+        }
+
+        private void readImage(JsonReader reader) throws IOException {
+            long id = 0;
+            String cocoUrl = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id":
+                        id = reader.nextLong();
+                        break;
+                    case "coco_url":
+                        cocoUrl = reader.nextString();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            if (cocoUrl == null) {
+                throw new IOException("Missing coco_url for image: " + id);
+            }
+            String[] url = cocoUrl.split("/");
+            String path =
+                    url.length < 2 ? cocoUrl : url[url.length - 2] + '/' + url[url.length - 1];
+
+            if (numImages == imageIds.length) {
+                imageIds = Arrays.copyOf(imageIds, numImages * 2);
+                imagePaths = Arrays.copyOf(imagePaths, numImages * 2);
+            }
+            imageIds[numImages] = id;
+            imagePaths[numImages] = path;
+            ++numImages;
+        }
+
+        private void readAnnotation(JsonReader reader) throws IOException {
+            if (numAnnotations == annotationImageIds.length) {
+                int capacity = numAnnotations * 2;
+                annotationImageIds = Arrays.copyOf(annotationImageIds, capacity);
+                annotationData = Arrays.copyOf(annotationData, capacity * 5);
+                annotationCategoryIds = Arrays.copyOf(annotationCategoryIds, capacity);
+            }
+            int base = numAnnotations * 5;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "image_id":
+                        annotationImageIds[numAnnotations] = reader.nextLong();
+                        break;
+                    case "category_id":
+                        annotationCategoryIds[numAnnotations] = reader.nextLong();
+                        break;
+                    case "area":
+                        annotationData[base + 4] = (float) reader.nextDouble();
+                        break;
+                    case "bbox":
+                        reader.beginArray();
+                        for (int i = 0; i < 4; ++i) {
+                            annotationData[base + i] = (float) reader.nextDouble();
+                        }
+                        reader.endArray();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            ++numAnnotations;
+        }
+
+        private void readCategory(JsonReader reader) throws IOException {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("id".equals(reader.nextName())) {
+                    if (numCategories == categoryIds.length) {
+                        categoryIds = Arrays.copyOf(categoryIds, numCategories * 2);
+                    }
+                    categoryIds[numCategories++] = reader.nextLong();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+
+        @SuppressWarnings("PMD.UseConcurrentHashMap")
+        ByteBuffer build(long sourceSize, long sourceLastModified) throws IOException {
+            // sort images by id
+            Integer[] imageOrder = new Integer[numImages];
+            for (int i = 0; i < numImages; ++i) {
+                imageOrder[i] = i;
+            }
+            Arrays.sort(imageOrder, (a, b) -> Long.compare(imageIds[a], imageIds[b]));
+            Map<Long, Integer> imageIndex = new HashMap<>(numImages * 2);
+            for (int i = 0; i < numImages; ++i) {
+                imageIndex.put(imageIds[imageOrder[i]], i);
+            }
+            Map<Long, Integer> categoryIndex = new HashMap<>(numCategories * 2);
+            for (int i = 0; i < numCategories; ++i) {
+                categoryIndex.put(categoryIds[i], i);
+            }
+
+            // counting sort of the annotations by image, keeping the file order within an image
+            int[] annotationImages = new int[numAnnotations];
+            int[] offsets = new int[numImages + 1];
+            for (int i = 0; i < numAnnotations; ++i) {
+                Integer image = imageIndex.get(annotationImageIds[i]);
+                if (image == null) {
+                    throw new IOException("Unknown image id: " + annotationImageIds[i]);
+                }
+                annotationImages[i] = image;
+                ++offsets[image + 1];
+            }
+            for (int i = 0; i < numImages; ++i) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] order = new int[numAnnotations];
+            int[] next = Arrays.copyOf(offsets, numImages);
+            for (int i = 0; i < numAnnotations; ++i) {
+                order[next[annotationImages[i]]++] = i;
+            }
+
+            byte[][] pathBytes = new byte[numImages][];
+            int totalPathBytes = 0;
+            for (int i = 0; i < numImages; ++i) {
+                pathBytes[i] = imagePaths[imageOrder[i]].getBytes(StandardCharsets.UTF_8);
+                totalPathBytes += pathBytes[i].length;
+            }
+
+            int size =
+                    HEADER_SIZE
+                            + numImages * 8
+                            + (numImages + 1) * 8
+                            + totalPathBytes
+                            + numAnnotations * 24
+                            + numCategories * 8;
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(sourceSize);
+            buffer.putLong(sourceLastModified);
+            buffer.putInt(numImages);
+            buffer.putInt(numAnnotations);
+            buffer.putInt(numCategories);
+            buffer.putInt(totalPathBytes);
+            for (int i = 0; i < numImages; ++i) {
+                buffer.putLong(imageIds[imageOrder[i]]);
+            }
+            for (int offset : offsets) {
+                buffer.putInt(offset);
+            }
+            int pathOffset = 0;
+            buffer.putInt(0);
+            for (byte[] bytes : pathBytes) {
+                pathOffset += bytes.length;
+                buffer.putInt(pathOffset);
+            }
+            for (byte[] bytes : pathBytes) {
+                buffer.put(bytes);
+            }
+            for (int annotation : order) {
+                for (int i = 0; i < 4; ++i) {
+                    buffer.putFloat(annotationData[annotation * 5 + i]);
+                }
+            }
+            for (int annotation : order) {
+                buffer.putFloat(annotationData[annotation * 5 + 4]);
+            }
+            for (int annotation : order) {
+                Integer category = categoryIndex.get(annotationCategoryIds[annotation]);
+                if (category == null) {
+                    throw new IOException(
+                            "Unknown category id: " + annotationCategoryIds[annotation]);
+                }
+                buffer.putInt(category);
+            }
+            for (int i = 0; i < numCategories; ++i) {
+                buffer.putLong(categoryIds[i]);
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
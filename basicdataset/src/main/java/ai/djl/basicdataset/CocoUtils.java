@@ -23,7 +23,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-/** A utility class that assists in loading and parsing the annotations in Coco. */
+/**
+ * A utility class that assists in loading and parsing the annotations in Coco.
+ *
+ * @deprecated {@link CocoIndex} indexes the annotations into primitive arrays, which uses much less
+ *     memory
+ */
+@Deprecated
 public class CocoUtils {
 
     private Path annotationPath;
@@ -15,7 +15,6 @@ package ai.djl.basicdataset;
 import ai.djl.modality.cv.transform.ToTensor;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
-import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.repository.Artifact;
 import ai.djl.repository.MRL;
@@ -26,7 +25,6 @@ import ai.djl.translate.Pipeline;
 import ai.djl.util.Utils;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Map;
 
 /**
  * MNIST handwritten digits dataset from http://yann.lecun.com/exdb/mnist.
@@ -106,51 +104,18 @@ public final class Mnist extends ArrayDataset implements ZooDataset {
     /** {@inheritDoc} */
     @Override
     public void prepareData(Usage usage) throws IOException {
-        Map<String, Artifact.Item> map = artifact.getFiles();
-        Artifact.Item imageItem;
-        Artifact.Item labelItem;
-        switch (usage) {
-            case TRAIN:
-                imageItem = map.get("train_data");
-                labelItem = map.get("train_labels");
-                break;
-            case TEST:
-                imageItem = map.get("test_data");
-                labelItem = map.get("test_labels");
-                break;
-            case VALIDATION:
-            default:
-                throw new UnsupportedOperationException("Validation data not available.");
-        }
-        labels = new NDArray[] {readLabel(labelItem)};
-        data = new NDArray[] {readData(imageItem, labels[0].size())};
-    }
-
-    private NDArray readData(Artifact.Item item, long length) throws IOException {
-        try (InputStream is = repository.openStream(item, null)) {
-            if (is.skip(16) != 16) {
-                throw new AssertionError("Failed skip data.");
-            }
-
-            byte[] buf = Utils.toByteArray(is);
-            try (NDArray array = manager.create(new Shape(length, 28, 28, 1), DataType.UINT8)) {
-                array.set(buf);
-                return array.asType(DataType.FLOAT32, true);
-            }
-        }
+        Artifact.Item[] items = MnistUtils.getItems(artifact, usage);
+        byte[] labelBuf = readAll(items[1], MnistUtils.LABEL_HEADER);
+        byte[] imageBuf = readAll(items[0], MnistUtils.IMAGE_HEADER);
+        int length = labelBuf.length;
+        Shape imageShape = new Shape(length, 28, 28, 1);
+        labels = new NDArray[] {MnistUtils.toNDArray(manager, labelBuf, new Shape(length))};
+        data = new NDArray[] {MnistUtils.toNDArray(manager, imageBuf, imageShape)};
     }
 
-    private NDArray readLabel(Artifact.Item item) throws IOException {
-        try (InputStream is = repository.openStream(item, null)) {
-            if (is.skip(8) != 8) {
-                throw new AssertionError("Failed skip data.");
-            }
-
-            byte[] buf = Utils.toByteArray(is);
-            try (NDArray array = manager.create(new Shape(buf.length), DataType.UINT8)) {
-                array.set(buf);
-                return array.asType(DataType.FLOAT32, true);
-            }
+    private byte[] readAll(Artifact.Item item, int header) throws IOException {
+        try (InputStream is = MnistUtils.open(repository, item, header)) {
+            return Utils.toByteArray(is);
         }
     }
 
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.repository.Artifact;
+import ai.djl.repository.Repository;
+import ai.djl.training.dataset.Dataset.Usage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Map;
+
+/** A utility class that reads the MNIST files for {@link Mnist} and {@link StreamingMnist}. */
+final class MnistUtils {
+
+    static final int IMAGE_HEADER = 16;
+    static final int LABEL_HEADER = 8;
+    static final int IMAGE_SIZE = 28 * 28;
+
+    private MnistUtils() {}
+
+    /**
+     * Returns the image and label files of the given usage.
+     *
+     * @param artifact the MNIST artifact
+     * @param usage the usage of the dataset
+     * @return the image file and the label file, in that order
+     */
+    static Artifact.Item[] getItems(Artifact artifact, Usage usage) {
+        Map<String, Artifact.Item> map = artifact.getFiles();
+        switch (usage) {
+            case TRAIN:
+                return new Artifact.Item[] {map.get("train_data"), map.get("train_labels")};
+            case TEST:
+                return new Artifact.Item[] {map.get("test_data"), map.get("test_labels")};
+            case VALIDATION:
+            default:
+                throw new UnsupportedOperationException("Validation data not available.");
+        }
+    }
+
+    /**
+     * Opens a MNIST file, positioned after its header.
+     *
+     * @param repository the repository of the file
+     * @param item the file to open
+     * @param header the size of the header
+     * @return the stream of the file
+     * @throws IOException if the file cannot be read
+     */
+    static DataInputStream open(Repository repository, Artifact.Item item, int header)
+            throws IOException {
+        DataInputStream is =
+                new DataInputStream(new BufferedInputStream(repository.openStream(item, null)));
+        if (is.skipBytes(header) != header) {
+            is.close();
+            throw new AssertionError("Failed skip data.");
+        }
+        return is;
+    }
+
+    /**
+     * Converts the unsigned bytes of images or labels into a {@code float32} {@link NDArray}.
+     *
+     * @param manager the manager to create the array
+     * @param buf the unsigned bytes
+     * @param shape the shape of the array
+     * @return the {@code float32} {@link NDArray}
+     */
+    static NDArray toNDArray(NDManager manager, byte[] buf, Shape shape) {
+        try (NDArray array = manager.create(shape, DataType.UINT8)) {
+            array.set(buf);
+            return array.asType(DataType.FLOAT32, true);
+        }
+    }
+}
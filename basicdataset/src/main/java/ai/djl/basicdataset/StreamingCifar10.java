@@ -0,0 +1,255 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset;
+
+import ai.djl.modality.cv.transform.ToTensor;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.repository.Artifact;
+import ai.djl.repository.MRL;
+import ai.djl.repository.Repository;
+import ai.djl.repository.dataset.ZooDataset;
+import ai.djl.training.dataset.Record;
+import ai.djl.training.dataset.RecordReader;
+import ai.djl.training.dataset.StreamingDataset;
+import ai.djl.translate.Pipeline;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * CIFAR10 image classification dataset from https://www.cs.toronto.edu/~kriz/cifar.html, read as
+ * a stream.
+ *
+ * <p>Unlike {@link Cifar10}, the images are read one record at a time while iterating, so the
+ * dataset is never loaded in memory entirely. Each sample is an image (in 3-D {@link NDArray})
+ * with shape (32, 32, 3).
+ */
+public final class StreamingCifar10 extends StreamingDataset implements ZooDataset {
+
+    private static final String ARTIFACT_ID = "cifar10";
+    private static final int IMAGE_SIZE = 32 * 32 * 3;
+
+    private Repository repository;
+    private Artifact artifact;
+    private Usage usage;
+    private boolean prepared;
+    private Artifact.Item item;
+
+    StreamingCifar10(Builder builder) {
+        super(builder);
+        this.repository = builder.repository;
+        this.artifact = builder.artifact;
+        this.usage = builder.usage;
+    }
+
+    /**
+     * Creates a builder to build a {@link StreamingCifar10}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public MRL getMrl() {
+        return new MRL(MRL.Dataset.CV, BasicDatasets.GROUP_ID, ARTIFACT_ID);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Repository getRepository() {
+        return repository;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Artifact getArtifact() {
+        return artifact;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Usage getUsage() {
+        return usage;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isPrepared() {
+        return prepared;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setPrepared(boolean prepared) {
+        this.prepared = prepared;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void useDefaultArtifact() throws IOException {
+        artifact = repository.resolve(getMrl(), "1.0", null);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void prepareData(Usage usage) {
+        Map<String, Artifact.Item> map = artifact.getFiles();
+        switch (usage) {
+            case TRAIN:
+                item = map.get("data_batch.bin");
+                break;
+            case TEST:
+                item = map.get("test_batch.bin");
+                break;
+            case VALIDATION:
+            default:
+                throw new UnsupportedOperationException("Validation data not available.");
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getPartitionCount() {
+        return 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RecordReader openPartition(int partition) throws IOException {
+        if (item == null) {
+            throw new IllegalStateException("The dataset must be prepared before reading.");
+        }
+        return new Cifar10Reader(
+                new DataInputStream(new BufferedInputStream(repository.openStream(item, null))));
+    }
+
+    private static final class Cifar10Reader implements RecordReader {
+
+        private DataInputStream is;
+        private byte[] buf;
+
+        Cifar10Reader(DataInputStream is) {
+            this.is = is;
+            buf = new byte[IMAGE_SIZE];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Record next(NDManager manager) throws IOException {
+            int label = is.read();
+            if (label < 0) {
+                return null;
+            }
+            is.readFully(buf);
+
+            NDArray image;
+            try (NDArray array = manager.create(new Shape(3, 32, 32), DataType.UINT8)) {
+                array.set(buf);
+                try (NDArray hwc = array.transpose(1, 2, 0)) {
+                    image = hwc.asType(DataType.FLOAT32, true);
+                }
+            }
+            return new Record(new NDList(image), new NDList(manager.create((float) label)));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean skip() throws IOException {
+            if (is.read() < 0) {
+                return false;
+            }
+            if (is.skipBytes(IMAGE_SIZE) != IMAGE_SIZE) {
+                throw new EOFException("Unexpected end of CIFAR10 data.");
+            }
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() throws IOException {
+            is.close();
+        }
+    }
+
+    /** A builder to construct a {@link StreamingCifar10}. */
+    public static final class Builder extends BaseBuilder<Builder> {
+
+        private Repository repository;
+        private Artifact artifact;
+        private Usage usage;
+
+        /** Constructs a new builder. */
+        public Builder() {
+            repository = BasicDatasets.REPOSITORY;
+            usage = Usage.TRAIN;
+            pipeline = new Pipeline(new ToTensor());
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        /**
+         * Sets the optional repository for the dataset.
+         *
+         * @param repository the new repository
+         * @return this builder
+         */
+        public Builder optRepository(Repository repository) {
+            this.repository = repository;
+            return this;
+        }
+
+        /**
+         * Sets the optional artifact containing the data.
+         *
+         * @param artifact the artifact
+         * @return this builder
+         */
+        public Builder optArtifact(Artifact artifact) {
+            this.artifact = artifact;
+            return this;
+        }
+
+        /**
+         * Sets the optional usage for the dataset.
+         *
+         * @param usage the usage
+         * @return this builder
+         */
+        public Builder optUsage(Usage usage) {
+            this.usage = usage;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link StreamingCifar10}.
+         *
+         * @return the new {@link StreamingCifar10}
+         */
+        public StreamingCifar10 build() {
+            return new StreamingCifar10(this);
+        }
+    }
+}
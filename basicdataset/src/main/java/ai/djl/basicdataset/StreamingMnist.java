@@ -0,0 +1,250 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset;
+
+import ai.djl.modality.cv.transform.ToTensor;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.repository.Artifact;
+import ai.djl.repository.MRL;
+import ai.djl.repository.Repository;
+import ai.djl.repository.dataset.ZooDataset;
+import ai.djl.training.dataset.Record;
+import ai.djl.training.dataset.RecordReader;
+import ai.djl.training.dataset.StreamingDataset;
+import ai.djl.translate.Pipeline;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * MNIST handwritten digits dataset from http://yann.lecun.com/exdb/mnist, read as a stream.
+ *
+ * <p>Unlike {@link Mnist}, the images and labels are read one record at a time while iterating,
+ * so the dataset is never loaded in memory entirely. Each sample is an image (in 3-D NDArray) with
+ * shape (28, 28, 1).
+ */
+public final class StreamingMnist extends StreamingDataset implements ZooDataset {
+
+    private static final String ARTIFACT_ID = "mnist";
+    private static final int IMAGE_SIZE = MnistUtils.IMAGE_SIZE;
+    private static final Shape IMAGE_SHAPE = new Shape(28, 28, 1);
+
+    private Repository repository;
+    private Artifact artifact;
+    private Usage usage;
+    private boolean prepared;
+    private Artifact.Item imageItem;
+    private Artifact.Item labelItem;
+
+    private StreamingMnist(Builder builder) {
+        super(builder);
+        this.repository = builder.repository;
+        this.artifact = builder.artifact;
+        this.usage = builder.usage;
+    }
+
+    /**
+     * Creates a builder to build a {@link StreamingMnist}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public MRL getMrl() {
+        return new MRL(MRL.Dataset.CV, BasicDatasets.GROUP_ID, ARTIFACT_ID);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Repository getRepository() {
+        return repository;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Artifact getArtifact() {
+        return artifact;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Usage getUsage() {
+        return usage;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isPrepared() {
+        return prepared;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setPrepared(boolean prepared) {
+        this.prepared = prepared;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void useDefaultArtifact() throws IOException {
+        artifact = repository.resolve(getMrl(), "1.0", null);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void prepareData(Usage usage) {
+        Artifact.Item[] items = MnistUtils.getItems(artifact, usage);
+        imageItem = items[0];
+        labelItem = items[1];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getPartitionCount() {
+        return 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RecordReader openPartition(int partition) throws IOException {
+        if (imageItem == null) {
+            throw new IllegalStateException("The dataset must be prepared before reading.");
+        }
+        DataInputStream images = MnistUtils.open(repository, imageItem, MnistUtils.IMAGE_HEADER);
+        try {
+            return new MnistReader(
+                    images, MnistUtils.open(repository, labelItem, MnistUtils.LABEL_HEADER));
+        } catch (IOException e) {
+            images.close();
+            throw e;
+        }
+    }
+
+    private static final class MnistReader implements RecordReader {
+
+        private DataInputStream images;
+        private DataInputStream labels;
+        private byte[] buf;
+
+        MnistReader(DataInputStream images, DataInputStream labels) {
+            this.images = images;
+            this.labels = labels;
+            buf = new byte[IMAGE_SIZE];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Record next(NDManager manager) throws IOException {
+            int label = labels.read();
+            if (label < 0) {
+                return null;
+            }
+            images.readFully(buf);
+
+            NDArray image = MnistUtils.toNDArray(manager, buf, IMAGE_SHAPE);
+            return new Record(new NDList(image), new NDList(manager.create((float) label)));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean skip() throws IOException {
+            if (labels.read() < 0) {
+                return false;
+            }
+            if (images.skipBytes(IMAGE_SIZE) != IMAGE_SIZE) {
+                throw new EOFException("Unexpected end of MNIST data.");
+            }
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() throws IOException {
+            try {
+                images.close();
+            } finally {
+                labels.close();
+            }
+        }
+    }
+
+    /** A builder for a {@link StreamingMnist}. */
+    public static final class Builder extends BaseBuilder<Builder> {
+
+        private Repository repository;
+        private Artifact artifact;
+        private Usage usage;
+
+        /** Constructs a new builder. */
+        public Builder() {
+            repository = BasicDatasets.REPOSITORY;
+            usage = Usage.TRAIN;
+            pipeline = new Pipeline(new ToTensor());
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        /**
+         * Sets the optional repository.
+         *
+         * @param repository the repository
+         * @return this builder
+         */
+        public Builder optRepository(Repository repository) {
+            this.repository = repository;
+            return this;
+        }
+
+        /**
+         * Sets the optional artifact.
+         *
+         * @param artifact the artifact
+         * @return this builder
+         */
+        public Builder optArtifact(Artifact artifact) {
+            this.artifact = artifact;
+            return this;
+        }
+
+        /**
+         * Sets the optional usage.
+         *
+         * @param usage the usage
+         * @return this builder
+         */
+        public Builder optUsage(Usage usage) {
+            this.usage = usage;
+            return this;
+        }
+
+        /**
+         * Builds the {@link StreamingMnist}.
+         *
+         * @return the {@link StreamingMnist}
+         */
+        public StreamingMnist build() {
+            return new StreamingMnist(this);
+        }
+    }
+}
@@ -13,6 +13,7 @@
 package ai.djl.basicdataset;
 
 import ai.djl.Model;
+import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Blocks;
 import ai.djl.repository.Repository;
 import ai.djl.training.DefaultTrainingConfig;
@@ -81,4 +82,34 @@ public class Cifar10Test {
             }
         }
     }
+
+    @Test
+    public void testStreamingCifar10Local() throws IOException {
+        TrainingConfig config =
+                new DefaultTrainingConfig(Initializer.ONES, Loss.softmaxCrossEntropyLoss());
+
+        try (Model model = Model.newInstance()) {
+            model.setBlock(Blocks.identityBlock());
+
+            Repository repository = Repository.newInstance("test", "src/test/resources/mlrepo");
+            StreamingCifar10 cifar10 =
+                    new StreamingCifar10.Builder()
+                            .optUsage(Usage.TEST)
+                            .optRepository(repository)
+                            .optShuffleBuffer(100)
+                            .setSampling(32, false)
+                            .build();
+
+            cifar10.prepare();
+            try (Trainer trainer = model.newTrainer(config)) {
+                for (Batch batch : trainer.iterateDataset(cifar10)) {
+                    Assert.assertEquals(batch.getData().size(), 1);
+                    Assert.assertEquals(batch.getLabels().size(), 1);
+                    Assert.assertEquals(
+                            batch.getData().head().getShape().slice(1), new Shape(3, 32, 32));
+                    batch.close();
+                }
+            }
+        }
+    }
 }
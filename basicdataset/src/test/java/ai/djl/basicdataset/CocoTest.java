@@ -22,6 +22,10 @@ import ai.djl.training.dataset.Dataset;
 import ai.djl.training.initializer.Initializer;
 import ai.djl.training.loss.Loss;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -48,4 +52,42 @@ public class CocoTest {
             }
         }
     }
+
+    @Test
+    public void testCocoIndex() throws IOException {
+        Path dir = Paths.get("build/tmp/coco");
+        Files.createDirectories(dir);
+        Path json = dir.resolve("instances_test.json");
+        String content =
+                "{\"info\": {\"year\": 2017},"
+                        + "\"images\": ["
+                        + "{\"id\": 9, \"coco_url\": \"http://coco/val2017/9.jpg\"},"
+                        + "{\"id\": 3, \"coco_url\": \"http://coco/val2017/3.jpg\"}],"
+                        + "\"annotations\": ["
+                        + "{\"segmentation\": [[1, 2, 3]], \"area\": 4.0, \"image_id\": 9,"
+                        + " \"bbox\": [1, 2, 3, 4], \"category_id\": 18, \"id\": 1},"
+                        + "{\"area\": 0, \"image_id\": 3, \"bbox\": [5, 6, 7, 8],"
+                        + " \"category_id\": 1, \"id\": 2}],"
+                        + "\"categories\": [{\"id\": 1, \"name\": \"person\"},"
+                        + " {\"id\": 18, \"name\": \"dog\"}]}";
+        Files.write(json, content.getBytes(StandardCharsets.UTF_8));
+        Files.deleteIfExists(CocoIndex.getIndexPath(json));
+
+        // the first load parses the json, the second one maps the saved index
+        for (int i = 0; i < 2; ++i) {
+            CocoIndex index = CocoIndex.load(json);
+            Assert.assertEquals(index.getImageCount(), 2);
+            Assert.assertEquals(index.getImageId(0), 3);
+            Assert.assertEquals(index.getImageId(1), 9);
+            Assert.assertEquals(index.getRelativeImagePath(1), Paths.get("val2017", "9.jpg"));
+            Assert.assertEquals(index.getAnnotationStart(1), 1);
+            Assert.assertEquals(index.getAnnotationEnd(1), 2);
+            double[] box = new double[4];
+            index.getBoundingBox(1, box, 0);
+            Assert.assertEquals(box, new double[] {1, 2, 3, 4});
+            Assert.assertEquals(index.getCategory(1), 1);
+            Assert.assertEquals(index.getArea(0), 0f);
+            Assert.assertTrue(Files.exists(CocoIndex.getIndexPath(json)));
+        }
+    }
 }
@@ -25,6 +25,7 @@ import ai.djl.training.DefaultTrainingConfig;
 import ai.djl.training.Trainer;
 import ai.djl.training.TrainingConfig;
 import ai.djl.training.dataset.Batch;
+import ai.djl.training.dataset.CachedDataset;
 import ai.djl.training.initializer.Initializer;
 import ai.djl.training.loss.Loss;
 import ai.djl.translate.Pipeline;
@@ -103,4 +104,59 @@ public class ImageFolderTest {
             }
         }
     }
+
+    @Test
+    public void testCachedImageFolder() throws IOException {
+        Repository repository = Repository.newInstance("test", "src/test/resources/imagefolder");
+        TrainingConfig config =
+                new DefaultTrainingConfig(Initializer.ONES, Loss.softmaxCrossEntropyLoss());
+
+        try (Model model = Model.newInstance()) {
+            model.setBlock(Blocks.identityBlock());
+
+            ImageFolder imageFolder =
+                    new ImageFolder.Builder()
+                            .setRepository(repository)
+                            .setSampling(1, false)
+                            .build();
+            imageFolder.prepare();
+
+            CachedDataset dataset =
+                    new CachedDataset.Builder()
+                            .setDataset(imageFolder)
+                            .optCachePipeline(new Pipeline(new Resize(100, 100)))
+                            .optPipeline(new Pipeline(new ToTensor()))
+                            .optMaxCacheSize(2 * 100 * 100 * 3 + 1024)
+                            .optSpillDirectory(Paths.get("build/tmp/imagefolder-cache"))
+                            .setSampling(1, false)
+                            .build();
+
+            try (Trainer trainer = model.newTrainer(config)) {
+                NDManager manager = trainer.getManager();
+                NDArray cat =
+                        BufferedImageUtils.readFileToArray(
+                                manager,
+                                Paths.get("src/test/resources/imagefolder/cat/kitten.jpg"));
+                NDArray expected = NDImageUtils.toTensor(NDImageUtils.resize(cat, 100, 100));
+
+                // the second epoch is served from the cache and the spill directory
+                for (int epoch = 0; epoch < 2; ++epoch) {
+                    Iterator<Batch> ds = trainer.iterateDataset(dataset).iterator();
+                    Batch catBatch = ds.next();
+                    Assertions.assertAlmostEquals(
+                            expected.expandDims(0), catBatch.getData().singletonOrThrow());
+                    Assert.assertEquals(
+                            manager.create(new int[] {0}),
+                            catBatch.getLabels().singletonOrThrow());
+                    catBatch.close();
+                    while (ds.hasNext()) {
+                        ds.next().close();
+                    }
+                }
+                Assert.assertTrue(dataset.getCacheSize() <= 2 * 100 * 100 * 3 + 1024);
+            } finally {
+                dataset.clearCache();
+            }
+        }
+    }
 }
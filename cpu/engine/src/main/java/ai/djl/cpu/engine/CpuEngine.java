@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.cpu.engine;
+
+import ai.djl.Device;
+import ai.djl.Model;
+import ai.djl.engine.CpuExecutionPolicy;
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.NDManager;
+import java.lang.management.MemoryUsage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@code CpuEngine} is an implementation of the {@link Engine} in pure Java, for the CPU.
+ *
+ * <p>It requires no native library, and runs the operators with loops over the elements that the
+ * JIT compiler can vectorize, splitting the large arrays among threads. It supports the operators
+ * commonly needed by the pre-processing and post-processing of inference, but neither training nor
+ * models.
+ *
+ * <p>To get an instance of the {@code CpuEngine} when it is not the default Engine, call {@link
+ * Engine#getEngine(String)} with the Engine name "JavaCPU".
+ */
+public class CpuEngine extends Engine {
+
+    public static final String ENGINE_NAME = "JavaCPU";
+
+    private static final Logger logger = LoggerFactory.getLogger(CpuEngine.class);
+
+    CpuEngine() {}
+
+    /** {@inheritDoc} */
+    @Override
+    public Model newModel(Device device) {
+        throw new UnsupportedOperationException("Models are not supported by " + ENGINE_NAME);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getEngineName() {
+        return ENGINE_NAME;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getGpuCount() {
+        return 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public MemoryUsage getGpuMemory(Device device) {
+        throw new IllegalArgumentException("No GPU is available to " + ENGINE_NAME);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Device defaultDevice() {
+        return Device.cpu();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getVersion() {
+        String version = CpuEngine.class.getPackage().getImplementationVersion();
+        return version == null ? "0.2.0" : version;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDManager newBaseManager() {
+        return CpuNDManager.getSystemManager().newSubManager();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDManager newBaseManager(Device device) {
+        return CpuNDManager.getSystemManager().newSubManager(device);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The operators of the calling thread run on a pool of its own, with as many threads as the
+     * worker has cores. The threads cannot be pinned to the cores from Java, so pinning is ignored.
+     */
+    @Override
+    public void bindWorkerThread(int worker) {
+        CpuExecutionPolicy policy = getCpuExecutionPolicy();
+        if (policy == null) {
+            throw new IllegalStateException("No CpuExecutionPolicy is set");
+        }
+        int[] cores = policy.getCores(worker);
+        Kernels.setThreads(cores.length);
+        if (policy.isPinThreads()) {
+            logger.warn("Pinning threads is not supported by {}, ignored.", ENGINE_NAME);
+        }
+    }
+}
@@ -0,0 +1,2373 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.cpu.engine;
+
+import ai.djl.Device;
+import ai.djl.ndarray.Matrix;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.index.NDIndexBooleans;
+import ai.djl.ndarray.index.NDIndexElement;
+import ai.djl.ndarray.index.NDIndexFullSlice;
+import ai.djl.ndarray.internal.NDArrayEx;
+import ai.djl.ndarray.internal.NDFormat;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.GradReq;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.ndarray.types.SparseFormat;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * {@code CpuNDArray} is the pure Java implementation of {@link NDArray}.
+ *
+ * <p>The elements are stored in a direct buffer, in row-major order. The operators compute in
+ * {@code float32} when it represents the operands and the result exactly. The operators over {@code
+ * float64}, {@code int32} or {@code int64} arrays compute in {@code float64}, or in {@code int64}
+ * when all the operands are integers and the operator is exact over the integers, such as the
+ * addition or the comparisons. Operators that only move elements, such as slicing, transposing or
+ * concatenating, copy the elements as they are.
+ *
+ * <p>When the manager of the array is in lazy evaluation mode, the elementwise operators over
+ * {@code float32} arrays return arrays that only record an {@link Expression}. The expression is
+ * evaluated when the elements of the array are first accessed.
+ */
+public class CpuNDArray implements NDArray {
+
+    private static final int MAX_SIZE = 100;
+    private static final int MAX_DEPTH = 10;
+    private static final int MAX_ROWS = 10;
+    private static final int MAX_COLUMNS = 20;
+
+    private String name;
+    private String uid;
+    private CpuNDManager manager;
+    private ByteBuffer data;
+    private Expression expression;
+    // the pending expressions that read the buffer, it is copied before being written
+    private AtomicInteger readers = new AtomicInteger();
+    private Shape shape;
+    private DataType dataType;
+    private CpuNDArrayEx cpuNDArrayEx;
+
+    /**
+     * Constructs a {@code CpuNDArray} from a buffer (internal. Use {@link NDManager} instead).
+     *
+     * @param manager the manager to attach the new array to
+     * @param data the direct buffer of the elements
+     * @param shape the shape of the new array
+     * @param dataType the dataType of the new array
+     */
+    CpuNDArray(CpuNDManager manager, ByteBuffer data, Shape shape, DataType dataType) {
+        if (Arrays.stream(shape.getShape()).anyMatch(s -> s < 0)) {
+            throw new IllegalArgumentException("The shape must be >= 0");
+        }
+        this.manager = manager;
+        this.data = data;
+        this.shape = shape;
+        this.dataType = dataType;
+        uid = UUID.randomUUID().toString();
+        cpuNDArrayEx = new CpuNDArrayEx(this);
+    }
+
+    /**
+     * Constructs a {@code float32} {@code CpuNDArray} whose elements are computed lazily.
+     *
+     * @param manager the manager to attach the new array to
+     * @param expression the expression that computes the elements
+     * @param shape the shape of the new array
+     */
+    CpuNDArray(CpuNDManager manager, Expression expression, Shape shape) {
+        this(manager, (ByteBuffer) null, shape, DataType.FLOAT32);
+        this.expression = expression;
+        expression.addReaders(1);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CpuNDManager getManager() {
+        return manager;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getUid() {
+        return uid;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Device getDevice() {
+        return Device.cpu();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Shape getShape() {
+        return shape;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SparseFormat getSparseFormat() {
+        return SparseFormat.DENSE;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void attach(NDManager manager) {
+        detach();
+        this.manager = (CpuNDManager) manager;
+        manager.attach(getUid(), this);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void detach() {
+        manager.detach(getUid());
+        manager = CpuNDManager.getSystemManager();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray asInDevice(Device dev, boolean copy) {
+        if (!Device.cpu().getDeviceType().equals(dev.getDeviceType())) {
+            throw new UnsupportedOperationException("CpuNDArray only supports CPU, got: " + dev);
+        }
+        return duplicate();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray asType(DataType dtype, boolean copy) {
+        if (dtype == dataType) {
+            return duplicate();
+        }
+        CpuNDArray array = manager.create(shape, dtype, null);
+        array.name = name;
+        copyTo(array);
+        return array;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Matrix asMatrix() {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void attachGradient() {
+        throw new UnsupportedOperationException("Training is not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void attachGradient(SparseFormat sparseFormat) {
+        throw new UnsupportedOperationException("Training is not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void attachGradient(GradReq gradReq, SparseFormat sparseFormat) {
+        throw new UnsupportedOperationException("Training is not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray getGradient() {
+        throw new UnsupportedOperationException("Training is not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ByteBuffer toByteBuffer() {
+        ByteBuffer bb = manager.allocateDirect(data().capacity());
+        bb.put(getBuffer());
+        bb.rewind();
+        return bb;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(Buffer buffer) {
+        int size = buffer.remaining();
+        DataType inputType = DataType.fromBuffer(buffer);
+        if (dataType != inputType
+                && ((dataType != DataType.UINT8 && dataType != DataType.BOOLEAN)
+                        || inputType != DataType.INT8)) {
+            // Infer DataType from Buffer always return INT8, make this two special case that
+            // allows set UINT8 and BOOL array with regular ByteBuffer.
+            throw new IllegalStateException(
+                    "DataType mismatch, required: " + dataType + ", actual: " + inputType);
+        }
+        if (size != shape.size()) {
+            throw new IllegalArgumentException(
+                    "array size (" + size + ") do not match NDArray shape: " + shape);
+        }
+        prepareWrite();
+        switch (inputType) {
+            case FLOAT32:
+                data().asFloatBuffer().put(((FloatBuffer) buffer).duplicate());
+                break;
+            case FLOAT64:
+                data().asDoubleBuffer().put(((DoubleBuffer) buffer).duplicate());
+                break;
+            case INT32:
+                data().asIntBuffer().put(((IntBuffer) buffer).duplicate());
+                break;
+            case INT64:
+                data().asLongBuffer().put(((LongBuffer) buffer).duplicate());
+                break;
+            case UINT8:
+            case INT8:
+            case BOOLEAN:
+                getBuffer().put(((ByteBuffer) buffer).duplicate());
+                break;
+            default:
+                throw new UnsupportedOperationException("Unsupported data type: " + inputType);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(NDIndex index, NDArray value) {
+        Slice slice = new Slice(index);
+        CpuNDArray array = toCpuNDArray(value);
+        prepareWrite();
+        boolean cast = array.dataType != dataType;
+        if (cast) {
+            array = (CpuNDArray) array.asType(dataType, false);
+        }
+        int[] srcStrides;
+        if (array.shape.size() == Kernels.size(slice.shape)) {
+            // the value may omit the dimensions of size 1, like the squeezed shape of the slice
+            srcStrides = Kernels.strides(slice.shape);
+        } else {
+            srcStrides = broadcastStrides(array.shape, slice.shape);
+        }
+        Kernels.copy(
+                array.data(),
+                0,
+                srcStrides,
+                data(),
+                slice.offset,
+                slice.strides,
+                slice.shape,
+                dataType.getNumOfBytes());
+        if (cast) {
+            array.close();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(NDIndex index, Number value) {
+        Slice slice = new Slice(index);
+        prepareWrite();
+        try (CpuNDArray scalar = manager.create(new Shape(), dataType, null)) {
+            scalar.putElement(0, value.doubleValue());
+            Kernels.copy(
+                    scalar.data(),
+                    0,
+                    new int[slice.shape.length],
+                    data(),
+                    slice.offset,
+                    slice.strides,
+                    slice.shape,
+                    dataType.getNumOfBytes());
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setScalar(NDIndex index, Number value) {
+        if (Kernels.size(new Slice(index).shape) != 1) {
+            throw new IllegalArgumentException("The provided index does not set a scalar");
+        }
+        set(index, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray get(NDIndex index) {
+        if (index.getRank() == 0 && shape.isScalar()) {
+            return duplicate();
+        }
+        List<NDIndexElement> indices = index.getIndices();
+        if (!indices.isEmpty() && indices.get(0) instanceof NDIndexBooleans) {
+            if (indices.size() != 1) {
+                throw new IllegalArgumentException(
+                        "get() currently didn't support more that one boolean NDArray");
+            }
+            return booleanMask(((NDIndexBooleans) indices.get(0)).getIndex());
+        }
+        Slice slice = new Slice(index);
+        CpuNDArray result = manager.create(slice.squeezedShape, dataType, null);
+        Kernels.copy(
+                data(),
+                slice.offset,
+                slice.strides,
+                result.data(),
+                0,
+                Kernels.strides(slice.shape),
+                slice.shape,
+                dataType.getNumOfBytes());
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void copyTo(NDArray array) {
+        CpuNDArray dest = toCpuNDArray(array);
+        if (!Arrays.equals(shape.getShape(), dest.shape.getShape())) {
+            throw new IllegalArgumentException(
+                    "shape are diff. Required: " + dest.shape + ", Actual " + shape);
+        }
+        dest.prepareWrite();
+        if (dest.dataType == dataType) {
+            dest.getBuffer().put(getBuffer());
+            return;
+        }
+        int size = size(shape);
+        for (int i = 0; i < size; ++i) {
+            dest.putElement(i, getElement(i));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray booleanMask(NDArray index, int axis) {
+        if (isScalar() || index.isScalar()) {
+            throw new IllegalArgumentException("booleanMask didn't support scalar!");
+        }
+        if (axis != 0) {
+            throw new UnsupportedOperationException("booleanMask only supports axis 0");
+        }
+        CpuNDArray mask = toCpuNDArray(index);
+        int masked = mask.shape.dimension();
+        if (!Arrays.equals(shape.slice(0, masked).getShape(), mask.shape.getShape())) {
+            throw new IllegalArgumentException(
+                    "The mask " + mask.shape + " does not match the shape " + shape);
+        }
+        int rows = size(mask.shape);
+        int count = 0;
+        for (int i = 0; i < rows; ++i) {
+            if (mask.getElement(i) != 0) {
+                ++count;
+            }
+        }
+        Shape remaining = shape.slice(masked);
+        CpuNDArray result = manager.create(new Shape(count).addAll(remaining), dataType, null);
+        int rowBytes = size(remaining) * dataType.getNumOfBytes();
+        ByteBuffer src = getBuffer();
+        ByteBuffer dst = result.getBuffer();
+        for (int i = 0; i < rows; ++i) {
+            if (mask.getElement(i) != 0) {
+                src.limit((i + 1) * rowBytes).position(i * rowBytes);
+                dst.put(src);
+            }
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray zerosLike() {
+        return manager.zeros(shape, dataType, null);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray onesLike() {
+        return manager.ones(shape, dataType, null);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean contentEquals(Number number) {
+        if (number == null) {
+            return false;
+        }
+        double value = cast(number.doubleValue());
+        int size = size(shape);
+        for (int i = 0; i < size; ++i) {
+            if (getElement(i) != value) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean contentEquals(NDArray other) {
+        if (!(other instanceof CpuNDArray) || !shapeEquals(other)) {
+            return false;
+        }
+        CpuNDArray array = (CpuNDArray) other;
+        if (dataType != array.dataType) {
+            return false;
+        }
+        if (dataType == DataType.INT64) {
+            return getBuffer().asLongBuffer().equals(array.getBuffer().asLongBuffer());
+        }
+        int size = size(shape);
+        for (int i = 0; i < size; ++i) {
+            if (getElement(i) != array.getElement(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray eq(Number other) {
+        return binary(other, Kernels.EQ, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray eq(NDArray other) {
+        return binary(other, Kernels.EQ, false, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray neq(Number other) {
+        return binary(other, Kernels.NEQ, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray neq(NDArray other) {
+        return binary(other, Kernels.NEQ, false, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gt(Number other) {
+        return binary(other, Kernels.GT, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gt(NDArray other) {
+        return binary(other, Kernels.GT, false, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gte(Number other) {
+        return binary(other, Kernels.GTE, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gte(NDArray other) {
+        return binary(other, Kernels.GTE, false, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lt(Number other) {
+        return binary(other, Kernels.LT, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lt(NDArray other) {
+        return binary(other, Kernels.LT, false, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lte(Number other) {
+        return binary(other, Kernels.LTE, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lte(NDArray other) {
+        return binary(other, Kernels.LTE, false, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray add(Number n) {
+        return binary(n, Kernels.ADD, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray add(NDArray other) {
+        return binary(other, Kernels.ADD, false, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sub(Number n) {
+        return binary(n, Kernels.SUB, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sub(NDArray other) {
+        return binary(other, Kernels.SUB, false, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mul(Number n) {
+        return binary(n, Kernels.MUL, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mul(NDArray other) {
+        return binary(other, Kernels.MUL, false, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray div(Number n) {
+        return binary(n, Kernels.DIV, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray div(NDArray other) {
+        return binary(other, Kernels.DIV, false, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mod(Number n) {
+        return binary(n, Kernels.MOD, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mod(NDArray other) {
+        return binary(other, Kernels.MOD, false, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray pow(Number n) {
+        return binary(n, Math::pow, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray pow(NDArray other) {
+        return binary(other, Math::pow, false, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray addi(Number n) {
+        return binaryInPlace(n, Kernels.ADD);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray addi(NDArray other) {
+        return binary(other, Kernels.ADD, true, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray subi(Number n) {
+        return binaryInPlace(n, Kernels.SUB);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray subi(NDArray other) {
+        return binary(other, Kernels.SUB, true, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray muli(Number n) {
+        return binaryInPlace(n, Kernels.MUL);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray muli(NDArray other) {
+        return binary(other, Kernels.MUL, true, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray divi(Number n) {
+        return binaryInPlace(n, Kernels.DIV);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray divi(NDArray other) {
+        return binary(other, Kernels.DIV, true, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray modi(Number n) {
+        return binaryInPlace(n, Kernels.MOD);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray modi(NDArray other) {
+        return binary(other, Kernels.MOD, true, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray powi(Number n) {
+        return binaryInPlace(n, Math::pow);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray powi(NDArray other) {
+        return binary(other, Math::pow, true, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray maximum(Number n) {
+        return binary(n, Kernels.MAX, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray maximum(NDArray other) {
+        return binary(other, Kernels.MAX, false, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray minimum(Number n) {
+        return binary(n, Kernels.MIN, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray minimum(NDArray other) {
+        return binary(other, Kernels.MIN, false, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray neg() {
+        return unary(Kernels.NEG, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray negi() {
+        return unaryInPlace(Kernels.NEG);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray abs() {
+        return unary(Kernels.ABS, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray square() {
+        return unary(Kernels.SQUARE, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray cbrt() {
+        return unary(Math::cbrt, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray floor() {
+        return unary(Math::floor, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray ceil() {
+        return unary(Math::ceil, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray round() {
+        return unary(Math::rint, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray trunc() {
+        return unary(x -> x < 0 ? Math.ceil(x) : Math.floor(x), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray exp() {
+        return unary(Math::exp, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray log() {
+        return unary(Math::log, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray log10() {
+        return unary(Math::log10, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray log2() {
+        return unary(x -> Math.log(x) / Math.log(2), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sin() {
+        return unary(Math::sin, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray cos() {
+        return unary(Math::cos, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray tan() {
+        return unary(Math::tan, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray asin() {
+        return unary(Math::asin, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray acos() {
+        return unary(Math::acos, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray atan() {
+        return unary(Math::atan, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sinh() {
+        return unary(Math::sinh, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray cosh() {
+        return unary(Math::cosh, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray tanh() {
+        return unary(Math::tanh, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray asinh() {
+        return unary(x -> Math.log(x + Math.sqrt(x * x + 1)), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray acosh() {
+        return unary(x -> Math.log(x + Math.sqrt(x * x - 1)), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray atanh() {
+        return unary(x -> 0.5 * Math.log((1 + x) / (1 - x)), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray toDegrees() {
+        return unary(Math::toDegrees, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray toRadians() {
+        return unary(Math::toRadians, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray max() {
+        return reduce(allAxes(), false, Kernels.Reducer.MAX, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray max(int[] axes, boolean keepDims) {
+        return reduce(axes, keepDims, Kernels.Reducer.MAX, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray min() {
+        return reduce(allAxes(), false, Kernels.Reducer.MIN, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray min(int[] axes, boolean keepDims) {
+        return reduce(axes, keepDims, Kernels.Reducer.MIN, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sum() {
+        return sum(allAxes(), false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sum(int[] axes, boolean keepDims) {
+        // the sum of booleans counts them
+        DataType type = dataType == DataType.BOOLEAN ? DataType.INT64 : dataType;
+        return reduce(axes, keepDims, Kernels.Reducer.SUM, type);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray prod() {
+        return reduce(allAxes(), false, Kernels.Reducer.PROD, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray prod(int[] axes, boolean keepDims) {
+        return reduce(axes, keepDims, Kernels.Reducer.PROD, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mean() {
+        return mean(allAxes(), false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mean(int[] axes, boolean keepDims) {
+        DataType type = dataType.isFloating() ? dataType : DataType.FLOAT32;
+        long count = 1;
+        for (int axis : axes) {
+            count *= shape.get(withAxis(axis));
+        }
+        DataType sumType = isWide(dataType) ? DataType.FLOAT64 : DataType.FLOAT32;
+        try (NDArray sum = reduce(axes, keepDims, Kernels.Reducer.SUM, sumType)) {
+            return ((CpuNDArray) sum).binary(count, Kernels.DIV, type);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray trace(int offset, int axis1, int axis2) {
+        int rank = shape.dimension();
+        int dim1 = withAxis(axis1);
+        int dim2 = withAxis(axis2);
+        if (rank < 2 || dim1 == dim2) {
+            throw new IllegalArgumentException("trace requires two different axes");
+        }
+        // moves the two axes last, the diagonal of each matrix is summed
+        int[] axes = new int[rank];
+        int j = 0;
+        for (int i = 0; i < rank; ++i) {
+            if (i != dim1 && i != dim2) {
+                axes[j++] = i;
+            }
+        }
+        axes[rank - 2] = dim1;
+        axes[rank - 1] = dim2;
+        int rows = (int) shape.get(dim1);
+        int columns = (int) shape.get(dim2);
+        long[] dims = new long[rank - 2];
+        for (int i = 0; i < rank - 2; ++i) {
+            dims[i] = shape.get(axes[i]);
+        }
+        Shape resultShape = new Shape(dims);
+        try (CpuNDArray moved = (CpuNDArray) transpose(axes)) {
+            int count = size(resultShape);
+            boolean exact = isExact(dataType, this);
+            long[] longs = exact ? moved.toLongs() : null;
+            double[] doubles = exact ? null : moved.toDoubles();
+            long[] longSums = new long[count];
+            double[] sums = new double[count];
+            for (int o = 0; o < count; ++o) {
+                for (int r = Math.max(0, -offset); r < rows && r + offset < columns; ++r) {
+                    int index = (o * rows + r) * columns + r + offset;
+                    if (exact) {
+                        longSums[o] += longs[index];
+                    } else {
+                        sums[o] += doubles[index];
+                    }
+                }
+            }
+            if (exact) {
+                return fromLongs(longSums, resultShape, dataType);
+            }
+            return fromDoubles(sums, resultShape, dataType);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList split(int[] indices, int axis) {
+        int dim = withAxis(axis);
+        int length = (int) shape.get(dim);
+        NDList list = new NDList();
+        for (int i = 0; i < indices.length; ++i) {
+            int begin = Math.min(indices[i], length);
+            int end = i + 1 < indices.length ? Math.min(indices[i + 1], length) : length;
+            if (i == 0 && begin != 0) {
+                // follow the numpy behavior
+                list.add(slice(dim, 0, begin));
+            }
+            list.add(slice(dim, begin, Math.max(begin, end)));
+        }
+        return list;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray flatten() {
+        return reshape(new Shape(shape.size()));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray reshape(Shape newShape) {
+        long[] dims = newShape.getShape().clone();
+        int unknown = -1;
+        long known = 1;
+        for (int i = 0; i < dims.length; ++i) {
+            if (dims[i] == -1) {
+                if (unknown >= 0) {
+                    throw new IllegalArgumentException("Only one dimension can be inferred");
+                }
+                unknown = i;
+            } else {
+                known *= dims[i];
+            }
+        }
+        if (unknown >= 0) {
+            dims[unknown] = known == 0 ? 0 : shape.size() / known;
+            known *= dims[unknown];
+        }
+        if (known != shape.size()) {
+            throw new IllegalArgumentException(
+                    "Cannot reshape array of shape " + shape + " into " + newShape);
+        }
+        CpuNDArray result = manager.create(new Shape(dims), dataType, null);
+        result.getBuffer().put(getBuffer());
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray expandDims(int axis) {
+        int rank = shape.dimension();
+        int dim = axis < 0 ? axis + rank + 1 : axis;
+        if (dim < 0 || dim > rank) {
+            throw new IllegalArgumentException(
+                    "axis " + axis + " is out of bounds for array of dimension " + rank);
+        }
+        return reshape(shape.slice(0, dim).addAll(new Shape(1)).addAll(shape.slice(dim)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray squeeze(int[] axes) {
+        if (isScalar()) {
+            for (int axis : axes) {
+                withAxis(axis);
+            }
+            return duplicate();
+        }
+        boolean[] squeezed = new boolean[shape.dimension()];
+        for (int axis : axes) {
+            int dim = withAxis(axis);
+            if (shape.get(dim) != 1) {
+                throw new IllegalArgumentException(
+                        "cannot select an axis to squeeze out which has size not equal to one");
+            }
+            squeezed[dim] = true;
+        }
+        long[] dims = new long[shape.dimension() - axes.length];
+        for (int i = 0, j = 0; i < squeezed.length; ++i) {
+            if (!squeezed[i]) {
+                dims[j++] = shape.get(i);
+            }
+        }
+        return reshape(new Shape(dims));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray squeeze() {
+        int[] axes = IntStream.range(0, shape.dimension()).filter(i -> shape.get(i) == 1).toArray();
+        return squeeze(axes);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray logicalAnd(NDArray other) {
+        return binary(other, (a, b) -> a != 0 && b != 0 ? 1 : 0, false, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray logicalOr(NDArray other) {
+        return binary(other, (a, b) -> a != 0 || b != 0 ? 1 : 0, false, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray logicalXor(NDArray other) {
+        return binary(other, (a, b) -> (a != 0) != (b != 0) ? 1 : 0, false, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray logicalNot() {
+        return unary(x -> x == 0 ? 1 : 0, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray argSort(int axis, boolean ascending) {
+        Axis along = new Axis(axis);
+        IntBinaryOperator compare = comparator();
+        CpuNDArray result = manager.create(shape, DataType.INT32, null);
+        IntBuffer dst = result.data().asIntBuffer();
+        Integer[] order = new Integer[along.length];
+        for (int o = 0; o < along.outer; ++o) {
+            for (int i = 0; i < along.inner; ++i) {
+                int base = o * along.length * along.inner + i;
+                for (int r = 0; r < along.length; ++r) {
+                    order[r] = r;
+                }
+                // stable sort, the equal elements keep their order
+                Arrays.sort(
+                        order,
+                        (x, y) -> {
+                            int cmp =
+                                    compare.applyAsInt(
+                                            base + x * along.inner, base + y * along.inner);
+                            return ascending ? cmp : -cmp;
+                        });
+                for (int r = 0; r < along.length; ++r) {
+                    dst.put(base + r * along.inner, order[r]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sort() {
+        return sort(-1);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sort(int axis) {
+        if (isScalar()) {
+            if (axis != 0 && axis != -1) {
+                throw new IllegalArgumentException(
+                        "axis " + axis + "is out of bounds for array of dimension 0");
+            }
+            return duplicate();
+        }
+        if (isWide(dataType)) {
+            // moves the elements in the order of argSort, that compares them exactly
+            try (NDArray order = argSort(axis, true)) {
+                return take(order, new Axis(axis));
+            }
+        }
+        Axis along = new Axis(axis);
+        FloatBuffer src = toFloatBuffer();
+        CpuNDArray result = manager.create(shape, DataType.FLOAT32, null);
+        FloatBuffer dst = result.getFloatBuffer();
+        float[] row = new float[along.length];
+        for (int o = 0; o < along.outer; ++o) {
+            for (int i = 0; i < along.inner; ++i) {
+                int base = o * along.length * along.inner + i;
+                for (int r = 0; r < along.length; ++r) {
+                    row[r] = src.get(base + r * along.inner);
+                }
+                Arrays.sort(row);
+                for (int r = 0; r < along.length; ++r) {
+                    dst.put(base + r * along.inner, row[r]);
+                }
+            }
+        }
+        return result.castTo(dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray softmax(int[] axes, double temperature) {
+        if (isEmpty()) {
+            return manager.create(shape);
+        }
+        if (isScalar()) {
+            return onesLike();
+        }
+        int[] sorted = Arrays.stream(axes).map(this::withAxis).sorted().toArray();
+        for (int i = 1; i < sorted.length; ++i) {
+            if (sorted[i] != sorted[i - 1] + 1) {
+                throw new UnsupportedOperationException(
+                        "softmax only supports consecutive axes, got: " + Arrays.toString(axes));
+            }
+        }
+        int outer = (int) shape.slice(0, sorted[0]).size();
+        int length = (int) shape.slice(sorted[0], sorted[sorted.length - 1] + 1).size();
+        int inner = (int) shape.slice(sorted[sorted.length - 1] + 1).size();
+        if (isWide(dataType)) {
+            double[] values = new double[size(shape)];
+            Kernels.softmax(toDoubles(), values, outer, length, inner, temperature);
+            return fromDoubles(values, shape, dataType);
+        }
+        CpuNDArray result = manager.create(shape, DataType.FLOAT32, null);
+        Kernels.softmax(
+                toFloatBuffer(),
+                result.getFloatBuffer(),
+                outer,
+                length,
+                inner,
+                (float) temperature);
+        return result.castTo(dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray cumSum() {
+        try (NDArray flat = flatten()) {
+            return flat.cumSum(0);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray cumSum(int axis) {
+        Axis along = new Axis(axis);
+        if (isWide(dataType)) {
+            if (isExact(dataType, this)) {
+                long[] values = toLongs();
+                Kernels.cumSum(values, values, along.outer, along.length, along.inner);
+                return fromLongs(values, shape, dataType);
+            }
+            double[] values = toDoubles();
+            Kernels.cumSum(values, values, along.outer, along.length, along.inner);
+            return fromDoubles(values, shape, dataType);
+        }
+        CpuNDArray result = manager.create(shape, DataType.FLOAT32, null);
+        Kernels.cumSum(
+                toFloatBuffer(),
+                result.getFloatBuffer(),
+                along.outer,
+                along.length,
+                along.inner);
+        return result.castTo(dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray isInfinite() {
+        return unary(x -> Double.isInfinite(x) ? 1 : 0, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray isNaN() {
+        return unary(x -> Double.isNaN(x) ? 1 : 0, DataType.BOOLEAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray createMask(NDIndex index) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray createMask(Predicate<Number> predicate) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray tile(long repeats) {
+        long[] repeatsArray = new long[Math.max(1, shape.dimension())];
+        Arrays.fill(repeatsArray, repeats);
+        return tile(repeatsArray);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray tile(int axis, long repeats) {
+        if (isScalar()) {
+            throw new IllegalArgumentException("scalar didn't support specifying axis");
+        }
+        long[] repeatsArray = new long[shape.dimension()];
+        Arrays.fill(repeatsArray, 1);
+        repeatsArray[withAxis(axis)] = repeats;
+        return tile(repeatsArray);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray tile(long[] repeats) {
+        return gather(repeats, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray tile(Shape desiredShape) {
+        return tile(repeatsToMatchShape(desiredShape));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray repeat(long repeats) {
+        long[] repeatsArray = new long[Math.max(1, shape.dimension())];
+        Arrays.fill(repeatsArray, repeats);
+        return repeat(repeatsArray);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray repeat(int axis, long repeats) {
+        long[] repeatsArray = new long[shape.dimension()];
+        Arrays.fill(repeatsArray, 1);
+        repeatsArray[withAxis(axis)] = repeats;
+        return repeat(repeatsArray);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray repeat(long[] repeats) {
+        return gather(repeats, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray repeat(Shape desiredShape) {
+        return repeat(repeatsToMatchShape(desiredShape));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray dot(NDArray other) {
+        CpuNDArray array = toCpuNDArray(other);
+        int rank = shape.dimension();
+        int otherRank = array.shape.dimension();
+        if (rank == 0 || otherRank == 0) {
+            return mul(other);
+        }
+        if (otherRank > 2) {
+            throw new UnsupportedOperationException(
+                    "dot only supports 1-D and 2-D arrays on the right side");
+        }
+        int k = (int) shape.get(rank - 1);
+        if (k != array.shape.get(0)) {
+            throw new IllegalArgumentException(
+                    "shapes " + shape + " and " + array.shape + " not aligned");
+        }
+        int m = size(shape) / Math.max(1, k);
+        int n = otherRank == 1 ? 1 : (int) array.shape.get(1);
+        Shape resultShape = shape.slice(0, rank - 1);
+        if (otherRank == 2) {
+            resultShape = resultShape.addAll(new Shape(n));
+        }
+        if (isWide(dataType, this, array)) {
+            if (isExact(dataType, this, array)) {
+                long[] values = new long[m * n];
+                Kernels.matmul(toLongs(), array.toLongs(), values, m, k, n);
+                return fromLongs(values, resultShape, dataType);
+            }
+            double[] values = new double[m * n];
+            Kernels.matmul(toDoubles(), array.toDoubles(), values, m, k, n);
+            return fromDoubles(values, resultShape, dataType);
+        }
+        CpuNDArray result = manager.create(resultShape, DataType.FLOAT32, null);
+        Kernels.matmul(toFloatBuffer(), array.toFloatBuffer(), result.getFloatBuffer(), m, k, n);
+        return result.castTo(dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray clip(Number min, Number max) {
+        double low = min.doubleValue();
+        double high = max.doubleValue();
+        return unary(x -> Math.min(high, Math.max(low, x)), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray transpose() {
+        int rank = shape.dimension();
+        int[] axes = new int[rank];
+        for (int i = 0; i < rank; ++i) {
+            axes[i] = rank - 1 - i;
+        }
+        return transpose(axes);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray transpose(int... axes) {
+        int rank = shape.dimension();
+        if (axes.length != rank) {
+            throw new IllegalArgumentException("axes don't match array");
+        }
+        int[] strides = Kernels.strides(dims(shape));
+        int[] srcStrides = new int[rank];
+        long[] newShape = new long[rank];
+        boolean[] used = new boolean[rank];
+        for (int i = 0; i < rank; ++i) {
+            int axis = withAxis(axes[i]);
+            if (used[axis]) {
+                throw new IllegalArgumentException("repeated axis in transpose");
+            }
+            used[axis] = true;
+            newShape[i] = shape.get(axis);
+            srcStrides[i] = strides[axis];
+        }
+        Shape resultShape = new Shape(newShape);
+        CpuNDArray result = manager.create(resultShape, dataType, null);
+        copyFrom(srcStrides, result);
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray broadcast(Shape newShape) {
+        CpuNDArray result = manager.create(newShape, dataType, null);
+        copyFrom(broadcastStrides(shape, dims(newShape)), result);
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray argMax() {
+        if (isEmpty()) {
+            throw new IllegalArgumentException("attempt to get argMax of an empty NDArray");
+        }
+        try (NDArray flat = flatten()) {
+            return ((CpuNDArray) flat).argReduce(0, true);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray argMax(int axis) {
+        return argReduce(axis, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray argMin() {
+        if (isEmpty()) {
+            throw new IllegalArgumentException("attempt to get argMin of an empty NDArray");
+        }
+        try (NDArray flat = flatten()) {
+            return ((CpuNDArray) flat).argReduce(0, false);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray argMin(int axis) {
+        return argReduce(axis, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray percentile(Number percentile) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray percentile(Number percentile, int[] axes) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray median() {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray median(int[] axes) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray toDense() {
+        return duplicate();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray toSparse(SparseFormat fmt) {
+        throw new UnsupportedOperationException("Sparse arrays are not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray nonzero() {
+        // a scalar has the indices of an array of shape (1)
+        int rank = Math.max(1, shape.dimension());
+        int size = size(shape);
+        int count = 0;
+        for (int i = 0; i < size; ++i) {
+            if (getElement(i) != 0) {
+                ++count;
+            }
+        }
+        CpuNDArray result = manager.create(new Shape(count, rank), DataType.INT64, null);
+        LongBuffer dst = result.data().asLongBuffer();
+        int[] dims = isScalar() ? new int[] {1} : dims(shape);
+        int row = 0;
+        for (int i = 0; i < size; ++i) {
+            if (getElement(i) != 0) {
+                int index = i;
+                for (int d = rank - 1; d >= 0; --d) {
+                    dst.put(row * rank + d, index % dims[d]);
+                    index /= dims[d];
+                }
+                ++row;
+            }
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArrayEx getNDArrayInternal() {
+        return cpuNDArrayEx;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof CpuNDArray) {
+            return contentEquals((CpuNDArray) obj);
+        }
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        if (data == null && expression == null) {
+            return "This array is already closed";
+        }
+        return NDFormat.format(this, MAX_SIZE, MAX_DEPTH, MAX_ROWS, MAX_COLUMNS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        if (data != null || expression != null) {
+            if (expression != null) {
+                expression.addReaders(-1);
+            }
+            data = null;
+            expression = null;
+            manager.detach(getUid());
+            manager = null;
+        }
+    }
+
+    /**
+     * Returns the buffer of the elements, and evaluates the pending {@link Expression} first.
+     *
+     * @return the buffer of the elements
+     */
+    ByteBuffer data() {
+        if (expression != null) {
+            ByteBuffer buffer = manager.allocateDirect(size(shape) * 4);
+            expression.evaluate(buffer.asFloatBuffer(), size(shape));
+            expression.addReaders(-1);
+            data = buffer;
+            expression = null;
+        }
+        return data;
+    }
+
+    /**
+     * Returns the elements as an {@link Expression} broadcast to a shape.
+     *
+     * @param target the shape of the expression
+     * @return the expression of the elements
+     */
+    Expression toExpression(int[] target) {
+        int[] dims = dims(shape);
+        if (expression != null
+                && Arrays.equals(dims, target)
+                && expression.getNodes() < Expression.MAX_NODES) {
+            return expression;
+        }
+        // the elements of the other data types are read from a copy
+        AtomicInteger counter = dataType == DataType.FLOAT32 ? readers : null;
+        return Expression.leaf(toFloatBuffer(), counter, dims, target);
+    }
+
+    ByteBuffer getBuffer() {
+        ByteBuffer buffer = data().duplicate();
+        buffer.order(data().order());
+        return buffer;
+    }
+
+    FloatBuffer getFloatBuffer() {
+        if (dataType != DataType.FLOAT32) {
+            throw new IllegalStateException(
+                    "DataType mismatch, Required float, Actual " + dataType);
+        }
+        return data().asFloatBuffer();
+    }
+
+    /**
+     * Returns the elements as floats, converted to a new buffer if the data type is not {@code
+     * float32}.
+     *
+     * @return the elements as floats
+     */
+    FloatBuffer toFloatBuffer() {
+        if (dataType == DataType.FLOAT32) {
+            return data().asFloatBuffer();
+        }
+        int size = size(shape);
+        FloatBuffer floats = FloatBuffer.allocate(size);
+        for (int i = 0; i < size; ++i) {
+            floats.put(i, (float) getElement(i));
+        }
+        return floats;
+    }
+
+    /**
+     * Returns a copy of the elements as doubles.
+     *
+     * @return the elements as doubles
+     */
+    double[] toDoubles() {
+        int size = size(shape);
+        double[] values = new double[size];
+        if (dataType == DataType.FLOAT64) {
+            getBuffer().asDoubleBuffer().get(values);
+        } else {
+            for (int i = 0; i < size; ++i) {
+                values[i] = getElement(i);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns a copy of the elements as longs, the floating-point elements are truncated.
+     *
+     * @return the elements as longs
+     */
+    long[] toLongs() {
+        int size = size(shape);
+        long[] values = new long[size];
+        if (dataType == DataType.INT64) {
+            getBuffer().asLongBuffer().get(values);
+        } else {
+            for (int i = 0; i < size; ++i) {
+                values[i] = (long) getElement(i);
+            }
+        }
+        return values;
+    }
+
+    void fill(double value) {
+        prepareWrite();
+        int size = size(shape);
+        for (int i = 0; i < size; ++i) {
+            putElement(i, value);
+        }
+    }
+
+    /**
+     * Converts this {@code float32} array to the given data type, and closes it if a new array is
+     * created.
+     *
+     * @param type the data type of the result
+     * @return this array, or the converted array
+     */
+    NDArray castTo(DataType type) {
+        if (type == dataType) {
+            return this;
+        }
+        try (NDArray array = this) {
+            return array.asType(type, false);
+        }
+    }
+
+    NDArray unary(Kernels.Unary op, DataType type) {
+        if (isLazy(type, this)) {
+            return lazy(toExpression(dims(shape)).map(op), shape);
+        }
+        if (isWide(type, this)) {
+            LongUnaryOperator exact = Kernels.exact(op);
+            if (exact != null && isExact(type, this)) {
+                long[] values = toLongs();
+                Kernels.map(values, values, exact);
+                return fromLongs(values, shape, type);
+            }
+            double[] values = toDoubles();
+            Kernels.map(values, values, op);
+            return fromDoubles(values, shape, type);
+        }
+        CpuNDArray result = manager.create(shape, DataType.FLOAT32, null);
+        Kernels.map(toFloatBuffer(), result.getFloatBuffer(), size(shape), op);
+        return result.castTo(type);
+    }
+
+    NDArray binary(Number n, Kernels.Binary op, DataType type) {
+        if (isLazy(type, this)) {
+            Expression scalar = Expression.constant(n.floatValue());
+            return lazy(toExpression(dims(shape)).zip(scalar, op), shape);
+        }
+        if (isWide(type, this)) {
+            LongBinaryOperator exact = Kernels.exact(op);
+            if (exact != null && isExact(type, this) && isIntegral(n)) {
+                long[] values = toLongs();
+                Kernels.zipScalar(values, n.longValue(), values, exact);
+                return fromLongs(values, shape, type);
+            }
+            double[] values = toDoubles();
+            Kernels.zipScalar(values, n.doubleValue(), values, op);
+            return fromDoubles(values, shape, type);
+        }
+        CpuNDArray result = manager.create(shape, DataType.FLOAT32, null);
+        Kernels.zipScalar(
+                toFloatBuffer(), n.floatValue(), result.getFloatBuffer(), size(shape), op);
+        return result.castTo(type);
+    }
+
+    NDArray binaryInPlace(Number n, Kernels.Binary op) {
+        if (isLazy(dataType, this)) {
+            Expression scalar = Expression.constant(n.floatValue());
+            return record(toExpression(dims(shape)).zip(scalar, op));
+        }
+        if (dataType == DataType.FLOAT32) {
+            prepareWrite();
+            FloatBuffer buffer = getFloatBuffer();
+            Kernels.zipScalar(buffer, n.floatValue(), buffer, size(shape), op);
+            return this;
+        }
+        try (NDArray result = binary(n, op, dataType)) {
+            result.copyTo(this);
+        }
+        return this;
+    }
+
+    NDArray unaryInPlace(Kernels.Unary op) {
+        if (isLazy(dataType, this)) {
+            return record(toExpression(dims(shape)).map(op));
+        }
+        if (dataType == DataType.FLOAT32) {
+            prepareWrite();
+            FloatBuffer buffer = getFloatBuffer();
+            Kernels.map(buffer, buffer, size(shape), op);
+            return this;
+        }
+        try (NDArray result = unary(op, dataType)) {
+            result.copyTo(this);
+        }
+        return this;
+    }
+
+    NDArray binary(NDArray other, Kernels.Binary op, boolean inPlace, DataType type) {
+        CpuNDArray array = toCpuNDArray(other);
+        int[] resultShape = broadcastShape(dims(shape), dims(array.shape));
+        if (inPlace && !Arrays.equals(resultShape, dims(shape))) {
+            throw new IllegalArgumentException(
+                    "The result of the in-place operator cannot be broadcast to " + shape);
+        }
+        if (isLazy(inPlace ? dataType : type, this, array)) {
+            Expression expr =
+                    toExpression(resultShape).zip(array.toExpression(resultShape), op);
+            return inPlace ? record(expr) : lazy(expr, toShape(resultShape));
+        }
+        if (isWide(inPlace ? dataType : type, this, array)) {
+            NDArray result = binaryWide(array, op, toShape(resultShape), inPlace ? dataType : type);
+            if (!inPlace) {
+                return result;
+            }
+            try (NDArray tmp = result) {
+                tmp.copyTo(this);
+            }
+            return this;
+        }
+        CpuNDArray result;
+        if (inPlace && dataType == DataType.FLOAT32) {
+            prepareWrite();
+            result = this;
+        } else {
+            result = manager.create(toShape(resultShape), DataType.FLOAT32, null);
+        }
+        FloatBuffer a = toFloatBuffer();
+        FloatBuffer b = array.toFloatBuffer();
+        FloatBuffer dst = result.getFloatBuffer();
+        int size = Kernels.size(resultShape);
+        if (shape.equals(array.shape)) {
+            Kernels.zip(a, b, dst, size, op);
+        } else if (array.shape.size() == 1 && shape.dimension() >= array.shape.dimension()) {
+            Kernels.zipScalar(a, b.get(0), dst, size, op);
+        } else {
+            Kernels.broadcast(
+                    a,
+                    broadcastStrides(shape, resultShape),
+                    b,
+                    broadcastStrides(array.shape, resultShape),
+                    dst,
+                    resultShape,
+                    op);
+        }
+        if (!inPlace) {
+            return result.castTo(type);
+        }
+        if (result != this) {
+            try (NDArray tmp = result) {
+                tmp.copyTo(this);
+            }
+        }
+        return this;
+    }
+
+    private NDArray binaryWide(
+            CpuNDArray other, Kernels.Binary op, Shape resultShape, DataType type) {
+        // the operands are broadcast to copies first
+        CpuNDArray a = shape.equals(resultShape) ? this : (CpuNDArray) broadcast(resultShape);
+        CpuNDArray b =
+                other.shape.equals(resultShape) ? other : (CpuNDArray) other.broadcast(resultShape);
+        try {
+            LongBinaryOperator exact = Kernels.exact(op);
+            if (exact != null && isExact(type, this, other)) {
+                long[] values = a.toLongs();
+                Kernels.zip(values, b.toLongs(), values, exact);
+                return fromLongs(values, resultShape, type);
+            }
+            double[] values = a.toDoubles();
+            Kernels.zip(values, b.toDoubles(), values, op);
+            return fromDoubles(values, resultShape, type);
+        } finally {
+            if (a != this) {
+                a.close();
+            }
+            if (b != other) {
+                b.close();
+            }
+        }
+    }
+
+    double getElement(int index) {
+        switch (dataType) {
+            case FLOAT32:
+                return data().getFloat(index * 4);
+            case FLOAT64:
+                return data().getDouble(index * 8);
+            case INT32:
+                return data().getInt(index * 4);
+            case INT64:
+                return data().getLong(index * 8);
+            case INT8:
+            case BOOLEAN:
+                return data().get(index);
+            case UINT8:
+                return data().get(index) & 0xff;
+            default:
+                throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+        }
+    }
+
+    void putElement(int index, double value) {
+        switch (dataType) {
+            case FLOAT32:
+                data().putFloat(index * 4, (float) value);
+                break;
+            case FLOAT64:
+                data().putDouble(index * 8, value);
+                break;
+            case INT32:
+                data().putInt(index * 4, (int) value);
+                break;
+            case INT64:
+                data().putLong(index * 8, (long) value);
+                break;
+            case INT8:
+            case UINT8:
+                data().put(index, (byte) (int) value);
+                break;
+            case BOOLEAN:
+                data().put(index, (byte) (value != 0 ? 1 : 0));
+                break;
+            default:
+                throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+        }
+    }
+
+    static CpuNDArray toCpuNDArray(NDArray array) {
+        if (!(array instanceof CpuNDArray)) {
+            throw new IllegalArgumentException("Only CpuNDArray is supported.");
+        }
+        return (CpuNDArray) array;
+    }
+
+    static int[] dims(Shape shape) {
+        return Arrays.stream(shape.getShape()).mapToInt(Math::toIntExact).toArray();
+    }
+
+    static int size(Shape shape) {
+        return Math.toIntExact(shape.size());
+    }
+
+    static Shape toShape(int[] dims) {
+        return new Shape(Arrays.stream(dims).asLongStream().toArray());
+    }
+
+    static int[] broadcastShape(int[] a, int[] b) {
+        int rank = Math.max(a.length, b.length);
+        int[] result = new int[rank];
+        for (int i = 0; i < rank; ++i) {
+            int x = i < rank - a.length ? 1 : a[i - rank + a.length];
+            int y = i < rank - b.length ? 1 : b[i - rank + b.length];
+            if (x != y && x != 1 && y != 1) {
+                throw new IllegalArgumentException(
+                        "operands could not be broadcast together with shapes "
+                                + toShape(a)
+                                + " "
+                                + toShape(b));
+            }
+            result[i] = x == 1 ? y : x;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the strides to read an array of the given shape as an array of a broadcast shape.
+     *
+     * @param shape the shape of the array
+     * @param target the broadcast shape
+     * @return the strides of the array in the broadcast shape, 0 along the broadcast dimensions
+     */
+    static int[] broadcastStrides(Shape shape, int[] target) {
+        int[] dims = dims(shape);
+        int offset = target.length - dims.length;
+        if (offset < 0) {
+            throw new IllegalArgumentException(
+                    "Cannot broadcast " + shape + " to " + toShape(target));
+        }
+        int[] strides = Kernels.strides(dims);
+        int[] result = new int[target.length];
+        for (int i = 0; i < dims.length; ++i) {
+            if (dims[i] == target[i + offset]) {
+                result[i + offset] = strides[i];
+            } else if (dims[i] != 1) {
+                throw new IllegalArgumentException(
+                        "Cannot broadcast " + shape + " to " + toShape(target));
+            }
+        }
+        return result;
+    }
+
+    private NDArray reduce(int[] axes, boolean keepDims, Kernels.Reducer reducer, DataType type) {
+        int[] dims = dims(shape);
+        boolean[] reduced = new boolean[dims.length];
+        for (int axis : axes) {
+            reduced[withAxis(axis)] = true;
+        }
+        int first = dims.length;
+        while (first > 0 && reduced[first - 1]) {
+            --first;
+        }
+        boolean trailing = first < dims.length;
+        for (int d = 0; d < first; ++d) {
+            trailing &= !reduced[d];
+        }
+        if (isWide(type, this)) {
+            return reduceWide(dims, reduced, keepDims, reducer, type);
+        }
+        FloatBuffer buffer;
+        if (expression != null && trailing) {
+            // reduces the elements of the pending expression as they are computed
+            int outer = Kernels.size(Arrays.copyOfRange(dims, 0, first));
+            int length = Kernels.size(Arrays.copyOfRange(dims, first, dims.length));
+            buffer = FloatBuffer.allocate(outer);
+            expression.reduce(buffer, outer, length, reducer);
+            Arrays.fill(dims, first, dims.length, 1);
+        } else {
+            buffer = toFloatBuffer();
+            // reduces one axis at a time, from the last one
+            for (int d = dims.length - 1; d >= 0; --d) {
+                if (reduced[d]) {
+                    int outer = Kernels.size(Arrays.copyOfRange(dims, 0, d));
+                    int inner = Kernels.size(Arrays.copyOfRange(dims, d + 1, dims.length));
+                    FloatBuffer out = FloatBuffer.allocate(outer * inner);
+                    Kernels.reduce(buffer, out, outer, dims[d], inner, reducer);
+                    buffer = out;
+                    dims[d] = 1;
+                }
+            }
+        }
+        Shape resultShape = reducedShape(dims, reduced, keepDims);
+        CpuNDArray result = manager.create(resultShape, DataType.FLOAT32, null);
+        result.getFloatBuffer().put(buffer);
+        return result.castTo(type);
+    }
+
+    private NDArray reduceWide(
+            int[] dims,
+            boolean[] reduced,
+            boolean keepDims,
+            Kernels.Reducer reducer,
+            DataType type) {
+        boolean exact = isExact(type, this);
+        long[] longs = exact ? toLongs() : null;
+        double[] doubles = exact ? null : toDoubles();
+        // reduces one axis at a time, from the last one
+        for (int d = dims.length - 1; d >= 0; --d) {
+            if (reduced[d]) {
+                int outer = Kernels.size(Arrays.copyOfRange(dims, 0, d));
+                int inner = Kernels.size(Arrays.copyOfRange(dims, d + 1, dims.length));
+                if (exact) {
+                    long[] out = new long[outer * inner];
+                    Kernels.reduce(longs, out, outer, dims[d], inner, reducer);
+                    longs = out;
+                } else {
+                    double[] out = new double[outer * inner];
+                    Kernels.reduce(doubles, out, outer, dims[d], inner, reducer);
+                    doubles = out;
+                }
+                dims[d] = 1;
+            }
+        }
+        Shape resultShape = reducedShape(dims, reduced, keepDims);
+        if (exact) {
+            return fromLongs(longs, resultShape, type);
+        }
+        return fromDoubles(doubles, resultShape, type);
+    }
+
+    private static Shape reducedShape(int[] dims, boolean[] reduced, boolean keepDims) {
+        return new Shape(
+                IntStream.range(0, dims.length)
+                        .filter(i -> keepDims || !reduced[i])
+                        .mapToLong(i -> dims[i])
+                        .toArray());
+    }
+
+    private NDArray argReduce(int axis, boolean max) {
+        if (isScalar()) {
+            return manager.create(0f);
+        }
+        Axis along = new Axis(axis);
+        if (along.length == 0) {
+            throw new IllegalArgumentException("attempt to get argMax of an empty NDArray");
+        }
+        Shape resultShape = shape.slice(0, along.dim).addAll(shape.slice(along.dim + 1));
+        CpuNDArray result = manager.create(resultShape, DataType.FLOAT32, null);
+        if (isWide(dataType)) {
+            Kernels.argReduce(
+                    toDoubles(),
+                    result.getFloatBuffer(),
+                    along.outer,
+                    along.length,
+                    along.inner,
+                    max);
+        } else {
+            Kernels.argReduce(
+                    toFloatBuffer(),
+                    result.getFloatBuffer(),
+                    along.outer,
+                    along.length,
+                    along.inner,
+                    max);
+        }
+        return result;
+    }
+
+    private IntBinaryOperator comparator() {
+        if (!isWide(dataType)) {
+            FloatBuffer values = toFloatBuffer();
+            return (x, y) -> Float.compare(values.get(x), values.get(y));
+        } else if (dataType.isFloating()) {
+            double[] values = toDoubles();
+            return (x, y) -> Double.compare(values[x], values[y]);
+        }
+        long[] values = toLongs();
+        return (x, y) -> Long.compare(values[x], values[y]);
+    }
+
+    private NDArray take(NDArray order, Axis along) {
+        CpuNDArray indices = (CpuNDArray) order;
+        CpuNDArray result = manager.create(shape, dataType, null);
+        int bytes = dataType.getNumOfBytes();
+        ByteBuffer src = getBuffer();
+        ByteBuffer dst = result.getBuffer();
+        int size = size(shape);
+        for (int index = 0; index < size; ++index) {
+            int o = index / (along.length * along.inner);
+            int r = (int) indices.getElement(index);
+            int source = (o * along.length + r) * along.inner + index % along.inner;
+            Kernels.copyElement(src, source, dst, index, bytes);
+        }
+        return result;
+    }
+
+    private NDArray slice(int dim, int begin, int end) {
+        int[] dims = dims(shape);
+        int[] strides = Kernels.strides(dims);
+        dims[dim] = end - begin;
+        CpuNDArray result = manager.create(toShape(dims), dataType, null);
+        Kernels.copy(
+                data(),
+                begin * strides[dim],
+                strides,
+                result.data(),
+                0,
+                Kernels.strides(dims),
+                dims,
+                dataType.getNumOfBytes());
+        return result;
+    }
+
+    private NDArray gather(long[] repeats, boolean repeat) {
+        int rank = Math.max(shape.dimension(), repeats.length);
+        int[] srcShape = new int[rank];
+        int[] dstShape = new int[rank];
+        int[] dims = dims(shape);
+        Arrays.fill(srcShape, 1);
+        System.arraycopy(dims, 0, srcShape, rank - dims.length, dims.length);
+        for (int i = 0; i < rank; ++i) {
+            int r = i < rank - repeats.length ? 1 : (int) repeats[i - rank + repeats.length];
+            if (r < 0) {
+                throw new IllegalArgumentException("repeats should not be negative");
+            }
+            dstShape[i] = srcShape[i] * r;
+        }
+        CpuNDArray result = manager.create(toShape(dstShape), dataType, null);
+        if (Kernels.size(dstShape) > 0) {
+            Kernels.gather(
+                    data(), srcShape, result.data(), dstShape, repeat, dataType.getNumOfBytes());
+        }
+        return result;
+    }
+
+    private long[] repeatsToMatchShape(Shape desiredShape) {
+        int dimension = shape.dimension();
+        if (desiredShape.dimension() > dimension) {
+            throw new IllegalArgumentException("The desired shape has too many dimensions");
+        }
+        if (desiredShape.dimension() < dimension) {
+            int additionalDimensions = dimension - desiredShape.dimension();
+            desiredShape = shape.slice(0, additionalDimensions).addAll(desiredShape);
+        }
+        long[] repeats = new long[dimension];
+        for (int i = 0; i < dimension; i++) {
+            if (shape.get(i) == 0 || desiredShape.get(i) % shape.get(i) != 0) {
+                throw new IllegalArgumentException(
+                        "The desired shape is not a multiple of the original shape");
+            }
+            repeats[i] = desiredShape.get(i) / shape.get(i);
+        }
+        return repeats;
+    }
+
+    private void copyFrom(int[] srcStrides, CpuNDArray result) {
+        int[] dims = dims(result.shape);
+        Kernels.copy(
+                data(),
+                0,
+                srcStrides,
+                result.data(),
+                0,
+                Kernels.strides(dims),
+                dims,
+                dataType.getNumOfBytes());
+    }
+
+    private int[] allAxes() {
+        return IntStream.range(0, shape.dimension()).toArray();
+    }
+
+    private int withAxis(int axis) {
+        int rank = shape.dimension();
+        if (axis < -rank || axis >= Math.max(1, rank)) {
+            throw new IllegalArgumentException(
+                    "axis " + axis + " is out of bounds for array of dimension " + rank);
+        }
+        return Math.floorMod(axis, Math.max(1, rank));
+    }
+
+    private double cast(double value) {
+        switch (dataType) {
+            case FLOAT32:
+                return (float) value;
+            case INT32:
+                return (int) value;
+            case INT64:
+                return (long) value;
+            case INT8:
+                return (byte) (int) value;
+            case UINT8:
+                return ((byte) (int) value) & 0xff;
+            case BOOLEAN:
+                return value != 0 ? 1 : 0;
+            default:
+                return value;
+        }
+    }
+
+    private NDArray fromDoubles(double[] values, Shape resultShape, DataType type) {
+        CpuNDArray result = manager.create(resultShape, type, null);
+        if (type == DataType.FLOAT64) {
+            result.getBuffer().asDoubleBuffer().put(values);
+        } else {
+            for (int i = 0; i < values.length; ++i) {
+                result.putElement(i, values[i]);
+            }
+        }
+        return result;
+    }
+
+    private NDArray fromLongs(long[] values, Shape resultShape, DataType type) {
+        CpuNDArray result = manager.create(resultShape, type, null);
+        if (type == DataType.INT64) {
+            result.getBuffer().asLongBuffer().put(values);
+        } else if (type == DataType.INT32) {
+            for (int i = 0; i < values.length; ++i) {
+                result.data().putInt(i * 4, (int) values[i]);
+            }
+        } else {
+            for (int i = 0; i < values.length; ++i) {
+                result.putElement(i, values[i]);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isWide(DataType type) {
+        return type == DataType.FLOAT64 || type == DataType.INT32 || type == DataType.INT64;
+    }
+
+    private static boolean isWide(DataType type, CpuNDArray... operands) {
+        if (isWide(type)) {
+            return true;
+        }
+        for (CpuNDArray operand : operands) {
+            if (isWide(operand.dataType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isExact(DataType type, CpuNDArray... operands) {
+        if (type.isFloating()) {
+            return false;
+        }
+        for (CpuNDArray operand : operands) {
+            if (operand.dataType.isFloating()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIntegral(Number n) {
+        if (n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte) {
+            return true;
+        }
+        double value = n.doubleValue();
+        return value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE;
+    }
+
+    private boolean isLazy(DataType type, CpuNDArray... operands) {
+        if (type != DataType.FLOAT32 || !manager.isLazyEvaluation()) {
+            return false;
+        }
+        for (CpuNDArray operand : operands) {
+            if (operand.dataType != DataType.FLOAT32) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private NDArray lazy(Expression expr, Shape resultShape) {
+        CpuNDArray result = new CpuNDArray(manager, expr, resultShape);
+        manager.attach(result.getUid(), result);
+        return result;
+    }
+
+    private NDArray record(Expression expr) {
+        // the expressions that read the previous buffer keep reading it
+        expr.addReaders(1);
+        if (expression != null) {
+            expression.addReaders(-1);
+        }
+        expression = expr;
+        data = null;
+        readers = new AtomicInteger();
+        return this;
+    }
+
+    private void prepareWrite() {
+        ByteBuffer buffer = data();
+        if (readers.get() > 0) {
+            // copy on write, the pending expressions read the previous elements
+            data = manager.allocateDirect(buffer.capacity());
+            data.put(buffer.duplicate());
+            data.rewind();
+            readers = new AtomicInteger();
+        }
+    }
+
+    /** The decomposition of the array around an axis, into outer, axis and inner sizes. */
+    private final class Axis {
+
+        int dim;
+        int outer;
+        int length;
+        int inner;
+
+        Axis(int axis) {
+            dim = withAxis(axis);
+            outer = (int) shape.slice(0, dim).size();
+            length = isScalar() ? 1 : (int) shape.get(dim);
+            inner = isScalar() ? 1 : (int) shape.slice(dim + 1).size();
+        }
+    }
+
+    /** The elements of the array selected by an {@link NDIndex}, as offset and strides. */
+    private final class Slice {
+
+        int offset;
+        int[] strides;
+        int[] shape;
+        Shape squeezedShape;
+
+        Slice(NDIndex index) {
+            Shape arrayShape = CpuNDArray.this.shape;
+            NDIndexFullSlice fullSlice =
+                    index.getAsFullSlice(arrayShape)
+                            .orElseThrow(
+                                    () ->
+                                            new UnsupportedOperationException(
+                                                    "CpuNDArray only supports all, fixed, and"
+                                                            + " slices indices"));
+            int rank = arrayShape.dimension();
+            int[] arrayStrides = Kernels.strides(dims(arrayShape));
+            long[] min = fullSlice.getMin();
+            long[] step = fullSlice.getStep();
+            long[] sliceShape = fullSlice.getShape().getShape();
+            strides = new int[rank];
+            shape = new int[rank];
+            for (int d = 0; d < rank; ++d) {
+                if (step[d] <= 0) {
+                    throw new UnsupportedOperationException(
+                            "CpuNDArray only supports positive steps");
+                }
+                // the bounds of the full slice are already resolved against the shape
+                shape[d] = (int) sliceShape[d];
+                strides[d] = (int) (arrayStrides[d] * step[d]);
+                offset += (int) min[d] * arrayStrides[d];
+            }
+            squeezedShape = fullSlice.getSqueezedShape();
+        }
+    }
+}
@@ -0,0 +1,693 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.cpu.engine;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.internal.NDArrayEx;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.pooling.PoolingConvention;
+import ai.djl.util.PairList;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/** {@code CpuNDArrayEx} is the pure Java implementation of the {@link NDArrayEx}. */
+class CpuNDArrayEx implements NDArrayEx {
+
+    private static final double SELU_ALPHA = 1.6732632423543772848170429916717;
+    private static final double SELU_LAMBDA = 1.0507009873554804934193349852946;
+
+    private CpuNDArray array;
+
+    /**
+     * Constructs a {@code CpuNDArrayEx} given an NDArray.
+     *
+     * @param parent the {@link NDArray} to extend
+     */
+    CpuNDArrayEx(CpuNDArray parent) {
+        this.array = parent;
+    }
+
+    ////////////////////////////////////////
+    // NDArrays
+    ////////////////////////////////////////
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rdiv(Number n) {
+        return array.binary(n, (a, b) -> b / a, array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rdiv(NDArray b) {
+        return b.div(array);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rdivi(Number n) {
+        return array.binaryInPlace(n, (a, b) -> b / a);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rdivi(NDArray b) {
+        return array.binary(b, (x, y) -> y / x, true, array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rsub(Number n) {
+        return array.binary(n, (a, b) -> b - a, array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rsub(NDArray b) {
+        return b.sub(array);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rsubi(Number n) {
+        return array.binaryInPlace(n, (a, b) -> b - a);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rsubi(NDArray b) {
+        return array.binary(b, (x, y) -> y - x, true, array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rmod(Number n) {
+        try (NDArray scalar = getManager().create(n.floatValue())) {
+            return scalar.mod(array);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rmod(NDArray b) {
+        return b.mod(array);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rmodi(Number n) {
+        try (NDArray result = rmod(n)) {
+            result.copyTo(array);
+        }
+        return array;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rmodi(NDArray b) {
+        try (NDArray result = b.mod(array)) {
+            result.copyTo(array);
+        }
+        return array;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rpow(Number n) {
+        return array.binary(n, (a, b) -> Math.pow(b, a), array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rpowi(Number n) {
+        return array.binaryInPlace(n, (a, b) -> Math.pow(b, a));
+    }
+
+    ////////////////////////////////////////
+    // Activations
+    ////////////////////////////////////////
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray relu() {
+        return array.unary(x -> x > 0 ? x : 0, array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sigmoid() {
+        return array.unary(x -> 1 / (1 + Math.exp(-x)), array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray tanh() {
+        return array.tanh();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray softrelu() {
+        return array.unary(x -> Math.log1p(Math.exp(x)), array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray softsign() {
+        return array.unary(x -> x / (1 + Math.abs(x)), array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray leakyRelu(float alpha) {
+        return array.unary(x -> x > 0 ? x : x * alpha, array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray elu(float alpha) {
+        return array.unary(x -> x > 0 ? x : alpha * Math.expm1(x), array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray selu() {
+        return array.unary(
+                x -> SELU_LAMBDA * (x > 0 ? x : SELU_ALPHA * Math.expm1(x)),
+                array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gelu() {
+        // the tanh approximation
+        return array.unary(
+                x ->
+                        0.5
+                                * x
+                                * (1
+                                        + Math.tanh(
+                                                Math.sqrt(2 / Math.PI)
+                                                        * (x + 0.044715 * x * x * x))),
+                array.getDataType());
+    }
+
+    ////////////////////////////////////////
+    // Pooling Operations
+    ////////////////////////////////////////
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray maxPool(
+            Shape kernel, Shape stride, Shape pad, PoolingConvention poolingConvention) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray globalMaxPool() {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sumPool(
+            Shape kernel, Shape stride, Shape pad, PoolingConvention poolingConvention) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray globalSumPool() {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray avgPool(
+            Shape kernel,
+            Shape stride,
+            Shape pad,
+            PoolingConvention poolingConvention,
+            boolean countIncludePad) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray globalAvgPool() {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lpPool(
+            Shape kernel,
+            Shape stride,
+            Shape pad,
+            PoolingConvention poolingConvention,
+            int pValue) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray globalLpPool(int pValue) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    ////////////////////////////////////////
+    // Optimizer
+    ////////////////////////////////////////
+
+    /** {@inheritDoc} */
+    @Override
+    public void adamUpdate(
+            NDList inputs,
+            NDList weights,
+            float learningRate,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float beta1,
+            float beta2,
+            float epsilon,
+            boolean lazyUpdate) {
+        throw new UnsupportedOperationException("Training is not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void nagUpdate(
+            NDList inputs,
+            NDList weights,
+            float learningRate,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float momentum) {
+        throw new UnsupportedOperationException("Training is not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void sgdUpdate(
+            NDList inputs,
+            NDList weights,
+            float learningRate,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float momentum,
+            boolean lazyUpdate) {
+        throw new UnsupportedOperationException("Training is not supported by CpuNDArray");
+    }
+
+    ////////////////////////////////////////
+    // Neural network
+    ////////////////////////////////////////
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList convolution(
+            NDList inputs,
+            Shape kernel,
+            Shape stride,
+            Shape pad,
+            Shape dilate,
+            int numFilters,
+            int numGroups,
+            String layout,
+            boolean noBias,
+            PairList<String, Object> additional) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList fullyConnected(
+            NDList inputs,
+            long outChannels,
+            boolean flatten,
+            boolean noBias,
+            PairList<String, Object> additional) {
+        NDArray data = inputs.get(0);
+        NDArray weight = inputs.get(1);
+        Shape shape = data.getShape();
+        NDArray input = flatten ? data.reshape(new Shape(shape.get(0), -1)) : data;
+        try (NDArray transposed = weight.transpose()) {
+            NDArray result = input.dot(transposed);
+            if (!noBias) {
+                result.addi(inputs.get(2));
+            }
+            return new NDList(result);
+        } finally {
+            if (input != data) {
+                input.close();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList embedding(
+            NDList inputs,
+            int numItems,
+            int embeddingSize,
+            boolean sparseGrad,
+            DataType dataType,
+            PairList<String, Object> additional) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList prelu(NDList inputs, PairList<String, Object> additional) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList dropout(
+            NDList inputs,
+            float probability,
+            int[] sharedAxes,
+            PairList<String, Object> additional) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList batchNorm(
+            NDList inputs,
+            float epsilon,
+            float momentum,
+            int axis,
+            PairList<String, Object> additional) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList rnn(
+            NDList inputs,
+            String mode,
+            long stateSize,
+            float dropRate,
+            int numStackedLayers,
+            boolean useSequenceLength,
+            boolean useBidirectional,
+            boolean stateOutputs,
+            PairList<String, Object> additional) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList lstm(
+            NDList inputs,
+            long stateSize,
+            float dropRate,
+            int numStackedLayers,
+            boolean useSequenceLength,
+            boolean useBidirectional,
+            boolean stateOutputs,
+            double lstmStateClipMin,
+            double lstmStateClipMax,
+            PairList<String, Object> additional) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    ////////////////////////////////////////
+    // Image and CV
+    ////////////////////////////////////////
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray normalize(float[] mean, float[] std) {
+        Shape shape = array.getShape();
+        int rank = shape.dimension();
+        if (rank != 3 && rank != 4) {
+            throw new IllegalArgumentException(
+                    "normalize requires a (C, H, W) or (N, C, H, W) array");
+        }
+        int channels = (int) shape.get(rank - 3);
+        int outer = (int) shape.slice(0, rank - 3).size();
+        int inner = (int) shape.slice(rank - 2).size();
+        CpuNDArray result = getManager().create(shape, DataType.FLOAT32, null);
+        FloatBuffer src = array.toFloatBuffer();
+        FloatBuffer dst = result.getFloatBuffer();
+        for (int o = 0; o < outer; ++o) {
+            for (int c = 0; c < channels; ++c) {
+                float m = mean[mean.length == 1 ? 0 : c];
+                float s = std[std.length == 1 ? 0 : c];
+                int base = (o * channels + c) * inner;
+                for (int i = base; i < base + inner; ++i) {
+                    dst.put(i, (src.get(i) - m) / s);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray toTensor() {
+        Shape shape = array.getShape();
+        int rank = shape.dimension();
+        if (rank != 3 && rank != 4) {
+            throw new IllegalArgumentException(
+                    "toTensor requires a (H, W, C) or (N, H, W, C) array");
+        }
+        int[] axes = rank == 3 ? new int[] {2, 0, 1} : new int[] {0, 3, 1, 2};
+        try (NDArray transposed = array.transpose(axes);
+                NDArray floats = transposed.asType(DataType.FLOAT32, false)) {
+            return floats.div(255);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray resize(int width, int height) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray crop(int x, int y, int width, int height) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    ////////////////////////////////////////
+    // Miscellaneous
+    ////////////////////////////////////////
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray pick(NDArray index, int axis, boolean keepDims, String mode) {
+        Shape shape = array.getShape();
+        int rank = shape.dimension();
+        int dim = Math.floorMod(axis, Math.max(1, rank));
+        int outer = (int) shape.slice(0, dim).size();
+        int length = (int) shape.get(dim);
+        int inner = (int) shape.slice(dim + 1).size();
+        CpuNDArray indices = CpuNDArray.toCpuNDArray(index);
+        if (indices.getShape().size() != outer * inner) {
+            throw new IllegalArgumentException(
+                    "The index " + indices.getShape() + " does not match the array " + shape);
+        }
+        boolean wrap = "wrap".equals(mode);
+        Shape resultShape = shape.slice(0, dim);
+        if (keepDims) {
+            resultShape = resultShape.addAll(new Shape(1));
+        }
+        resultShape = resultShape.addAll(shape.slice(dim + 1));
+        // the elements are copied as they are, whatever their data type
+        CpuNDArray result = getManager().create(resultShape, array.getDataType(), null);
+        int bytes = array.getDataType().getNumOfBytes();
+        ByteBuffer src = array.getBuffer();
+        ByteBuffer dst = result.getBuffer();
+        for (int o = 0; o < outer; ++o) {
+            for (int i = 0; i < inner; ++i) {
+                int j = (int) indices.getElement(o * inner + i);
+                j = wrap ? Math.floorMod(j, length) : Math.max(0, Math.min(j, length - 1));
+                Kernels.copyElement(src, (o * length + j) * inner + i, dst, o * inner + i, bytes);
+            }
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray where(NDArray condition, NDArray other) {
+        CpuNDArray cond = CpuNDArray.toCpuNDArray(condition);
+        CpuNDArray y = CpuNDArray.toCpuNDArray(other);
+        int[] dims =
+                CpuNDArray.broadcastShape(
+                        CpuNDArray.dims(array.getShape()), CpuNDArray.dims(y.getShape()));
+        Shape shape = CpuNDArray.toShape(dims);
+        Shape condShape = cond.getShape();
+        if (condShape.dimension() == 1 && dims.length > 1 && condShape.get(0) == dims[0]) {
+            // a 1-D condition selects the rows, like MXNet
+            long[] rows = new long[dims.length];
+            Arrays.fill(rows, 1);
+            rows[0] = dims[0];
+            condShape = new Shape(rows);
+        }
+        int[] condDims = CpuNDArray.dims(condShape);
+        if (condDims.length > dims.length
+                || !Arrays.equals(CpuNDArray.broadcastShape(condDims, dims), dims)) {
+            throw new IllegalArgumentException(
+                    "The condition " + cond.getShape() + " does not match the shape " + shape);
+        }
+        DataType dataType = array.getDataType();
+        try (NDArray reshaped = cond.reshape(condShape);
+                NDArray conds = reshaped.broadcast(shape);
+                NDArray xs = array.broadcast(shape);
+                NDArray converted = y.asType(dataType, false);
+                NDArray ys = converted.broadcast(shape)) {
+            CpuNDArray c = (CpuNDArray) conds;
+            ByteBuffer a = ((CpuNDArray) xs).getBuffer();
+            ByteBuffer b = ((CpuNDArray) ys).getBuffer();
+            CpuNDArray result = getManager().create(shape, dataType, null);
+            ByteBuffer dst = result.getBuffer();
+            int bytes = dataType.getNumOfBytes();
+            int size = Kernels.size(dims);
+            for (int i = 0; i < size; ++i) {
+                Kernels.copyElement(c.getElement(i) != 0 ? a : b, i, dst, i, bytes);
+            }
+            return result;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray stack(NDList arrays, int axis) {
+        int rank = array.getShape().dimension();
+        int dim = axis < 0 ? axis + rank + 1 : axis;
+        NDList expanded = new NDList(arrays.size());
+        try (NDArray first = array.expandDims(dim)) {
+            for (NDArray other : arrays) {
+                if (!array.shapeEquals(other)) {
+                    throw new IllegalArgumentException(
+                            "all input arrays must have the same shape");
+                }
+                expanded.add(other.expandDims(dim));
+            }
+            return first.getNDArrayInternal().concat(expanded, dim);
+        } finally {
+            expanded.close();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray concat(NDList list, int axis) {
+        NDArray[] arrays = new NDArray[list.size() + 1];
+        arrays[0] = array;
+        for (int i = 0; i < list.size(); ++i) {
+            arrays[i + 1] = list.get(i);
+        }
+        Shape shape = array.getShape();
+        int rank = shape.dimension();
+        if (rank == 0) {
+            throw new IllegalArgumentException(
+                    "scalar(zero-dimensional) arrays cannot be concatenated");
+        }
+        int dim = Math.floorMod(axis, rank);
+        DataType dataType = array.getDataType();
+        long length = 0;
+        for (NDArray other : arrays) {
+            Shape otherShape = other.getShape();
+            if (otherShape.dimension() != rank
+                    || !shape.slice(0, dim).equals(otherShape.slice(0, dim))
+                    || !shape.slice(dim + 1).equals(otherShape.slice(dim + 1))) {
+                throw new IllegalArgumentException(
+                        "all the input array dimensions except for the concatenation axis must"
+                                + " match exactly, got: "
+                                + shape
+                                + " and "
+                                + otherShape);
+            }
+            if (other.getDataType() != dataType) {
+                throw new IllegalArgumentException("all the input arrays must have same dtype");
+            }
+            length += otherShape.get(dim);
+        }
+        int outer = (int) shape.slice(0, dim).size();
+        int inner = (int) shape.slice(dim + 1).size() * dataType.getNumOfBytes();
+        Shape resultShape =
+                shape.slice(0, dim).addAll(new Shape(length)).addAll(shape.slice(dim + 1));
+        CpuNDArray result = getManager().create(resultShape, dataType, null);
+        ByteBuffer dst = result.getBuffer();
+        for (int o = 0; o < outer; ++o) {
+            for (NDArray other : arrays) {
+                int rowBytes = (int) other.getShape().get(dim) * inner;
+                ByteBuffer src = ((CpuNDArray) other).getBuffer();
+                src.limit((o + 1) * rowBytes).position(o * rowBytes);
+                dst.put(src);
+            }
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList multiBoxTarget(
+            NDList inputs,
+            float iouThreshold,
+            float ignoreLabel,
+            float negativeMiningRatio,
+            float negativeMiningThreshold,
+            int minNegativeSamples) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList multiBoxPrior(
+            List<Float> sizes,
+            List<Float> ratios,
+            List<Float> steps,
+            List<Float> offsets,
+            boolean clip) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList multiBoxDetection(
+            NDList inputs,
+            boolean clip,
+            float threshold,
+            int backgroundId,
+            float nmsThreshold,
+            boolean forceSuppress,
+            int nmsTopK) {
+        throw new UnsupportedOperationException("Not supported by CpuNDArray");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray getArray() {
+        return array;
+    }
+
+    private CpuNDManager getManager() {
+        return array.getManager();
+    }
+}
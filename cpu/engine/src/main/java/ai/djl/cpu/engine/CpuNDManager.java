@@ -0,0 +1,352 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.cpu.engine;
+
+import ai.djl.Device;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.util.PairList;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@code CpuNDManager} is the pure Java implementation of {@link NDManager}.
+ *
+ * <p>The arrays are stored in direct buffers, which are released by the garbage collector once the
+ * arrays are closed and no longer referenced.
+ */
+public class CpuNDManager implements NDManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(CpuNDManager.class);
+
+    private static final CpuNDManager SYSTEM_MANAGER = new SystemManager();
+
+    private NDManager parent;
+    private String uid;
+    private Device device;
+    private Map<String, AutoCloseable> resources;
+    private AtomicBoolean closed = new AtomicBoolean(false);
+    private boolean lazyEvaluation;
+
+    private CpuNDManager(NDManager parent, Device device) {
+        this.parent = parent;
+        this.device = checkDevice(device);
+        resources = new ConcurrentHashMap<>();
+        uid = UUID.randomUUID().toString();
+    }
+
+    static CpuNDManager getSystemManager() {
+        return SYSTEM_MANAGER;
+    }
+
+    /**
+     * Returns whether the arrays of this manager are evaluated lazily.
+     *
+     * @return {@code true} if the arrays of this manager are evaluated lazily
+     * @see #setLazyEvaluation(boolean)
+     */
+    public boolean isLazyEvaluation() {
+        return lazyEvaluation;
+    }
+
+    /**
+     * Sets whether the arrays of this manager are evaluated lazily.
+     *
+     * <p>In lazy evaluation mode, the elementwise operators over {@code float32} arrays, such as
+     * {@code add}, {@code exp} or the activations, record the operation instead of computing it.
+     * The chain of operators is computed in one pass when the elements are first accessed, or
+     * when the result is reduced along its last axes. This avoids the memory traffic and the
+     * intermediate arrays of the operators in between. The sub-managers created afterwards
+     * inherit the mode.
+     *
+     * @param lazyEvaluation whether to evaluate the arrays lazily
+     */
+    public void setLazyEvaluation(boolean lazyEvaluation) {
+        this.lazyEvaluation = lazyEvaluation;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ByteBuffer allocateDirect(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CpuNDArray create(Shape shape, DataType dataType, Device dev) {
+        checkDevice(dev);
+        if (dataType == null) {
+            dataType = DataType.FLOAT32;
+        }
+        long bytes = shape.size() * dataType.getNumOfBytes();
+        CpuNDArray array =
+                new CpuNDArray(this, allocateDirect(Math.toIntExact(bytes)), shape, dataType);
+        attach(array.getUid(), array);
+        return array;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray createCSR(
+            Buffer data, long[] indptr, long[] indices, Shape shape, Device dev) {
+        throw new UnsupportedOperationException("Sparse arrays are not supported by CpuNDManager");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray createRowSparse(
+            Buffer data, Shape dataShape, long[] indices, Shape shape, Device dev) {
+        throw new UnsupportedOperationException("Sparse arrays are not supported by CpuNDManager");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray zeros(Shape shape, DataType dataType, Device dev) {
+        // direct buffers are initialized with zeros
+        return create(shape, dataType, dev);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray ones(Shape shape, DataType dataType, Device dev) {
+        CpuNDArray array = create(shape, dataType, dev);
+        array.fill(1);
+        return array;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray arange(Number start, Number stop, Number step, DataType dataType, Device dev) {
+        double first = start.doubleValue();
+        double increment = step.doubleValue();
+        if (increment == 0) {
+            throw new IllegalArgumentException("step should not be 0");
+        }
+        int size = (int) Math.max(0, Math.ceil((stop.doubleValue() - first) / increment));
+        FloatBuffer data = FloatBuffer.allocate(size);
+        for (int i = 0; i < size; ++i) {
+            data.put(i, (float) (first + i * increment));
+        }
+        return create(data, new Shape(size), dataType, dev);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray eye(int rows, int cols, int k, DataType dataType, Device dev) {
+        FloatBuffer data = FloatBuffer.allocate(rows * cols);
+        for (int i = 0; i < rows; ++i) {
+            int j = i + k;
+            if (j >= 0 && j < cols) {
+                data.put(i * cols + j, 1);
+            }
+        }
+        return create(data, new Shape(rows, cols), dataType, dev);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray linspace(Number start, Number stop, int num, boolean endpoint, Device dev) {
+        if (num < 0) {
+            throw new IllegalArgumentException("Num argument must be non-negative");
+        }
+        double first = start.doubleValue();
+        int divisor = endpoint ? num - 1 : num;
+        double increment = divisor > 0 ? (stop.doubleValue() - first) / divisor : 0;
+        FloatBuffer data = FloatBuffer.allocate(num);
+        for (int i = 0; i < num; ++i) {
+            data.put(i, (float) (first + i * increment));
+        }
+        return create(data, new Shape(num), DataType.FLOAT32, dev);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomUniform(
+            Number low, Number high, Shape shape, DataType dataType, Device dev) {
+        Random random = ThreadLocalRandom.current();
+        double min = low.doubleValue();
+        double range = high.doubleValue() - min;
+        FloatBuffer data = FloatBuffer.allocate(Math.toIntExact(shape.size()));
+        for (int i = 0; i < data.capacity(); ++i) {
+            data.put(i, (float) (min + random.nextDouble() * range));
+        }
+        return create(data, shape, dataType, dev);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomNormal(
+            Number loc, Number scale, Shape shape, DataType dataType, Device dev) {
+        Random random = ThreadLocalRandom.current();
+        double mean = loc.doubleValue();
+        double std = scale.doubleValue();
+        FloatBuffer data = FloatBuffer.allocate(Math.toIntExact(shape.size()));
+        for (int i = 0; i < data.capacity(); ++i) {
+            data.put(i, (float) (mean + random.nextGaussian() * std));
+        }
+        return create(data, shape, dataType, dev);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomMultinomial(int n, NDArray pValues) {
+        throw new UnsupportedOperationException("Not supported by CpuNDManager");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomMultinomial(int n, NDArray pValues, Shape shape) {
+        throw new UnsupportedOperationException("Not supported by CpuNDManager");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDManager getParentManager() {
+        return parent;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CpuNDManager newSubManager() {
+        return newSubManager(device);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CpuNDManager newSubManager(Device dev) {
+        CpuNDManager manager = new CpuNDManager(this, dev);
+        manager.lazyEvaluation = lazyEvaluation;
+        attach(manager.uid, manager);
+        return manager;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Device getDevice() {
+        return device;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void attach(String resourceId, AutoCloseable resource) {
+        if (closed.get()) {
+            throw new IllegalStateException("NDManager has been closed already.");
+        }
+        resources.put(resourceId, resource);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void detach(String resourceId) {
+        if (closed.get()) {
+            // This may happen in the middle of CpuNDManager.close()
+            return;
+        }
+        resources.remove(resourceId);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void invoke(
+            String operation, NDArray[] src, NDArray[] dest, PairList<String, ?> params) {
+        throw new UnsupportedOperationException(
+                "Operators cannot be invoked by name with CpuNDManager");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList invoke(String operation, NDList src, PairList<String, ?> params) {
+        throw new UnsupportedOperationException(
+                "Operators cannot be invoked by name with CpuNDManager");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        String parentUID = parent == null ? "No Parent" : ((CpuNDManager) parent).uid;
+        return "UID: "
+                + uid
+                + " Parent UID: "
+                + parentUID
+                + " isOpen: "
+                + !closed.get()
+                + " Resource size: "
+                + resources.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        if (!closed.getAndSet(true)) {
+            for (AutoCloseable resource : resources.values()) {
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    logger.error("Resource close failed.", e);
+                }
+            }
+            parent.detach(uid);
+            resources.clear();
+        }
+    }
+
+    private NDArray create(FloatBuffer data, Shape shape, DataType dataType, Device dev) {
+        CpuNDArray array = create(shape, DataType.FLOAT32, dev);
+        array.getFloatBuffer().put(data);
+        if (dataType == null || dataType == DataType.FLOAT32) {
+            return array;
+        }
+        try (NDArray tmp = array) {
+            return tmp.asType(dataType, true);
+        }
+    }
+
+    private static Device checkDevice(Device device) {
+        if (device != null && !Device.cpu().getDeviceType().equals(device.getDeviceType())) {
+            throw new IllegalArgumentException("CpuNDManager only supports CPU, got: " + device);
+        }
+        return Device.cpu();
+    }
+
+    private static final class SystemManager extends CpuNDManager {
+
+        SystemManager() {
+            super(null, Device.cpu());
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void attach(String resourceId, AutoCloseable resource) {}
+
+        /** {@inheritDoc} */
+        @Override
+        public void detach(String resourceId) {}
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {}
+    }
+}
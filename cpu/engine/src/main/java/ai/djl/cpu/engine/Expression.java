@@ -0,0 +1,313 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.cpu.engine;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@code Expression} is an elementwise computation recorded by a {@link CpuNDArray} in lazy
+ * evaluation mode.
+ *
+ * <p>The expression is a tree of operators over the elements of the arrays it reads. It is
+ * evaluated in blocks small enough to stay in the L1 cache: each operator computes a block of its
+ * elements from the blocks of its operands. A chain of operators thus reads the arrays and writes
+ * the result once, and allocates no intermediate array. A reduction over the last axes consumes the
+ * blocks as they are computed, and does not write the elements at all.
+ *
+ * @see CpuNDManager#setLazyEvaluation(boolean)
+ */
+abstract class Expression {
+
+    /** The number of elements of a block. */
+    static final int BLOCK = 1024;
+
+    /** The number of operators above which an expression is evaluated before being extended. */
+    static final int MAX_NODES = 64;
+
+    private int nodes;
+    private int height;
+
+    Expression(int nodes, int height) {
+        this.nodes = nodes;
+        this.height = height;
+    }
+
+    /**
+     * Returns an expression that reads the elements of a buffer, broadcast to a shape.
+     *
+     * @param buffer the elements, in row-major order
+     * @param readers the number of pending expressions that read the buffer, or {@code null} if
+     *     the buffer is not written afterwards
+     * @param shape the shape of the elements in the buffer
+     * @param target the shape of the expression
+     * @return the expression that reads the buffer
+     */
+    static Expression leaf(
+            FloatBuffer buffer, AtomicInteger readers, int[] shape, int[] target) {
+        if (Kernels.size(shape) == 1) {
+            return constant(buffer.get(0));
+        }
+        if (Arrays.equals(shape, target)) {
+            return new Leaf(buffer, readers, null, null);
+        }
+        return new Leaf(
+                buffer,
+                readers,
+                target,
+                CpuNDArray.broadcastStrides(CpuNDArray.toShape(shape), target));
+    }
+
+    static Expression constant(float value) {
+        return new Constant(value);
+    }
+
+    int getNodes() {
+        return nodes;
+    }
+
+    Expression map(Kernels.Unary op) {
+        return new Map(this, op);
+    }
+
+    Expression zip(Expression other, Kernels.Binary op) {
+        return new Zip(this, other, op);
+    }
+
+    /**
+     * Evaluates the elements of the expression.
+     *
+     * @param dst the buffer to write the elements to
+     * @param size the number of elements
+     */
+    void evaluate(FloatBuffer dst, int size) {
+        int blocks = (size + BLOCK - 1) / BLOCK;
+        Kernels.parallelFor(
+                blocks,
+                (long) size * nodes,
+                (start, end) -> {
+                    FloatBuffer view = dst.duplicate();
+                    float[] block = new float[BLOCK];
+                    float[][] temps = new float[height][BLOCK];
+                    for (int b = start; b < end; ++b) {
+                        int offset = b * BLOCK;
+                        int length = Math.min(BLOCK, size - offset);
+                        eval(offset, length, block, temps, 0);
+                        view.position(offset);
+                        view.put(block, 0, length);
+                    }
+                });
+    }
+
+    /**
+     * Evaluates the elements of the expression, and reduces the rows of the elements.
+     *
+     * @param dst the buffer to write the reduction of each row to
+     * @param outer the number of rows
+     * @param length the number of elements of a row
+     * @param reducer the reduction
+     */
+    void reduce(FloatBuffer dst, int outer, int length, Kernels.Reducer reducer) {
+        float identity = reducer.getIdentity();
+        if (outer == 1) {
+            // reduces the blocks in parallel, and the partial results in order
+            int blocks = (length + BLOCK - 1) / BLOCK;
+            float[] partials = new float[blocks];
+            Kernels.parallelFor(
+                    blocks,
+                    (long) length * nodes,
+                    (start, end) -> {
+                        float[] block = new float[BLOCK];
+                        float[][] temps = new float[height][BLOCK];
+                        for (int b = start; b < end; ++b) {
+                            int offset = b * BLOCK;
+                            int size = Math.min(BLOCK, length - offset);
+                            eval(offset, size, block, temps, 0);
+                            partials[b] = Kernels.reduce(block, size, identity, reducer);
+                        }
+                    });
+            dst.put(0, Kernels.reduce(partials, blocks, identity, reducer));
+            return;
+        }
+        Kernels.parallelFor(
+                outer,
+                (long) outer * length * nodes,
+                (start, end) -> {
+                    float[] block = new float[BLOCK];
+                    float[][] temps = new float[height][BLOCK];
+                    for (int o = start; o < end; ++o) {
+                        float result = identity;
+                        for (int offset = 0; offset < length; offset += BLOCK) {
+                            int size = Math.min(BLOCK, length - offset);
+                            eval(o * length + offset, size, block, temps, 0);
+                            result = Kernels.reduce(block, size, result, reducer);
+                        }
+                        dst.put(o, result);
+                    }
+                });
+    }
+
+    /**
+     * Adds to the number of pending expressions that read each buffer of this expression.
+     *
+     * <p>An array adds 1 when this expression becomes its pending expression, and removes it once
+     * the expression is evaluated or dropped. A buffer without pending readers is written in place.
+     *
+     * @param delta the number to add
+     */
+    abstract void addReaders(int delta);
+
+    /**
+     * Computes a block of elements.
+     *
+     * @param start the index of the first element of the block
+     * @param length the number of elements of the block
+     * @param out the array to write the elements to
+     * @param temps the arrays that hold the blocks of the operands, one per level of the tree
+     * @param depth the level of this expression in the tree
+     */
+    abstract void eval(int start, int length, float[] out, float[][] temps, int depth);
+
+    /** The elements of an array. */
+    private static final class Leaf extends Expression {
+
+        private FloatBuffer buffer;
+        private AtomicInteger readers;
+        private int[] shape;
+        private int[] strides;
+
+        Leaf(FloatBuffer buffer, AtomicInteger readers, int[] shape, int[] strides) {
+            super(1, 0);
+            this.buffer = buffer;
+            this.readers = readers;
+            this.shape = shape;
+            this.strides = strides;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        void addReaders(int delta) {
+            if (readers != null) {
+                readers.addAndGet(delta);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        void eval(int start, int length, float[] out, float[][] temps, int depth) {
+            if (strides == null) {
+                FloatBuffer view = buffer.duplicate();
+                view.position(start);
+                view.get(out, 0, length);
+                return;
+            }
+            int rank = shape.length;
+            for (int i = 0; i < length; ++i) {
+                int index = start + i;
+                int offset = 0;
+                for (int d = rank - 1; d >= 0; --d) {
+                    offset += (index % shape[d]) * strides[d];
+                    index /= shape[d];
+                }
+                out[i] = buffer.get(offset);
+            }
+        }
+    }
+
+    /** A scalar. */
+    private static final class Constant extends Expression {
+
+        private float value;
+
+        Constant(float value) {
+            super(1, 0);
+            this.value = value;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        void addReaders(int delta) {}
+
+        /** {@inheritDoc} */
+        @Override
+        void eval(int start, int length, float[] out, float[][] temps, int depth) {
+            Arrays.fill(out, 0, length, value);
+        }
+    }
+
+    /** A function of the elements of an expression. */
+    private static final class Map extends Expression {
+
+        private Expression operand;
+        private Kernels.Unary op;
+
+        Map(Expression operand, Kernels.Unary op) {
+            super(operand.nodes + 1, operand.height);
+            this.operand = operand;
+            this.op = op;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        void addReaders(int delta) {
+            operand.addReaders(delta);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        void eval(int start, int length, float[] out, float[][] temps, int depth) {
+            operand.eval(start, length, out, temps, depth);
+            Kernels.map(out, length, op);
+        }
+    }
+
+    /** A function of the elements of two expressions. */
+    private static final class Zip extends Expression {
+
+        private Expression left;
+        private Expression right;
+        private Kernels.Binary op;
+
+        Zip(Expression left, Expression right, Kernels.Binary op) {
+            super(
+                    left.nodes + right.nodes + 1,
+                    right instanceof Constant
+                            ? left.height
+                            : Math.max(left.height, right.height + 1));
+            this.left = left;
+            this.right = right;
+            this.op = op;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        void addReaders(int delta) {
+            left.addReaders(delta);
+            right.addReaders(delta);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        void eval(int start, int length, float[] out, float[][] temps, int depth) {
+            left.eval(start, length, out, temps, depth);
+            if (right instanceof Constant) {
+                Kernels.zipScalar(out, ((Constant) right).value, length, op);
+                return;
+            }
+            float[] operand = temps[depth];
+            right.eval(start, length, operand, temps, depth + 1);
+            Kernels.zip(out, operand, length, op);
+        }
+    }
+}
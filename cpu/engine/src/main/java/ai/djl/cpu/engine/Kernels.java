@@ -0,0 +1,957 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.cpu.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * The kernels of the {@link CpuNDArray} operators.
+ *
+ * <p>The kernels are counted loops over contiguous {@link FloatBuffer}s, that the JIT compiler can
+ * unroll and vectorize. The most common operators get loops of their own, so that their body is not
+ * a megamorphic call. The kernels over large arrays are split into chunks, that run in parallel on
+ * the common {@link ForkJoinPool}, or on the pool of the worker when the thread is bound to cores.
+ *
+ * <p>The operators are functions of doubles, a float32 operand is widened and the result rounded
+ * back, which gives the same result as float32 arithmetic for the basic operators. The arrays that
+ * float32 cannot represent exactly use the kernels over {@code double[]}, and the kernels over
+ * {@code long[]} when all the operands are integers and the operator has an {@link #exact(Binary)
+ * exact} form.
+ */
+final class Kernels {
+
+    static final Binary ADD = (a, b) -> a + b;
+    static final Binary SUB = (a, b) -> a - b;
+    static final Binary MUL = (a, b) -> a * b;
+    static final Binary DIV = (a, b) -> a / b;
+    static final Binary MOD = Kernels::mod;
+    static final Binary MAX = Math::max;
+    static final Binary MIN = Math::min;
+    static final Binary EQ = (a, b) -> a == b ? 1 : 0;
+    static final Binary NEQ = (a, b) -> a != b ? 1 : 0;
+    static final Binary GT = (a, b) -> a > b ? 1 : 0;
+    static final Binary GTE = (a, b) -> a >= b ? 1 : 0;
+    static final Binary LT = (a, b) -> a < b ? 1 : 0;
+    static final Binary LTE = (a, b) -> a <= b ? 1 : 0;
+    static final Unary NEG = x -> -x;
+    static final Unary ABS = Math::abs;
+    static final Unary SQUARE = x -> x * x;
+
+    /** The number of elements under which the kernels run on the calling thread only. */
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    // the pool of the worker bound to the calling thread, or null to use the common pool
+    private static final ThreadLocal<ForkJoinPool> POOL = new ThreadLocal<>();
+
+    private Kernels() {}
+
+    /**
+     * Runs the kernels of the calling thread on a pool of its own with the given number of
+     * threads, so that the workers bound to different cores do not share the common pool.
+     *
+     * @param threads the number of threads of the pool, or 0 to use the common pool again
+     */
+    static void setThreads(int threads) {
+        ForkJoinPool previous = POOL.get();
+        if (previous != null) {
+            if (previous.getParallelism() == threads) {
+                return;
+            }
+            previous.shutdown();
+        }
+        if (threads > 0) {
+            POOL.set(new ForkJoinPool(threads));
+        } else {
+            POOL.remove();
+        }
+    }
+
+    static void map(FloatBuffer src, FloatBuffer dst, int size, Unary op) {
+        parallelFor(
+                size,
+                size,
+                (start, end) -> {
+                    for (int i = start; i < end; ++i) {
+                        dst.put(i, (float) op.apply(src.get(i)));
+                    }
+                });
+    }
+
+    static void zip(FloatBuffer a, FloatBuffer b, FloatBuffer dst, int size, Binary op) {
+        parallelFor(size, size, (start, end) -> zip(a, b, dst, start, end, op));
+    }
+
+    static void zipScalar(FloatBuffer a, float b, FloatBuffer dst, int size, Binary op) {
+        parallelFor(size, size, (start, end) -> zipScalar(a, b, dst, start, end, op));
+    }
+
+    static void broadcast(
+            FloatBuffer a,
+            int[] aStrides,
+            FloatBuffer b,
+            int[] bStrides,
+            FloatBuffer dst,
+            int[] shape,
+            Binary op) {
+        int size = size(shape);
+        if (size == 0) {
+            return;
+        }
+        int rank = shape.length;
+        int inner = rank == 0 ? 1 : shape[rank - 1];
+        int aStep = rank == 0 ? 0 : aStrides[rank - 1];
+        int bStep = rank == 0 ? 0 : bStrides[rank - 1];
+        parallelFor(
+                size / inner,
+                size,
+                (start, end) -> {
+                    for (int o = start; o < end; ++o) {
+                        int aOffset = offset(o, shape, aStrides, rank - 1);
+                        int bOffset = offset(o, shape, bStrides, rank - 1);
+                        int offset = o * inner;
+                        for (int j = 0; j < inner; ++j) {
+                            dst.put(
+                                    offset + j,
+                                    (float)
+                                            op.apply(
+                                                    a.get(aOffset + j * aStep),
+                                                    b.get(bOffset + j * bStep)));
+                        }
+                    }
+                });
+    }
+
+    static void copy(
+            ByteBuffer src,
+            int srcOffset,
+            int[] srcStrides,
+            ByteBuffer dst,
+            int dstOffset,
+            int[] dstStrides,
+            int[] shape,
+            int bytes) {
+        int size = size(shape);
+        if (size == 0) {
+            return;
+        }
+        int rank = shape.length;
+        int inner = rank == 0 ? 1 : shape[rank - 1];
+        int srcStep = rank == 0 ? 0 : srcStrides[rank - 1];
+        int dstStep = rank == 0 ? 0 : dstStrides[rank - 1];
+        parallelFor(
+                size / inner,
+                size,
+                (start, end) -> {
+                    for (int o = start; o < end; ++o) {
+                        int s = srcOffset + offset(o, shape, srcStrides, rank - 1);
+                        int d = dstOffset + offset(o, shape, dstStrides, rank - 1);
+                        copyRow(src, s, srcStep, dst, d, dstStep, inner, bytes);
+                    }
+                });
+    }
+
+    static void gather(
+            ByteBuffer src,
+            int[] srcShape,
+            ByteBuffer dst,
+            int[] dstShape,
+            boolean repeat,
+            int bytes) {
+        int size = size(dstShape);
+        int[] srcStrides = strides(srcShape);
+        for (int i = 0; i < size; ++i) {
+            int index = i;
+            int offset = 0;
+            for (int d = dstShape.length - 1; d >= 0; --d) {
+                int coordinate = index % dstShape[d];
+                index /= dstShape[d];
+                int repeats = dstShape[d] / srcShape[d];
+                int source = repeat ? coordinate / repeats : coordinate % srcShape[d];
+                offset += source * srcStrides[d];
+            }
+            copyRow(src, offset, 0, dst, i, 0, 1, bytes);
+        }
+    }
+
+    static void copyElement(ByteBuffer src, int from, ByteBuffer dst, int to, int bytes) {
+        copyRow(src, from, 0, dst, to, 0, 1, bytes);
+    }
+
+    static void reduce(
+            FloatBuffer src, FloatBuffer dst, int outer, int length, int inner, Reducer reducer) {
+        parallelFor(
+                outer,
+                (long) outer * length * inner,
+                (start, end) -> {
+                    for (int o = start; o < end; ++o) {
+                        if (inner == 1) {
+                            dst.put(o, reduceRow(src, o * length, length, reducer));
+                        } else {
+                            int offset = o * length * inner;
+                            reduceRows(src, offset, dst, o * inner, length, inner, reducer);
+                        }
+                    }
+                });
+    }
+
+    static void argReduce(
+            FloatBuffer src, FloatBuffer dst, int outer, int length, int inner, boolean max) {
+        parallelFor(
+                outer,
+                (long) outer * length * inner,
+                (start, end) -> {
+                    for (int o = start; o < end; ++o) {
+                        int base = o * length * inner;
+                        for (int i = 0; i < inner; ++i) {
+                            int best = 0;
+                            float bestValue = src.get(base + i);
+                            for (int r = 1; r < length; ++r) {
+                                float value = src.get(base + r * inner + i);
+                                if (max ? value > bestValue : value < bestValue) {
+                                    best = r;
+                                    bestValue = value;
+                                }
+                            }
+                            dst.put(o * inner + i, best);
+                        }
+                    }
+                });
+    }
+
+    static void softmax(
+            FloatBuffer src, FloatBuffer dst, int outer, int length, int inner, float temperature) {
+        parallelFor(
+                outer,
+                (long) outer * length * inner,
+                (start, end) -> {
+                    for (int o = start; o < end; ++o) {
+                        int base = o * length * inner;
+                        for (int i = 0; i < inner; ++i) {
+                            float max = Float.NEGATIVE_INFINITY;
+                            for (int r = 0; r < length; ++r) {
+                                max = Math.max(max, src.get(base + r * inner + i));
+                            }
+                            float sum = 0;
+                            for (int r = 0; r < length; ++r) {
+                                int index = base + r * inner + i;
+                                float exp = (float) Math.exp((src.get(index) - max) / temperature);
+                                dst.put(index, exp);
+                                sum += exp;
+                            }
+                            for (int r = 0; r < length; ++r) {
+                                int index = base + r * inner + i;
+                                dst.put(index, dst.get(index) / sum);
+                            }
+                        }
+                    }
+                });
+    }
+
+    static void cumSum(FloatBuffer src, FloatBuffer dst, int outer, int length, int inner) {
+        parallelFor(
+                outer,
+                (long) outer * length * inner,
+                (start, end) -> {
+                    for (int o = start; o < end; ++o) {
+                        int base = o * length * inner;
+                        for (int i = 0; i < inner; ++i) {
+                            float sum = 0;
+                            for (int r = 0; r < length; ++r) {
+                                int index = base + r * inner + i;
+                                sum += src.get(index);
+                                dst.put(index, sum);
+                            }
+                        }
+                    }
+                });
+    }
+
+    static void matmul(FloatBuffer a, FloatBuffer b, FloatBuffer dst, int m, int k, int n) {
+        parallelFor(
+                m,
+                (long) m * k * n,
+                (start, end) -> {
+                    for (int i = start; i < end; ++i) {
+                        int row = i * n;
+                        for (int j = 0; j < n; ++j) {
+                            dst.put(row + j, 0);
+                        }
+                        // i-k-j order, the inner loop runs over contiguous rows of b and dst
+                        for (int p = 0; p < k; ++p) {
+                            float value = a.get(i * k + p);
+                            int offset = p * n;
+                            for (int j = 0; j < n; ++j) {
+                                dst.put(row + j, dst.get(row + j) + value * b.get(offset + j));
+                            }
+                        }
+                    }
+                });
+    }
+
+    static void map(float[] block, int length, Unary op) {
+        for (int i = 0; i < length; ++i) {
+            block[i] = (float) op.apply(block[i]);
+        }
+    }
+
+    static void zip(float[] a, float[] b, int length, Binary op) {
+        if (op == ADD) {
+            for (int i = 0; i < length; ++i) {
+                a[i] += b[i];
+            }
+        } else if (op == SUB) {
+            for (int i = 0; i < length; ++i) {
+                a[i] -= b[i];
+            }
+        } else if (op == MUL) {
+            for (int i = 0; i < length; ++i) {
+                a[i] *= b[i];
+            }
+        } else if (op == DIV) {
+            for (int i = 0; i < length; ++i) {
+                a[i] /= b[i];
+            }
+        } else {
+            for (int i = 0; i < length; ++i) {
+                a[i] = (float) op.apply(a[i], b[i]);
+            }
+        }
+    }
+
+    static void zipScalar(float[] a, float b, int length, Binary op) {
+        if (op == ADD) {
+            for (int i = 0; i < length; ++i) {
+                a[i] += b;
+            }
+        } else if (op == SUB) {
+            for (int i = 0; i < length; ++i) {
+                a[i] -= b;
+            }
+        } else if (op == MUL) {
+            for (int i = 0; i < length; ++i) {
+                a[i] *= b;
+            }
+        } else if (op == DIV) {
+            for (int i = 0; i < length; ++i) {
+                a[i] /= b;
+            }
+        } else {
+            for (int i = 0; i < length; ++i) {
+                a[i] = (float) op.apply(a[i], b);
+            }
+        }
+    }
+
+    static float reduce(float[] block, int length, float initial, Reducer reducer) {
+        float result = initial;
+        switch (reducer) {
+            case SUM:
+                for (int i = 0; i < length; ++i) {
+                    result += block[i];
+                }
+                break;
+            case PROD:
+                for (int i = 0; i < length; ++i) {
+                    result *= block[i];
+                }
+                break;
+            case MAX:
+                for (int i = 0; i < length; ++i) {
+                    result = Math.max(result, block[i]);
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < length; ++i) {
+                    result = Math.min(result, block[i]);
+                }
+                break;
+            default:
+                throw new AssertionError("Unsupported reducer: " + reducer);
+        }
+        return result;
+    }
+
+    static void map(double[] src, double[] dst, Unary op) {
+        parallelFor(
+                src.length,
+                src.length,
+                (start, end) -> {
+                    for (int i = start; i < end; ++i) {
+                        dst[i] = op.apply(src[i]);
+                    }
+                });
+    }
+
+    static void map(long[] src, long[] dst, LongUnaryOperator op) {
+        parallelFor(
+                src.length,
+                src.length,
+                (start, end) -> {
+                    for (int i = start; i < end; ++i) {
+                        dst[i] = op.applyAsLong(src[i]);
+                    }
+                });
+    }
+
+    static void zip(double[] a, double[] b, double[] dst, Binary op) {
+        parallelFor(
+                dst.length,
+                dst.length,
+                (start, end) -> {
+                    for (int i = start; i < end; ++i) {
+                        dst[i] = op.apply(a[i], b[i]);
+                    }
+                });
+    }
+
+    static void zip(long[] a, long[] b, long[] dst, LongBinaryOperator op) {
+        parallelFor(
+                dst.length,
+                dst.length,
+                (start, end) -> {
+                    for (int i = start; i < end; ++i) {
+                        dst[i] = op.applyAsLong(a[i], b[i]);
+                    }
+                });
+    }
+
+    static void zipScalar(double[] a, double b, double[] dst, Binary op) {
+        parallelFor(
+                dst.length,
+                dst.length,
+                (start, end) -> {
+                    for (int i = start; i < end; ++i) {
+                        dst[i] = op.apply(a[i], b);
+                    }
+                });
+    }
+
+    static void zipScalar(long[] a, long b, long[] dst, LongBinaryOperator op) {
+        parallelFor(
+                dst.length,
+                dst.length,
+                (start, end) -> {
+                    for (int i = start; i < end; ++i) {
+                        dst[i] = op.applyAsLong(a[i], b);
+                    }
+                });
+    }
+
+    static void reduce(
+            double[] src, double[] dst, int outer, int length, int inner, Reducer reducer) {
+        parallelFor(
+                outer,
+                (long) outer * length * inner,
+                (start, end) -> {
+                    for (int o = start; o < end; ++o) {
+                        int base = o * length * inner;
+                        for (int i = 0; i < inner; ++i) {
+                            double result = reducer.identity;
+                            for (int r = 0; r < length; ++r) {
+                                result = reducer.apply(result, src[base + r * inner + i]);
+                            }
+                            dst[o * inner + i] = result;
+                        }
+                    }
+                });
+    }
+
+    static void reduce(long[] src, long[] dst, int outer, int length, int inner, Reducer reducer) {
+        parallelFor(
+                outer,
+                (long) outer * length * inner,
+                (start, end) -> {
+                    for (int o = start; o < end; ++o) {
+                        int base = o * length * inner;
+                        for (int i = 0; i < inner; ++i) {
+                            long result = reducer.longIdentity;
+                            for (int r = 0; r < length; ++r) {
+                                result = reducer.apply(result, src[base + r * inner + i]);
+                            }
+                            dst[o * inner + i] = result;
+                        }
+                    }
+                });
+    }
+
+    static void argReduce(
+            double[] src, FloatBuffer dst, int outer, int length, int inner, boolean max) {
+        parallelFor(
+                outer,
+                (long) outer * length * inner,
+                (start, end) -> {
+                    for (int o = start; o < end; ++o) {
+                        int base = o * length * inner;
+                        for (int i = 0; i < inner; ++i) {
+                            int best = 0;
+                            double bestValue = src[base + i];
+                            for (int r = 1; r < length; ++r) {
+                                double value = src[base + r * inner + i];
+                                if (max ? value > bestValue : value < bestValue) {
+                                    best = r;
+                                    bestValue = value;
+                                }
+                            }
+                            dst.put(o * inner + i, best);
+                        }
+                    }
+                });
+    }
+
+    static void softmax(
+            double[] src, double[] dst, int outer, int length, int inner, double temperature) {
+        parallelFor(
+                outer,
+                (long) outer * length * inner,
+                (start, end) -> {
+                    for (int o = start; o < end; ++o) {
+                        int base = o * length * inner;
+                        for (int i = 0; i < inner; ++i) {
+                            double max = Double.NEGATIVE_INFINITY;
+                            for (int r = 0; r < length; ++r) {
+                                max = Math.max(max, src[base + r * inner + i]);
+                            }
+                            double sum = 0;
+                            for (int r = 0; r < length; ++r) {
+                                int index = base + r * inner + i;
+                                dst[index] = Math.exp((src[index] - max) / temperature);
+                                sum += dst[index];
+                            }
+                            for (int r = 0; r < length; ++r) {
+                                dst[base + r * inner + i] /= sum;
+                            }
+                        }
+                    }
+                });
+    }
+
+    static void cumSum(double[] src, double[] dst, int outer, int length, int inner) {
+        for (int o = 0; o < outer; ++o) {
+            int base = o * length * inner;
+            for (int i = 0; i < inner; ++i) {
+                double sum = 0;
+                for (int r = 0; r < length; ++r) {
+                    int index = base + r * inner + i;
+                    sum += src[index];
+                    dst[index] = sum;
+                }
+            }
+        }
+    }
+
+    static void cumSum(long[] src, long[] dst, int outer, int length, int inner) {
+        for (int o = 0; o < outer; ++o) {
+            int base = o * length * inner;
+            for (int i = 0; i < inner; ++i) {
+                long sum = 0;
+                for (int r = 0; r < length; ++r) {
+                    int index = base + r * inner + i;
+                    sum += src[index];
+                    dst[index] = sum;
+                }
+            }
+        }
+    }
+
+    static void matmul(double[] a, double[] b, double[] dst, int m, int k, int n) {
+        parallelFor(
+                m,
+                (long) m * k * n,
+                (start, end) -> {
+                    for (int i = start; i < end; ++i) {
+                        for (int p = 0; p < k; ++p) {
+                            double value = a[i * k + p];
+                            for (int j = 0; j < n; ++j) {
+                                dst[i * n + j] += value * b[p * n + j];
+                            }
+                        }
+                    }
+                });
+    }
+
+    static void matmul(long[] a, long[] b, long[] dst, int m, int k, int n) {
+        parallelFor(
+                m,
+                (long) m * k * n,
+                (start, end) -> {
+                    for (int i = start; i < end; ++i) {
+                        for (int p = 0; p < k; ++p) {
+                            long value = a[i * k + p];
+                            for (int j = 0; j < n; ++j) {
+                                dst[i * n + j] += value * b[p * n + j];
+                            }
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Returns the {@code long} form of an operator, that is exact over the integers.
+     *
+     * @param op the operator
+     * @return the {@code long} form of the operator, or null if it is only defined over doubles
+     */
+    static LongBinaryOperator exact(Binary op) {
+        if (op == ADD) {
+            return (a, b) -> a + b;
+        } else if (op == SUB) {
+            return (a, b) -> a - b;
+        } else if (op == MUL) {
+            return (a, b) -> a * b;
+        } else if (op == MOD) {
+            return Kernels::mod;
+        } else if (op == MAX) {
+            return Math::max;
+        } else if (op == MIN) {
+            return Math::min;
+        } else if (op == EQ) {
+            return (a, b) -> a == b ? 1 : 0;
+        } else if (op == NEQ) {
+            return (a, b) -> a != b ? 1 : 0;
+        } else if (op == GT) {
+            return (a, b) -> a > b ? 1 : 0;
+        } else if (op == GTE) {
+            return (a, b) -> a >= b ? 1 : 0;
+        } else if (op == LT) {
+            return (a, b) -> a < b ? 1 : 0;
+        } else if (op == LTE) {
+            return (a, b) -> a <= b ? 1 : 0;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the {@code long} form of an operator, that is exact over the integers.
+     *
+     * @param op the operator
+     * @return the {@code long} form of the operator, or null if it is only defined over doubles
+     */
+    static LongUnaryOperator exact(Unary op) {
+        if (op == NEG) {
+            return x -> -x;
+        } else if (op == ABS) {
+            return Math::abs;
+        } else if (op == SQUARE) {
+            return x -> x * x;
+        }
+        return null;
+    }
+
+    static int size(int[] shape) {
+        int size = 1;
+        for (int dim : shape) {
+            size *= dim;
+        }
+        return size;
+    }
+
+    static int[] strides(int[] shape) {
+        int[] strides = new int[shape.length];
+        int stride = 1;
+        for (int d = shape.length - 1; d >= 0; --d) {
+            strides[d] = stride;
+            stride *= shape[d];
+        }
+        return strides;
+    }
+
+    static void parallelFor(int count, long work, Range range) {
+        ForkJoinPool pool = POOL.get();
+        int threads =
+                pool == null ? ForkJoinPool.getCommonPoolParallelism() + 1 : pool.getParallelism();
+        if (work < PARALLEL_THRESHOLD || count < 2 || threads < 2) {
+            range.run(0, count);
+            return;
+        }
+        int chunks = Math.min(count, threads);
+        if (pool == null) {
+            runChunks(count, chunks, range);
+        } else {
+            // a parallel stream started from a pool task splits within that pool
+            pool.submit(() -> runChunks(count, chunks, range)).join();
+        }
+    }
+
+    private static void runChunks(int count, int chunks, Range range) {
+        int chunk = (count + chunks - 1) / chunks;
+        IntStream.range(0, chunks)
+                .parallel()
+                .forEach(
+                        c -> {
+                            int start = c * chunk;
+                            int end = Math.min(count, start + chunk);
+                            if (start < end) {
+                                range.run(start, end);
+                            }
+                        });
+    }
+
+    private static int offset(int index, int[] shape, int[] strides, int rank) {
+        int offset = 0;
+        for (int d = rank - 1; d >= 0; --d) {
+            offset += (index % shape[d]) * strides[d];
+            index /= shape[d];
+        }
+        return offset;
+    }
+
+    private static double mod(double a, double b) {
+        // the result has the sign of the divisor, like numpy
+        double result = a % b;
+        if (result != 0 && (result < 0) != (b < 0)) {
+            result += b;
+        }
+        return result;
+    }
+
+    private static long mod(long a, long b) {
+        if (b == 0) {
+            return 0;
+        }
+        long result = a % b;
+        if (result != 0 && (result < 0) != (b < 0)) {
+            result += b;
+        }
+        return result;
+    }
+
+    private static void zip(
+            FloatBuffer a, FloatBuffer b, FloatBuffer dst, int start, int end, Binary op) {
+        if (op == ADD) {
+            for (int i = start; i < end; ++i) {
+                dst.put(i, a.get(i) + b.get(i));
+            }
+        } else if (op == SUB) {
+            for (int i = start; i < end; ++i) {
+                dst.put(i, a.get(i) - b.get(i));
+            }
+        } else if (op == MUL) {
+            for (int i = start; i < end; ++i) {
+                dst.put(i, a.get(i) * b.get(i));
+            }
+        } else if (op == DIV) {
+            for (int i = start; i < end; ++i) {
+                dst.put(i, a.get(i) / b.get(i));
+            }
+        } else {
+            for (int i = start; i < end; ++i) {
+                dst.put(i, (float) op.apply(a.get(i), b.get(i)));
+            }
+        }
+    }
+
+    private static void zipScalar(
+            FloatBuffer a, float b, FloatBuffer dst, int start, int end, Binary op) {
+        if (op == ADD) {
+            for (int i = start; i < end; ++i) {
+                dst.put(i, a.get(i) + b);
+            }
+        } else if (op == SUB) {
+            for (int i = start; i < end; ++i) {
+                dst.put(i, a.get(i) - b);
+            }
+        } else if (op == MUL) {
+            for (int i = start; i < end; ++i) {
+                dst.put(i, a.get(i) * b);
+            }
+        } else if (op == DIV) {
+            for (int i = start; i < end; ++i) {
+                dst.put(i, a.get(i) / b);
+            }
+        } else {
+            for (int i = start; i < end; ++i) {
+                dst.put(i, (float) op.apply(a.get(i), b));
+            }
+        }
+    }
+
+    private static float reduceRow(FloatBuffer src, int offset, int length, Reducer reducer) {
+        float result = reducer.identity;
+        int end = offset + length;
+        switch (reducer) {
+            case SUM:
+                for (int i = offset; i < end; ++i) {
+                    result += src.get(i);
+                }
+                break;
+            case PROD:
+                for (int i = offset; i < end; ++i) {
+                    result *= src.get(i);
+                }
+                break;
+            case MAX:
+                for (int i = offset; i < end; ++i) {
+                    result = Math.max(result, src.get(i));
+                }
+                break;
+            case MIN:
+                for (int i = offset; i < end; ++i) {
+                    result = Math.min(result, src.get(i));
+                }
+                break;
+            default:
+                throw new AssertionError("Unsupported reducer: " + reducer);
+        }
+        return result;
+    }
+
+    private static void reduceRows(
+            FloatBuffer src,
+            int srcOffset,
+            FloatBuffer dst,
+            int dstOffset,
+            int length,
+            int inner,
+            Reducer reducer) {
+        for (int i = 0; i < inner; ++i) {
+            dst.put(dstOffset + i, reducer.identity);
+        }
+        for (int r = 0; r < length; ++r) {
+            int row = srcOffset + r * inner;
+            switch (reducer) {
+                case SUM:
+                    for (int i = 0; i < inner; ++i) {
+                        dst.put(dstOffset + i, dst.get(dstOffset + i) + src.get(row + i));
+                    }
+                    break;
+                case PROD:
+                    for (int i = 0; i < inner; ++i) {
+                        dst.put(dstOffset + i, dst.get(dstOffset + i) * src.get(row + i));
+                    }
+                    break;
+                case MAX:
+                    for (int i = 0; i < inner; ++i) {
+                        dst.put(dstOffset + i, Math.max(dst.get(dstOffset + i), src.get(row + i)));
+                    }
+                    break;
+                case MIN:
+                    for (int i = 0; i < inner; ++i) {
+                        dst.put(dstOffset + i, Math.min(dst.get(dstOffset + i), src.get(row + i)));
+                    }
+                    break;
+                default:
+                    throw new AssertionError("Unsupported reducer: " + reducer);
+            }
+        }
+    }
+
+    private static void copyRow(
+            ByteBuffer src,
+            int srcOffset,
+            int srcStep,
+            ByteBuffer dst,
+            int dstOffset,
+            int dstStep,
+            int length,
+            int bytes) {
+        switch (bytes) {
+            case 1:
+                for (int j = 0; j < length; ++j) {
+                    dst.put(dstOffset + j * dstStep, src.get(srcOffset + j * srcStep));
+                }
+                break;
+            case 2:
+                for (int j = 0; j < length; ++j) {
+                    int from = (srcOffset + j * srcStep) * 2;
+                    dst.putShort((dstOffset + j * dstStep) * 2, src.getShort(from));
+                }
+                break;
+            case 4:
+                for (int j = 0; j < length; ++j) {
+                    int from = (srcOffset + j * srcStep) * 4;
+                    dst.putInt((dstOffset + j * dstStep) * 4, src.getInt(from));
+                }
+                break;
+            case 8:
+                for (int j = 0; j < length; ++j) {
+                    int from = (srcOffset + j * srcStep) * 8;
+                    dst.putLong((dstOffset + j * dstStep) * 8, src.getLong(from));
+                }
+                break;
+            default:
+                throw new AssertionError("Unsupported element size: " + bytes);
+        }
+    }
+
+    /** A function of one element. */
+    @FunctionalInterface
+    interface Unary {
+
+        double apply(double x);
+    }
+
+    /** A function of two elements. */
+    @FunctionalInterface
+    interface Binary {
+
+        double apply(double a, double b);
+    }
+
+    /** A task over a range of indices. */
+    @FunctionalInterface
+    interface Range {
+
+        void run(int start, int end);
+    }
+
+    /** The reductions along an axis. */
+    enum Reducer {
+        SUM(0, 0),
+        PROD(1, 1),
+        MAX(Float.NEGATIVE_INFINITY, Long.MIN_VALUE),
+        MIN(Float.POSITIVE_INFINITY, Long.MAX_VALUE);
+
+        private float identity;
+        private long longIdentity;
+
+        Reducer(float identity, long longIdentity) {
+            this.identity = identity;
+            this.longIdentity = longIdentity;
+        }
+
+        float getIdentity() {
+            return identity;
+        }
+
+        double apply(double a, double b) {
+            switch (this) {
+                case SUM:
+                    return a + b;
+                case PROD:
+                    return a * b;
+                case MAX:
+                    return Math.max(a, b);
+                default:
+                    return Math.min(a, b);
+            }
+        }
+
+        long apply(long a, long b) {
+            switch (this) {
+                case SUM:
+                    return a + b;
+                case PROD:
+                    return a * b;
+                case MAX:
+                    return Math.max(a, b);
+                default:
+                    return Math.min(a, b);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package ai.djl.cpu.engine;
+
+import ai.djl.engine.CpuExecutionPolicy;
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CpuNDArrayTest {
+
+    @Test
+    public void testArithmetic() {
+        try (NDManager manager = Engine.getEngine(CpuEngine.ENGINE_NAME).newBaseManager()) {
+            NDArray array = manager.create(new float[] {1f, 2f, 3f, 4f, 5f, 6f}, new Shape(2, 3));
+            NDArray row = manager.create(new float[] {10f, 20f, 30f});
+            NDArray expected =
+                    manager.create(new float[] {11f, 22f, 33f, 14f, 25f, 36f}, new Shape(2, 3));
+            Assert.assertEquals(array.add(row), expected);
+            Assert.assertEquals(array.mul(2).sub(array), array);
+            Assert.assertEquals(
+                    manager.create(new float[] {-3f, 3f}).mod(2),
+                    manager.create(new float[] {1f, 1f}));
+
+            NDArray ints = manager.create(new int[] {1, 2, 3});
+            ints.addi(1);
+            Assert.assertEquals(ints, manager.create(new int[] {2, 3, 4}));
+            Assert.assertEquals(ints.gt(2), manager.create(new boolean[] {false, true, true}));
+            Assert.assertEquals(ints.gt(2).sum().getDataType(), DataType.INT64);
+
+            // the integers and doubles that float32 cannot represent are computed exactly
+            long exact = (1L << 53) + 1;
+            NDArray large = manager.create(new long[] {exact, 1L << 40});
+            Assert.assertEquals(large.add(1).toLongArray(), new long[] {exact + 1, (1L << 40) + 1});
+            Assert.assertEquals(large.sum().getLong(), exact + (1L << 40));
+            Assert.assertEquals(large.max().getLong(), exact);
+            Assert.assertFalse(large.eq(large.add(1)).any().getBoolean());
+            Assert.assertEquals(
+                    ints.mul(1 << 23).toIntArray(), new int[] {2 << 23, 3 << 23, 4 << 23});
+            NDArray doubles = manager.create(new double[] {0.1, Math.PI / 2});
+            Assert.assertEquals(doubles.add(0.2).getDouble(0), 0.1 + 0.2);
+            Assert.assertEquals(doubles.tan().getDouble(1), Math.tan(Math.PI / 2));
+        }
+    }
+
+    @Test
+    public void testReduction() {
+        try (NDManager manager = Engine.getEngine(CpuEngine.ENGINE_NAME).newBaseManager()) {
+            NDArray array = manager.arange(24).reshape(2, 3, 4);
+            Assert.assertEquals(array.sum().getFloat(), 276f);
+            Assert.assertEquals(
+                    array.sum(new int[] {0, 2}), manager.create(new float[] {60f, 92f, 124f}));
+            Assert.assertEquals(array.max(new int[] {1}, true).getShape(), new Shape(2, 1, 4));
+            Assert.assertEquals(array.mean().getFloat(), 11.5f);
+            Assert.assertEquals(
+                    array.argMax(2),
+                    manager.create(new float[] {3f, 3f, 3f, 3f, 3f, 3f}, new Shape(2, 3)));
+            NDArray softmax = manager.create(new float[] {1f, 1f, 1f, 1f}).softmax(0);
+            Assert.assertEquals(softmax, manager.create(new float[] {.25f, .25f, .25f, .25f}));
+        }
+    }
+
+    @Test
+    public void testIndexing() {
+        try (NDManager manager = Engine.getEngine(CpuEngine.ENGINE_NAME).newBaseManager()) {
+            NDArray array = manager.arange(12).reshape(3, 4);
+            Assert.assertEquals(
+                    array.get(new NDIndex("1:, ::2")),
+                    manager.create(new float[] {4f, 6f, 8f, 10f}, new Shape(2, 2)));
+            Assert.assertEquals(array.get(new NDIndex("-1, 1")).getFloat(), 9f);
+            array.set(new NDIndex("0"), 0f);
+            Assert.assertEquals(array.get(0), manager.zeros(new Shape(4)));
+            NDArray mask = manager.create(new boolean[] {true, false, true});
+            Assert.assertEquals(array.booleanMask(mask).getShape(), new Shape(2, 4));
+        }
+    }
+
+    @Test
+    public void testShapeOperators() {
+        try (NDManager manager = Engine.getEngine(CpuEngine.ENGINE_NAME).newBaseManager()) {
+            NDArray array = manager.arange(6).reshape(2, 3);
+            Assert.assertEquals(
+                    array.transpose(),
+                    manager.create(new float[] {0f, 3f, 1f, 4f, 2f, 5f}, new Shape(3, 2)));
+            Assert.assertEquals(array.concat(array, 1).getShape(), new Shape(2, 6));
+            Assert.assertEquals(array.stack(array).getShape(), new Shape(2, 2, 3));
+            Assert.assertEquals(
+                    array.tile(new long[] {1, 2}).get(new NDIndex("0")),
+                    manager.create(new float[] {0f, 1f, 2f, 0f, 1f, 2f}));
+            Assert.assertEquals(
+                    array.repeat(1, 2).get(new NDIndex("0")),
+                    manager.create(new float[] {0f, 0f, 1f, 1f, 2f, 2f}));
+            NDList split = array.split(3, 1);
+            Assert.assertEquals(split.size(), 3);
+            Assert.assertEquals(
+                    split.get(2), manager.create(new float[] {2f, 5f}, new Shape(2, 1)));
+            Assert.assertEquals(
+                    array.dot(manager.ones(new Shape(3, 2))),
+                    manager.create(new float[] {3f, 3f, 12f, 12f}, new Shape(2, 2)));
+        }
+    }
+
+    @Test
+    public void testLazyEvaluation() {
+        try (CpuNDManager manager =
+                (CpuNDManager) Engine.getEngine(CpuEngine.ENGINE_NAME).newBaseManager()) {
+            manager.setLazyEvaluation(true);
+            NDArray array = manager.create(new float[] {1f, 2f, 3f, 4f}, new Shape(2, 2));
+            NDArray bias = manager.create(new float[] {1f, -1f});
+            NDArray result = array.mul(2).add(bias).neg();
+            Assert.assertEquals(
+                    result.sum(new int[] {1}), manager.create(new float[] {-6f, -14f}));
+            Assert.assertEquals(
+                    result, manager.create(new float[] {-3f, -3f, -7f, -7f}, new Shape(2, 2)));
+
+            // the pending expressions read the elements from before the in-place operators
+            NDArray copy = array.add(0);
+            array.addi(1);
+            NDArray added = array.add(0);
+            array.set(new float[] {0f, 0f, 0f, 0f});
+            Assert.assertEquals(copy.sum().getFloat(), 10f);
+            Assert.assertEquals(added.sum().getFloat(), 14f);
+            Assert.assertEquals(array.sum().getFloat(), 0f);
+
+            // once the expressions reading it are evaluated, the buffer is written in place
+            CpuNDArray source = (CpuNDArray) manager.ones(new Shape(4));
+            NDArray doubled = source.mul(2);
+            Assert.assertEquals(doubled.sum().getFloat(), 8f);
+            doubled.toFloatArray();
+            Object buffer = source.data();
+            source.set(new float[] {2f, 2f, 2f, 2f});
+            Assert.assertSame(source.data(), buffer);
+            Assert.assertEquals(doubled.sum().getFloat(), 8f);
+        }
+    }
+
+    @Test
+    public void testBindWorkerThread() {
+        Engine engine = Engine.getEngine(CpuEngine.ENGINE_NAME);
+        Assert.assertThrows(IllegalStateException.class, () -> engine.bindWorkerThread(0));
+        engine.setCpuExecutionPolicy(
+                new CpuExecutionPolicy.Builder().setWorkers(2).optCores(0, 4).build());
+        try (NDManager manager = engine.newBaseManager()) {
+            engine.bindWorkerThread(1);
+            NDArray array = manager.ones(new Shape(1 << 20));
+            Assert.assertEquals(array.add(array).sum().getFloat(), 2f * (1 << 20));
+        } finally {
+            engine.setCpuExecutionPolicy(null);
+            Kernels.setThreads(0);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.examples.inference;
+
+import ai.djl.ModelException;
+import ai.djl.modality.cv.DetectedObjects;
+import ai.djl.modality.cv.MultiBoxDetection;
+import ai.djl.modality.cv.util.BufferedImageUtils;
+import ai.djl.modality.cv.util.NDImageUtils;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.repository.zoo.ZooModel;
+import ai.djl.training.ParameterStore;
+import ai.djl.training.util.ProgressBar;
+import ai.djl.zoo.ModelZoo;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the latency of the engine operator and the Java implementation of {@link
+ * MultiBoxDetection} on the outputs of the SSD model of the model zoo.
+ */
+public final class MultiBoxDetectionBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(MultiBoxDetectionBenchmark.class);
+
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+
+    private MultiBoxDetectionBenchmark() {}
+
+    public static void main(String[] args) throws IOException, ModelException {
+        Path imageFile = Paths.get("src/test/resources/pikachu.jpg");
+        BufferedImage img = BufferedImageUtils.fromFile(imageFile);
+
+        Map<String, String> criteria = new ConcurrentHashMap<>();
+        criteria.put("flavor", "tiny");
+        criteria.put("dataset", "pikachu");
+
+        try (ZooModel<BufferedImage, DetectedObjects> model =
+                        ModelZoo.SSD.loadModel(criteria, new ProgressBar());
+                NDManager manager = model.getNDManager().newSubManager()) {
+            NDArray image = BufferedImageUtils.toNDArray(manager, img);
+            NDList input = new NDList(NDImageUtils.toTensor(image).expandDims(0));
+            NDList output = model.getBlock().forward(new ParameterStore(manager, false), input);
+            NDList inputs =
+                    new NDList(
+                            output.get(1).softmax(-1).transpose(0, 2, 1),
+                            output.get(2),
+                            output.get(0));
+
+            MultiBoxDetection.Builder builder = new MultiBoxDetection.Builder();
+            MultiBoxDetection engineDetection = builder.build();
+            MultiBoxDetection cpuDetection = builder.optCpuDetection(true).build();
+
+            double engineLatency = benchmark(engineDetection, inputs);
+            double cpuLatency = benchmark(cpuDetection, inputs);
+            logger.info("{} anchors", inputs.get(2).getShape().get(1));
+            logger.info("Engine operator: {} ms/op", String.format("%.3f", engineLatency));
+            logger.info("Java implementation: {} ms/op", String.format("%.3f", cpuLatency));
+        }
+    }
+
+    private static double benchmark(MultiBoxDetection detection, NDList inputs) {
+        for (int i = 0; i < WARMUP; ++i) {
+            run(detection, inputs);
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            run(detection, inputs);
+        }
+        return (System.nanoTime() - begin) / 1_000_000d / ITERATIONS;
+    }
+
+    private static void run(MultiBoxDetection detection, NDList inputs) {
+        // copies the detections back, so that both implementations are fully evaluated
+        try (NDArray detections = detection.detection(inputs).head()) {
+            detections.toFloatArray();
+        }
+    }
+}
@@ -15,6 +15,7 @@ package ai.djl.examples.training.util;
 import ai.djl.Model;
 import ai.djl.metric.Metric;
 import ai.djl.metric.Metrics;
+import ai.djl.training.CheckpointWriter;
 import ai.djl.training.Trainer;
 import ai.djl.training.dataset.Batch;
 import ai.djl.training.dataset.Dataset;
@@ -24,7 +25,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,26 +46,41 @@ public final class TrainingUtils {
             String outputDir,
             String modelName)
             throws IOException {
-        for (int epoch = 0; epoch < numEpoch; epoch++) {
-            for (Batch batch : trainer.iterateDataset(trainingDataset)) {
-                trainer.trainBatch(batch);
-                trainer.step();
-                batch.close();
-            }
-
-            if (validateDataset != null) {
-                for (Batch batch : trainer.iterateDataset(validateDataset)) {
-                    trainer.validateBatch(batch);
+        // checkpoints are written in the background while the next epoch is trained
+        List<Future<Path>> checkpoints = new ArrayList<>();
+        try (CheckpointWriter writer = new CheckpointWriter()) {
+            for (int epoch = 0; epoch < numEpoch; epoch++) {
+                for (Batch batch : trainer.iterateDataset(trainingDataset)) {
+                    trainer.trainBatch(batch);
+                    trainer.step();
                     batch.close();
                 }
+
+                if (validateDataset != null) {
+                    for (Batch batch : trainer.iterateDataset(validateDataset)) {
+                        trainer.validateBatch(batch);
+                        batch.close();
+                    }
+                }
+                // reset training and validation metric at end of epoch
+                trainer.resetTrainingMetrics();
+                // save model at end of each epoch
+                if (outputDir != null) {
+                    Model model = trainer.getModel();
+                    model.setProperty("Epoch", String.valueOf(epoch));
+                    checkpoints.add(model.save(Paths.get(outputDir), modelName, writer));
+                }
             }
-            // reset training and validation metric at end of epoch
-            trainer.resetTrainingMetrics();
-            // save model at end of each epoch
-            if (outputDir != null) {
-                Model model = trainer.getModel();
-                model.setProperty("Epoch", String.valueOf(epoch));
-                model.save(Paths.get(outputDir), modelName);
+        }
+
+        for (Future<Path> checkpoint : checkpoints) {
+            try {
+                checkpoint.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while saving the model", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to save the model", e.getCause());
             }
         }
     }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.examples;
+
+import ai.djl.ModelException;
+import ai.djl.inference.Predictor;
+import ai.djl.mxnet.zoo.MxModelZoo;
+import ai.djl.mxnet.zoo.nlp.qa.QAInput;
+import ai.djl.repository.zoo.ZooModel;
+import ai.djl.translate.TranslateException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BertQaTest {
+
+    @Test
+    public void testBatchPredict() throws ModelException, TranslateException, IOException {
+        String paragraph =
+                "BBC Japan was a general entertainment Channel.\n"
+                        + "Which operated between December 2004 and April 2006.\n"
+                        + "It ceased operations after its Japanese distributor folded.";
+        // the sequences have different lengths, the batch pads the shorter one
+        List<QAInput> inputs =
+                Arrays.asList(
+                        new QAInput("When did BBC Japan start broadcasting?", paragraph, 384),
+                        new QAInput("Why did BBC Japan cease operations?", paragraph, 128));
+
+        Map<String, String> criteria = new ConcurrentHashMap<>();
+        criteria.put("backbone", "bert");
+        criteria.put("dataset", "book_corpus_wiki_en_uncased");
+        try (ZooModel<QAInput, String> model = MxModelZoo.BERT_QA.loadModel(criteria);
+                Predictor<QAInput, String> predictor = model.newPredictor()) {
+            List<String> expected =
+                    Arrays.asList(
+                            predictor.predict(inputs.get(0)), predictor.predict(inputs.get(1)));
+            Assert.assertEquals(predictor.batchPredict(inputs), expected);
+        }
+    }
+}
@@ -38,6 +38,7 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.SkipException;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeClass;
@@ -325,6 +326,14 @@ public class IntegrationTest {
                 method.invoke(object);
                 logger.info("Test {}.{} PASSED", getName(), method.getName());
             } catch (IllegalAccessException | InvocationTargetException e) {
+                if (e.getCause() instanceof SkipException) {
+                    logger.info(
+                            "Test {}.{} SKIPPED: {}",
+                            getName(),
+                            method.getName(),
+                            e.getCause().getMessage());
+                    return true;
+                }
                 if (notExpected(method, e)) {
                     logger.error("Test {}.{} FAILED", getName(), method.getName());
                     logger.error("", e.getCause());
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.integration.tests.modality;
+
+import ai.djl.modality.Classifications;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import java.util.Arrays;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ClassificationsTest {
+
+    @Test
+    public void testTopKFromNDArray() {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            List<String> classNames = Arrays.asList("a", "b", "c", "d");
+            NDArray probabilities = manager.create(new float[] {0.1f, 0.6f, 0.05f, 0.25f});
+            Classifications classifications = new Classifications(classNames, probabilities, 2);
+
+            // only the selected classes are kept, from the most likely one
+            List<Classifications.Classification> items = classifications.items();
+            Assert.assertEquals(items.size(), 2);
+            Assert.assertEquals(items.get(0).getClassName(), "b");
+            Assert.assertEquals(items.get(0).getProbability(), 0.6, 1e-6);
+            Assert.assertEquals(items.get(1).getClassName(), "d");
+            Assert.assertEquals(items.get(1).getProbability(), 0.25, 1e-6);
+            Assert.assertEquals(classifications.best().getClassName(), "b");
+            Assert.assertEquals(classifications.get("d").getProbability(), 0.25, 1e-6);
+            Assert.assertNull(classifications.get("a"));
+
+            Classifications all = new Classifications(classNames, probabilities, 4);
+            Assert.assertEquals(all.topK(4).size(), 4);
+            Assert.assertEquals(all.items().get(3).getClassName(), "c");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.integration.tests.modality.cv;
+
+import ai.djl.integration.util.Assertions;
+import ai.djl.modality.cv.InstanceSegmentationTranslator;
+import ai.djl.modality.cv.util.NDImageUtils;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class InstanceSegmentationTranslatorTest {
+
+    // a 3 x 4 mask, with distinct values on every edge
+    private static final float[] MASK = {0, 1, 4, 9, 2, 3, 5, 7, 8, 6, 1, 0};
+
+    @Test
+    public void testResizeMask() throws ReflectiveOperationException {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            // two masks, the second one is resized from its offset
+            float[] data = new float[MASK.length * 2];
+            System.arraycopy(MASK, 0, data, MASK.length, MASK.length);
+            NDArray image = manager.create(MASK, new Shape(3, 4, 1));
+
+            // upsampling
+            float[][] mask = resizeMask(data, MASK.length, 4, 3, 7, 5);
+            Assertions.assertAlmostEquals(
+                    toImage(manager, mask), NDImageUtils.resize(image, 7, 5));
+            // the corners replicate the border pixels
+            Assert.assertEquals(mask[0][0], 0f);
+            Assert.assertEquals(mask[6][0], 9f);
+            Assert.assertEquals(mask[0][4], 8f);
+            Assert.assertEquals(mask[6][4], 0f);
+
+            // downsampling
+            mask = resizeMask(data, MASK.length, 4, 3, 2, 2);
+            Assertions.assertAlmostEquals(
+                    toImage(manager, mask), NDImageUtils.resize(image, 2, 2));
+
+            // upsampling the width and downsampling the height
+            mask = resizeMask(data, MASK.length, 4, 3, 6, 2);
+            Assertions.assertAlmostEquals(
+                    toImage(manager, mask), NDImageUtils.resize(image, 6, 2));
+
+            // a single pixel
+            mask = resizeMask(data, MASK.length, 4, 3, 1, 1);
+            Assertions.assertAlmostEquals(
+                    toImage(manager, mask), NDImageUtils.resize(image, 1, 1));
+        }
+    }
+
+    private static float[][] resizeMask(
+            float[] data, int offset, int srcWidth, int srcHeight, int width, int height)
+            throws ReflectiveOperationException {
+        Method method =
+                InstanceSegmentationTranslator.class.getDeclaredMethod(
+                        "resizeMask",
+                        float[].class,
+                        int.class,
+                        int.class,
+                        int.class,
+                        int.class,
+                        int.class);
+        method.setAccessible(true);
+        try {
+            return (float[][])
+                    method.invoke(null, data, offset, srcWidth, srcHeight, width, height);
+        } catch (InvocationTargetException e) {
+            throw new AssertionError(e.getCause());
+        }
+    }
+
+    private static NDArray toImage(NDManager manager, float[][] mask) {
+        // the mask is indexed by column and row, the image is HWC
+        int width = mask.length;
+        int height = mask[0].length;
+        float[] data = new float[width * height];
+        for (int j = 0; j < width; ++j) {
+            for (int k = 0; k < height; ++k) {
+                data[k * width + j] = mask[j][k];
+            }
+        }
+        return manager.create(data, new Shape(height, width, 1));
+    }
+}
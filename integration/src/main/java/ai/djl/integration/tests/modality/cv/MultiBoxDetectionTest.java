@@ -18,6 +18,9 @@ import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.Shape;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
 import org.testng.annotations.Test;
 
 public class MultiBoxDetectionTest {
@@ -60,4 +63,98 @@ public class MultiBoxDetectionTest {
             Assertions.assertAlmostEquals(actual.sort(1), expected.sort(1));
         }
     }
+
+    @Test
+    public void testCpuDetections() {
+        MultiBoxDetection multiBoxDetection =
+                new MultiBoxDetection.Builder().optCpuDetection(true).build();
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDArray anchors =
+                    manager.create(
+                                    new float[] {
+                                        0.1f, 0.08f, 0.52f, 0.92f, 0.08f, 0.2f, 0.56f, 0.95f, 0.15f,
+                                        0.3f, 0.62f, 0.91f, 0.55f, 0.2f, 0.9f, 0.88f
+                                    })
+                            .reshape(1, 4, 4);
+            NDArray offsetPreds = manager.zeros(new Shape(1, 16));
+            NDArray classProbs =
+                    manager.create(
+                                    new float[] {
+                                        0, 0, 0, 0, 0.9f, 0.8f, 0.7f, 0.1f, 0.1f, 0.2f, 0.3f, 0.9f
+                                    })
+                            .reshape(1, 3, 4);
+            NDArray expected =
+                    manager.create(
+                                    new float[] {
+                                        0, 0.9f, 0.1f, 0.08f, 0.52f, 0.92f, 1f, 0.9f, 0.55f, 0.2f,
+                                        0.9f, 0.88f, -1f, 0.8f, 0.08f, 0.2f, 0.56f, 0.95f, -1f,
+                                        0.7f, 0.15f, 0.3f, 0.62f, 0.91f
+                                    })
+                            .reshape(1, 4, 6);
+            NDList inputs = new NDList(classProbs, offsetPreds, anchors);
+            NDArray actual = multiBoxDetection.detection(inputs).head();
+            Assertions.assertAlmostEquals(actual, expected);
+        }
+    }
+
+    @Test
+    public void testCpuDetectionsMatchEngine() {
+        MultiBoxDetection.Builder builder = new MultiBoxDetection.Builder().optNmsTopK(8);
+        MultiBoxDetection engineDetection = builder.build();
+        MultiBoxDetection cpuDetection = builder.optCpuDetection(true).build();
+        // the inputs are seeded so that the comparison is reproducible
+        Random random = new Random(1234);
+        float[] boxes = new float[16 * 4];
+        for (int i = 0; i < boxes.length; i += 4) {
+            boxes[i] = random.nextFloat() * 0.6f;
+            boxes[i + 1] = random.nextFloat() * 0.6f;
+            boxes[i + 2] = boxes[i] + 0.1f + random.nextFloat() * 0.3f;
+            boxes[i + 3] = boxes[i + 1] + 0.1f + random.nextFloat() * 0.3f;
+        }
+        float[] offsets = new float[2 * 64];
+        for (int i = 0; i < offsets.length; ++i) {
+            offsets[i] = (float) random.nextGaussian() * 0.5f;
+        }
+        float[] probs = new float[2 * 4 * 16];
+        for (int i = 0; i < probs.length; ++i) {
+            probs[i] = random.nextFloat();
+        }
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDArray anchors = manager.create(boxes, new Shape(1, 16, 4));
+            NDArray offsetPreds = manager.create(offsets, new Shape(2, 64));
+            NDArray classProbs = manager.create(probs, new Shape(2, 4, 16)).softmax(1);
+            NDList inputs = new NDList(classProbs, offsetPreds, anchors);
+
+            NDArray expected = engineDetection.detection(inputs).head();
+            NDArray actual = cpuDetection.detection(inputs).head();
+            Assertions.assertAlmostEquals(sortRows(actual), sortRows(expected));
+        }
+    }
+
+    /**
+     * Sorts the detections of each image by descending score, keeping each row together, since
+     * the engines may order the rows with the same score differently.
+     */
+    private static NDArray sortRows(NDArray detections) {
+        Shape shape = detections.getShape();
+        int rows = (int) shape.get(1);
+        int width = (int) shape.get(2);
+        float[] data = detections.toFloatArray();
+        Comparator<float[]> byScore =
+                Comparator.<float[]>comparingDouble(row -> -row[1])
+                        .thenComparingDouble(row -> row[0]);
+        float[] sorted = new float[data.length];
+        for (int image = 0; image < shape.get(0); ++image) {
+            float[][] detection = new float[rows][];
+            for (int i = 0; i < rows; ++i) {
+                int offset = (image * rows + i) * width;
+                detection[i] = Arrays.copyOfRange(data, offset, offset + width);
+            }
+            Arrays.sort(detection, byScore);
+            for (int i = 0; i < rows; ++i) {
+                System.arraycopy(detection[i], 0, sorted, (image * rows + i) * width, width);
+            }
+        }
+        return detections.getManager().create(sorted, shape);
+    }
 }
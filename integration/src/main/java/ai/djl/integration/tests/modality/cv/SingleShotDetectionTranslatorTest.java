@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.integration.tests.modality.cv;
+
+import ai.djl.Model;
+import ai.djl.metric.Metrics;
+import ai.djl.modality.cv.DetectedObjects;
+import ai.djl.modality.cv.Rectangle;
+import ai.djl.modality.cv.SingleShotDetectionTranslator;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.translate.TranslatorContext;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SingleShotDetectionTranslatorTest {
+
+    private static final List<String> CLASSES = Arrays.asList("cat", "dog");
+
+    @Test
+    public void testRescale() throws IOException {
+        SingleShotDetectionTranslator translator =
+                new SingleShotDetectionTranslator.Builder()
+                        .setClasses(CLASSES)
+                        .optRescaleSize(512, 256)
+                        .build();
+        try (TranslatorContext ctx = new TestContext()) {
+            DetectedObjects detections = translator.processOutput(ctx, getOutput(ctx));
+            // the detection below the threshold and the background are dropped
+            Assert.assertEquals(detections.getNumberOfObjects(), 1);
+            DetectedObjects.DetectedObject detection = detections.item(0);
+            Assert.assertEquals(detection.getClassName(), "dog");
+            Rectangle rect = (Rectangle) detection.getBoundingBox();
+            Assert.assertEquals(rect.getX(), 0.1, 1e-6);
+            Assert.assertEquals(rect.getY(), 0.2, 1e-6);
+            Assert.assertEquals(rect.getWidth(), 0.4, 1e-6);
+            Assert.assertEquals(rect.getHeight(), 0.5, 1e-6);
+        }
+    }
+
+    @Test
+    public void testWithoutRescale() throws IOException {
+        SingleShotDetectionTranslator translator =
+                new SingleShotDetectionTranslator.Builder().setClasses(CLASSES).build();
+        try (TranslatorContext ctx = new TestContext()) {
+            DetectedObjects detections = translator.processOutput(ctx, getOutput(ctx));
+            // the coordinates are kept as they are
+            DetectedObjects.DetectedObject detection = detections.item(0);
+            Rectangle rect = (Rectangle) detection.getBoundingBox();
+            Assert.assertEquals(rect.getX(), 51.2, 1e-4);
+            Assert.assertEquals(rect.getY(), 51.2, 1e-4);
+            Assert.assertEquals(rect.getWidth(), 204.8, 1e-4);
+            Assert.assertEquals(rect.getHeight(), 128, 1e-4);
+        }
+    }
+
+    private static NDList getOutput(TranslatorContext ctx) {
+        NDManager manager = ctx.getNDManager();
+        return new NDList(
+                manager.create(new float[] {1, 0, -1}, new Shape(1, 3, 1)),
+                manager.create(new float[] {0.9f, 0.1f, 0.8f}, new Shape(1, 3, 1)),
+                manager.create(
+                        new float[] {51.2f, 51.2f, 256, 179.2f, 0, 0, 1, 1, 0, 0, 2, 2},
+                        new Shape(1, 3, 4)));
+    }
+
+    private static final class TestContext implements TranslatorContext {
+
+        private NDManager manager = NDManager.newBaseManager();
+        private ConcurrentHashMap<String, Object> attachments = new ConcurrentHashMap<>();
+
+        /** {@inheritDoc} */
+        @Override
+        public Model getModel() {
+            // the classes are set on the translator, no model artifact is read
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDManager getNDManager() {
+            return manager;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Metrics getMetrics() {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Object getAttachment(String key) {
+            return attachments.get(key);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setAttachment(String key, Object value) {
+            attachments.put(key, value);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {
+            manager.close();
+        }
+    }
+}
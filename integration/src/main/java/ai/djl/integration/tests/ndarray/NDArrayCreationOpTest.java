@@ -12,7 +12,9 @@
  */
 package ai.djl.integration.tests.ndarray;
 
+import ai.djl.engine.Engine;
 import ai.djl.integration.util.Assertions;
+import ai.djl.mxnet.engine.MxEngine;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDArrays;
 import ai.djl.ndarray.NDList;
@@ -23,6 +25,7 @@ import ai.djl.ndarray.types.SparseFormat;
 import java.nio.FloatBuffer;
 import java.util.stream.IntStream;
 import org.testng.Assert;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 
 public class NDArrayCreationOpTest {
@@ -61,6 +64,7 @@ public class NDArrayCreationOpTest {
 
     @Test
     public void testCreateCSRMatrix() {
+        requireSparse();
         try (NDManager manager = NDManager.newBaseManager()) {
             float[] actual = {7, 8, 9};
             FloatBuffer buf = FloatBuffer.wrap(actual);
@@ -77,6 +81,7 @@ public class NDArrayCreationOpTest {
 
     @Test
     public void testCreateRowSparseMatrix() {
+        requireSparse();
         try (NDManager manager = NDManager.newBaseManager()) {
             float[] actual = {1, 2, 3, 4, 5, 6};
             FloatBuffer buf = FloatBuffer.wrap(actual);
@@ -95,6 +100,7 @@ public class NDArrayCreationOpTest {
 
     @Test
     public void testCreateNDArrayAndConvertToSparse() {
+        requireSparse();
         try (NDManager manager = NDManager.newBaseManager()) {
             NDArray nd = manager.ones(new Shape(3, 5));
             NDArray sparse = nd.toSparse(SparseFormat.CSR);
@@ -269,4 +275,11 @@ public class NDArrayCreationOpTest {
             Assert.assertEquals(actual, array);
         }
     }
+
+    private static void requireSparse() {
+        String engine = Engine.getInstance().getEngineName();
+        if (!MxEngine.ENGINE_NAME.equals(engine)) {
+            throw new SkipException("Sparse arrays are not supported by " + engine);
+        }
+    }
 }
@@ -12,7 +12,9 @@
  */
 package ai.djl.integration.tests.ndarray;
 
+import ai.djl.engine.Engine;
 import ai.djl.integration.util.Assertions;
+import ai.djl.mxnet.engine.MxEngine;
 import ai.djl.mxnet.engine.MxGradientCollector;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDArrays;
@@ -22,6 +24,7 @@ import ai.djl.training.GradientCollector;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import org.testng.Assert;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 
 public class NDArrayElementArithmeticOpTest {
@@ -126,6 +129,7 @@ public class NDArrayElementArithmeticOpTest {
 
     @Test
     public void testAddScalar() {
+        requireGradients();
         try (NDManager manager = NDManager.newBaseManager()) {
             NDArray lhs = manager.create(new float[] {1f, 2f, 3f, 4f});
             NDArray result;
@@ -334,6 +338,7 @@ public class NDArrayElementArithmeticOpTest {
 
     @Test
     public void testDot() {
+        requireGradients();
         try (NDManager manager = NDManager.newBaseManager()) {
             NDArray lhs = manager.create(new float[] {6, -9, -12, 15, 0, 4}, new Shape(2, 3));
             NDArray rhs = manager.create(new float[] {2, 3, -4}, new Shape(3, 1));
@@ -601,4 +606,11 @@ public class NDArrayElementArithmeticOpTest {
                     manager, NDArrays::powi, (x, y) -> (float) Math.pow(x, y), true);
         }
     }
+
+    private static void requireGradients() {
+        String engine = Engine.getInstance().getEngineName();
+        if (!MxEngine.ENGINE_NAME.equals(engine)) {
+            throw new SkipException("Gradients are not supported by " + engine);
+        }
+    }
 }
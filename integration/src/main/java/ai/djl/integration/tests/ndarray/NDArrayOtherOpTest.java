@@ -13,6 +13,7 @@
 package ai.djl.integration.tests.ndarray;
 
 import ai.djl.engine.EngineException;
+import ai.djl.integration.util.Assertions;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDArrays;
 import ai.djl.ndarray.NDList;
@@ -337,6 +338,22 @@ public class NDArrayOtherOpTest {
         }
     }
 
+    @Test
+    public void testTopK() {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDArray array = manager.create(new float[] {0.1f, 0.6f, 0.05f, 0.25f});
+            NDList top = array.topK(2, 0);
+            Assert.assertEquals(top.get(0), manager.create(new float[] {0.6f, 0.25f}));
+            Assert.assertEquals(top.get(1), manager.create(new int[] {1, 3}));
+            Assert.assertEquals(top.get(1).getDataType(), DataType.INT32);
+            // test axis
+            array = manager.create(new float[] {3f, 1f, 2f, 4f, 6f, 5f}, new Shape(2, 3));
+            top = array.topK(1, 1);
+            Assert.assertEquals(top.get(0), manager.create(new float[] {3f, 6f}, new Shape(2, 1)));
+            Assert.assertEquals(top.get(1), manager.create(new int[] {0, 1}, new Shape(2, 1)));
+        }
+    }
+
     @Test
     public void testSort() {
         try (NDManager manager = NDManager.newBaseManager()) {
@@ -412,6 +429,19 @@ public class NDArrayOtherOpTest {
         }
     }
 
+    @Test
+    public void testLogSoftmax() {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDArray array = manager.ones(new Shape(10));
+            NDArray expected = manager.zeros(new Shape(10)).add((float) Math.log(0.1));
+            Assertions.assertAlmostEquals(array.logSoftmax(0), expected);
+            // test multi-dim
+            array = manager.create(new float[] {1f, 2f, 3f, 4f, 5f, 6f}, new Shape(2, 3));
+            Assertions.assertAlmostEquals(array.logSoftmax(1), array.softmax(1).log());
+            Assertions.assertAlmostEquals(array.logSoftmax(0), array.softmax(0).log());
+        }
+    }
+
     @Test
     public void testCumsum() {
         try (NDManager manager = NDManager.newBaseManager()) {
@@ -15,12 +15,15 @@ package ai.djl.integration.tests.nn;
 import ai.djl.MalformedModelException;
 import ai.djl.Model;
 import ai.djl.integration.util.Assertions;
+import ai.djl.metric.Metrics;
 import ai.djl.mxnet.engine.MxGradientCollector;
+import ai.djl.mxnet.engine.MxSymbolBlock;
 import ai.djl.mxnet.zoo.MxModelZoo;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDArrays;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Block;
 import ai.djl.nn.SequentialBlock;
@@ -32,10 +35,13 @@ import ai.djl.training.GradientCollector;
 import ai.djl.training.ParameterStore;
 import ai.djl.training.Trainer;
 import ai.djl.training.TrainingConfig;
+import ai.djl.training.dataset.ArrayDataset;
 import ai.djl.training.initializer.Initializer;
 import ai.djl.training.loss.Loss;
 import ai.djl.util.Pair;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -61,6 +67,104 @@ public class SymbolBlockTest {
         }
     }
 
+    @Test
+    public void testShapeBuckets()
+            throws IOException, ModelNotFoundException, MalformedModelException {
+        Map<String, String> criteria = new ConcurrentHashMap<>();
+        try (Model model = MxModelZoo.MLP.loadModel(criteria)) {
+            NDManager manager = model.getNDManager();
+            ParameterStore parameterStore = new ParameterStore(manager, false);
+            MxSymbolBlock block = (MxSymbolBlock) model.getBlock();
+            NDArray data = manager.randomUniform(0, 1, new Shape(6, 28, 28));
+            NDArray expected = block.forward(parameterStore, new NDList(data)).singletonOrThrow();
+
+            // pad the batch axis
+            block.setShapeBuckets(2, new int[] {4, 8}, 0);
+            NDArray result = block.forward(parameterStore, new NDList(data)).singletonOrThrow();
+            Assert.assertEquals(result.getShape(), new Shape(6, 10));
+            Assertions.assertAlmostEquals(result, expected);
+
+            NDArray first = data.get("0:3");
+            result = block.forward(parameterStore, new NDList(first)).singletonOrThrow();
+            Assertions.assertAlmostEquals(result, expected.get("0:3"));
+            block.forward(parameterStore, new NDList(data.get("0:4")));
+            block.forward(parameterStore, new NDList(data.get("0:5")));
+            Assert.assertEquals(block.getBucketMisses(), 2);
+            Assert.assertEquals(block.getBucketHits(), 2);
+
+            // each forward pass evicts the op of the other bucket
+            block.setShapeBuckets(1, new int[] {4, 8}, 0);
+            for (int i = 0; i < 4; ++i) {
+                NDArray input = i % 2 == 0 ? first : data;
+                NDArray reference = i % 2 == 0 ? expected.get("0:3") : expected;
+                result = block.forward(parameterStore, new NDList(input)).singletonOrThrow();
+                Assertions.assertAlmostEquals(result, reference);
+            }
+            Assert.assertEquals(block.getBucketMisses(), 6);
+        }
+    }
+
+    @Test
+    public void testWarmUp() throws IOException, ModelNotFoundException, MalformedModelException {
+        Map<String, String> criteria = new ConcurrentHashMap<>();
+        try (Model model = MxModelZoo.MLP.loadModel(criteria)) {
+            Metrics metrics = model.warmUp(new Shape(1, 28, 28));
+            Assert.assertEquals(metrics.getMetric("WarmUp").size(), 1);
+
+            MxSymbolBlock block = (MxSymbolBlock) model.getBlock();
+            block.setShapeBuckets(4, new int[] {1, 4, 16}, 0);
+            metrics = model.warmUp(new Shape(1, 28, 28));
+            Assert.assertEquals(metrics.getMetric("WarmUp").size(), 3);
+            Assert.assertEquals(block.getBucketMisses(), 3);
+
+            NDManager manager = model.getNDManager();
+            ParameterStore parameterStore = new ParameterStore(manager, false);
+            block.forward(parameterStore, new NDList(manager.ones(new Shape(3, 28, 28))));
+            Assert.assertEquals(block.getBucketMisses(), 3);
+        }
+    }
+
+    @Test
+    public void testQuantize() throws IOException, ModelNotFoundException, MalformedModelException {
+        Map<String, String> criteria = new ConcurrentHashMap<>();
+        Path modelDir = Paths.get("build/tmp/test/models");
+        float[] expected;
+        try (Model model = MxModelZoo.MLP.loadModel(criteria)) {
+            NDManager manager = model.getNDManager();
+            NDArray data = manager.randomUniform(0, 1, new Shape(8, 28, 28));
+            ArrayDataset dataset =
+                    new ArrayDataset.Builder().setData(data).setSampling(4, false).build();
+            model.quantize(dataset);
+
+            Block block = model.getBlock();
+            Assert.assertTrue(
+                    block.getParameters()
+                            .stream()
+                            .anyMatch(p -> p.getValue().getArray().getDataType() == DataType.INT8));
+            ParameterStore parameterStore = new ParameterStore(manager, false);
+            NDArray arr = manager.ones(new Shape(1, 28, 28));
+            NDArray output = block.forward(parameterStore, new NDList(arr)).singletonOrThrow();
+            Assert.assertEquals(new Shape(1, 10), output.getShape());
+            expected = output.toFloatArray();
+            model.save(modelDir, "quantized");
+        }
+
+        // loads the symbol and the parameters without a block, as the model loaders do
+        try (Model model = Model.newInstance()) {
+            model.load(modelDir, "quantized");
+            NDManager manager = model.getNDManager();
+            Block block = model.getBlock();
+            Assert.assertTrue(
+                    block.getParameters()
+                            .stream()
+                            .anyMatch(p -> p.getValue().getArray().getDataType() == DataType.INT8));
+            ParameterStore parameterStore = new ParameterStore(manager, false);
+            NDArray arr = manager.ones(new Shape(1, 28, 28));
+            NDArray output = block.forward(parameterStore, new NDList(arr)).singletonOrThrow();
+            Assertions.assertAlmostEquals(output, manager.create(expected, new Shape(1, 10)));
+        }
+    }
+
     @Test
     public void trainWithNewParam()
             throws IOException, ModelNotFoundException, MalformedModelException {
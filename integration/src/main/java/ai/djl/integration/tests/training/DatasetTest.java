@@ -16,6 +16,7 @@ import ai.djl.Device;
 import ai.djl.Model;
 import ai.djl.basicdataset.Cifar10;
 import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.nn.Blocks;
@@ -27,7 +28,11 @@ import ai.djl.training.dataset.Batch;
 import ai.djl.training.dataset.BatchSampler;
 import ai.djl.training.dataset.Dataset;
 import ai.djl.training.dataset.RandomSampler;
+import ai.djl.training.dataset.Record;
+import ai.djl.training.dataset.RecordReader;
 import ai.djl.training.dataset.SequenceSampler;
+import ai.djl.training.dataset.StreamingDataIterable;
+import ai.djl.training.dataset.StreamingDataset;
 import ai.djl.training.initializer.Initializer;
 import ai.djl.training.loss.Loss;
 import java.io.IOException;
@@ -292,4 +297,135 @@ public class DatasetTest {
             }
         }
     }
+
+    @Test
+    public void testStreamingMultithreading() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (NDManager manager = NDManager.newBaseManager()) {
+            RangeStreamingDataset dataset =
+                    new RangeStreamingDataset.Builder()
+                            .setRecords(4, 25)
+                            .setSampling(10, false)
+                            .optShuffleBuffer(20)
+                            .optExcutor(executor, 4)
+                            .build();
+
+            List<Float> values = new ArrayList<>();
+            for (Batch batch : dataset.getData(manager)) {
+                for (float value : batch.getData().head().toFloatArray()) {
+                    values.add(value);
+                }
+                batch.close();
+            }
+            values.sort(Float::compare);
+            List<Float> expected = new ArrayList<>();
+            for (int i = 0; i < 100; ++i) {
+                expected.add((float) i);
+            }
+            Assert.assertEquals(values, expected);
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStreamingEarlyTermination() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (NDManager manager = NDManager.newBaseManager()) {
+            RangeStreamingDataset dataset =
+                    new RangeStreamingDataset.Builder()
+                            .setRecords(4, 1000)
+                            .setSampling(10, false)
+                            .optExcutor(executor, 4)
+                            .build();
+
+            StreamingDataIterable iterable = (StreamingDataIterable) dataset.getData(manager);
+            Batch batch = iterable.next();
+            iterable.close();
+            Assert.assertFalse(iterable.hasNext());
+
+            // the workers stop once the iterable is closed
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+            // the batches returned before are still valid
+            Assert.assertEquals(batch.getData().head().toFloatArray().length, 10);
+            batch.close();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** A {@link StreamingDataset} of consecutive numbers split into partitions. */
+    private static final class RangeStreamingDataset extends StreamingDataset {
+
+        private int numPartitions;
+        private int partitionSize;
+
+        RangeStreamingDataset(Builder builder) {
+            super(builder);
+            numPartitions = builder.numPartitions;
+            partitionSize = builder.partitionSize;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getPartitionCount() {
+            return numPartitions;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public RecordReader openPartition(int partition) {
+            return new RecordReader() {
+
+                private int next = partition * partitionSize;
+                private int end = next + partitionSize;
+
+                /** {@inheritDoc} */
+                @Override
+                public Record next(NDManager manager) {
+                    if (next >= end) {
+                        return null;
+                    }
+                    float value = next++;
+                    return new Record(
+                            new NDList(manager.create(value)), new NDList(manager.create(value)));
+                }
+
+                /** {@inheritDoc} */
+                @Override
+                public boolean skip() {
+                    return next++ < end;
+                }
+
+                /** {@inheritDoc} */
+                @Override
+                public void close() {}
+            };
+        }
+
+        static final class Builder extends BaseBuilder<Builder> {
+
+            private int numPartitions;
+            private int partitionSize;
+
+            Builder setRecords(int numPartitions, int partitionSize) {
+                this.numPartitions = numPartitions;
+                this.partitionSize = partitionSize;
+                return this;
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            protected Builder self() {
+                return this;
+            }
+
+            RangeStreamingDataset build() {
+                return new RangeStreamingDataset(this);
+            }
+        }
+    }
 }
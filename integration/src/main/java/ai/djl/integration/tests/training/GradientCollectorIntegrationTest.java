@@ -17,9 +17,15 @@ import ai.djl.integration.util.Assertions;
 import ai.djl.mxnet.engine.MxGradientCollector;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDArrays;
+import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Activation;
+import ai.djl.nn.Block;
+import ai.djl.nn.CheckpointBlock;
+import ai.djl.nn.ParameterList;
+import ai.djl.nn.SequentialBlock;
 import ai.djl.nn.core.Linear;
 import ai.djl.training.DefaultTrainingConfig;
 import ai.djl.training.Trainer;
@@ -31,6 +37,7 @@ import ai.djl.training.loss.Loss;
 import ai.djl.training.optimizer.Optimizer;
 import ai.djl.training.optimizer.Sgd;
 import ai.djl.training.optimizer.learningrate.LearningRateTracker;
+import ai.djl.translate.Batchifier;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -120,4 +127,54 @@ public class GradientCollectorIntegrationTest {
                             lossValue, expectedLoss));
         }
     }
+
+    @Test
+    public void testCheckpoint() {
+        TrainingConfig config = new DefaultTrainingConfig(Initializer.ONES, Loss.l2Loss());
+        Block block = newBlock(false);
+        Block checkpointed = newBlock(true);
+        try (Model model = Model.newInstance();
+                Model checkpointedModel = Model.newInstance()) {
+            model.setBlock(block);
+            checkpointedModel.setBlock(checkpointed);
+
+            try (Trainer trainer = model.newTrainer(config);
+                    Trainer checkpointedTrainer = checkpointedModel.newTrainer(config)) {
+                Shape inputShape = new Shape(2, 3);
+                trainer.initialize(inputShape);
+                checkpointedTrainer.initialize(inputShape);
+
+                NDManager manager = trainer.getManager();
+                NDArray data = manager.create(new float[] {1, -2, 3, 0.5f, 0, -1}, inputShape);
+                NDArray label = manager.create(new float[] {1, 2}, new Shape(2, 1));
+                Batch batch =
+                        new Batch(manager, new NDList(data), new NDList(label), Batchifier.STACK);
+                trainer.trainBatch(batch);
+                checkpointedTrainer.trainBatch(batch);
+
+                // recomputing the activations must not change the gradients
+                ParameterList expected = block.getParameters();
+                ParameterList actual = checkpointed.getParameters();
+                Assert.assertEquals(actual.size(), expected.size());
+                for (int i = 0; i < expected.size(); ++i) {
+                    Assertions.assertAlmostEquals(
+                            actual.valueAt(i).getArray().getGradient(),
+                            expected.valueAt(i).getArray().getGradient());
+                }
+            }
+        }
+    }
+
+    private static Block newBlock(boolean checkpoint) {
+        Block hidden =
+                new SequentialBlock()
+                        .add(new Linear.Builder().setOutChannels(4).build())
+                        .add(Activation.reluBlock())
+                        .add(new Linear.Builder().setOutChannels(4).build())
+                        .add(Activation.tanhBlock());
+        return new SequentialBlock()
+                .add(new Linear.Builder().setOutChannels(4).build())
+                .add(checkpoint ? new CheckpointBlock(hidden) : hidden)
+                .add(new Linear.Builder().setOutChannels(1).build());
+    }
 }
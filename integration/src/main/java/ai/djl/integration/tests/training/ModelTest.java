@@ -21,9 +21,16 @@ import ai.djl.nn.ParameterList;
 import ai.djl.nn.SequentialBlock;
 import ai.djl.nn.convolutional.Conv2D;
 import ai.djl.nn.norm.BatchNorm;
+import ai.djl.training.CheckpointWriter;
 import ai.djl.training.initializer.XavierInitializer;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -50,6 +57,71 @@ public class ModelTest {
         }
     }
 
+    @Test
+    public void testCast() throws IOException, MalformedModelException {
+        SequentialBlock block = new SequentialBlock();
+        block.add(new Conv2D.Builder().setKernel(new Shape(1, 1)).setNumFilters(10).build());
+        block.add(new BatchNorm.Builder().build());
+        try (Model saveModel = Model.newInstance();
+                Model loadModel = Model.newInstance()) {
+            block.setInitializer(new XavierInitializer());
+            block.initialize(saveModel.getNDManager(), DataType.FLOAT32, new Shape(1, 3, 32, 32));
+            saveModel.setBlock(block);
+            saveModel.cast(DataType.FLOAT16);
+            Assert.assertEquals(saveModel.getDataType(), DataType.FLOAT16);
+
+            ParameterList parameters = block.getParameters();
+            // the convolution is cast, but batch norm keeps its parameters in FLOAT32
+            Assert.assertEquals(
+                    parameters.get(0).getValue().getArray().getDataType(), DataType.FLOAT16);
+            Assert.assertEquals(
+                    parameters.get(parameters.size() - 1).getValue().getArray().getDataType(),
+                    DataType.FLOAT32);
+            saveModel.save(Paths.get("build/tmp/test/models"), "cast");
+            block.clear();
+
+            loadModel.setBlock(block);
+            loadModel.load(Paths.get("build/tmp/test/models"), "cast");
+            Assert.assertEquals(loadModel.getDataType(), DataType.FLOAT16);
+            Assert.assertEquals(
+                    loadModel.getBlock().getParameters().get(0).getValue().getArray().getDataType(),
+                    DataType.FLOAT16);
+        }
+    }
+
+    @Test
+    public void testAsyncSave() throws IOException, InterruptedException, ExecutionException {
+        SequentialBlock block = new SequentialBlock();
+        block.add(new Conv2D.Builder().setKernel(new Shape(1, 1)).setNumFilters(10).build());
+        block.add(new BatchNorm.Builder().build());
+        Path modelDir = Paths.get("build/tmp/test/models");
+        Path asyncDir = modelDir.resolve("async");
+        try (Model model = Model.newInstance()) {
+            block.setInitializer(new XavierInitializer());
+            block.initialize(model.getNDManager(), DataType.FLOAT32, new Shape(1, 3, 32, 32));
+            model.setBlock(block);
+
+            List<Future<Path>> checkpoints = new ArrayList<>();
+            try (CheckpointWriter writer = new CheckpointWriter(2)) {
+                for (int epoch = 0; epoch < 3; ++epoch) {
+                    model.setProperty("Epoch", String.valueOf(epoch));
+                    checkpoints.add(model.save(asyncDir, "asyncSave", writer));
+                }
+            }
+            model.save(modelDir, "asyncSave");
+
+            // the asynchronous checkpoint is identical to the synchronous one
+            Path asyncFile = checkpoints.get(2).get();
+            Assert.assertEquals(asyncFile, asyncDir.resolve("asyncSave-0002.params"));
+            Assert.assertEquals(
+                    Files.readAllBytes(asyncFile),
+                    Files.readAllBytes(modelDir.resolve("asyncSave-0002.params")));
+            // only the last two checkpoints are kept
+            Assert.assertFalse(Files.exists(checkpoints.get(0).get()));
+            Assert.assertTrue(Files.exists(checkpoints.get(1).get()));
+        }
+    }
+
     private void compareParameters(ParameterList savedParameters, ParameterList loadedParameters) {
         Assert.assertEquals(savedParameters.size(), loadedParameters.size());
         for (int i = 0; i < savedParameters.size(); i++) {
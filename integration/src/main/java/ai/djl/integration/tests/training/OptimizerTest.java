@@ -20,6 +20,8 @@ import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Block;
+import ai.djl.nn.Parameter;
+import ai.djl.nn.core.Embedding;
 import ai.djl.nn.core.Linear;
 import ai.djl.training.DefaultTrainingConfig;
 import ai.djl.training.Trainer;
@@ -33,6 +35,8 @@ import ai.djl.training.optimizer.Optimizer;
 import ai.djl.training.optimizer.Sgd;
 import ai.djl.training.optimizer.learningrate.LearningRateTracker;
 import ai.djl.translate.Batchifier;
+import java.util.Arrays;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 public class OptimizerTest {
@@ -67,6 +71,35 @@ public class OptimizerTest {
         }
     }
 
+    @Test
+    public void testSgdWithGradientAccumulation() {
+        Optimizer sgd =
+                new Sgd.Builder()
+                        .setRescaleGrad(1.0f / BATCH_SIZE)
+                        .setLearningRateTracker(LearningRateTracker.fixedLearningRate(0.1f))
+                        .build();
+
+        TrainingConfig config =
+                new DefaultTrainingConfig(Initializer.ONES, Loss.l2Loss())
+                        .setOptimizer(sgd)
+                        .setGradientAccumulation(2);
+        Block block = new Linear.Builder().setOutChannels(CHANNELS).build();
+        try (Model model = Model.newInstance()) {
+            model.setBlock(block);
+
+            try (Trainer trainer = model.newTrainer(config)) {
+                trainer.initialize(new Shape(BATCH_SIZE, CHANNELS));
+
+                NDManager manager = trainer.getManager();
+                // the parameters are only updated after the second batch, with the mean gradient
+                NDArray result = runOptimizer(manager, trainer, block);
+                NDArray result2 = runOptimizer(manager, trainer, block);
+                Assertions.assertAlmostEquals(result, manager.create(new float[] {1f, 0f}));
+                Assertions.assertAlmostEquals(result2, manager.create(new float[] {0.68f, -0.16f}));
+            }
+        }
+    }
+
     @Test
     public void testSgdWithMomentum() {
         Optimizer optim =
@@ -159,6 +192,48 @@ public class OptimizerTest {
         }
     }
 
+    @Test
+    public void testSgdLazyUpdate() {
+        Optimizer sgd =
+                new Sgd.Builder()
+                        .setLearningRateTracker(LearningRateTracker.fixedLearningRate(0.1f))
+                        .optWeightDecays(0.1f)
+                        .build();
+
+        TrainingConfig config =
+                new DefaultTrainingConfig(Initializer.ONES, Loss.l2Loss()).setOptimizer(sgd);
+        Embedding<Character> block =
+                new Embedding.Builder<Character>()
+                        .setItems(Arrays.asList('a', 'b', 'c'))
+                        .setEmbeddingSize(2)
+                        .optSparseGrad(true)
+                        .build();
+        try (Model model = Model.newInstance()) {
+            model.setBlock(block);
+
+            try (Trainer trainer = model.newTrainer(config)) {
+                trainer.initialize(new Shape(2));
+
+                NDManager manager = trainer.getManager();
+                NDArray data = manager.create(new float[] {1f, 1f});
+                NDArray label = manager.zeros(new Shape(2, 2));
+                Batch batch =
+                        new Batch(manager, new NDList(data), new NDList(label), Batchifier.STACK);
+                trainer.trainBatch(batch);
+
+                Parameter embedding = block.getParameters().valueAt(0);
+                Assert.assertTrue(embedding.getArray().getGradient().isSparse());
+                trainer.step();
+
+                // only the row of 'a' is updated, including weight decay
+                NDArray weight = embedding.getArray();
+                Assertions.assertAlmostEquals(weight.get(0), manager.ones(new Shape(2)));
+                Assert.assertTrue(weight.get(1).lt(1f).all().getBoolean());
+                Assertions.assertAlmostEquals(weight.get("2:"), manager.ones(new Shape(2, 2)));
+            }
+        }
+    }
+
     private NDArray runOptimizer(NDManager manager, Trainer trainer, Block block) {
         NDArray data = manager.ones(new Shape(BATCH_SIZE, CHANNELS)).mul(2);
         NDArray label = data.mul(2);
@@ -14,10 +14,16 @@ package ai.djl.mxnet.engine;
 
 import ai.djl.Device;
 import ai.djl.Model;
+import ai.djl.engine.CpuExecutionPolicy;
 import ai.djl.engine.Engine;
+import ai.djl.metric.Metrics;
 import ai.djl.mxnet.jna.JnaUtils;
 import ai.djl.ndarray.NDManager;
 import java.lang.management.MemoryUsage;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * The {@code MxEngine} is an implementation of the {@link Engine} based on the <a
@@ -30,6 +36,12 @@ public class MxEngine extends Engine {
 
     public static final String ENGINE_NAME = "MXNet";
 
+    private static final String[] TIME_STATS = {"Count", "Total", "Min", "Max", "Avg"};
+    private static final String[] MEMORY_STATS = {"Count", "Min", "Max", "Avg"};
+
+    private boolean profiling;
+    private boolean traceProfile;
+
     /** Constructs an MXNet Engine. */
     MxEngine() {
         // Workaround MXNet engine lazy initialization issue
@@ -98,4 +110,132 @@ public class MxEngine extends Engine {
     public NDManager newBaseManager(Device device) {
         return MxNDManager.getSystemManager().newSubManager();
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isGradientRecording() {
+        return MxGradientCollector.isRecording();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean setGradientRecording(boolean recording) {
+        return MxGradientCollector.setRecording(recording);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setCpuExecutionPolicy(CpuExecutionPolicy policy) {
+        super.setCpuExecutionPolicy(policy);
+        if (policy != null && policy.getBulkSize() > 0) {
+            JnaUtils.setBulkSize(policy.getBulkSize());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>MXNet sets the number of OpenMP threads of the calling thread, which only applies to the
+     * operators run on that thread. Use the {@code NaiveEngine} ({@code
+     * MXNET_ENGINE_TYPE=NaiveEngine}) so that each worker runs its operators on its own thread.
+     */
+    @Override
+    public void bindWorkerThread(int worker) {
+        CpuExecutionPolicy policy = getCpuExecutionPolicy();
+        if (policy == null) {
+            throw new IllegalStateException("No CpuExecutionPolicy is set");
+        }
+        int[] cores = policy.getCores(worker);
+        JnaUtils.setOmpThreads(cores.length);
+        if (policy.isPinThreads()) {
+            JnaUtils.setThreadAffinity(cores);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings("PMD.UseConcurrentHashMap")
+    public synchronized void startProfiling(Path traceFile) {
+        if (profiling) {
+            throw new IllegalStateException("The profiler is already running");
+        }
+        Map<String, String> config = new LinkedHashMap<>();
+        config.put("profile_all", "true");
+        config.put("aggregate_stats", "true");
+        if (traceFile != null) {
+            config.put("filename", traceFile.toAbsolutePath().toString());
+        }
+        JnaUtils.setProcessProfilerConfig(config);
+        JnaUtils.setProcessProfilerState(true);
+        traceProfile = traceFile != null;
+        profiling = true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void stopProfiling(Metrics metrics) {
+        if (!profiling) {
+            throw new IllegalStateException("The profiler is not running");
+        }
+        profiling = false;
+        JnaUtils.waitAll();
+        JnaUtils.setProcessProfilerState(false);
+        if (traceProfile) {
+            JnaUtils.dumpProcessProfile(true);
+        }
+        String stats = JnaUtils.getAggregateProfileStats(true);
+        if (stats != null) {
+            addProfileStats(stats, metrics);
+        }
+    }
+
+    /**
+     * Parses the aggregate statistics table of the MXNet profiler into metrics.
+     *
+     * <p>Each domain of the table, such as "operator" or "Device Storage", has a header line that
+     * tells whether its rows are time or memory statistics, followed by a row per name. The name
+     * may contain spaces, so the statistics are read from the end of the row.
+     *
+     * @param stats the statistics table
+     * @param metrics the metrics to add the statistics to
+     */
+    private static void addProfileStats(String stats, Metrics metrics) {
+        String[] columns = null;
+        String unit = null;
+        for (String line : stats.split("\\R")) {
+            String row = line.trim();
+            if (row.isEmpty()) {
+                columns = null;
+            } else if (row.startsWith("Name")) {
+                columns = null;
+                if (row.contains("Time")) {
+                    columns = TIME_STATS;
+                    unit = "ms";
+                } else if (row.contains("Use")) {
+                    columns = MEMORY_STATS;
+                    unit = "kB";
+                }
+            } else if (columns != null && !row.startsWith("----")) {
+                String[] tokens = row.split("\\s+");
+                if (tokens.length <= columns.length) {
+                    continue;
+                }
+                int offset = tokens.length - columns.length;
+                String name = String.join(" ", Arrays.copyOf(tokens, offset));
+                double[] values = new double[columns.length];
+                try {
+                    for (int i = 0; i < columns.length; ++i) {
+                        values[i] = Double.parseDouble(tokens[offset + i]);
+                    }
+                } catch (NumberFormatException ignore) {
+                    // not a row of statistics
+                    continue;
+                }
+                metrics.addMetric(name + ".Count", (long) values[0], "count");
+                for (int i = 1; i < columns.length; ++i) {
+                    metrics.addMetric(name + '.' + columns[i], values[i], unit);
+                }
+            }
+        }
+    }
 }
@@ -15,6 +15,7 @@ package ai.djl.mxnet.engine;
 import ai.djl.mxnet.jna.JnaUtils;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
+import ai.djl.nn.CheckpointBlock;
 import ai.djl.training.GradientCollector;
 
 /** {@code MxGradientCollector} is the MXNet implementation of {@link GradientCollector}. */
@@ -83,6 +84,7 @@ public class MxGradientCollector implements GradientCollector {
     /** {@inheritDoc} */
     @Override
     public void close() {
+        CheckpointBlock.clearCheckpoints();
         setRecording(false);
         setTraining(false);
     }
@@ -102,5 +104,6 @@ public class MxGradientCollector implements GradientCollector {
      */
     private void backward(NDArray array, boolean retainGraph) {
         JnaUtils.autogradBackward(new NDList(array), retainGraph ? 1 : 0);
+        CheckpointBlock.backwardCheckpoints(this);
     }
 }
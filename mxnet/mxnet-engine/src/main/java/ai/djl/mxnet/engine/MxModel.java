@@ -16,6 +16,7 @@ import ai.djl.Device;
 import ai.djl.MalformedModelException;
 import ai.djl.Model;
 import ai.djl.inference.Predictor;
+import ai.djl.metric.Metrics;
 import ai.djl.mxnet.jna.JnaUtils;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
@@ -24,8 +25,12 @@ import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Block;
 import ai.djl.nn.Parameter;
+import ai.djl.training.CheckpointWriter;
+import ai.djl.training.ParameterStore;
+import ai.djl.training.SnapshotOutputStream;
 import ai.djl.training.Trainer;
 import ai.djl.training.TrainingConfig;
+import ai.djl.training.dataset.Dataset;
 import ai.djl.training.initializer.Initializer;
 import ai.djl.translate.Translator;
 import ai.djl.util.Pair;
@@ -46,6 +51,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -130,48 +136,31 @@ public class MxModel implements Model {
     /** {@inheritDoc} */
     @Override
     public void save(Path modelPath, String modelName) throws IOException {
-        if (Files.notExists(modelPath)) {
-            Files.createDirectories(modelPath);
-        }
-
-        if (block == null || !block.isInitialized()) {
-            throw new IllegalStateException("Model has not be trained or loaded yet.");
-        }
-
-        String epochValue = getProperty("Epoch");
-        int epoch =
-                epochValue == null
-                        ? Utils.getCurrentEpoch(modelPath, modelName) + 1
-                        : Integer.parseInt(epochValue);
-
-        Path paramFile = modelPath.resolve(String.format("%s-%04d.params", modelName, epoch));
+        Path paramFile = getParamFile(modelPath, modelName);
+        saveSymbol(modelPath, modelName);
         try (DataOutputStream dos = new DataOutputStream(Files.newOutputStream(paramFile))) {
-            dos.writeBytes("DJL@");
-            dos.writeInt(MODEL_VERSION);
-            dos.writeUTF(modelName);
-            dos.writeUTF(dataType.name());
-            inputData = block.describeInput();
-            dos.writeInt(inputData.size());
-            for (Pair<String, Shape> desc : inputData) {
-                String name = desc.getKey();
-                if (name == null) {
-                    dos.writeUTF("");
-                } else {
-                    dos.writeUTF(name);
-                }
-                dos.write(desc.getValue().getEncoded());
-            }
-
-            dos.writeInt(properties.size());
-            for (Map.Entry<String, String> entry : properties.entrySet()) {
-                dos.writeUTF(entry.getKey());
-                dos.writeUTF(entry.getValue());
-            }
+            writeParameters(dos, modelName);
+        }
+        this.modelName = modelName;
+        modelDir = modelPath.toAbsolutePath();
+    }
 
-            block.saveParameters(dos);
+    /** {@inheritDoc} */
+    @Override
+    public Future<Path> save(Path modelPath, String modelName, CheckpointWriter writer)
+            throws IOException {
+        Path paramFile = getParamFile(modelPath, modelName);
+        saveSymbol(modelPath, modelName);
+        SnapshotOutputStream sos = new SnapshotOutputStream();
+        try {
+            writeParameters(sos, modelName);
+        } catch (IOException | RuntimeException e) {
+            sos.close();
+            throw e;
         }
         this.modelName = modelName;
         modelDir = modelPath.toAbsolutePath();
+        return writer.write(paramFile, sos);
     }
 
     /** {@inheritDoc} */
@@ -224,7 +213,98 @@ public class MxModel implements Model {
     /** {@inheritDoc} */
     @Override
     public void cast(DataType dataType) {
-        throw new UnsupportedOperationException("Not implemented yet.");
+        if (block == null) {
+            throw new IllegalStateException("Model has not be trained or loaded yet.");
+        }
+        block.cast(dataType);
+        this.dataType = dataType;
+    }
+
+    /**
+     * Converts the {@link MxSymbolBlock} of the model to an INT8 quantized network.
+     *
+     * <p>The quantized symbol is saved with the model, in the {MODEL_NAME}-symbol.json file, along
+     * with the quantized weights and their ranges in the parameter file.
+     *
+     * @param calibrationDataset the dataset used to calibrate the quantized network
+     * @throws UnsupportedOperationException if the block of the model is not a {@link
+     *     MxSymbolBlock}
+     */
+    @Override
+    public void quantize(Dataset calibrationDataset) {
+        if (!(block instanceof MxSymbolBlock)) {
+            throw new UnsupportedOperationException("Only MxSymbolBlock can be quantized.");
+        }
+        MxSymbolBlock quantized =
+                ((MxSymbolBlock) block).quantize(calibrationDataset.getData(manager));
+        block.clear();
+        block = quantized;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Metrics warmUp(Shape... inputShapes) {
+        if (block == null) {
+            throw new IllegalStateException("Model has not be trained or loaded yet.");
+        }
+        List<String> names = null;
+        Shape[] shapes = inputShapes;
+        if (shapes.length == 0) {
+            PairList<String, Shape> inputs = describeInput();
+            names = inputs.keys();
+            shapes = inputs.values().toArray(new Shape[0]);
+        }
+        for (Shape shape : shapes) {
+            if (shape.dimension() == 0 || shape.size() < 0) {
+                throw new IllegalArgumentException(
+                        "The input shapes are required to warm up the model: "
+                                + Arrays.toString(shapes));
+            }
+        }
+
+        List<Shape[]> variants = new ArrayList<>();
+        int[] buckets = null;
+        if (block instanceof MxSymbolBlock) {
+            buckets = ((MxSymbolBlock) block).getShapeBuckets();
+        }
+        if (buckets == null) {
+            variants.add(shapes);
+        } else {
+            int[] axes = ((MxSymbolBlock) block).getBucketAxes();
+            for (int bucket : buckets) {
+                Shape[] variant = new Shape[shapes.length];
+                for (int i = 0; i < shapes.length; ++i) {
+                    long[] dims = shapes[i].getShape().clone();
+                    for (int axis : axes) {
+                        if (axis < dims.length) {
+                            dims[axis] = bucket;
+                        }
+                    }
+                    variant[i] = new Shape(dims);
+                }
+                variants.add(variant);
+            }
+        }
+
+        Metrics metrics = new Metrics();
+        ParameterStore parameterStore = new ParameterStore(manager, false);
+        for (Shape[] variant : variants) {
+            try (NDManager scope = manager.newSubManager()) {
+                NDList inputs = new NDList(variant.length);
+                for (int i = 0; i < variant.length; ++i) {
+                    NDArray array = scope.zeros(variant[i], dataType);
+                    if (names != null) {
+                        array.setName(names.get(i));
+                    }
+                    inputs.add(array);
+                }
+                long begin = System.nanoTime();
+                NDList outputs = block.forward(parameterStore, inputs);
+                outputs.forEach(a -> ((MxNDArray) a).waitToRead());
+                metrics.addMetric("WarmUp", System.nanoTime() - begin, "nano");
+            }
+        }
+        return metrics;
     }
 
     /** {@inheritDoc} */
@@ -350,6 +430,58 @@ public class MxModel implements Model {
         super.finalize();
     }
 
+    private Path getParamFile(Path modelPath, String modelName) throws IOException {
+        if (Files.notExists(modelPath)) {
+            Files.createDirectories(modelPath);
+        }
+
+        if (block == null || !block.isInitialized()) {
+            throw new IllegalStateException("Model has not be trained or loaded yet.");
+        }
+
+        String epochValue = getProperty("Epoch");
+        int epoch =
+                epochValue == null
+                        ? Utils.getCurrentEpoch(modelPath, modelName) + 1
+                        : Integer.parseInt(epochValue);
+
+        return modelPath.resolve(String.format("%s-%04d.params", modelName, epoch));
+    }
+
+    private void saveSymbol(Path modelPath, String modelName) {
+        if (block instanceof MxSymbolBlock) {
+            // the symbol may have been modified, for example by quantization
+            Symbol symbol = ((MxSymbolBlock) block).getSymbol();
+            symbol.save(modelPath.resolve(modelName + "-symbol.json"));
+        }
+    }
+
+    private void writeParameters(DataOutputStream dos, String modelName) throws IOException {
+        dos.writeBytes("DJL@");
+        dos.writeInt(MODEL_VERSION);
+        dos.writeUTF(modelName);
+        dos.writeUTF(dataType.name());
+        inputData = block.describeInput();
+        dos.writeInt(inputData.size());
+        for (Pair<String, Shape> desc : inputData) {
+            String name = desc.getKey();
+            if (name == null) {
+                dos.writeUTF("");
+            } else {
+                dos.writeUTF(name);
+            }
+            dos.write(desc.getValue().getEncoded());
+        }
+
+        dos.writeInt(properties.size());
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            dos.writeUTF(entry.getKey());
+            dos.writeUTF(entry.getValue());
+        }
+
+        block.saveParameters(dos);
+    }
+
     @SuppressWarnings("PMD.UseConcurrentHashMap")
     private void loadParameters(String modelName, Map<String, String> options)
             throws IOException, MalformedModelException {
@@ -26,9 +26,9 @@ import ai.djl.ndarray.index.NDIndexFullSlice;
 import ai.djl.ndarray.internal.NDArrayEx;
 import ai.djl.ndarray.internal.NDFormat;
 import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.GradReq;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.ndarray.types.SparseFormat;
-import ai.djl.training.GradReq;
 import com.sun.jna.Native;
 import com.sun.jna.Pointer;
 import java.nio.Buffer;
@@ -38,8 +38,11 @@ import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.nio.LongBuffer;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
+import java.util.WeakHashMap;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
@@ -51,6 +54,10 @@ public class MxNDArray extends NativeResource implements NDArray {
     private static final int MAX_ROWS = 10;
     private static final int MAX_COLUMNS = 20;
 
+    // keyed by identity, an entry lives as long as the NDIndex keeps its cached full slice
+    private static final Map<NDIndexFullSlice, MxOpParams> SLICE_PARAMS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
     private String name;
     private Device device;
     private SparseFormat sparseFormat;
@@ -238,8 +245,15 @@ public class MxNDArray extends NativeResource implements NDArray {
         attachGradient(GradReq.WRITE, null);
     }
 
-    private void attachGradient(GradReq gradReq, SparseFormat format) {
-        // Does zerosLike support sparse?
+    /** {@inheritDoc} */
+    @Override
+    public void attachGradient(SparseFormat sparseFormat) {
+        attachGradient(GradReq.WRITE, sparseFormat);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void attachGradient(GradReq gradReq, SparseFormat format) {
         try (MxNDArray grad = createGradient(format)) {
             int gradReqValue = gradReq.getValue();
             IntBuffer gradReqBuffer = IntBuffer.allocate(1);
@@ -249,10 +263,25 @@ public class MxNDArray extends NativeResource implements NDArray {
     }
 
     private MxNDArray createGradient(SparseFormat format) {
-        if (format == null || format == SparseFormat.UNDEFINED) {
+        if (format == null || format == SparseFormat.UNDEFINED || format == SparseFormat.DENSE) {
             return (MxNDArray) zerosLike();
         }
-        return (MxNDArray) manager.zeros(getShape(), getDataType(), getDevice());
+        if (format == SparseFormat.ROW_SPARSE) {
+            // a row sparse array without any row is all zeros, and never allocates the dense shape
+            Pointer handle =
+                    JnaUtils.createSparseNdArray(
+                            format,
+                            getDevice(),
+                            getShape(),
+                            getDataType(),
+                            new DataType[] {DataType.INT64},
+                            new Shape[] {new Shape(0)},
+                            false);
+            return manager.create(handle, format);
+        }
+        try (NDArray zeros = zerosLike()) {
+            return (MxNDArray) zeros.toSparse(format);
+        }
     }
 
     /** {@inheritDoc} */
@@ -264,6 +293,10 @@ public class MxNDArray extends NativeResource implements NDArray {
                     "No gradient attached to this NDArray, please call array.attachGradient()"
                             + "on your NDArray or block.setInitializer() on your Block");
         }
+        SparseFormat fmt = JnaUtils.getStorageType(pointer);
+        if (fmt != SparseFormat.DENSE) {
+            return manager.create(pointer, fmt);
+        }
         return manager.create(pointer);
     }
 
@@ -326,10 +359,7 @@ public class MxNDArray extends NativeResource implements NDArray {
     public void set(NDIndex index, NDArray value) {
         NDIndexFullSlice fullSlice = index.getAsFullSlice(getShape()).orElse(null);
         if (fullSlice != null) {
-            MxOpParams params = new MxOpParams();
-            params.addTupleParam("begin", fullSlice.getMin());
-            params.addTupleParam("end", fullSlice.getMax());
-            params.addTupleParam("step", fullSlice.getStep());
+            MxOpParams params = sliceParams(fullSlice);
 
             Stack<NDArray> prepareValue = new Stack<>();
             prepareValue.add(value);
@@ -366,9 +396,7 @@ public class MxNDArray extends NativeResource implements NDArray {
         NDIndexFullSlice fullSlice = index.getAsFullSlice(getShape()).orElse(null);
         if (fullSlice != null) {
             MxOpParams params = new MxOpParams();
-            params.addTupleParam("begin", fullSlice.getMin());
-            params.addTupleParam("end", fullSlice.getMax());
-            params.addTupleParam("step", fullSlice.getStep());
+            params.addAll(sliceParams(fullSlice));
             params.addParam("scalar", value);
             manager.invoke(
                     "_npi_slice_assign_scalar", new NDArray[] {this}, new NDArray[] {this}, params);
@@ -412,10 +440,7 @@ public class MxNDArray extends NativeResource implements NDArray {
 
         NDIndexFullSlice fullSlice = index.getAsFullSlice(getShape()).orElse(null);
         if (fullSlice != null) {
-            MxOpParams params = new MxOpParams();
-            params.addTupleParam("begin", fullSlice.getMin());
-            params.addTupleParam("end", fullSlice.getMax());
-            params.addTupleParam("step", fullSlice.getStep());
+            MxOpParams params = sliceParams(fullSlice);
             // TODO cast the boolean NDArray back to int32 due to lack of support of slice op on
             // boolean NDArray
             NDArray thisArr =
@@ -1224,6 +1249,20 @@ public class MxNDArray extends NativeResource implements NDArray {
         return manager.invoke("sort", this, null);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public NDList topK(int k, int axis) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k should be larger or equal to 1");
+        }
+        MxOpParams params = new MxOpParams();
+        params.addParam("axis", axis);
+        params.addParam("k", Math.min(k, getShape().get(withAxis(axis))));
+        params.addParam("ret_typ", "both");
+        params.setDataType(DataType.INT32);
+        return manager.invoke("topk", new NDList(this), params);
+    }
+
     /** {@inheritDoc} */
     @Override
     public NDArray softmax(int[] axes) {
@@ -1256,6 +1295,18 @@ public class MxNDArray extends NativeResource implements NDArray {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public NDArray logSoftmax(int axis) {
+        // the log-softmax of an empty array is empty, _npx_log_softmax is not invoked for it
+        if (isEmpty()) {
+            return getManager().create(getShape());
+        }
+        MxOpParams params = new MxOpParams();
+        params.addParam("axis", axis);
+        return manager.invoke("_npx_log_softmax", this, params);
+    }
+
     /** {@inheritDoc} */
     @Override
     public NDArray cumSum() {
@@ -1553,6 +1604,21 @@ public class MxNDArray extends NativeResource implements NDArray {
         return repeats;
     }
 
+    private static MxOpParams sliceParams(NDIndexFullSlice fullSlice) {
+        // The NDIndex keeps its full slice for the last shape it was used with, so the parameters
+        // are only encoded once when the same index slices arrays of the same shape repeatedly.
+        // The cached parameters are shared and must not be modified.
+        return SLICE_PARAMS.computeIfAbsent(
+                fullSlice,
+                slice -> {
+                    MxOpParams params = new MxOpParams();
+                    params.addTupleParam("begin", slice.getMin());
+                    params.addTupleParam("end", slice.getMax());
+                    params.addTupleParam("step", slice.getStep());
+                    return params;
+                });
+    }
+
     private int withAxis(int axis) {
         return Math.floorMod(axis, getShape().dimension());
     }
@@ -29,13 +29,23 @@ import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** {@code MxNDManager} is the MXNet implementation of {@link NDManager}. */
+/**
+ * {@code MxNDManager} is the MXNet implementation of {@link NDManager}.
+ *
+ * <p>The operators of its arrays are invoked one at a time, each one allocates its result. Unlike
+ * the pure Java engine, there is no lazy evaluation mode that fuses chains of elementwise
+ * operators. The chains that MXNet implements as one operator, such as {@link
+ * NDArray#logSoftmax(int)} or the image normalization, invoke that operator.
+ */
 public class MxNDManager implements NDManager {
 
     private static final Logger logger = LoggerFactory.getLogger(MxTrainer.class);
@@ -51,16 +61,27 @@ public class MxNDManager implements NDManager {
 
     private static final NDArray[] EMPTY = new NDArray[0];
 
+    private static final AtomicReference<MemoryTracking> MEMORY_TRACKING =
+            new AtomicReference<>(MemoryTracking.OFF);
+
     private NDManager parent;
     private String uid;
     private Device device;
     private Map<String, Reference<AutoCloseable>> resources;
     private AtomicBoolean closed = new AtomicBoolean(false);
 
+    private Map<String, Allocation> allocations;
+    private AtomicLong liveBytes = new AtomicLong();
+    private AtomicLong liveCount = new AtomicLong();
+    private AtomicLong totalBytes = new AtomicLong();
+    private AtomicLong totalCount = new AtomicLong();
+    private AtomicLong peakBytes = new AtomicLong();
+
     private MxNDManager(NDManager parent, Device device) {
         this.parent = parent;
         this.device = Device.defaultIfNull(device);
         resources = new ConcurrentHashMap<>();
+        allocations = new ConcurrentHashMap<>();
         uid = UUID.randomUUID().toString();
     }
 
@@ -68,6 +89,79 @@ public class MxNDManager implements NDManager {
         return SYSTEM_MANAGER;
     }
 
+    /**
+     * Returns how the native memory of the arrays is tracked.
+     *
+     * @return the {@link MemoryTracking} mode
+     */
+    public static MemoryTracking getMemoryTracking() {
+        return MEMORY_TRACKING.get();
+    }
+
+    /**
+     * Sets how the native memory of the arrays is tracked.
+     *
+     * <p>Only the arrays attached while the memory is tracked are accounted for. The tracking is
+     * usually enabled once, before the model is loaded.
+     *
+     * @param mode the {@link MemoryTracking} mode
+     */
+    public static void setMemoryTracking(MemoryTracking mode) {
+        MEMORY_TRACKING.set(mode);
+    }
+
+    /**
+     * Returns the number of bytes of the arrays attached to this manager.
+     *
+     * @return the number of bytes of the arrays attached to this manager
+     * @see #setMemoryTracking(MemoryTracking)
+     */
+    public long getLiveBytes() {
+        return liveBytes.get();
+    }
+
+    /**
+     * Returns the number of arrays attached to this manager.
+     *
+     * @return the number of arrays attached to this manager
+     * @see #setMemoryTracking(MemoryTracking)
+     */
+    public long getLiveCount() {
+        return liveCount.get();
+    }
+
+    /**
+     * Returns the number of bytes of the arrays attached to this manager and to its sub-managers.
+     *
+     * <p>For the system manager, this is the memory of all the arrays that are tracked.
+     *
+     * @return the number of bytes of the arrays attached to this manager and its sub-managers
+     * @see #setMemoryTracking(MemoryTracking)
+     */
+    public long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    /**
+     * Returns the number of arrays attached to this manager and to its sub-managers.
+     *
+     * @return the number of arrays attached to this manager and its sub-managers
+     * @see #setMemoryTracking(MemoryTracking)
+     */
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Returns the highest value of {@link #getTotalBytes()} since this manager was created.
+     *
+     * @return the high-water mark of the bytes of this manager and its sub-managers
+     * @see #setMemoryTracking(MemoryTracking)
+     */
+    public long getPeakBytes() {
+        return peakBytes.get();
+    }
+
     /** {@inheritDoc} */
     @Override
     public ByteBuffer allocateDirect(int capacity) {
@@ -300,6 +394,15 @@ public class MxNDManager implements NDManager {
         }
         WeakReference<AutoCloseable> ref = new WeakReference<>(resource);
         resources.put(resourceId, ref);
+        MemoryTracking mode = MEMORY_TRACKING.get();
+        if (mode != MemoryTracking.OFF && resource instanceof MxNDArray) {
+            MxNDArray array = (MxNDArray) resource;
+            long bytes = array.getShape().size() * array.getDataType().getNumOfBytes();
+            Exception site = mode == MemoryTracking.ALLOCATION_SITES ? new Exception() : null;
+            if (allocations.putIfAbsent(resourceId, new Allocation(bytes, site)) == null) {
+                account(bytes, 1);
+            }
+        }
     }
 
     /** {@inheritDoc} */
@@ -310,6 +413,10 @@ public class MxNDManager implements NDManager {
             return;
         }
         resources.remove(resourceId);
+        Allocation allocation = allocations.remove(resourceId);
+        if (allocation != null) {
+            account(-allocation.bytes, -1);
+        }
     }
 
     /** {@inheritDoc} */
@@ -407,7 +514,9 @@ public class MxNDManager implements NDManager {
                 + " isOpen: "
                 + isOpen()
                 + " Resource size: "
-                + resources.size();
+                + resources.size()
+                + " Live bytes: "
+                + liveBytes.get();
     }
 
     /** {@inheritDoc} */
@@ -424,6 +533,19 @@ public class MxNDManager implements NDManager {
                     }
                 }
             }
+            if (!allocations.isEmpty()) {
+                if (MEMORY_TRACKING.get() == MemoryTracking.ALLOCATION_SITES
+                        && logger.isWarnEnabled()) {
+                    String report = getLeakReport();
+                    if (report != null) {
+                        logger.warn(report);
+                    }
+                }
+                for (Allocation allocation : allocations.values()) {
+                    account(-allocation.bytes, -1);
+                }
+                allocations.clear();
+            }
             parent.detach(uid);
             resources.clear();
         }
@@ -442,7 +564,11 @@ public class MxNDManager implements NDManager {
         sb.append("\\--- NDManager(")
                 .append(uid.substring(24))
                 .append(") resource count: ")
-                .append(resources.size());
+                .append(resources.size())
+                .append(", live bytes: ")
+                .append(liveBytes.get())
+                .append(", total bytes: ")
+                .append(totalBytes.get());
 
         System.out.println(sb.toString()); // NOPMD
         for (Reference<AutoCloseable> ref : resources.values()) {
@@ -457,6 +583,78 @@ public class MxNDManager implements NDManager {
         return !closed.get();
     }
 
+    /**
+     * Adds the memory of arrays to this manager and to all its parents.
+     *
+     * @param bytes the number of bytes to add
+     * @param count the number of arrays to add
+     */
+    private void account(long bytes, int count) {
+        liveBytes.addAndGet(bytes);
+        liveCount.addAndGet(count);
+        NDManager manager = this;
+        while (manager instanceof MxNDManager) {
+            MxNDManager mxManager = (MxNDManager) manager;
+            long total = mxManager.totalBytes.addAndGet(bytes);
+            mxManager.totalCount.addAndGet(count);
+            if (bytes > 0) {
+                mxManager.peakBytes.accumulateAndGet(total, Math::max);
+            }
+            manager = mxManager.parent;
+        }
+    }
+
+    /**
+     * Returns a report of the arrays of this manager that were garbage collected without being
+     * closed, grouped by the code that created them.
+     *
+     * <p>The arrays that are still reachable are released by the manager, this is the usual way to
+     * free the arrays and is not reported.
+     *
+     * @return the report of the leaked arrays, or {@code null} if no array was leaked
+     */
+    @SuppressWarnings("PMD.UseConcurrentHashMap")
+    private String getLeakReport() {
+        // grouped by creation site, in a stable order
+        Map<String, long[]> sites = new TreeMap<>();
+        int count = 0;
+        long bytes = 0;
+        for (Map.Entry<String, Allocation> entry : allocations.entrySet()) {
+            Reference<AutoCloseable> ref = resources.get(entry.getKey());
+            if (ref != null && ref.get() != null) {
+                continue;
+            }
+            Allocation allocation = entry.getValue();
+            long[] site = sites.computeIfAbsent(allocation.getSite(), k -> new long[2]);
+            ++site[0];
+            site[1] += allocation.bytes;
+            ++count;
+            bytes += allocation.bytes;
+        }
+        if (count == 0) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(100);
+        sb.append("NDManager(")
+                .append(uid)
+                .append(") closed with ")
+                .append(count)
+                .append(" arrays (")
+                .append(bytes)
+                .append(" bytes) that were garbage collected without being closed:");
+        for (Map.Entry<String, long[]> entry : sites.entrySet()) {
+            long[] site = entry.getValue();
+            sb.append(System.lineSeparator())
+                    .append("    ")
+                    .append(site[0])
+                    .append(" arrays (")
+                    .append(site[1])
+                    .append(" bytes) created at ")
+                    .append(entry.getKey());
+        }
+        return sb.toString();
+    }
+
     private NDArray fill(String opName, Device dev, Shape shape, DataType dataType) {
         MxOpParams params = new MxOpParams();
         if (shape == null) {
@@ -468,6 +666,51 @@ public class MxNDManager implements NDManager {
         return invoke(opName, params);
     }
 
+    /** The modes of tracking the native memory of the arrays. */
+    public enum MemoryTracking {
+        /** The memory is not tracked. */
+        OFF,
+        /** The number of arrays and their bytes are tracked for each {@code MxNDManager}. */
+        USAGE,
+        /**
+         * The memory is tracked, and the code creating each array is recorded. The arrays that were
+         * garbage collected without being closed are reported with their creation site when their
+         * {@code MxNDManager} is closed.
+         */
+        ALLOCATION_SITES
+    }
+
+    /** The memory of an array attached to the manager. */
+    private static final class Allocation {
+
+        long bytes;
+        Exception site;
+
+        Allocation(long bytes, Exception site) {
+            this.bytes = bytes;
+            this.site = site;
+        }
+
+        /**
+         * Returns the first frame of the creation site outside of the engine.
+         *
+         * @return the first frame of the creation site outside of the engine
+         */
+        String getSite() {
+            if (site == null) {
+                return "unknown";
+            }
+            for (StackTraceElement element : site.getStackTrace()) {
+                String className = element.getClassName();
+                if (!className.startsWith("ai.djl.mxnet.")
+                        && !className.startsWith("ai.djl.ndarray.")) {
+                    return element.toString();
+                }
+            }
+            return "unknown";
+        }
+    }
+
     /** The SystemManager is the root {@link MxNDManager} of which all others are children. */
     private static final class SystemManager extends MxNDManager {
 
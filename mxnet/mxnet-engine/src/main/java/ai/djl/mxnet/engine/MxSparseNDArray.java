@@ -12,8 +12,12 @@
  */
 package ai.djl.mxnet.engine;
 
+import ai.djl.Device;
+import ai.djl.mxnet.jna.JnaUtils;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
 import ai.djl.ndarray.types.SparseFormat;
 import com.sun.jna.Pointer;
 import java.nio.Buffer;
@@ -59,4 +63,46 @@ public class MxSparseNDArray extends MxNDArray {
     public ByteBuffer toByteBuffer() {
         return toDense().toByteBuffer();
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray asInDevice(Device dev, boolean copy) {
+        if (dev.equals(getDevice()) && !copy) {
+            return super.asInDevice(dev, false);
+        }
+        SparseFormat fmt = getSparseFormat();
+        DataType[] auxTypes;
+        Shape[] auxShapes;
+        if (fmt == SparseFormat.CSR) {
+            auxTypes = new DataType[] {DataType.INT64, DataType.INT64};
+            auxShapes = new Shape[] {new Shape(0), new Shape(0)};
+        } else {
+            auxTypes = new DataType[] {DataType.INT64};
+            auxShapes = new Shape[] {new Shape(0)};
+        }
+        // only the stored rows are copied, the destination is allocated by the copy
+        Pointer handle =
+                JnaUtils.createSparseNdArray(
+                        fmt, dev, getShape(), getDataType(), auxTypes, auxShapes, true);
+        MxNDManager manager = (MxNDManager) getManager();
+        MxSparseNDArray nd = manager.create(handle, fmt);
+        nd.setName(getName());
+        manager.invoke("_copyto", new NDArray[] {this}, new NDArray[] {nd}, null);
+        return nd;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray add(NDArray other) {
+        MxNDManager manager = (MxNDManager) getManager();
+        return manager.invoke("elemwise_add", new NDArray[] {this, other}, null);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray addi(NDArray other) {
+        MxNDManager manager = (MxNDManager) getManager();
+        manager.invoke("elemwise_add", new NDArray[] {this, other}, new NDArray[] {this}, null);
+        return this;
+    }
 }
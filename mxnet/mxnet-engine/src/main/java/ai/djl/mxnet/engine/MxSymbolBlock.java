@@ -13,10 +13,15 @@
 
 package ai.djl.mxnet.engine;
 
+import ai.djl.Device;
 import ai.djl.MalformedModelException;
+import ai.djl.metric.Metrics;
 import ai.djl.mxnet.jna.JnaUtils;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrays;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.index.NDIndex;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Parameter;
@@ -24,6 +29,8 @@ import ai.djl.nn.ParameterBlock;
 import ai.djl.nn.ParameterType;
 import ai.djl.nn.SymbolBlock;
 import ai.djl.training.ParameterStore;
+import ai.djl.training.dataset.Batch;
+import ai.djl.util.Pair;
 import ai.djl.util.PairList;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -31,9 +38,12 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -45,6 +55,8 @@ import java.util.stream.Collectors;
 public class MxSymbolBlock extends ParameterBlock implements SymbolBlock {
 
     private static final byte VERSION = 2;
+    private static final String MKLDNN_QUANTIZE = "MKLDNN_QUANTIZE";
+    private static final String QUANTIZE_SUFFIX = "_quantize";
 
     private NDManager manager;
     private CachedOp op;
@@ -53,6 +65,13 @@ public class MxSymbolBlock extends ParameterBlock implements SymbolBlock {
     private Map<String, Shape> paramShapes;
     private Shape[] outputShapes;
 
+    private int[] buckets;
+    private int[] bucketAxes;
+    private Map<List<Shape>, BucketOp> bucketOps;
+    private AtomicLong bucketHits = new AtomicLong();
+    private AtomicLong bucketMisses = new AtomicLong();
+    private Metrics metrics;
+
     /**
      * Constructs a {@code MxSymbolBlock} for a {@link Symbol}.
      *
@@ -138,16 +157,246 @@ public class MxSymbolBlock extends ParameterBlock implements SymbolBlock {
         return inputData;
     }
 
+    /**
+     * Sets the shape buckets of the inputs, so inputs of different sizes can reuse the memory
+     * planned for a few shapes.
+     *
+     * <p>The size of the inputs along each of the given axes is padded with zeros up to the
+     * smallest bucket that fits it, and the outputs that have the padded size along that axis are
+     * sliced back to the size of the input. Inputs larger than the largest bucket are not padded.
+     * Each distinct shape of the padded inputs has its own {@link CachedOp} with static memory
+     * allocation, and the least recently used ones are closed once there are more than {@code
+     * maxCachedOps}.
+     *
+     * <p>Padding must not change the result of the model on the original positions. It is usually
+     * the case for the sequence axis of models that take the valid length of the sequence as an
+     * input, such as BERT.
+     *
+     * @param maxCachedOps the maximum number of {@link CachedOp}s to keep
+     * @param buckets the sizes of the buckets, in increasing order
+     * @param axes the axes of the inputs to pad
+     * @throws IllegalArgumentException if the buckets are not positive and increasing, or if
+     *     {@code maxCachedOps} is less than 1
+     */
+    public synchronized void setShapeBuckets(int maxCachedOps, int[] buckets, int... axes) {
+        if (maxCachedOps < 1) {
+            throw new IllegalArgumentException("At least one CachedOp must be kept");
+        }
+        if (buckets.length == 0 || axes.length == 0) {
+            throw new IllegalArgumentException("Buckets and axes are required");
+        }
+        for (int i = 0; i < buckets.length; ++i) {
+            if (buckets[i] <= 0 || (i > 0 && buckets[i] <= buckets[i - 1])) {
+                throw new IllegalArgumentException(
+                        "Buckets must be positive and in increasing order: "
+                                + Arrays.toString(buckets));
+            }
+        }
+        closeCachedOps();
+        this.buckets = buckets.clone();
+        this.bucketAxes = axes.clone();
+        bucketOps =
+                new LinkedHashMap<List<Shape>, BucketOp>(16, 0.75f, true) {
+
+                    private static final long serialVersionUID = 1L;
+
+                    /** {@inheritDoc} */
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<List<Shape>, BucketOp> eldest) {
+                        if (size() > maxCachedOps) {
+                            eldest.getValue().retire();
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+    }
+
+    /**
+     * Returns the sizes of the shape buckets, or {@code null} if the inputs are not bucketed.
+     *
+     * @return the sizes of the shape buckets
+     * @see #setShapeBuckets(int, int[], int...)
+     */
+    public int[] getShapeBuckets() {
+        return buckets == null ? null : buckets.clone();
+    }
+
+    /**
+     * Returns the axes of the inputs that are padded to the shape buckets, or {@code null} if the
+     * inputs are not bucketed.
+     *
+     * @return the axes of the inputs that are padded to the shape buckets
+     * @see #setShapeBuckets(int, int[], int...)
+     */
+    public int[] getBucketAxes() {
+        return bucketAxes == null ? null : bucketAxes.clone();
+    }
+
+    /**
+     * Returns the number of forward passes that reused the {@link CachedOp} of their bucket.
+     *
+     * @return the number of forward passes that reused the {@link CachedOp} of their bucket
+     */
+    public long getBucketHits() {
+        return bucketHits.get();
+    }
+
+    /**
+     * Returns the number of forward passes that created a {@link CachedOp} for their bucket.
+     *
+     * @return the number of forward passes that created a {@link CachedOp} for their bucket
+     */
+    public long getBucketMisses() {
+        return bucketMisses.get();
+    }
+
+    /**
+     * Sets the {@link Metrics} that record the bucket of each forward pass.
+     *
+     * <p>A "BucketHit" or "BucketMiss" metric is added for each forward pass with bucketed inputs.
+     * Its value is the size of the bucket along the first bucketed axis.
+     *
+     * @param metrics the {@link Metrics} to record to, or {@code null}
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
     /** {@inheritDoc} */
     @Override
     public NDList forward(
             ParameterStore parameterStore, NDList inputs, PairList<String, Object> params) {
+        if (buckets != null) {
+            return forwardBucketed(parameterStore, inputs);
+        }
         if (op == null) {
             op = JnaUtils.createCachedOp(this, (MxNDManager) manager);
         }
         return op.forward(parameterStore, inputs);
     }
 
+    /**
+     * Casts the floating point parameters of the block to the given {@link DataType}.
+     *
+     * <p>The parameters of the normalization layers (gamma, beta and running statistics) are kept
+     * in {@link DataType#FLOAT32} when casting to {@link DataType#FLOAT16}. The integer parameters
+     * of a quantized block are not cast.
+     *
+     * @param dataType the data type to cast to
+     */
+    @Override
+    public void cast(DataType dataType) {
+        for (Parameter parameter : getDirectParameters()) {
+            if (!parameter.isInitialized() || !parameter.getArray().getDataType().isFloating()) {
+                continue;
+            }
+            if (dataType == DataType.FLOAT16 && isNormalization(parameter.getType())) {
+                parameter.cast(DataType.FLOAT32);
+            } else {
+                parameter.cast(dataType);
+            }
+        }
+        // the cached ops are bound to the previous data types
+        closeCachedOps();
+    }
+
+    /**
+     * Returns an INT8 quantized copy of this block for inference.
+     *
+     * <p>The weights of the operators that support it, such as convolution and fully connected
+     * layers, are quantized to INT8, and their scales are stored in additional parameters. The
+     * range of the layer outputs is calibrated by running this block on the calibration data. The
+     * other parameters are copied. On CPU, the quantized operators are fused with the MKLDNN
+     * backend.
+     *
+     * @param calibrationData the batches of data used to calibrate the layer outputs
+     * @param excludedLayers the names of the layers that must not be quantized
+     * @return the quantized block
+     */
+    public MxSymbolBlock quantize(Iterable<Batch> calibrationData, String... excludedLayers) {
+        Device device = manager.getDevice();
+        boolean cpu = Device.cpu().getDeviceType().equals(device.getDeviceType());
+        String[] offlineParams =
+                getDirectParameters().stream().map(Parameter::getName).toArray(String[]::new);
+        // the intermediate symbols are closed here, only the quantized one is kept by the block
+        try (Symbol backendSymbol = cpu ? symbol.getBackendSymbol(MKLDNN_QUANTIZE) : null) {
+            Symbol fp32Symbol = cpu ? backendSymbol : symbol;
+            Pair<Symbol, String[]> pair =
+                    fp32Symbol.quantize(device, excludedLayers, offlineParams);
+            String[] calibrationLayers = pair.getValue();
+            float[] minValues = new float[calibrationLayers.length];
+            float[] maxValues = new float[calibrationLayers.length];
+            try (Symbol uncalibrated = pair.getKey();
+                    Symbol internals = fp32Symbol.getInternals()) {
+                calibrate(internals, calibrationLayers, calibrationData, minValues, maxValues);
+                Symbol quantized =
+                        uncalibrated.setCalibrationTable(calibrationLayers, minValues, maxValues);
+                if (cpu) {
+                    try (Symbol calibrated = quantized) {
+                        quantized = calibrated.getBackendSymbol(MKLDNN_QUANTIZE);
+                    }
+                }
+                MxSymbolBlock block = new MxSymbolBlock(manager, quantized);
+                block.copyParameters(this, true);
+                return block;
+            }
+        }
+    }
+
+    /**
+     * Collects the range of the outputs of the layers in front of the quantized operators.
+     *
+     * @param internals the symbol with all the layer outputs of this block
+     * @param layers the names of the layer outputs to calibrate
+     * @param calibrationData the batches of data used to calibrate the layer outputs
+     * @param minValues the array receiving the minimum value of each layer output
+     * @param maxValues the array receiving the maximum value of each layer output
+     */
+    private void calibrate(
+            Symbol internals,
+            String[] layers,
+            Iterable<Batch> calibrationData,
+            float[] minValues,
+            float[] maxValues) {
+        Arrays.fill(minValues, Float.POSITIVE_INFINITY);
+        Arrays.fill(maxValues, Float.NEGATIVE_INFINITY);
+        List<String> internalNames = Arrays.asList(internals.getOutputNames());
+        int[] indices = new int[layers.length];
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = internalNames.indexOf(layers[i]);
+            if (indices[i] < 0) {
+                throw new IllegalStateException("Layer not found: " + layers[i]);
+            }
+        }
+        try (NDManager scope = manager.newSubManager()) {
+            MxSymbolBlock calibrationBlock = new MxSymbolBlock(scope, internals);
+            calibrationBlock.copyParameters(this, false);
+            ParameterStore parameterStore = new ParameterStore(scope, false);
+            for (Batch batch : calibrationData) {
+                try (NDList outputs = calibrationBlock.forward(parameterStore, batch.getData());
+                        NDList ranges = new NDList(indices.length * 2)) {
+                    // reduces on the device, and copies all the ranges of the batch at once
+                    for (int index : indices) {
+                        NDArray output = outputs.get(index);
+                        ranges.add(output.min());
+                        ranges.add(output.max());
+                    }
+                    float[] values;
+                    try (NDArray stacked = NDArrays.stack(ranges)) {
+                        values = stacked.toFloatArray();
+                    }
+                    for (int i = 0; i < indices.length; ++i) {
+                        minValues[i] = Math.min(minValues[i], values[i * 2]);
+                        maxValues[i] = Math.max(maxValues[i], values[i * 2 + 1]);
+                    }
+                } finally {
+                    batch.close();
+                }
+            }
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public Shape[] getOutputShapes(NDManager manager, Shape[] inputShapes) {
@@ -178,6 +427,7 @@ public class MxSymbolBlock extends ParameterBlock implements SymbolBlock {
         Symbol sliced = symbol.get(layerName);
         symbol.close();
         symbol = sliced;
+        closeCachedOps();
 
         HashSet<String> set = new HashSet<>(Arrays.asList(symbol.getAllNames()));
         for (int i = params.size() - 1; i >= 0; --i) {
@@ -241,6 +491,250 @@ public class MxSymbolBlock extends ParameterBlock implements SymbolBlock {
         }
     }
 
+    /**
+     * Sets the parameters of this block from the parameters with the same name in another block.
+     *
+     * @param other the block to copy the parameters from
+     * @param quantize whether to quantize the weights expected by the quantized operators
+     */
+    private void copyParameters(MxSymbolBlock other, boolean quantize) {
+        inputNames = new ArrayList<>(other.inputNames);
+        Map<String, Parameter> otherParams = new ConcurrentHashMap<>();
+        other.getDirectParameters().forEach(p -> otherParams.put(p.getName(), p));
+        Map<String, NDArray> arrays = new ConcurrentHashMap<>();
+        for (Parameter parameter : params) {
+            String name = parameter.getName();
+            Parameter original = otherParams.get(name);
+            if (original != null) {
+                NDArray array = original.getArray();
+                arrays.put(name, quantize ? array.duplicate() : array);
+            } else if (quantize && name.endsWith(QUANTIZE_SUFFIX)) {
+                String originalName = name.substring(0, name.length() - QUANTIZE_SUFFIX.length());
+                NDArray array = otherParams.get(originalName).getArray();
+                NDArray min = array.min().reshape(1);
+                NDArray max = array.max().reshape(1);
+                MxOpParams opParams = new MxOpParams();
+                opParams.addParam("out_type", "int8");
+                NDList quantized =
+                        manager.invoke(
+                                "_contrib_quantize", new NDList(array, min, max), opParams);
+                min.close();
+                max.close();
+                arrays.put(name, quantized.get(0));
+                arrays.put(name + "_min", quantized.get(1));
+                arrays.put(name + "_max", quantized.get(2));
+            }
+        }
+        for (Parameter parameter : params) {
+            String name = parameter.getName();
+            NDArray array = arrays.get(name);
+            if (array != null) {
+                parameter.setArray(array);
+            } else if (!inputNames.contains(name)) {
+                throw new IllegalStateException("Missing parameter: " + name);
+            }
+        }
+    }
+
+    private NDList forwardBucketed(ParameterStore parameterStore, NDList inputs) {
+        // the size of the inputs along each bucketed axis, before padding
+        long[] sizes = new long[bucketAxes.length];
+        Arrays.fill(sizes, -1);
+        NDList padded = new NDList(inputs.size());
+        List<Shape> key = new ArrayList<>(inputs.size());
+        for (NDArray array : inputs) {
+            NDArray input = pad(array, sizes);
+            padded.add(input);
+            key.add(input.getShape());
+        }
+
+        BucketOp bucketOp;
+        boolean hit;
+        synchronized (this) {
+            bucketOp = bucketOps.get(key);
+            hit = bucketOp != null;
+            if (!hit) {
+                CachedOp cachedOp = JnaUtils.createCachedOp(this, (MxNDManager) manager);
+                bucketOp = new BucketOp(cachedOp, getPaddedOutputs(key));
+                bucketOps.put(key, bucketOp);
+            }
+            // the op is not closed by an eviction until this forward pass releases it
+            ++bucketOp.users;
+        }
+        if (hit) {
+            bucketHits.incrementAndGet();
+        } else {
+            bucketMisses.incrementAndGet();
+        }
+        if (metrics != null) {
+            metrics.addMetric(hit ? "BucketHit" : "BucketMiss", getBucket(sizes[0]), "size");
+        }
+
+        NDList outputs;
+        try {
+            outputs = bucketOp.op.forward(parameterStore, padded);
+        } finally {
+            release(bucketOp);
+            for (int i = 0; i < padded.size(); ++i) {
+                if (padded.get(i) != inputs.get(i)) {
+                    padded.get(i).close();
+                }
+            }
+        }
+        for (int i = 0; i < bucketAxes.length; ++i) {
+            long bucket = getBucket(sizes[i]);
+            if (sizes[i] < 0 || bucket == sizes[i]) {
+                continue;
+            }
+            for (int j = 0; j < outputs.size(); ++j) {
+                if (bucketOp.paddedOutputs[i][j]) {
+                    outputs.set(j, unpad(outputs.get(j), bucketAxes[i], bucket, sizes[i]));
+                }
+            }
+        }
+        return outputs;
+    }
+
+    /**
+     * Pads an input with zeros along the bucketed axes.
+     *
+     * @param array the input to pad
+     * @param sizes the sizes of the inputs along the bucketed axes, set from the first input that
+     *     has the axis
+     * @return the padded input
+     */
+    private NDArray pad(NDArray array, long[] sizes) {
+        NDArray result = array;
+        for (int i = 0; i < bucketAxes.length; ++i) {
+            int axis = bucketAxes[i];
+            Shape shape = result.getShape();
+            if (axis >= shape.dimension()) {
+                continue;
+            }
+            long size = shape.get(axis);
+            if (sizes[i] < 0) {
+                sizes[i] = size;
+            }
+            long bucket = getBucket(size);
+            if (bucket > size) {
+                long[] padShape = shape.getShape().clone();
+                padShape[axis] = bucket - size;
+                try (NDArray zeros =
+                        result.getManager()
+                                .zeros(
+                                        new Shape(padShape),
+                                        result.getDataType(),
+                                        result.getDevice())) {
+                    NDArray concat = result.concat(zeros, axis);
+                    if (result != array) {
+                        result.close();
+                    }
+                    result = concat;
+                }
+            }
+        }
+        if (result != array) {
+            result.setName(array.getName());
+        }
+        return result;
+    }
+
+    /**
+     * Returns which outputs have the size of the inputs along each bucketed axis.
+     *
+     * <p>The shapes of the outputs are inferred for the padded inputs, and for inputs one larger
+     * along the axis. The outputs that change size carry the padded axis and are sliced back.
+     *
+     * @param shapes the shapes of the padded inputs
+     * @return for each bucketed axis, whether each output carries that axis
+     */
+    private boolean[][] getPaddedOutputs(List<Shape> shapes) {
+        List<Shape> outputs = inferOutputShapes(shapes, -1);
+        boolean[][] result = new boolean[bucketAxes.length][];
+        for (int i = 0; i < bucketAxes.length; ++i) {
+            int axis = bucketAxes[i];
+            List<Shape> grown = inferOutputShapes(shapes, axis);
+            result[i] = new boolean[outputs.size()];
+            for (int j = 0; j < outputs.size(); ++j) {
+                Shape before = outputs.get(j);
+                Shape after = grown.get(j);
+                result[i][j] =
+                        before.dimension() > axis
+                                && after.dimension() > axis
+                                && before.get(axis) != after.get(axis);
+            }
+        }
+        return result;
+    }
+
+    private List<Shape> inferOutputShapes(List<Shape> shapes, int grownAxis) {
+        PairList<String, Shape> pairs = new PairList<>();
+        for (int i = 0; i < shapes.size(); ++i) {
+            long[] shape = shapes.get(i).getShape();
+            if (grownAxis >= 0 && grownAxis < shape.length) {
+                shape = shape.clone();
+                ++shape[grownAxis];
+            }
+            pairs.add(inputNames.get(i), new Shape(shape));
+        }
+        List<List<Shape>> inferred = JnaUtils.inferShape(symbol, pairs);
+        if (inferred == null) {
+            throw new IllegalArgumentException("Cannot infer the output shapes of the buckets");
+        }
+        return inferred.get(1);
+    }
+
+    private static NDArray unpad(NDArray array, int axis, long bucket, long size) {
+        Shape shape = array.getShape();
+        if (axis >= shape.dimension() || shape.get(axis) != bucket) {
+            return array;
+        }
+        NDIndex index = new NDIndex();
+        for (int i = 0; i < axis; ++i) {
+            index.addSliceDim(0, shape.get(i));
+        }
+        index.addSliceDim(0, size);
+        NDArray sliced = array.get(index);
+        sliced.setName(array.getName());
+        array.close();
+        return sliced;
+    }
+
+    private long getBucket(long size) {
+        for (int bucket : buckets) {
+            if (bucket >= size) {
+                return bucket;
+            }
+        }
+        return size;
+    }
+
+    private synchronized void closeCachedOps() {
+        if (op != null) {
+            op.close();
+            op = null;
+        }
+        if (bucketOps != null) {
+            for (BucketOp bucketOp : bucketOps.values()) {
+                bucketOp.retire();
+            }
+            bucketOps.clear();
+        }
+    }
+
+    private synchronized void release(BucketOp bucketOp) {
+        if (--bucketOp.users == 0 && bucketOp.retired) {
+            bucketOp.op.close();
+        }
+    }
+
+    private static boolean isNormalization(ParameterType type) {
+        return type == ParameterType.GAMMA
+                || type == ParameterType.BETA
+                || type == ParameterType.RUNNING_MEAN
+                || type == ParameterType.RUNNING_VAR;
+    }
+
     private static ParameterType inferType(String name) {
         if (name.endsWith("bias")) {
             return ParameterType.BIAS;
@@ -255,4 +749,30 @@ public class MxSymbolBlock extends ParameterBlock implements SymbolBlock {
         }
         return ParameterType.OTHER;
     }
+
+    /**
+     * The {@link CachedOp} of a shape bucket.
+     *
+     * <p>The op is closed once it was evicted and no forward pass uses it anymore. The fields are
+     * guarded by the lock of the block.
+     */
+    private static final class BucketOp {
+
+        CachedOp op;
+        boolean[][] paddedOutputs;
+        int users;
+        boolean retired;
+
+        BucketOp(CachedOp op, boolean[][] paddedOutputs) {
+            this.op = op;
+            this.paddedOutputs = paddedOutputs;
+        }
+
+        void retire() {
+            retired = true;
+            if (users == 0) {
+                op.close();
+            }
+        }
+    }
 }
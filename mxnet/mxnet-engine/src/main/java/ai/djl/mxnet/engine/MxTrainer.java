@@ -20,6 +20,7 @@ import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDArrays;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.GradReq;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Parameter;
 import ai.djl.training.GradientCollector;
@@ -55,6 +56,8 @@ public class MxTrainer implements Trainer {
     long batchBeginTime;
 
     private boolean gradientsChecked;
+    private int gradientAccumulation;
+    private int accumulatedBatches;
 
     /**
      * Creates an instance of {@code MxTrainer} with the given {@link MxModel} and {@link
@@ -72,6 +75,7 @@ public class MxTrainer implements Trainer {
             throw new IllegalArgumentException("You must specify a loss for the trainer");
         }
         validationLoss = trainingLoss.duplicate();
+        gradientAccumulation = trainingConfig.getGradientAccumulation();
         trainingMetrics = new ArrayList<>(trainingConfig.getTrainingMetrics());
         validateMetrics = new ArrayList<>();
         trainingMetrics.forEach(i -> validateMetrics.add(i.duplicate()));
@@ -102,6 +106,9 @@ public class MxTrainer implements Trainer {
                                 parameterStore.getValue(pair.getValue(), device);
                             }
                         });
+        if (gradientAccumulation > 1) {
+            resetGradients();
+        }
     }
 
     /** {@inheritDoc} */
@@ -122,6 +129,10 @@ public class MxTrainer implements Trainer {
 
                 long time = System.nanoTime();
                 NDArray loss = trainingLoss.getLoss(labels, preds);
+                if (gradientAccumulation > 1) {
+                    // accumulates the mean of the gradients of all the batches
+                    loss = loss.div(gradientAccumulation);
+                }
 
                 collector.backward(loss);
                 addMetric("backward", time);
@@ -174,12 +185,20 @@ public class MxTrainer implements Trainer {
     /** {@inheritDoc} */
     @Override
     public void step() {
+        if (++accumulatedBatches < gradientAccumulation) {
+            return;
+        }
+        accumulatedBatches = 0;
+
         if (!gradientsChecked) {
             checkGradients();
         }
 
         long begin = System.nanoTime();
         parameterStore.updateAllParameters();
+        if (gradientAccumulation > 1) {
+            resetGradients();
+        }
         addMetric("step", begin);
     }
 
@@ -288,6 +307,22 @@ public class MxTrainer implements Trainer {
         return manager;
     }
 
+    /**
+     * Attaches new gradients to all the parameters, which are added to by every backward pass until
+     * the next update.
+     */
+    private void resetGradients() {
+        for (Parameter parameter : model.getBlock().getParameters().values()) {
+            if (parameter.requireGradient()) {
+                for (Device device : devices) {
+                    parameterStore
+                            .getValue(parameter, device)
+                            .attachGradient(GradReq.ADD, parameter.getGradientFormat());
+                }
+            }
+        }
+    }
+
     /**
      * Checks if all gradients are zeros. This prevent users from calling step() without running
      * {@code backward}.
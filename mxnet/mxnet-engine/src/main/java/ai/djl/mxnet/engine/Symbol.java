@@ -12,12 +12,16 @@
  */
 package ai.djl.mxnet.engine;
 
+import ai.djl.Device;
 import ai.djl.mxnet.jna.JnaUtils;
 import ai.djl.mxnet.jna.NativeResource;
 import ai.djl.ndarray.types.Shape;
+import ai.djl.util.Pair;
 import ai.djl.util.PairList;
 import ai.djl.util.Utils;
 import com.sun.jna.Pointer;
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -227,6 +231,71 @@ public class Symbol extends NativeResource {
         return shapesMap;
     }
 
+    /**
+     * Converts the symbol to an INT8 quantized symbol.
+     *
+     * <p>The operators that support it are replaced by their quantized version, and their weights
+     * are expected to be quantized offline, in the parameters named after the original weights
+     * followed by "_quantize", "_quantize_min" and "_quantize_max".
+     *
+     * @param device the device the quantized symbol runs on
+     * @param excludedSymbols the names of the layers that must not be quantized
+     * @param offlineParams the names of the parameters that are quantized offline
+     * @return the quantized symbol, and the names of the layer outputs that need calibration
+     */
+    public Pair<Symbol, String[]> quantize(
+            Device device, String[] excludedSymbols, String[] offlineParams) {
+        Pair<Pointer, String[]> pair =
+                JnaUtils.quantizeSymbol(
+                        getHandle(),
+                        device,
+                        excludedSymbols,
+                        JnaUtils.EMPTY_ARRAY,
+                        offlineParams,
+                        "int8",
+                        "smart");
+        return new Pair<>(new Symbol(manager, pair.getKey()), pair.getValue());
+    }
+
+    /**
+     * Returns a copy of a quantized symbol with the calibrated range of its layer outputs.
+     *
+     * @param layerNames the names of the calibrated layer outputs
+     * @param minValues the minimum values of the layer outputs
+     * @param maxValues the maximum values of the layer outputs
+     * @return the calibrated symbol
+     */
+    public Symbol setCalibrationTable(String[] layerNames, float[] minValues, float[] maxValues) {
+        Pointer pointer =
+                JnaUtils.setCalibTableToQuantizedSymbol(
+                        getHandle(),
+                        layerNames,
+                        FloatBuffer.wrap(minValues),
+                        FloatBuffer.wrap(maxValues));
+        return new Symbol(manager, pointer);
+    }
+
+    /**
+     * Returns the symbol optimized for a backend, for example "MKLDNN_QUANTIZE" to fuse the
+     * quantized operators on CPU.
+     *
+     * @param backend the name of the backend
+     * @return the optimized symbol
+     */
+    public Symbol getBackendSymbol(String backend) {
+        Pointer pointer = JnaUtils.genBackendSubgraph(getHandle(), backend);
+        return new Symbol(manager, pointer);
+    }
+
+    /**
+     * Saves the symbol to a JSON file.
+     *
+     * @param path the path of the file
+     */
+    public void save(Path path) {
+        JnaUtils.saveSymbol(getHandle(), path.toAbsolutePath().toString());
+    }
+
     /*
 
     public String debugStr() {
@@ -247,10 +316,6 @@ public class Symbol extends NativeResource {
         return JnaUtils.listSymbolAttr(getHandle());
     }
 
-    public void save(String path) {
-        JnaUtils.saveSymbol(getHandle(), path);
-    }
-
     public Symbol compose(String name, String[] keys) {
         return new Symbol(manager, JnaUtils.compose(getHandle(), name, keys));
     }
@@ -28,11 +28,13 @@ public class FunctionInfo {
     private Pointer handle;
     private String name;
     private PairList<String, String> arguments;
+    private int statsIndex;
 
     FunctionInfo(Pointer pointer, String functionName, PairList<String, String> arguments) {
         this.handle = pointer;
         this.name = functionName;
         this.arguments = arguments;
+        statsIndex = OperatorCounters.indexOf(functionName);
     }
 
     /**
@@ -47,9 +49,16 @@ public class FunctionInfo {
      */
     public int invoke(
             NDManager manager, NDArray[] src, NDArray[] dest, PairList<String, ?> params) {
+        boolean counted = OperatorCounters.isEnabled();
+        long begin = counted ? System.nanoTime() : 0;
         PointerArray srcHandles = JnaUtils.toPointerArray(src);
         PointerByReference destRef = new PointerByReference(JnaUtils.toPointerArray(dest));
-        return JnaUtils.imperativeInvoke(handle, srcHandles, destRef, params).size();
+        int size =
+                JnaUtils.imperativeInvoke(handle, srcHandles, destRef, params, statsIndex).size();
+        if (counted) {
+            OperatorCounters.record(statsIndex, System.nanoTime() - begin);
+        }
+        return size;
     }
 
     /**
@@ -62,8 +71,14 @@ public class FunctionInfo {
      * @return the error code or zero for no errors
      */
     public NDArray[] invoke(NDManager manager, NDArray[] src, PairList<String, ?> params) {
+        boolean counted = OperatorCounters.isEnabled();
+        long begin = counted ? System.nanoTime() : 0;
         PointerArray srcHandles = JnaUtils.toPointerArray(src);
-        return invoke((MxNDManager) manager, srcHandles, params);
+        NDArray[] result = invoke((MxNDManager) manager, srcHandles, params);
+        if (counted) {
+            OperatorCounters.record(statsIndex, System.nanoTime() - begin);
+        }
+        return result;
     }
 
     /**
@@ -79,7 +94,7 @@ public class FunctionInfo {
         PointerByReference destRef = new PointerByReference();
 
         PairList<Pointer, SparseFormat> pairList =
-                JnaUtils.imperativeInvoke(handle, src, destRef, params);
+                JnaUtils.imperativeInvoke(handle, src, destRef, params, statsIndex);
         return pairList.stream()
                 .map(
                         pair -> {
@@ -26,12 +26,15 @@ import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.ndarray.types.SparseFormat;
 import ai.djl.nn.Parameter;
+import ai.djl.util.Pair;
 import ai.djl.util.PairList;
+import com.sun.jna.Library;
 import com.sun.jna.Native;
 import com.sun.jna.Pointer;
 import com.sun.jna.ptr.PointerByReference;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.nio.LongBuffer;
 import java.nio.charset.StandardCharsets;
@@ -202,7 +205,6 @@ public final class JnaUtils {
         return ret;
     }
 
-    /* Need tests
     public static void setOmpThreads(int threads) {
         checkCall(LIB.MXSetNumOMPThreads(threads));
     }
@@ -213,7 +215,25 @@ public final class JnaUtils {
 
         return prevBulkSize.get();
     }
-    */
+
+    public static void setThreadAffinity(int[] cores) {
+        if (!System.getProperty("os.name").startsWith("Linux")) {
+            throw new UnsupportedOperationException("Thread affinity is only supported on Linux");
+        }
+        int max = 0;
+        for (int core : cores) {
+            max = Math.max(max, core);
+        }
+        long[] mask = new long[max / 64 + 1];
+        for (int core : cores) {
+            mask[core / 64] |= 1L << (core % 64);
+        }
+        // pid 0 is the calling thread
+        if (CLibrary.INSTANCE.sched_setaffinity(0, mask.length * 8L, mask) != 0) {
+            throw new EngineException(
+                    "Failed to set thread affinity, errno: " + Native.getLastError());
+        }
+    }
 
     /////////////////////////////////
     // Utilities
@@ -234,23 +254,59 @@ public final class JnaUtils {
     }
     */
 
+    /////////////////////////////////
+    // Operator statistics
+    /////////////////////////////////
+
+    public static void setOperatorStatsEnabled(boolean enabled) {
+        OperatorCounters.setEnabled(enabled);
+    }
+
+    public static boolean isOperatorStatsEnabled() {
+        return OperatorCounters.isEnabled();
+    }
+
+    public static Map<String, OperatorStats> getOperatorStats() {
+        return OperatorCounters.snapshot();
+    }
+
+    public static Map<String, OperatorStats> getThreadOperatorStats() {
+        return OperatorCounters.threadSnapshot();
+    }
+
+    public static void resetOperatorStats() {
+        OperatorCounters.reset();
+    }
+
     /////////////////////////////////
     // Profiler information
     /////////////////////////////////
 
-    /*
-    public static int setProcessProfilerConfig(int numParams, String keys[], String vals[],
-                                               Pointer kvstoreHandle) {
+    public static void setProcessProfilerConfig(Map<String, String> config) {
+        String[] keys = config.keySet().toArray(EMPTY_ARRAY);
+        String[] values = config.values().toArray(EMPTY_ARRAY);
+        checkCall(LIB.MXSetProcessProfilerConfig(keys.length, keys, values, null));
+    }
 
+    public static void setProcessProfilerState(boolean running) {
+        checkCall(LIB.MXSetProcessProfilerState(running ? 1 : 0, 0, null));
     }
 
-    int MXSetProfilerConfig(int num_params, String keys[], String vals[]);
+    public static void dumpProcessProfile(boolean finished) {
+        checkCall(LIB.MXDumpProcessProfile(finished ? 1 : 0, 0, null));
+    }
 
-    int MXSetProcessProfilerState(int state, int profile_process, Pointer kvStoreHandle);
+    public static String getAggregateProfileStats(boolean reset) {
+        String[] out = new String[1];
+        // table format, sorted by descending total time
+        checkCall(LIB.MXAggregateProfileStatsPrintEx(out, reset ? 1 : 0, 0, 0, 0));
+        return out[0];
+    }
 
-    int MXSetProfilerState(int state);
+    /*
+    int MXSetProfilerConfig(int num_params, String keys[], String vals[]);
 
-    int MXDumpProcessProfile(int finished, int profile_process, Pointer kvStoreHandle);
+    int MXSetProfilerState(int state);
 
     int MXDumpProfile(int finished);
 
@@ -448,6 +504,15 @@ public final class JnaUtils {
             PointerArray inputs,
             PointerByReference destRef,
             PairList<String, ?> params) {
+        return imperativeInvoke(function, inputs, destRef, params, -1);
+    }
+
+    static PairList<Pointer, SparseFormat> imperativeInvoke(
+            Pointer function,
+            PointerArray inputs,
+            PointerByReference destRef,
+            PairList<String, ?> params,
+            int statsIndex) {
         String[] keys;
         String[] values;
         if (params == null) {
@@ -461,6 +526,9 @@ public final class JnaUtils {
         IntBuffer numOutputs = IntBuffer.allocate(1);
         numOutputs.put(0, 1);
 
+        // the native time is credited to the operator invoked, not to the thread
+        boolean counted = statsIndex >= 0 && OperatorCounters.isEnabled();
+        long begin = counted ? System.nanoTime() : 0;
         checkCall(
                 LIB.MXImperativeInvokeEx(
                         function,
@@ -472,6 +540,9 @@ public final class JnaUtils {
                         keys,
                         values,
                         destSType));
+        if (counted) {
+            OperatorCounters.addNativeTime(statsIndex, System.nanoTime() - begin);
+        }
         int numOfOutputs = numOutputs.get(0);
         Pointer[] ptrArray = destRef.getValue().getPointerArray(0, numOfOutputs);
         int[] sTypes = destSType.getValue().getIntArray(0, numOfOutputs);
@@ -826,11 +897,11 @@ public final class JnaUtils {
         checkCall(LIB.MXSymbolFree(symbol));
     }
 
-    /* Need tests
     public static void saveSymbol(Pointer symbol, String path) {
         checkCall(LIB.MXSymbolSaveToFile(symbol, path));
     }
 
+    /* Need tests
     public static Pointer copySymbol(Pointer symbol) {
         PointerByReference ref = new PointerByReference();
         checkCall(LIB.MXSymbolCopy(symbol, ref));
@@ -1175,25 +1246,36 @@ public final class JnaUtils {
         }
         return null;
     }
+     */
 
-    public static Pointer quantizeSymbol(
+    public static Pair<Pointer, String[]> quantizeSymbol(
             Pointer symbol,
+            Device device,
             String[] excludedSymbols,
+            String[] excludedOperators,
             String[] offlineParams,
             String quantizedDType,
-            byte calibQuantize) {
+            String quantizeMode) {
         PointerByReference ref = new PointerByReference();
+        IntBuffer size = IntBuffer.allocate(1);
+        PointerByReference calibNames = new PointerByReference();
         checkCall(
                 LIB.MXQuantizeSymbol(
                         symbol,
                         ref,
+                        new int[] {DeviceType.toDeviceType(device)},
                         excludedSymbols.length,
                         excludedSymbols,
+                        excludedOperators.length,
+                        excludedOperators,
                         offlineParams.length,
                         offlineParams,
                         quantizedDType,
-                        calibQuantize));
-        return ref.getValue();
+                        (byte) 1,
+                        quantizeMode,
+                        size,
+                        calibNames));
+        return new Pair<>(ref.getValue(), toStringArray(calibNames, size.get()));
     }
 
     public static Pointer setCalibTableToQuantizedSymbol(
@@ -1213,7 +1295,6 @@ public final class JnaUtils {
         checkCall(LIB.MXGenBackendSubgraph(symbol, backend, ref));
         return ref.getValue();
     }
-     */
 
     /////////////////////////////////
     // MXNet Executors
@@ -1810,4 +1891,12 @@ public final class JnaUtils {
         }
         return name;
     }
+
+    /** The functions of the C library used to pin threads to cores. */
+    private interface CLibrary extends Library {
+
+        CLibrary INSTANCE = Native.load("c", CLibrary.class);
+
+        int sched_setaffinity(int pid, long cpusetsize, long[] mask);
+    }
 }
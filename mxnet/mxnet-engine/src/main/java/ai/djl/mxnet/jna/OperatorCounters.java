@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.mxnet.jna;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The invocation counters of the operators.
+ *
+ * <p>Each thread updates its own stripe of counters without synchronization, so counting does not
+ * add contention between the threads invoking operators. Snapshots sum the stripes of all the
+ * threads, or read the stripe of the current thread only.
+ *
+ * <p>For each operator, a stripe holds the number of invocations, their total time, the time spent
+ * in the native engine, and a histogram of the invocation latencies with {@link
+ * OperatorStats#BUCKETS} power-of-two buckets.
+ *
+ * <p>A stripe is only written by its thread. A reset starts a new generation of counters, and each
+ * thread clears its own stripe when it records its first invocation of the new generation. The
+ * counts of the threads that terminated are merged, and their stripes are dropped.
+ */
+final class OperatorCounters {
+
+    private static final int COUNT = 0;
+    private static final int TOTAL_TIME = 1;
+    private static final int NATIVE_TIME = 2;
+    private static final int HISTOGRAM = 3;
+    private static final int FIELDS = HISTOGRAM + OperatorStats.BUCKETS;
+
+    private static final AtomicBoolean ENABLED = new AtomicBoolean();
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private static final Map<String, Integer> INDICES = new ConcurrentHashMap<>();
+    private static final List<String> NAMES = new CopyOnWriteArrayList<>();
+    // guarded by the class lock
+    private static final List<Stripe> STRIPES = new ArrayList<>();
+    private static long[] terminated = new long[0];
+
+    private static final ThreadLocal<Stripe> STRIPE =
+            ThreadLocal.withInitial(OperatorCounters::newStripe);
+
+    private OperatorCounters() {}
+
+    static boolean isEnabled() {
+        return ENABLED.get();
+    }
+
+    static void setEnabled(boolean enabled) {
+        ENABLED.set(enabled);
+    }
+
+    static synchronized int indexOf(String name) {
+        return INDICES.computeIfAbsent(
+                name,
+                k -> {
+                    NAMES.add(k);
+                    return NAMES.size() - 1;
+                });
+    }
+
+    static void addNativeTime(int index, long nanos) {
+        STRIPE.get().addNativeTime(index, nanos);
+    }
+
+    static void record(int index, long totalTime) {
+        STRIPE.get().record(index, totalTime);
+    }
+
+    static synchronized Map<String, OperatorStats> snapshot() {
+        removeTerminated();
+        long[] sums = Arrays.copyOf(terminated, NAMES.size() * FIELDS);
+        for (Stripe stripe : STRIPES) {
+            stripe.addTo(sums);
+        }
+        return toMap(sums);
+    }
+
+    static Map<String, OperatorStats> threadSnapshot() {
+        long[] sums = new long[NAMES.size() * FIELDS];
+        STRIPE.get().addTo(sums);
+        return toMap(sums);
+    }
+
+    static synchronized void reset() {
+        GENERATION.incrementAndGet();
+        terminated = new long[0];
+    }
+
+    private static synchronized Stripe newStripe() {
+        removeTerminated();
+        Stripe stripe = new Stripe(Thread.currentThread());
+        STRIPES.add(stripe);
+        return stripe;
+    }
+
+    private static void removeTerminated() {
+        Iterator<Stripe> it = STRIPES.iterator();
+        while (it.hasNext()) {
+            Stripe stripe = it.next();
+            if (!stripe.owner.isAlive()) {
+                int size = NAMES.size() * FIELDS;
+                if (terminated.length < size) {
+                    terminated = Arrays.copyOf(terminated, size);
+                }
+                stripe.addTo(terminated);
+                it.remove();
+            }
+        }
+    }
+
+    @SuppressWarnings("PMD.UseConcurrentHashMap")
+    private static Map<String, OperatorStats> toMap(long[] sums) {
+        // sorted by operator name for the reports
+        Map<String, OperatorStats> map = new TreeMap<>();
+        for (int i = 0; i < sums.length / FIELDS; ++i) {
+            int offset = i * FIELDS;
+            if (sums[offset + COUNT] > 0) {
+                String name = NAMES.get(i);
+                long[] histogram =
+                        Arrays.copyOfRange(sums, offset + HISTOGRAM, offset + FIELDS);
+                map.put(
+                        name,
+                        new OperatorStats(
+                                name,
+                                sums[offset + COUNT],
+                                sums[offset + TOTAL_TIME],
+                                sums[offset + NATIVE_TIME],
+                                histogram));
+            }
+        }
+        return map;
+    }
+
+    /** The counters of a thread, only updated by that thread. */
+    private static final class Stripe {
+
+        Thread owner;
+        AtomicReference<AtomicLongArray> values;
+        AtomicLong generation;
+
+        Stripe(Thread owner) {
+            this.owner = owner;
+            values = new AtomicReference<>(new AtomicLongArray(NAMES.size() * FIELDS));
+            generation = new AtomicLong(GENERATION.get());
+        }
+
+        void record(int index, long totalTime) {
+            AtomicLongArray array = getValues(index);
+            int offset = index * FIELDS;
+            // single writer, lazySet is enough to publish the counts to the snapshots
+            array.lazySet(offset + COUNT, array.get(offset + COUNT) + 1);
+            array.lazySet(offset + TOTAL_TIME, array.get(offset + TOTAL_TIME) + totalTime);
+            int bucket = offset + HISTOGRAM + OperatorStats.bucketOf(totalTime);
+            array.lazySet(bucket, array.get(bucket) + 1);
+        }
+
+        void addNativeTime(int index, long nanos) {
+            AtomicLongArray array = getValues(index);
+            int offset = index * FIELDS + NATIVE_TIME;
+            array.lazySet(offset, array.get(offset) + nanos);
+        }
+
+        private AtomicLongArray getValues(int index) {
+            AtomicLongArray array = values.get();
+            long current = GENERATION.get();
+            if (generation.get() != current) {
+                // the counters were reset since the last invocation of this thread
+                for (int i = 0; i < array.length(); ++i) {
+                    array.lazySet(i, 0);
+                }
+                generation.set(current);
+            }
+            int offset = index * FIELDS;
+            if (offset + FIELDS > array.length()) {
+                AtomicLongArray grown = new AtomicLongArray(NAMES.size() * FIELDS);
+                for (int i = 0; i < array.length(); ++i) {
+                    grown.lazySet(i, array.get(i));
+                }
+                array = grown;
+                values.set(grown);
+            }
+            return array;
+        }
+
+        void addTo(long[] sums) {
+            if (generation.get() != GENERATION.get()) {
+                // not cleared yet since the last reset
+                return;
+            }
+            AtomicLongArray array = values.get();
+            int length = Math.min(sums.length, array.length());
+            for (int i = 0; i < length; ++i) {
+                sums[i] += array.get(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.mxnet.jna;
+
+/**
+ * An {@code OperatorStats} is a snapshot of the invocations of an operator through {@link
+ * FunctionInfo}.
+ *
+ * <p>The total time covers the whole invocation, including the conversion of the arguments and
+ * the creation of the output arrays. The native time only covers the call to the engine, so the
+ * difference is the overhead of the Java layer.
+ *
+ * <p>The latencies of the invocations are counted in a histogram of power-of-two buckets: the
+ * first bucket holds the invocations shorter than 1024 nanoseconds, each next bucket doubles the
+ * upper bound, and the last bucket holds all the longer invocations. Percentiles are estimated with
+ * the upper bound of their bucket.
+ *
+ * @see JnaUtils#getOperatorStats()
+ */
+public final class OperatorStats {
+
+    /** The number of buckets of the latency histogram. */
+    public static final int BUCKETS = 24;
+
+    private static final int FIRST_BUCKET_SHIFT = 10;
+
+    private String name;
+    private long count;
+    private long totalTime;
+    private long nativeTime;
+    private long[] histogram;
+
+    OperatorStats(String name, long count, long totalTime, long nativeTime, long[] histogram) {
+        this.name = name;
+        this.count = count;
+        this.totalTime = totalTime;
+        this.nativeTime = nativeTime;
+        this.histogram = histogram;
+    }
+
+    static int bucketOf(long nanos) {
+        int bucket = 64 - Long.numberOfLeadingZeros(nanos >> FIRST_BUCKET_SHIFT);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /**
+     * Returns the exclusive upper bound of the latencies counted in a bucket of the histogram.
+     *
+     * @param bucket the index of the bucket
+     * @return the upper bound of the latencies in nanoseconds, or {@link Long#MAX_VALUE} for the
+     *     last bucket
+     */
+    public static long getBucketUpperBound(int bucket) {
+        if (bucket >= BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return 1L << (FIRST_BUCKET_SHIFT + bucket);
+    }
+
+    /**
+     * Returns the name of the operator.
+     *
+     * @return the name of the operator
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of invocations of the operator.
+     *
+     * @return the number of invocations of the operator
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the total wall time of the invocations in nanoseconds.
+     *
+     * @return the total wall time of the invocations in nanoseconds
+     */
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    /**
+     * Returns the wall time spent in the native engine in nanoseconds.
+     *
+     * @return the wall time spent in the native engine in nanoseconds
+     */
+    public long getNativeTime() {
+        return nativeTime;
+    }
+
+    /**
+     * Returns the histogram of the invocation latencies.
+     *
+     * @return the number of invocations in each bucket, see {@link #getBucketUpperBound(int)}
+     */
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * Returns an estimate of a percentile of the invocation latencies.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the histogram bucket of the percentile in nanoseconds
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100");
+        }
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < histogram.length; ++i) {
+            seen += histogram[i];
+            if (seen >= rank && seen > 0) {
+                return getBucketUpperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the statistics of the invocations since an earlier snapshot of the same operator.
+     *
+     * @param before the earlier snapshot, or {@code null}
+     * @return the statistics of the invocations since the earlier snapshot
+     */
+    public OperatorStats since(OperatorStats before) {
+        if (before == null) {
+            return this;
+        }
+        long[] diff = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            diff[i] = histogram[i] - before.histogram[i];
+        }
+        return new OperatorStats(
+                name,
+                count - before.count,
+                totalTime - before.totalTime,
+                nativeTime - before.nativeTime,
+                diff);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return name
+                + ": count="
+                + count
+                + ", total="
+                + totalTime
+                + "ns, native="
+                + nativeTime
+                + "ns, p50<"
+                + getPercentile(50)
+                + "ns, p99<"
+                + getPercentile(99)
+                + "ns";
+    }
+}
@@ -16,9 +16,10 @@ package ai.djl.mxnet.engine;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 
 import ai.djl.Device;
+import ai.djl.engine.CpuExecutionPolicy;
 import ai.djl.engine.Engine;
+import ai.djl.metric.Metrics;
 import ai.djl.mxnet.jna.LibUtils;
-import ai.djl.mxnet.jna.MxnetLibrary;
 import ai.djl.mxnet.test.MockMxnetLibrary;
 import java.io.IOException;
 import java.lang.management.MemoryUsage;
@@ -39,10 +40,12 @@ import org.testng.annotations.Test;
 @PrepareForTest(LibUtils.class)
 public class MxEngineTest extends PowerMockTestCase {
 
+    private MockMxnetLibrary library;
+
     @BeforeClass
     public void prepare() throws IOException {
         mockStatic(LibUtils.class);
-        MxnetLibrary library = new MockMxnetLibrary();
+        library = new MockMxnetLibrary();
         PowerMockito.when(LibUtils.loadLibrary()).thenReturn(library);
         Files.deleteIfExists(Paths.get("build/tmp/A-symbol.json"));
         Files.deleteIfExists(Paths.get("build/tmp/A-0122.params"));
@@ -76,6 +79,96 @@ public class MxEngineTest extends PowerMockTestCase {
         Assert.assertEquals(engine.getVersion(), "1.5.0");
     }
 
+    @Test
+    public void testProfiling() {
+        String stats =
+                "Profile Statistics:\n"
+                        + "\tNote the difference in units for different entries.\n"
+                        + "Device Storage\n"
+                        + "=================\n"
+                        + "Name                          Total Count    Min Use  (kB)"
+                        + "    Max Use  (kB)    Avg Use  (kB)\n"
+                        + "----                          -----------    -------------"
+                        + "    -------------    -------------\n"
+                        + "Memory: cpu/0                           4          16.0000"
+                        + "         256.0000         128.0000\n"
+                        + "\n"
+                        + "operator\n"
+                        + "=================\n"
+                        + "Name                          Total Count        Time (ms)"
+                        + "    Min Time (ms)    Max Time (ms)    Avg Time (ms)\n"
+                        + "----                          -----------        ---------"
+                        + "    -------------    -------------    -------------\n"
+                        + "Convolution                            10          20.0000"
+                        + "           1.0000           3.0000           2.0000\n";
+        library.setFunction(
+                "MXAggregateProfileStatsPrintEx",
+                args -> {
+                    ((String[]) args[0])[0] = stats;
+                    return 0;
+                });
+
+        Engine engine = Engine.getEngine(MxEngine.ENGINE_NAME);
+        Metrics metrics = new Metrics();
+        engine.startProfiling(null);
+        engine.stopProfiling(metrics);
+        library.resetFunctions();
+
+        Assert.assertEquals(metrics.getMetric("Convolution.Count").get(0).getValue(), 10L);
+        Assert.assertEquals(metrics.getMetric("Convolution.Total").get(0).getValue(), 20d);
+        Assert.assertEquals(metrics.getMetric("Convolution.Avg").get(0).getUnit(), "ms");
+        Assert.assertEquals(metrics.getMetric("Memory: cpu/0.Max").get(0).getValue(), 256d);
+        Assert.assertEquals(metrics.getMetric("Memory: cpu/0.Max").get(0).getUnit(), "kB");
+        Assert.assertFalse(metrics.hasMetric("Name.Count"));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testStopProfilingNotStarted() {
+        Engine.getEngine(MxEngine.ENGINE_NAME).stopProfiling(new Metrics());
+    }
+
+    @Test
+    public void testBindWorkerThread() {
+        int[] threads = new int[1];
+        int[] bulkSize = new int[1];
+        library.setFunction(
+                "MXSetNumOMPThreads",
+                args -> {
+                    threads[0] = (Integer) args[0];
+                    return 0;
+                });
+        library.setFunction(
+                "MXEngineSetBulkSize",
+                args -> {
+                    bulkSize[0] = (Integer) args[0];
+                    return 0;
+                });
+
+        Engine engine = Engine.getEngine(MxEngine.ENGINE_NAME);
+        CpuExecutionPolicy policy =
+                new CpuExecutionPolicy.Builder()
+                        .setWorkers(2)
+                        .optCores(0, 8)
+                        .optBulkSize(15)
+                        .build();
+        try {
+            engine.setCpuExecutionPolicy(policy);
+            engine.bindWorkerThread(1);
+        } finally {
+            engine.setCpuExecutionPolicy(null);
+            library.resetFunctions();
+        }
+
+        Assert.assertEquals(threads[0], 4);
+        Assert.assertEquals(bulkSize[0], 15);
+        Assert.assertEquals(policy.getCores(1), new int[] {4, 5, 6, 7});
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testBindWorkerThreadWithoutPolicy() {
+        Engine.getEngine(MxEngine.ENGINE_NAME).bindWorkerThread(0);
+    }
+
     @ObjectFactory
     public IObjectFactory getObjectFactory() {
         return new org.powermock.modules.testng.PowerMockObjectFactory();
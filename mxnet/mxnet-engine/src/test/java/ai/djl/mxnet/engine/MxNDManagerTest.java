@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package ai.djl.mxnet.engine;
+
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+import ai.djl.mxnet.jna.LibUtils;
+import ai.djl.mxnet.test.MockMxnetLibrary;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.types.Shape;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.IObjectFactory;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.ObjectFactory;
+import org.testng.annotations.Test;
+
+@PrepareForTest(LibUtils.class)
+public class MxNDManagerTest extends PowerMockTestCase {
+
+    @BeforeClass
+    public void prepare() {
+        mockStatic(LibUtils.class);
+        PowerMockito.when(LibUtils.loadLibrary()).thenReturn(new MockMxnetLibrary());
+    }
+
+    @Test
+    public void testMemoryTracking() {
+        MxNDManager.setMemoryTracking(MxNDManager.MemoryTracking.ALLOCATION_SITES);
+        try (MxNDManager manager = MxNDManager.getSystemManager().newSubManager()) {
+            MxNDManager sub = manager.newSubManager();
+            NDArray array = manager.create(new Shape(3));
+            NDArray subArray = sub.create(new Shape(2, 2));
+            Assert.assertEquals(manager.getLiveBytes(), 12);
+            Assert.assertEquals(manager.getLiveCount(), 1);
+            Assert.assertEquals(manager.getTotalBytes(), 28);
+            Assert.assertEquals(manager.getTotalCount(), 2);
+            Assert.assertEquals(sub.getLiveBytes(), 16);
+
+            subArray.attach(manager);
+            Assert.assertEquals(sub.getLiveCount(), 0);
+            Assert.assertEquals(manager.getLiveBytes(), 28);
+
+            array.close();
+            sub.create(new Shape(1));
+            sub.close();
+            Assert.assertEquals(sub.getTotalBytes(), 0);
+            Assert.assertEquals(manager.getTotalBytes(), 16);
+            Assert.assertEquals(manager.getPeakBytes(), 28);
+        } finally {
+            MxNDManager.setMemoryTracking(MxNDManager.MemoryTracking.OFF);
+        }
+    }
+
+    @ObjectFactory
+    public IObjectFactory getObjectFactory() {
+        return new org.powermock.modules.testng.PowerMockObjectFactory();
+    }
+}
@@ -16,7 +16,13 @@ package ai.djl.mxnet.jna;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 
 import ai.djl.Device;
+import ai.djl.mxnet.engine.MxNDManager;
 import ai.djl.mxnet.test.MockMxnetLibrary;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import java.util.Arrays;
+import java.util.Map;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.testng.PowerMockTestCase;
@@ -75,6 +81,55 @@ public class JnaUtilsTest extends PowerMockTestCase {
         }
     }
 
+    @Test
+    public void testOperatorStats() {
+        FunctionInfo softmax = JnaUtils.op("softmax");
+        JnaUtils.setOperatorStatsEnabled(true);
+        try (NDManager manager = MxNDManager.getSystemManager().newSubManager()) {
+            NDArray[] src = {manager.create(new Shape(3))};
+            softmax.invoke(manager, src, null);
+            Map<String, OperatorStats> before = JnaUtils.getThreadOperatorStats();
+            softmax.invoke(manager, src, null);
+            softmax.invoke(manager, src, src, null);
+
+            OperatorStats stats = JnaUtils.getThreadOperatorStats().get("softmax");
+            Assert.assertEquals(stats.getCount(), 3);
+            Assert.assertTrue(stats.getTotalTime() >= stats.getNativeTime());
+            Assert.assertEquals(stats.since(before.get("softmax")).getCount(), 2);
+            Assert.assertEquals(JnaUtils.getOperatorStats().get("softmax").getCount(), 3);
+            Assert.assertEquals(Arrays.stream(stats.getHistogram()).sum(), 3);
+            Assert.assertTrue(stats.getPercentile(100) > 0);
+        } finally {
+            JnaUtils.setOperatorStatsEnabled(false);
+        }
+        JnaUtils.resetOperatorStats();
+        Assert.assertTrue(JnaUtils.getOperatorStats().isEmpty());
+    }
+
+    @Test
+    public void testOperatorStatsHistogram() {
+        Assert.assertEquals(OperatorStats.bucketOf(0), 0);
+        Assert.assertEquals(OperatorStats.bucketOf(1023), 0);
+        Assert.assertEquals(OperatorStats.bucketOf(1024), 1);
+        Assert.assertEquals(OperatorStats.bucketOf(Long.MAX_VALUE), OperatorStats.BUCKETS - 1);
+        Assert.assertEquals(OperatorStats.getBucketUpperBound(1), 2048);
+
+        long[] histogram = new long[OperatorStats.BUCKETS];
+        histogram[0] = 90;
+        histogram[3] = 9;
+        histogram[OperatorStats.BUCKETS - 1] = 1;
+        OperatorStats stats = new OperatorStats("op", 100, 0, 0, histogram);
+        Assert.assertEquals(stats.getPercentile(50), 1024);
+        Assert.assertEquals(stats.getPercentile(99), 8192);
+        Assert.assertEquals(stats.getPercentile(100), Long.MAX_VALUE);
+
+        long[] earlier = new long[OperatorStats.BUCKETS];
+        earlier[0] = 90;
+        OperatorStats since = stats.since(new OperatorStats("op", 90, 0, 0, earlier));
+        Assert.assertEquals(since.getCount(), 10);
+        Assert.assertEquals(since.getPercentile(50), 8192);
+    }
+
     @ObjectFactory
     public IObjectFactory getObjectFactory() {
         return new org.powermock.modules.testng.PowerMockObjectFactory();
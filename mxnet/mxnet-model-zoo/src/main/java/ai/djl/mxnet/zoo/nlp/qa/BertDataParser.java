@@ -12,6 +12,7 @@
  */
 package ai.djl.mxnet.zoo.nlp.qa;
 
+import ai.djl.util.Vocabulary;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.SerializedName;
@@ -21,11 +22,7 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * This is the Utility for pre-processing data for the Bert Model.
@@ -37,14 +34,13 @@ import java.util.regex.Pattern;
 public class BertDataParser {
 
     private static final Gson GSON = new GsonBuilder().create();
-    private static final Pattern PATTERN = Pattern.compile("(\\S+?)([.,?!])?(\\s+|$)");
-
-    @SerializedName("token_to_idx")
-    private Map<String, Integer> token2idx;
 
     @SerializedName("idx_to_token")
     private List<String> idx2token;
 
+    private transient Vocabulary<String> vocabulary;
+    private transient int unknownIndex;
+
     /**
      * Parses the Vocabulary to JSON files. [PAD], [CLS], [SEP], [MASK], [UNK] are reserved tokens.
      *
@@ -54,7 +50,11 @@ public class BertDataParser {
      */
     public static BertDataParser parse(InputStream is) {
         try (Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
-            return GSON.fromJson(reader, BertDataParser.class);
+            BertDataParser parser = GSON.fromJson(reader, BertDataParser.class);
+            // token_to_idx is the inverse of idx_to_token, only the latter is parsed
+            parser.vocabulary = new Vocabulary<>(parser.idx2token);
+            parser.unknownIndex = parser.vocabulary.indexOf("[UNK]");
+            return parser;
         } catch (IOException e) {
             throw new IllegalStateException(e);
         }
@@ -64,21 +64,33 @@ public class BertDataParser {
      * Tokenizes the input, splits all kinds of whitespace, and separates the end of sentence
      * symbol.
      *
+     * <p>The input is scanned once, without regular expressions.
+     *
      * @param input the input string
      * @return a list of tokens
      */
     public static List<String> tokenizer(String input) {
-        List<String> ret = new LinkedList<>();
-
-        Matcher m = PATTERN.matcher(input);
-        while (m.find()) {
-            ret.add(m.group(1));
-            String token = m.group(2);
-            if (token != null) {
-                ret.add(token);
+        List<String> ret = new ArrayList<>();
+        int length = input.length();
+        int start = 0;
+        while (start < length) {
+            if (isWhitespace(input.charAt(start))) {
+                ++start;
+                continue;
+            }
+            int end = start + 1;
+            while (end < length && !isWhitespace(input.charAt(end))) {
+                ++end;
             }
+            // separates the trailing end of sentence symbol of the word
+            if (end - start > 1 && isEndOfSentence(input.charAt(end - 1))) {
+                ret.add(input.substring(start, end - 1));
+                ret.add(input.substring(end - 1, end));
+            } else {
+                ret.add(input.substring(start, end));
+            }
+            start = end;
         }
-
         return ret;
     }
 
@@ -146,17 +158,43 @@ public class BertDataParser {
      * @return a list of indexes
      */
     public List<Integer> token2idx(List<String> tokens) {
-        List<Integer> indexes = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>(tokens.size());
         for (String token : tokens) {
-            if (token2idx.containsKey(token)) {
-                indexes.add(token2idx.get(token));
-            } else {
-                indexes.add(token2idx.get("[UNK]"));
-            }
+            indexes.add(vocabulary.indexOf(token, unknownIndex));
         }
         return indexes;
     }
 
+    /**
+     * Converts a token to its index.
+     *
+     * @param token the input token
+     * @return the index of the token, or the index of [UNK] if it is not in the vocabulary
+     */
+    public int indexOf(String token) {
+        return vocabulary.indexOf(token, unknownIndex);
+    }
+
+    /**
+     * Converts tokens to indexes, without boxing them.
+     *
+     * @param tokens the input tokens
+     * @return the indexes of the tokens
+     */
+    public int[] lookup(List<String> tokens) {
+        return vocabulary.lookup(tokens, unknownIndex);
+    }
+
+    /**
+     * Converts tokens to indexes, without boxing them.
+     *
+     * @param tokens the input tokens
+     * @return the indexes of the tokens
+     */
+    public int[] lookup(String[] tokens) {
+        return vocabulary.lookup(tokens, unknownIndex);
+    }
+
     /**
      * Converts indexes to tokens.
      *
@@ -164,10 +202,19 @@ public class BertDataParser {
      * @return a list of tokens
      */
     public List<String> idx2token(List<Integer> indexes) {
-        List<String> tokens = new ArrayList<>();
+        List<String> tokens = new ArrayList<>(indexes.size());
         for (int index : indexes) {
-            tokens.add(idx2token.get(index));
+            tokens.add(vocabulary.get(index));
         }
         return tokens;
     }
+
+    private static boolean isWhitespace(char c) {
+        // the same characters as \s in regular expressions
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isEndOfSentence(char c) {
+        return c == '.' || c == ',' || c == '?' || c == '!';
+    }
 }
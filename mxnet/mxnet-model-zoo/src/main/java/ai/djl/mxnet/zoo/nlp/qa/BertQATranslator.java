@@ -13,27 +13,38 @@
 package ai.djl.mxnet.zoo.nlp.qa;
 
 import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrays;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.translate.Batchifier;
 import ai.djl.translate.Translator;
 import ai.djl.translate.TranslatorContext;
-import ai.djl.util.Utils;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 
-/** The translator for {@link BertQAModelLoader}. */
+/**
+ * The translator for {@link BertQAModelLoader}.
+ *
+ * <p>The translator supports batches, so the questions of {@link
+ * ai.djl.inference.Predictor#batchPredict(List)} run in one forward pass. The tokens of the
+ * questions are kept in the {@link TranslatorContext}, which makes the translator safe to share
+ * between predictors.
+ */
 public class BertQATranslator implements Translator<QAInput, String> {
 
-    private List<String> tokens;
+    private static final String TOKENS = "tokens";
+    private PaddingBatchifier batchifier = new PaddingBatchifier();
 
     BertQATranslator() {}
 
     /** {@inheritDoc} */
     @Override
     public Batchifier getBatchifier() {
-        return null;
+        return batchifier;
     }
 
     /** {@inheritDoc} */
@@ -43,20 +54,39 @@ public class BertQATranslator implements Translator<QAInput, String> {
         // pre-processing - tokenize sentence
         List<String> tokenQ = BertDataParser.tokenizer(input.getQuestion().toLowerCase());
         List<String> tokenA = BertDataParser.tokenizer(input.getParagraph().toLowerCase());
+        int seqLength = input.getSeqLength();
         int validLength = tokenQ.size() + tokenA.size();
-        List<Float> tokenTypes = BertDataParser.getTokenTypes(tokenQ, tokenA, input.getSeqLength());
-        tokens = BertDataParser.formTokens(tokenQ, tokenA, input.getSeqLength());
-        List<Integer> indexes = parser.token2idx(tokens);
-        float[] types = Utils.toFloatArray(tokenTypes);
-        float[] indexesFloat = Utils.toFloatArray(indexes);
+        // the question with [CLS] and [SEP] has type 0, the paragraph has type 1
+        float[] types = new float[seqLength];
+        int paragraphStart = Math.min(tokenQ.size() + 2, seqLength);
+        Arrays.fill(types, paragraphStart, Math.min(paragraphStart + tokenA.size(), seqLength), 1);
+
+        // the tokens are not padded, their indexes are written straight into the input
+        List<String> tokens = BertDataParser.formTokens(tokenQ, tokenA, 0);
+        if (tokens.size() > seqLength) {
+            throw new IllegalArgumentException(
+                    "The question and paragraph have "
+                            + tokens.size()
+                            + " tokens, more than the sequence length "
+                            + seqLength);
+        }
+        float[] indexes = new float[seqLength];
+        int size = tokens.size();
+        for (int i = 0; i < size; ++i) {
+            indexes[i] = parser.indexOf(tokens.get(i));
+        }
+        float padIndex = parser.indexOf("[PAD]");
+        Arrays.fill(indexes, size, seqLength, padIndex);
+        getTokens(ctx).add(tokens);
+        // the batch pads the indexes and the types the same way as a single input
+        batchifier.setPadValues(padIndex, 0);
 
-        int seqLength = input.getSeqLength();
         NDManager manager = ctx.getNDManager();
-        NDArray data0 = manager.create(indexesFloat, new Shape(1, seqLength));
+        NDArray data0 = manager.create(indexes, new Shape(seqLength));
         data0.setName("data0");
-        NDArray data1 = manager.create(types, new Shape(1, seqLength));
+        NDArray data1 = manager.create(types, new Shape(seqLength));
         data1.setName("data1");
-        NDArray data2 = manager.create(new float[] {validLength});
+        NDArray data2 = manager.create((float) validLength);
         data2.setName("data2");
 
         return new NDList(data0, data1, data2);
@@ -65,16 +95,98 @@ public class BertQATranslator implements Translator<QAInput, String> {
     /** {@inheritDoc} */
     @Override
     public String processOutput(TranslatorContext ctx, NDList list) {
-        NDArray array = list.singletonOrThrow();
-        NDList output = array.split(2, 2);
-        // Get the formatted logits result
-        NDArray startLogits = output.get(0).reshape(new Shape(1, -1));
-        NDArray endLogits = output.get(1).reshape(new Shape(1, -1));
-        // Get Probability distribution
-        NDArray startProb = startLogits.softmax(-1);
-        NDArray endProb = endLogits.softmax(-1);
-        int startIdx = (int) startProb.argMax(1).getFloat();
-        int endIdx = (int) endProb.argMax(1).getFloat();
+        // the outputs come in the same order as the inputs
+        List<String> tokens = getTokens(ctx).poll();
+        // the start and end logits of each token, the answer does not change with softmax
+        float[] logits = list.singletonOrThrow().toFloatArray();
+        int size = Math.min(tokens.size(), logits.length / 2);
+        int startIdx = argMax(logits, 0, size);
+        int endIdx = argMax(logits, 1, size);
         return tokens.subList(startIdx, endIdx + 1).toString();
     }
+
+    @SuppressWarnings("unchecked")
+    private static Deque<List<String>> getTokens(TranslatorContext ctx) {
+        Deque<List<String>> tokens = (Deque<List<String>>) ctx.getAttachment(TOKENS);
+        if (tokens == null) {
+            tokens = new ArrayDeque<>();
+            ctx.setAttachment(TOKENS, tokens);
+        }
+        return tokens;
+    }
+
+    private static int argMax(float[] logits, int offset, int size) {
+        int index = 0;
+        for (int i = 1; i < size; ++i) {
+            if (logits[i * 2 + offset] > logits[index * 2 + offset]) {
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * A {@link Batchifier} that pads the sequences of the batch to the longest one before stacking
+     * them.
+     *
+     * <p>The padded positions are beyond the valid length of the sequences, and masked by the
+     * model. Each kind of input is padded with its own value, the index of {@code [PAD]} for the
+     * tokens.
+     */
+    private static final class PaddingBatchifier implements Batchifier {
+
+        private volatile float[] padValues = new float[0];
+
+        /**
+         * Sets the values to pad each kind of input with, the other inputs are padded with 0.
+         *
+         * @param padValues the pad values, in the order of the inputs
+         */
+        void setPadValues(float... padValues) {
+            this.padValues = padValues;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList batchify(NDList[] inputs) {
+            int numInputKinds = inputs[0].size();
+            float[] values = padValues;
+            NDList result = new NDList(numInputKinds);
+            for (int i = 0; i < numInputKinds; ++i) {
+                long maxLength = 0;
+                for (NDList input : inputs) {
+                    NDArray array = input.get(i);
+                    if (!array.getShape().isScalar()) {
+                        maxLength = Math.max(maxLength, array.size(0));
+                    }
+                }
+                float padValue = i < values.length ? values[i] : 0;
+                NDList inputsOfKind = new NDList(inputs.length);
+                NDList padded = new NDList();
+                for (NDList input : inputs) {
+                    NDArray array = input.get(i);
+                    if (!array.getShape().isScalar() && array.size(0) < maxLength) {
+                        Shape shape = new Shape(maxLength - array.size(0));
+                        try (NDArray padding =
+                                array.getManager().ones(shape, array.getDataType())) {
+                            array = array.concat(padding.muli(padValue));
+                        }
+                        padded.add(array);
+                    }
+                    inputsOfKind.add(array);
+                }
+                NDArray stacked = NDArrays.stack(inputsOfKind);
+                stacked.setName(inputs[0].get(i).getName());
+                padded.close();
+                result.add(stacked);
+            }
+            return result;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList[] unbatchify(NDList inputs) {
+            return Batchifier.STACK.unbatchify(inputs);
+        }
+    }
 }
@@ -329,7 +329,7 @@ public class Artifact {
         private String type;
         private long size;
         private String extension;
-        private Artifact artifact;
+        private transient Artifact artifact;
 
         /**
          * Returns the URI of the item.
@@ -19,16 +19,26 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * A {@code LocalRepository} is a {@link Repository} located in a filesystem directory.
  *
+ * <p>If the directory contains a {@link RepositoryIndex}, the metadata are read from the index as
+ * long as the corresponding "metadata.json" files are not modified.
+ *
  * @see Repository
  */
 public class LocalRepository extends AbstractRepository {
 
+    private static final Logger logger = LoggerFactory.getLogger(LocalRepository.class);
+
     private String name;
     private Path path;
+    private MetadataCache cache = new MetadataCache();
+    private RepositoryIndex index;
+    private boolean indexLoaded;
 
     /**
      * (Internal) Constructs a {@code LocalRepository} from the path with inferred name.
@@ -75,20 +85,52 @@ public class LocalRepository extends AbstractRepository {
         if (!Files.isRegularFile(file)) {
             return null;
         }
-        try (Reader reader = Files.newBufferedReader(file)) {
-            Metadata metadata = GSON.fromJson(reader, Metadata.class);
+        MetadataCache.Entry entry = cache.get(mrl);
+        synchronized (entry) {
+            // the parsed metadata is reused as long as the file is not modified
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+            Metadata metadata = entry.getMetadata();
+            if (metadata != null && entry.getTimestamp() == lastModified) {
+                return metadata;
+            }
+            RepositoryIndex repositoryIndex = getIndex();
+            metadata = repositoryIndex == null ? null : repositoryIndex.get(path, mrl);
+            if (metadata == null) {
+                try (Reader reader = Files.newBufferedReader(file)) {
+                    metadata = GSON.fromJson(reader, Metadata.class);
+                }
+            }
             metadata.setRepositoryUri(uri);
+            entry.update(metadata, lastModified);
             return metadata;
         }
     }
 
+    /**
+     * Returns the {@link RepositoryIndex} of this repository, loading it on first use.
+     *
+     * @return the {@link RepositoryIndex} of this repository, or {@code null} if there is none
+     */
+    public synchronized RepositoryIndex getIndex() {
+        if (!indexLoaded) {
+            indexLoaded = true;
+            try {
+                index = RepositoryIndex.load(path);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to load repository index, ignoring it: " + path, e);
+            }
+        }
+        return index;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Artifact resolve(MRL mrl, String version, Map<String, String> filter)
             throws IOException {
-        Metadata metadata = locate(mrl);
-        VersionRange range = VersionRange.parse(version);
-        List<Artifact> artifacts = metadata.search(range, filter);
+        if (locate(mrl) == null) {
+            return null;
+        }
+        List<Artifact> artifacts = cache.get(mrl).search(version, filter);
         if (artifacts.isEmpty()) {
             return null;
         }
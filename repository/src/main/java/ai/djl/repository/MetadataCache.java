@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@code MetadataCache} memoizes the parsed {@link Metadata} of a {@link Repository} and the
+ * results of searching its artifacts.
+ *
+ * <p>Each {@link MRL} has its own {@link Entry}, which is also used as the lock while the metadata
+ * of that {@link MRL} is loaded, so concurrent lookups of the same model only load it once.
+ */
+final class MetadataCache {
+
+    private Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cache entry of a {@link MRL}.
+     *
+     * @param mrl the {@link MRL} of the metadata
+     * @return the cache entry of the {@link MRL}
+     */
+    Entry get(MRL mrl) {
+        return entries.computeIfAbsent(mrl.toURI().getPath(), k -> new Entry());
+    }
+
+    /** The cached state of one metadata. */
+    static final class Entry {
+
+        private Metadata metadata;
+        private long timestamp;
+        private Map<String, List<Artifact>> searches = new ConcurrentHashMap<>();
+
+        /**
+         * Returns the cached metadata, or {@code null} if it was never loaded.
+         *
+         * @return the cached metadata
+         */
+        synchronized Metadata getMetadata() {
+            return metadata;
+        }
+
+        /**
+         * Returns the timestamp the cached metadata was validated against.
+         *
+         * @return the timestamp the cached metadata was validated against
+         */
+        synchronized long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Updates the cached metadata.
+         *
+         * @param metadata the metadata
+         * @param timestamp the timestamp the metadata was validated against
+         */
+        synchronized void update(Metadata metadata, long timestamp) {
+            if (this.metadata != metadata) {
+                this.metadata = metadata;
+                searches = new ConcurrentHashMap<>();
+            }
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * Returns the artifacts of the cached metadata matching the version and property filter.
+         *
+         * @param version the version range of the artifacts
+         * @param filter the property filter
+         * @return the matching artifacts
+         */
+        List<Artifact> search(String version, Map<String, String> filter) {
+            Metadata current;
+            Map<String, List<Artifact>> results;
+            synchronized (this) {
+                current = metadata;
+                results = searches;
+            }
+            String key = version + "|" + (filter == null ? "" : new TreeMap<>(filter));
+            return results.computeIfAbsent(
+                    key,
+                    k ->
+                            Collections.unmodifiableList(
+                                    current.search(VersionRange.parse(version), filter)));
+        }
+    }
+}
@@ -15,15 +15,21 @@ package ai.djl.repository;
 import ai.djl.util.Utils;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
+import java.net.HttpURLConnection;
 import java.net.URI;
+import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * A {@code RemoteRepository} is a {@link Repository} located on a remote web server.
@@ -32,10 +38,15 @@ import java.util.Map;
  */
 public class RemoteRepository extends AbstractRepository {
 
-    private static final long ONE_DAY = Duration.ofDays(1).toMillis();
+    private static final Logger logger = LoggerFactory.getLogger(RemoteRepository.class);
+
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
 
     private String name;
     private URI uri;
+    private long revalidateInterval = Duration.ofMinutes(10).toMillis();
+    private MetadataCache cache = new MetadataCache();
 
     /**
      * (Internal) Constructs a remote repository.
@@ -62,36 +73,106 @@ public class RemoteRepository extends AbstractRepository {
         return uri;
     }
 
+    /**
+     * Sets how long the metadata is used before being revalidated with the remote server.
+     *
+     * <p>Once this interval has passed, the metadata is revalidated with a conditional request,
+     * which only downloads it again if it has changed on the server.
+     *
+     * @param revalidateInterval the interval between revalidations
+     */
+    public void setRevalidateInterval(Duration revalidateInterval) {
+        this.revalidateInterval = revalidateInterval.toMillis();
+    }
+
     /** {@inheritDoc} */
     @Override
     public Metadata locate(MRL mrl) throws IOException {
-        URI mrlUri = mrl.toURI();
-        URI file = uri.resolve(mrlUri.getPath() + "/metadata.json");
-        Path cacheDir = getCacheDirectory().resolve(mrlUri.getPath());
-        if (!Files.exists(cacheDir)) {
-            Files.createDirectories(cacheDir);
-        }
-        Path cacheFile = cacheDir.resolve("metadata.json");
-        if (Files.exists(cacheFile)) {
-            try (Reader reader = Files.newBufferedReader(cacheFile)) {
-                Metadata metadata = GSON.fromJson(reader, Metadata.class);
-                Date lastUpdated = metadata.getLastUpdated();
-                if (Boolean.getBoolean("offline")
-                        || System.currentTimeMillis() - lastUpdated.getTime() < ONE_DAY) {
-                    metadata.setRepositoryUri(mrlUri);
+        MetadataCache.Entry entry = cache.get(mrl);
+        synchronized (entry) {
+            boolean offline = Boolean.getBoolean("offline");
+            long now = System.currentTimeMillis();
+            Metadata metadata = entry.getMetadata();
+            if (metadata != null
+                    && (offline || now - entry.getTimestamp() < revalidateInterval)) {
+                return metadata;
+            }
+
+            URI mrlUri = mrl.toURI();
+            Path cacheDir = getCacheDirectory().resolve(mrlUri.getPath());
+            if (!Files.exists(cacheDir)) {
+                Files.createDirectories(cacheDir);
+            }
+            Path cacheFile = cacheDir.resolve("metadata.json");
+            Path headerFile = cacheDir.resolve("metadata.properties");
+            if (metadata == null && Files.exists(cacheFile)) {
+                try (Reader reader = Files.newBufferedReader(cacheFile)) {
+                    metadata = GSON.fromJson(reader, Metadata.class);
+                }
+                metadata.setRepositoryUri(mrlUri);
+                long lastUpdated = metadata.getLastUpdated().getTime();
+                if (offline || now - lastUpdated < revalidateInterval) {
+                    entry.update(metadata, lastUpdated);
                     return metadata;
                 }
             }
-        }
 
-        try (InputStream is = file.toURL().openStream()) {
-            String json = Utils.toString(is);
-            Metadata metadata = GSON.fromJson(json, Metadata.class);
-            metadata.setLastUpdated(new Date());
-            try (Writer writer = Files.newBufferedWriter(cacheFile)) {
-                writer.write(GSON.toJson(metadata));
+            URI file = uri.resolve(mrlUri.getPath() + "/metadata.json");
+            URLConnection conn = file.toURL().openConnection();
+            Properties headers = new Properties();
+            if (metadata != null && Files.exists(headerFile)) {
+                try (InputStream is = Files.newInputStream(headerFile)) {
+                    headers.load(is);
+                }
+                String etag = headers.getProperty(ETAG);
+                if (etag != null) {
+                    conn.setRequestProperty("If-None-Match", etag);
+                }
+                String lastModified = headers.getProperty(LAST_MODIFIED);
+                if (lastModified != null) {
+                    conn.setIfModifiedSince(Long.parseLong(lastModified));
+                }
+            }
+
+            try {
+                if (metadata != null
+                        && conn instanceof HttpURLConnection
+                        && ((HttpURLConnection) conn).getResponseCode()
+                                == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    metadata.setLastUpdated(new Date(now));
+                    writeMetadata(cacheFile, metadata);
+                    entry.update(metadata, now);
+                    return metadata;
+                }
+
+                try (InputStream is = conn.getInputStream()) {
+                    String json = Utils.toString(is);
+                    metadata = GSON.fromJson(json, Metadata.class);
+                }
+            } catch (IOException e) {
+                if (metadata == null) {
+                    throw e;
+                }
+                logger.warn("Failed to revalidate metadata, using cached copy: " + file, e);
+                entry.update(metadata, now);
+                return metadata;
+            }
+
+            metadata.setLastUpdated(new Date(now));
+            writeMetadata(cacheFile, metadata);
+            headers.clear();
+            String etag = conn.getHeaderField("ETag");
+            if (etag != null) {
+                headers.setProperty(ETAG, etag);
+            }
+            if (conn.getLastModified() > 0) {
+                headers.setProperty(LAST_MODIFIED, String.valueOf(conn.getLastModified()));
+            }
+            try (OutputStream os = Files.newOutputStream(headerFile)) {
+                headers.store(os, null);
             }
             metadata.setRepositoryUri(mrlUri);
+            entry.update(metadata, now);
             return metadata;
         }
     }
@@ -100,13 +181,18 @@ public class RemoteRepository extends AbstractRepository {
     @Override
     public Artifact resolve(MRL mrl, String version, Map<String, String> filter)
             throws IOException {
-        Metadata metadata = locate(mrl);
-        VersionRange range = VersionRange.parse(version);
-        List<Artifact> artifacts = metadata.search(range, filter);
+        locate(mrl);
+        List<Artifact> artifacts = cache.get(mrl).search(version, filter);
         if (artifacts.isEmpty()) {
             return null;
         }
         // TODO: find highest version.
         return artifacts.get(0);
     }
+
+    private void writeMetadata(Path cacheFile, Metadata metadata) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(cacheFile)) {
+            writer.write(GSON.toJson(metadata));
+        }
+    }
 }
@@ -18,7 +18,6 @@ import com.google.gson.GsonBuilder;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Map;
@@ -100,12 +99,7 @@ public interface Repository {
         if (path != null) {
             boolean isLocal;
             try {
-                isLocal =
-                        Files.walk(path)
-                                .anyMatch(
-                                        f ->
-                                                "metadata.json".equals(f.toFile().getName())
-                                                        && f.toFile().isFile());
+                isLocal = RepositoryIndex.isLocalRepository(path);
             } catch (IOException e) {
                 isLocal = false;
                 logger.warn(
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A {@code RepositoryIndex} lists all the {@link Metadata} of a {@link LocalRepository} in a
+ * single file at the root of the repository.
+ *
+ * <p>The index lets a {@link LocalRepository} be recognized without walking its directory tree
+ * and lets it serve {@link Repository#locate(MRL)} without parsing every "metadata.json" file.
+ * Each entry records the modification time of its "metadata.json" file, and is ignored once the
+ * file has been modified. The index is created by running this class with the repository
+ * directories as arguments.
+ */
+public final class RepositoryIndex {
+
+    public static final String FILE_NAME = "repository-index.json";
+
+    // the first directories of the MRLs, see MRL.Model and MRL.Dataset
+    private static final String[] ANCHOR_ROOTS = {"model", "dataset"};
+
+    // the maximum depth searched for a "metadata.json" file below the anchor roots
+    private static final int MAX_PROBE_DEPTH = 10;
+
+    private Map<String, Entry> entries;
+
+    private RepositoryIndex(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Creates the index files of the given repository directories.
+     *
+     * @param args the repository directories
+     * @throws IOException if an index cannot be created
+     */
+    public static void main(String[] args) throws IOException {
+        for (String arg : args) {
+            Path root = Paths.get(arg);
+            build(root).save(root);
+        }
+    }
+
+    /**
+     * Builds the index of a repository by walking its directory tree.
+     *
+     * @param root the repository directory
+     * @return the index of the repository
+     * @throws IOException if the repository cannot be read
+     */
+    @SuppressWarnings("PMD.UseConcurrentHashMap")
+    public static RepositoryIndex build(Path root) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(root)) {
+            files =
+                    stream.filter(
+                                    f ->
+                                            "metadata.json".equals(f.toFile().getName())
+                                                    && Files.isRegularFile(f))
+                            .collect(Collectors.toList());
+        }
+
+        // sorted to keep the index file stable
+        Map<String, Entry> entries = new TreeMap<>();
+        for (Path file : files) {
+            Path dir = root.relativize(file).getParent();
+            if (dir == null) {
+                continue;
+            }
+            String key = dir.toString().replace('\\', '/') + '/';
+            Entry entry = new Entry();
+            entry.lastModified = Files.getLastModifiedTime(file).toMillis();
+            try (Reader reader = Files.newBufferedReader(file)) {
+                entry.metadata = Repository.GSON.fromJson(reader, Metadata.class);
+            }
+            entries.put(key, entry);
+        }
+        return new RepositoryIndex(entries);
+    }
+
+    /**
+     * Loads the index of a repository.
+     *
+     * @param root the repository directory
+     * @return the index of the repository, or {@code null} if the repository has no index
+     * @throws IOException if the index cannot be read
+     */
+    public static RepositoryIndex load(Path root) throws IOException {
+        Path file = root.resolve(FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file)) {
+            RepositoryIndex index = Repository.GSON.fromJson(reader, RepositoryIndex.class);
+            if (index == null || index.entries == null) {
+                throw new IOException("Invalid repository index: " + file);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Returns whether a directory contains a repository index.
+     *
+     * @param root the directory to check
+     * @return {@code true} if the directory contains a repository index
+     */
+    public static boolean exists(Path root) {
+        return Files.isRegularFile(root.resolve(FILE_NAME));
+    }
+
+    /**
+     * Returns whether a directory is a {@link LocalRepository}.
+     *
+     * <p>A directory with an index is a {@link LocalRepository}. Otherwise, the "metadata.json"
+     * files are only searched for below the first directory of the {@link MRL}s, so that the tree
+     * of a naked repository is not walked.
+     *
+     * @param root the directory to check
+     * @return {@code true} if the directory is a {@link LocalRepository}
+     * @throws IOException if the directory cannot be read
+     */
+    static boolean isLocalRepository(Path root) throws IOException {
+        if (exists(root)) {
+            return true;
+        }
+        for (String anchor : ANCHOR_ROOTS) {
+            Path dir = root.resolve(anchor);
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            try (Stream<Path> stream =
+                    Files.find(
+                            dir,
+                            MAX_PROBE_DEPTH,
+                            (f, attr) ->
+                                    attr.isRegularFile()
+                                            && "metadata.json".equals(f.toFile().getName()))) {
+                if (stream.findAny().isPresent()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Saves the index at the root of a repository.
+     *
+     * @param root the repository directory
+     * @throws IOException if the index cannot be written
+     */
+    public void save(Path root) throws IOException {
+        Path file = root.resolve(FILE_NAME);
+        Path tmp = root.resolve(FILE_NAME + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp)) {
+            Repository.GSON.toJson(this, writer);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Returns the number of metadata in the index.
+     *
+     * @return the number of metadata in the index
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the indexed metadata of a {@link MRL} if it is still up to date.
+     *
+     * @param root the repository directory
+     * @param mrl the {@link MRL} of the metadata
+     * @return the indexed metadata, or {@code null} if it is not indexed or is out of date
+     * @throws IOException if the "metadata.json" file cannot be checked
+     */
+    public Metadata get(Path root, MRL mrl) throws IOException {
+        URI uri = mrl.toURI();
+        Entry entry = entries.get(uri.getPath());
+        if (entry == null || entry.metadata == null) {
+            return null;
+        }
+        Path file = root.resolve(uri.getPath()).resolve("metadata.json");
+        if (!Files.isRegularFile(file)
+                || Files.getLastModifiedTime(file).toMillis() != entry.lastModified) {
+            return null;
+        }
+        return entry.metadata;
+    }
+
+    /** An indexed metadata. */
+    private static final class Entry {
+
+        long lastModified;
+        Metadata metadata;
+    }
+}
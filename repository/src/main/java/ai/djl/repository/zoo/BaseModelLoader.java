@@ -134,7 +134,7 @@ public abstract class BaseModelLoader<I, O> implements ModelLoader<I, O> {
         return getMetadata().search(VersionRange.parse(version), criteria);
     }
 
-    private Metadata getMetadata() throws IOException, ModelNotFoundException {
+    private synchronized Metadata getMetadata() throws IOException, ModelNotFoundException {
         if (metadata == null) {
             metadata = repository.locate(mrl);
             if (metadata == null) {
@@ -14,19 +14,25 @@ package ai.djl.repository.zoo;
 
 import ai.djl.Model;
 import ai.djl.inference.Predictor;
+import ai.djl.metric.Metrics;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Block;
+import ai.djl.training.CheckpointWriter;
 import ai.djl.training.Trainer;
 import ai.djl.training.TrainingConfig;
+import ai.djl.training.dataset.Dataset;
+import ai.djl.translate.TranslateException;
 import ai.djl.translate.Translator;
 import ai.djl.util.PairList;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 /**
@@ -64,6 +70,13 @@ public class ZooModel<I, O> implements Model {
         model.save(modelPath, modelName);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Future<Path> save(Path modelPath, String modelName, CheckpointWriter writer)
+            throws IOException {
+        return model.save(modelPath, modelName, writer);
+    }
+
     /** {@inheritDoc} */
     @Override
     public Block getBlock() {
@@ -182,6 +195,53 @@ public class ZooModel<I, O> implements Model {
         model.cast(dataType);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void quantize() {
+        model.quantize();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void quantize(Dataset calibrationDataset) {
+        model.quantize(calibrationDataset);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Metrics warmUp(Shape... inputShapes) {
+        return model.warmUp(inputShapes);
+    }
+
+    /**
+     * Prepares predictors for inference by running them on sample inputs.
+     *
+     * <p>Unlike {@link #warmUp(Shape...)}, this also warms up the translator, which may load its
+     * artifacts on the first input, and the parameters of each predictor, which may be copied to
+     * its device on the first prediction. The samples should cover the sizes of the inputs
+     * expected in production, for example one sample per shape bucket.
+     *
+     * <p>The {@link Metrics} attached to the predictors are left untouched, so they also record
+     * the predictions of the warm-up.
+     *
+     * @param predictors the predictors to warm up
+     * @param samples the sample inputs
+     * @return the {@link Metrics} with the time of each prediction, named "WarmUp"
+     * @throws TranslateException if a sample cannot be predicted
+     */
+    public Metrics warmUp(List<Predictor<I, O>> predictors, List<I> samples)
+            throws TranslateException {
+        Metrics metrics = new Metrics();
+        for (Predictor<I, O> predictor : predictors) {
+            for (I sample : samples) {
+                long begin = System.nanoTime();
+                predictor.predict(sample);
+                metrics.addMetric("WarmUp", System.nanoTime() - begin, "nano");
+            }
+        }
+        return metrics;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void close() {
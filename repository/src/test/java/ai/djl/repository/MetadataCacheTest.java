@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Utils;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class MetadataCacheTest {
+
+    private static final MRL TEST_MRL =
+            new MRL(MRL.Model.CV.OBJECT_DETECTION, "ai.djl.test", "ssd");
+
+    private Path dir = Paths.get("build/tmp/metadataCache/");
+
+    @BeforeClass
+    public void preprocess() {
+        Utils.deleteQuietly(dir);
+    }
+
+    @AfterClass
+    public void postprocess() {
+        Utils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testHit() throws IOException {
+        Path base = dir.resolve("hit");
+        writeMetadata(base, "0.0.1", 0);
+        LocalRepository repository = new LocalRepository("test", base);
+
+        Metadata metadata = repository.locate(TEST_MRL);
+        Assert.assertNotNull(metadata);
+        Assert.assertSame(repository.locate(TEST_MRL), metadata);
+
+        Artifact artifact = repository.resolve(TEST_MRL, "0.0.1", null);
+        Assert.assertNotNull(artifact);
+        Assert.assertSame(repository.resolve(TEST_MRL, "0.0.1", null), artifact);
+    }
+
+    @Test
+    public void testMiss() throws IOException {
+        LocalRepository repository = new LocalRepository("test", dir.resolve("miss"));
+        MRL unknown = new MRL(MRL.Model.CV.OBJECT_DETECTION, "ai.djl.test", "unknown");
+        Assert.assertNull(repository.locate(unknown));
+        Assert.assertNull(repository.resolve(unknown, "0.0.1", null));
+
+        MetadataCache cache = new MetadataCache();
+        MetadataCache.Entry entry = cache.get(unknown);
+        Assert.assertNull(entry.getMetadata());
+        Assert.assertSame(cache.get(unknown), entry);
+    }
+
+    @Test
+    public void testInvalidation() throws IOException {
+        Path base = dir.resolve("invalidation");
+        writeMetadata(base, "0.0.1", 0);
+        LocalRepository repository = new LocalRepository("test", base);
+
+        Metadata metadata = repository.locate(TEST_MRL);
+        Assert.assertNotNull(repository.resolve(TEST_MRL, "0.0.1", null));
+        Assert.assertNull(repository.resolve(TEST_MRL, "0.0.2", null));
+
+        // a modified metadata file is parsed again, and the searches are discarded
+        writeMetadata(base, "0.0.2", 10_000);
+        Metadata updated = repository.locate(TEST_MRL);
+        Assert.assertNotSame(updated, metadata);
+        Assert.assertNull(repository.resolve(TEST_MRL, "0.0.1", null));
+        Assert.assertNotNull(repository.resolve(TEST_MRL, "0.0.2", null));
+    }
+
+    @Test
+    public void testEntryUpdate() {
+        MetadataCache.Entry entry = new MetadataCache().get(TEST_MRL);
+        Metadata metadata = new Metadata();
+        metadata.setArtifacts(Collections.emptyList());
+        entry.update(metadata, 1);
+        List<Artifact> artifacts = entry.search("0.0.1", null);
+        Assert.assertSame(entry.search("0.0.1", null), artifacts);
+
+        // validating the same metadata again keeps the searches
+        entry.update(metadata, 2);
+        Assert.assertEquals(entry.getTimestamp(), 2);
+        Assert.assertSame(entry.search("0.0.1", null), artifacts);
+
+        Metadata other = new Metadata();
+        other.setArtifacts(Collections.emptyList());
+        entry.update(other, 3);
+        Assert.assertSame(entry.getMetadata(), other);
+        Assert.assertNotSame(entry.search("0.0.1", null), artifacts);
+    }
+
+    private static void writeMetadata(Path base, String version, long age) throws IOException {
+        Path file = base.resolve(TEST_MRL.toURI().getPath()).resolve("metadata.json");
+        Files.createDirectories(file.getParent());
+        String json =
+                "{\"metadataVersion\": \"0.1\", \"groupId\": \"ai.djl.test\","
+                        + " \"artifactId\": \"ssd\", \"artifacts\": [{\"version\": \""
+                        + version
+                        + "\", \"name\": \"ssd\"}]}";
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        FileTime time = FileTime.fromMillis(System.currentTimeMillis() + age);
+        Files.setLastModifiedTime(file, time);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Utils;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class RepositoryIndexTest {
+
+    private static final MRL TEST_MRL =
+            new MRL(MRL.Model.CV.IMAGE_CLASSIFICATION, "ai.djl.test", "mlp");
+
+    private Path dir = Paths.get("build/tmp/repositoryIndex/");
+
+    @BeforeClass
+    public void preprocess() {
+        Utils.deleteQuietly(dir);
+    }
+
+    @AfterClass
+    public void postprocess() {
+        Utils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testIndex() throws IOException {
+        Path root = dir.resolve("indexed");
+        Path file = writeMetadata(root);
+        Assert.assertFalse(RepositoryIndex.exists(root));
+
+        RepositoryIndex.build(root).save(root);
+        Assert.assertTrue(RepositoryIndex.exists(root));
+        RepositoryIndex index = RepositoryIndex.load(root);
+        Assert.assertNotNull(index);
+        Assert.assertEquals(index.size(), 1);
+
+        Metadata metadata = index.get(root, TEST_MRL);
+        Assert.assertNotNull(metadata);
+        Assert.assertEquals(metadata.getArtifactId(), "mlp");
+        MRL unknown = new MRL(MRL.Model.CV.IMAGE_CLASSIFICATION, "ai.djl.test", "unknown");
+        Assert.assertNull(index.get(root, unknown));
+
+        // an entry is ignored once its metadata file is modified
+        FileTime time = FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10_000);
+        Files.setLastModifiedTime(file, time);
+        Assert.assertNull(index.get(root, TEST_MRL));
+    }
+
+    @Test
+    public void testNewInstance() throws IOException {
+        Path indexed = dir.resolve("newInstance/indexed");
+        Files.createDirectories(indexed);
+        RepositoryIndex.build(indexed).save(indexed);
+        Repository repository = Repository.newInstance("indexed", indexed.toString());
+        Assert.assertTrue(repository instanceof LocalRepository);
+        Assert.assertNotNull(((LocalRepository) repository).getIndex());
+
+        Path local = dir.resolve("newInstance/local");
+        writeMetadata(local);
+        repository = Repository.newInstance("local", local.toString());
+        Assert.assertTrue(repository instanceof LocalRepository);
+        Assert.assertNull(((LocalRepository) repository).getIndex());
+        Assert.assertNotNull(repository.locate(TEST_MRL));
+
+        // a metadata file outside of the MRL directories is not a local repository
+        Path naked = dir.resolve("newInstance/naked");
+        Files.createDirectories(naked.resolve("mlp"));
+        Files.write(naked.resolve("mlp/metadata.json"), new byte[0]);
+        repository = Repository.newInstance("naked", naked.toString());
+        Assert.assertTrue(repository instanceof SimpleRepository);
+    }
+
+    @Test
+    public void testLocate() throws IOException {
+        Path root = dir.resolve("locate");
+        Path file = writeMetadata(root);
+        RepositoryIndex.build(root).save(root);
+
+        // the indexed metadata is used even if the file can no longer be parsed
+        FileTime time = Files.getLastModifiedTime(file);
+        Files.write(file, "{".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, time);
+        LocalRepository repository = new LocalRepository("test", root);
+        Metadata metadata = repository.locate(TEST_MRL);
+        Assert.assertNotNull(metadata);
+        Assert.assertEquals(metadata.getArtifactId(), "mlp");
+    }
+
+    private static Path writeMetadata(Path root) throws IOException {
+        Path file = root.resolve(TEST_MRL.toURI().getPath()).resolve("metadata.json");
+        Files.createDirectories(file.getParent());
+        String json =
+                "{\"metadataVersion\": \"0.1\", \"groupId\": \"ai.djl.test\","
+                        + " \"artifactId\": \"mlp\", \"artifacts\": []}";
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -19,6 +19,7 @@ import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Block;
+import ai.djl.training.CheckpointWriter;
 import ai.djl.training.Trainer;
 import ai.djl.training.TrainingConfig;
 import ai.djl.translate.Translator;
@@ -31,6 +32,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Map;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import org.tensorflow.SavedModelBundle;
@@ -102,6 +104,12 @@ public class TfModel implements Model {
     @Override
     public void save(Path modelPath, String modelName) {}
 
+    /** {@inheritDoc} */
+    @Override
+    public Future<Path> save(Path modelPath, String modelName, CheckpointWriter writer) {
+        throw new UnsupportedOperationException("Saving is not supported with Tensorflow.");
+    }
+
     public org.tensorflow.Graph getTensorflowGraph() {
         return bundle.graph();
     }
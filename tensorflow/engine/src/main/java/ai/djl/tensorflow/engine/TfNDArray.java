@@ -20,6 +20,7 @@ import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.index.NDIndex;
 import ai.djl.ndarray.internal.NDArrayEx;
 import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.GradReq;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.ndarray.types.SparseFormat;
 import java.nio.Buffer;
@@ -158,6 +159,14 @@ public class TfNDArray implements NDArray {
     @Override
     public void attachGradient() {}
 
+    /** {@inheritDoc} */
+    @Override
+    public void attachGradient(SparseFormat sparseFormat) {}
+
+    /** {@inheritDoc} */
+    @Override
+    public void attachGradient(GradReq gradReq, SparseFormat sparseFormat) {}
+
     /** {@inheritDoc} */
     @Override
     public NDArray getGradient() {